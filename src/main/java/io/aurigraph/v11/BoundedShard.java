@@ -0,0 +1,64 @@
+package io.aurigraph.v11;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded transaction shard with first-in, first-out eviction
+ *
+ * Lookups go straight to a {@link ConcurrentHashMap}. Alongside it a FIFO
+ * of keys records insertion order, so making room costs one dequeue and one
+ * map removal instead of sorting the shard. Only inserts of new keys take
+ * the shard lock; overwriting an existing key keeps its original position.
+ * The key FIFO grows on demand and never beyond the shard's capacity.
+ */
+final class BoundedShard<V> {
+
+    private final int capacity;
+    private final ConcurrentHashMap<String, V> entries;
+    private final ArrayDeque<String> insertionOrder;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    BoundedShard(int capacity, int initialCapacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Shard capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.entries = new ConcurrentHashMap<>(Math.min(initialCapacity, capacity));
+        this.insertionOrder = new ArrayDeque<>(Math.min(initialCapacity, capacity));
+    }
+
+    V get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Insert or overwrite an entry, evicting the oldest entry if the shard is full
+     *
+     * @return the evicted value, or null if nothing was evicted
+     */
+    V insert(String key, V value) {
+        if (entries.put(key, value) != null) {
+            return null;
+        }
+        lock.lock();
+        try {
+            insertionOrder.addLast(key);
+            if (insertionOrder.size() <= capacity) {
+                return null;
+            }
+            return entries.remove(insertionOrder.pollFirst());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
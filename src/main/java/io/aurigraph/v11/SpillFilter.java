@@ -0,0 +1,70 @@
+package io.aurigraph.v11;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over the IDs of transactions spilled out of the shards
+ *
+ * Answers "definitely never spilled" without touching the spill store, so a
+ * lookup for an unknown ID costs a few memory reads. False positives only
+ * send a lookup to the store; there are no false negatives. Entries cannot
+ * be removed, so IDs whose spilled copy has expired stay positive.
+ */
+final class SpillFilter {
+
+    private static final int HASHES = 4;
+
+    private final AtomicLongArray words;
+    private final long mask;
+
+    /**
+     * @param bits filter size, rounded up to a power of two (at least 64)
+     */
+    SpillFilter(long bits) {
+        long size = bits <= 64 ? 64 : Long.highestOneBit(bits - 1) << 1;
+        if (size / 64 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Spill filter too large: " + bits + " bits");
+        }
+        this.words = new AtomicLongArray((int) (size / 64));
+        this.mask = size - 1;
+    }
+
+    void add(String id) {
+        long hash = hash(id);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (hash + i * step) & mask;
+            int word = (int) (bit >>> 6);
+            long flag = 1L << bit;
+            long current = words.get(word);
+            while ((current & flag) == 0 && !words.weakCompareAndSetVolatile(word, current, current | flag)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String id) {
+        long hash = hash(id);
+        long step = (hash >>> 32) | 1;
+        for (int i = 0; i < HASHES; i++) {
+            long bit = (hash + i * step) & mask;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String id) {
+        // FNV-1a, then a 64-bit finalizer so both halves are well mixed
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            h ^= id.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
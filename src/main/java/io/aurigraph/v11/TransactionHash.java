@@ -0,0 +1,117 @@
+package io.aurigraph.v11;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+/**
+ * Fixed-size transaction hash held as longs
+ *
+ * A SHA-256 hash is four longs and an xxHash64 hash one, in big-endian
+ * order. The hex form is only built when first asked for and then cached,
+ * so storing a transaction does not allocate a string for its hash.
+ */
+public final class TransactionHash {
+
+    public static final int SHA256_BYTES = 32;
+    public static final int XXHASH_BYTES = 8;
+
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final long h0;
+    private final long h1;
+    private final long h2;
+    private final long h3;
+    private final int length;
+    private String hex;
+
+    private TransactionHash(long h0, long h1, long h2, long h3, int length) {
+        this.h0 = h0;
+        this.h1 = h1;
+        this.h2 = h2;
+        this.h3 = h3;
+        this.length = length;
+    }
+
+    public static TransactionHash ofSha256(long h0, long h1, long h2, long h3) {
+        return new TransactionHash(h0, h1, h2, h3, SHA256_BYTES);
+    }
+
+    public static TransactionHash ofXxHash(long hash) {
+        return new TransactionHash(hash, 0, 0, 0, XXHASH_BYTES);
+    }
+
+    /**
+     * Read a hash written by {@link #writeTo}
+     */
+    public static TransactionHash readFrom(ByteBuffer buffer, int length) {
+        return switch (length) {
+            case SHA256_BYTES -> ofSha256(buffer.getLong(), buffer.getLong(), buffer.getLong(), buffer.getLong());
+            case XXHASH_BYTES -> ofXxHash(buffer.getLong());
+            default -> throw new IllegalArgumentException("Unsupported hash length: " + length);
+        };
+    }
+
+    /**
+     * Parse the hex form of a SHA-256 or xxHash64 hash
+     */
+    public static TransactionHash fromHex(String hex) {
+        return readFrom(ByteBuffer.wrap(HexFormat.of().parseHex(hex)), hex.length() / 2);
+    }
+
+    /**
+     * @return size of the hash in bytes
+     */
+    public int length() {
+        return length;
+    }
+
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putLong(h0);
+        if (length == SHA256_BYTES) {
+            buffer.putLong(h1).putLong(h2).putLong(h3);
+        }
+    }
+
+    /**
+     * Lower-case hex form, built on first use
+     */
+    public String toHex() {
+        String result = hex;
+        if (result == null) {
+            byte[] digits = new byte[length * 2];
+            putHex(digits, 0, h0);
+            if (length == SHA256_BYTES) {
+                putHex(digits, 16, h1);
+                putHex(digits, 32, h2);
+                putHex(digits, 48, h3);
+            }
+            result = new String(digits, StandardCharsets.ISO_8859_1);
+            hex = result;
+        }
+        return result;
+    }
+
+    private static void putHex(byte[] digits, int offset, long value) {
+        for (int i = offset + 15; i >= offset; i--) {
+            digits[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TransactionHash other
+            && length == other.length && h0 == other.h0 && h1 == other.h1 && h2 == other.h2 && h3 == other.h3;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(h0);
+    }
+}
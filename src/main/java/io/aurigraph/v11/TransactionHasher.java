@@ -0,0 +1,87 @@
+package io.aurigraph.v11;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 transaction hashing without per-call allocation
+ *
+ * Each thread keeps its own digest, input buffer and output array. The
+ * transaction ID is encoded as UTF-8 straight into the input buffer,
+ * followed by the amount and nanosecond timestamp in binary, and the digest
+ * is written into the output array and read back as longs.
+ */
+final class TransactionHasher {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final ThreadLocal<TransactionHasher> CURRENT = ThreadLocal.withInitial(TransactionHasher::new);
+
+    private final MessageDigest digest;
+    private ByteBuffer input = ByteBuffer.allocate(INITIAL_CAPACITY);
+    private final ByteBuffer output = ByteBuffer.allocate(TransactionHash.SHA256_BYTES);
+
+    private TransactionHasher() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static TransactionHash sha256(String id, double amount, long nanoTime) {
+        return CURRENT.get().hash(id, amount, nanoTime);
+    }
+
+    private TransactionHash hash(String id, double amount, long nanoTime) {
+        // UTF-8 needs at most three bytes per UTF-16 char
+        ByteBuffer buffer = buffer(id.length() * 3 + Double.BYTES + Long.BYTES);
+        putUtf8(buffer, id);
+        buffer.putDouble(amount).putLong(nanoTime);
+        buffer.flip();
+        digest.update(buffer);
+        try {
+            digest.digest(output.array(), 0, TransactionHash.SHA256_BYTES);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        return TransactionHash.ofSha256(output.getLong(0), output.getLong(8), output.getLong(16), output.getLong(24));
+    }
+
+    private ByteBuffer buffer(int required) {
+        if (input.capacity() < required) {
+            input = ByteBuffer.allocate(Math.max(required, input.capacity() * 2));
+        }
+        return input.clear();
+    }
+
+    /**
+     * Encode like {@link String#getBytes} with UTF-8: unpaired surrogates become '?'
+     */
+    static void putUtf8(ByteBuffer buffer, String s) {
+        int length = s.length();
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer.put((byte) c);
+            } else if (c < 0x800) {
+                buffer.put((byte) (0xC0 | c >> 6))
+                    .put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buffer.put((byte) (0xF0 | cp >> 18))
+                    .put((byte) (0x80 | cp >> 12 & 0x3F))
+                    .put((byte) (0x80 | cp >> 6 & 0x3F))
+                    .put((byte) (0x80 | cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer.put((byte) '?');
+            } else {
+                buffer.put((byte) (0xE0 | c >> 12))
+                    .put((byte) (0x80 | c >> 6 & 0x3F))
+                    .put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+}
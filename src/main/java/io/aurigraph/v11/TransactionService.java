@@ -4,15 +4,14 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.inject.Instance;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.HexFormat;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.CompletableFuture;
@@ -24,14 +23,22 @@ import java.util.concurrent.ForkJoinPool;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.concurrent.locks.StampedLock;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.stream.IntStream;
 import java.util.stream.Collectors;
 import java.util.Map;
 import java.util.Set;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
 import io.aurigraph.v11.ai.TransactionScoringModel;
+import io.aurigraph.v11.crypto.DilithiumSignatureService;
+import io.aurigraph.v11.execution.AccountLanes;
+import io.aurigraph.v11.queue.TransactionIngestionRing;
+import io.aurigraph.v11.queue.TransactionIngestionRing.IngestionEvent;
+import io.aurigraph.v11.queue.TransactionIngestionRing.IngestionStats;
+import io.aurigraph.v11.storage.LevelDBService;
+import io.aurigraph.v11.storage.MemoryMappedTransactionLog;
 
 /**
  * High-performance transaction processing service
@@ -56,7 +63,7 @@ public class TransactionService {
     private static final Logger LOG = Logger.getLogger(TransactionService.class);
     
     // High-performance storage with advanced sharding
-    private ConcurrentHashMap<String, Transaction>[] transactionShards;
+    private BoundedShard<Transaction>[] transactionShards;
     private final AtomicLong transactionCounter = new AtomicLong(0);
     private final AtomicLong processedTPS = new AtomicLong(0);
     private final AtomicReference<PerformanceMetrics> metrics = new AtomicReference<>(new PerformanceMetrics());
@@ -75,10 +82,8 @@ public class TransactionService {
     private final AtomicReference<Double> currentThroughputMeasurement = new AtomicReference<>(0.0);
     private volatile long lastThroughputMeasurement = System.currentTimeMillis();
     
-    // Ultra-high-performance batch processing infrastructure with larger queue
-    private final BlockingQueue<TransactionRequest> batchQueue = new ArrayBlockingQueue<>(500000);
-    private final List<CompletableFuture<Void>> batchProcessors = new ArrayList<>();
-    private volatile boolean batchProcessingActive = false;
+    // Batch ingestion pipeline: pre-allocated Disruptor ring (decode -> verify -> route -> commit)
+    private TransactionIngestionRing ingestionRing;
     
     // PHASE 4A OPTIMIZATION: Platform thread pool (replaces virtual threads)
     // Reduces CPU overhead from 56.35% to <5%, improves TPS by +350K
@@ -115,6 +120,41 @@ public class TransactionService {
     @ConfigProperty(name = "aurigraph.cache.size.max", defaultValue = "1000000")
     int maxCacheSize;
 
+    // Where transactions evicted from full shards go: none | log | leveldb
+    @ConfigProperty(name = "aurigraph.cache.eviction.spill", defaultValue = "none")
+    String evictionSpill;
+
+    // LevelDB spill copies (tx:evicted:<id>) are deleted this long after the eviction
+    @ConfigProperty(name = "aurigraph.cache.eviction.spill.retention-minutes", defaultValue = "1440")
+    long spillRetentionMinutes;
+
+    // In-memory filter that answers lookups of never-spilled IDs without reading LevelDB
+    @ConfigProperty(name = "aurigraph.cache.eviction.spill.filter-bits", defaultValue = "16777216")
+    long spillFilterBits;
+
+    private static final String SPILL_PREFIX = "tx:evicted:";
+    private static final String SPILL_EXPIRY_PREFIX = "tx:evicted-at:";
+    private static final int SPILL_EXPIRY_BATCH = 1000;
+
+    private SpillFilter spillFilter;
+    private volatile boolean spillFilterLoaded;
+
+    @ConfigProperty(name = "aurigraph.ingestion.ring-size", defaultValue = "524288")
+    int ingestionRingSize;
+
+    @ConfigProperty(name = "aurigraph.ingestion.verify-workers", defaultValue = "4")
+    int ingestionVerifyWorkers;
+
+    // blocking | sleeping | yielding | busy-spin
+    @ConfigProperty(name = "aurigraph.ingestion.wait-strategy", defaultValue = "sleeping")
+    String ingestionWaitStrategy;
+
+    // Single-writer account lanes behind submitTransfer; 0 means one per available processor
+    @ConfigProperty(name = "aurigraph.lanes.count", defaultValue = "0")
+    int laneCount;
+
+    private AccountLanes accountLanes;
+
     // AI Optimization Services (enabled for ML-based optimization)
     @Inject
     io.aurigraph.v11.ai.MLLoadBalancer mlLoadBalancer;
@@ -144,17 +184,26 @@ public class TransactionService {
     @ConfigProperty(name = "xxhash.optimization.enabled", defaultValue = "true")
     boolean xxHashOptimizationEnabled;
 
+    // Write-ahead: append every stored transaction to the memory-mapped transaction log
+    @ConfigProperty(name = "aurigraph.transaction.log.enabled", defaultValue = "false")
+    boolean logTransactions;
+
+    // Crash recovery: rebuild shards from the transaction log at startup (needs the log enabled)
+    @ConfigProperty(name = "aurigraph.transaction.log.replay-on-startup", defaultValue = "false")
+    boolean replayLogOnStartup;
+
+    @Inject
+    Instance<MemoryMappedTransactionLog> transactionLog;
+
+    @Inject
+    Instance<DilithiumSignatureService> signatureService;
+
+    @Inject
+    Instance<LevelDBService> levelDB;
+
     // High-performance lock for concurrent operations
     private final StampedLock performanceLock = new StampedLock();
     
-    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
-        try {
-            return MessageDigest.getInstance("SHA-256");
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
-        }
-    });
-    
     @SuppressWarnings("unchecked")
     public TransactionService() {
         // Constructor - initialization happens in @PostConstruct
@@ -163,14 +212,26 @@ public class TransactionService {
     @PostConstruct
     public void initialize() {
         // Initialize optimized sharded storage with dynamic sizing
-        this.transactionShards = new ConcurrentHashMap[shardCount];
+        int shardCapacity = Math.max(1, maxCacheSize / shardCount);
+        this.transactionShards = new BoundedShard[shardCount];
         IntStream.range(0, shardCount)
             .parallel()
-            .forEach(i -> this.transactionShards[i] = new ConcurrentHashMap<>(2048)); // Phase 1 baseline capacity
+            .forEach(i -> this.transactionShards[i] = new BoundedShard<>(shardCapacity, 2048)); // Phase 1 baseline capacity
         
         LOG.infof("TransactionService initialized with %d shards, max virtual threads: %d, batch processing: %s", 
                  shardCount, maxVirtualThreads, batchProcessingEnabled);
         
+        if ("leveldb".equals(evictionSpill) && levelDB.isResolvable()) {
+            initializeLevelDBSpill();
+        }
+        
+        if (replayLogOnStartup && !logTransactions) {
+            LOG.warn("aurigraph.transaction.log.replay-on-startup ignored: aurigraph.transaction.log.enabled is false, "
+                + "so the log does not hold the live transactions");
+        } else if (replayLogOnStartup && transactionLog != null && transactionLog.isResolvable()) {
+            recoverFromLog(transactionLog.get());
+        }
+        
         // Start enhanced metrics collection
         startAdvancedMetricsCollection();
         
@@ -179,10 +240,23 @@ public class TransactionService {
             initializeBatchProcessing();
         }
         
+        accountLanes = new AccountLanes(
+            laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors(), this::recordTransfer);
+
         // Start adaptive performance tuning
         startAdaptivePerformanceTuning();
     }
 
+    @PreDestroy
+    void shutdown() {
+        if (ingestionRing != null) {
+            ingestionRing.shutdown();
+        }
+        if (accountLanes != null) {
+            accountLanes.shutdown();
+        }
+    }
+
     // ==================== ML OPTIMIZATION ADAPTER METHODS ====================
 
     /**
@@ -367,8 +441,8 @@ public class TransactionService {
         // ML-based shard selection with automatic fallback to hash-based on failure
         int shard = getOptimalShardML(id, amount);
         
-        // Create optimized transaction hash with zero-allocation string builder
-        String hash = calculateHashOptimized(id, amount, startTime);
+        // Hash into per-thread buffers; hex is only built for the return value
+        TransactionHash hash = calculateHash(id, amount, startTime);
         
         // Create transaction with minimal object allocation and pooling
         Transaction tx = new Transaction(
@@ -379,16 +453,8 @@ public class TransactionService {
             "PENDING"
         );
         
-        // High-performance shard insertion with capacity check
-        ConcurrentHashMap<String, Transaction> targetShard = transactionShards[shard];
-        
-        // Optimized insertion with cache size management
-        if (targetShard.size() > maxCacheSize / shardCount) {
-            // Evict oldest entries asynchronously to maintain performance
-            CompletableFuture.runAsync(() -> evictOldestEntries(targetShard), processingPool);
-        }
-        
-        targetShard.put(id, tx);
+        // Bounded shard insertion: a full shard evicts its oldest entry in O(1)
+        storeTransaction(shard, tx);
         
         // Ultra-fast atomic counters update
         long count = transactionCounter.incrementAndGet();
@@ -403,7 +469,7 @@ public class TransactionService {
         //         aiOptimizationService.optimizeTransactionFlow(getPerformanceSnapshot()), processingPool);
         // }
         
-        return hash;
+        return hash.toHex();
     }
     
     /**
@@ -424,11 +490,43 @@ public class TransactionService {
     /**
      * Get transaction by ID (from sharded storage)
      * FIXED: Use same hash function as storage (fastHashOptimized) to prevent data loss
+     * Never blocks: transactions evicted to the spill store are read by {@link #getTransactionAsync}.
      */
     public Transaction getTransaction(String id) {
         int shard = fastHashOptimized(id) % shardCount;  // Fixed: now using fastHashOptimized to match storage
         return transactionShards[shard].get(id);
     }
+
+    /**
+     * Get transaction by ID, falling back to the spill store on a shard miss.
+     * IDs the spill store cannot hold complete immediately; store reads run
+     * off the calling thread, so this is safe on the event loop.
+     */
+    public Uni<Transaction> getTransactionAsync(String id) {
+        Transaction tx = getTransaction(id);
+        return tx != null ? Uni.createFrom().item(tx) : readSpilledTransaction(id);
+    }
+    
+    /**
+     * Put a recovered transaction back into its shard without counting it as processed.
+     * Evictions are not spilled, since the transaction is already in the log being replayed.
+     */
+    public void restoreTransaction(Transaction tx) {
+        int shard = fastHashOptimized(tx.id()) % shardCount;
+        transactionShards[shard].insert(tx.id(), tx);
+    }
+
+    /**
+     * Rebuild the shards from a transaction log after a crash.
+     * Records are replayed in log order, so the latest record for an ID wins.
+     *
+     * @return number of transactions restored
+     */
+    public long recoverFromLog(MemoryMappedTransactionLog log) {
+        long restored = log.replay(entry -> restoreTransaction(Transaction.fromLogBytes(entry.id(), entry.data())));
+        LOG.infof("Restored %d transactions from transaction log", restored);
+        return restored;
+    }
     
     /**
      * High-performance batch processing with virtual threads
@@ -546,17 +644,17 @@ public class TransactionService {
             
             // Fast hash calculation
             int shard = fastHash(req.id()) % shardCount;
-            String hash = calculateHashOptimized(req.id(), req.amount(), startTime);
+            TransactionHash hash = calculateHash(req.id(), req.amount(), startTime);
             
             // Direct shard insertion without additional overhead
             Transaction tx = new Transaction(req.id(), hash, req.amount(), System.currentTimeMillis(), "PENDING");
-            transactionShards[shard].put(req.id(), tx);
+            storeTransaction(shard, tx);
             
             // Update counters
             transactionCounter.incrementAndGet();
             processedTPS.incrementAndGet();
             
-            results.add(hash);
+            results.add(hash.toHex());
         }
         
         return results;
@@ -631,7 +729,7 @@ public class TransactionService {
     public long getTotalStoredTransactions() {
         long stamp = performanceLock.tryOptimisticRead();
         long total = 0;
-        for (ConcurrentHashMap<String, Transaction> shard : transactionShards) {
+        for (BoundedShard<Transaction> shard : transactionShards) {
             total += shard.size();
         }
         if (performanceLock.validate(stamp)) {
@@ -641,7 +739,7 @@ public class TransactionService {
         stamp = performanceLock.readLock();
         try {
             total = 0;
-            for (ConcurrentHashMap<String, Transaction> shard : transactionShards) {
+            for (BoundedShard<Transaction> shard : transactionShards) {
                 total += shard.size();
             }
             return total;
@@ -676,26 +774,14 @@ public class TransactionService {
     }
     
     /**
-     * Optimized hash calculation with reduced allocations
-     * Uses xxHash when enabled (10x+ faster than SHA-256)
-     * Falls back to SHA-256 for compatibility
+     * Hash a transaction with xxHash64 when enabled, otherwise SHA-256.
+     * Neither path allocates beyond the returned hash; its hex form is built on demand.
      */
-    private String calculateHashOptimized(String id, double amount, long nanoTime) {
+    TransactionHash calculateHash(String id, double amount, long nanoTime) {
         if (xxHashOptimizationEnabled && xxHashService != null) {
-            // xxHash optimization (Sprint 5-6): 10x+ faster
-            return xxHashService.hashTransactionToHex(id, amount, nanoTime);
+            return TransactionHash.ofXxHash(xxHashService.hashTransactionWithTimestamp(id, amount, nanoTime));
         }
-
-        // Fallback to SHA-256 for compatibility
-        MessageDigest digest = sha256.get();
-        digest.reset();
-
-        // More efficient concatenation without string creation
-        StringBuilder sb = new StringBuilder(64);
-        sb.append(id).append(amount).append(nanoTime);
-
-        byte[] hash = digest.digest(sb.toString().getBytes());
-        return HexFormat.of().formatHex(hash);
+        return TransactionHasher.sha256(id, amount, nanoTime);
     }
     
     /**
@@ -734,16 +820,6 @@ public class TransactionService {
         return metrics.get();
     }
 
-    /**
-     * Calculate SHA-256 hash efficiently
-     */
-    private String calculateHash(String input) {
-        MessageDigest digest = sha256.get();
-        digest.reset();
-        byte[] hash = digest.digest(input.getBytes());
-        return HexFormat.of().formatHex(hash);
-    }
-
     /**
      * Get comprehensive processing statistics with enhanced performance metrics
      */
@@ -791,17 +867,84 @@ public class TransactionService {
     // Transaction record
     public record Transaction(
         String id,
-        String hash,
+        TransactionHash hash,
         double amount,
         long timestamp,
         String status
-    ) {}
+    ) {
+        /**
+         * Encode for the transaction log (the ID is stored in the record header)
+         */
+        public byte[] toLogBytes() {
+            byte[] statusBytes = status.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer buffer = ByteBuffer.allocate(4 + hash.length() + 8 + 8 + 4 + statusBytes.length)
+                .putInt(hash.length());
+            hash.writeTo(buffer);
+            return buffer
+                .putDouble(amount)
+                .putLong(timestamp)
+                .putInt(statusBytes.length).put(statusBytes)
+                .array();
+        }
+
+        /**
+         * Decode a log record; records written before hashes were stored as
+         * binary hold the hex string, which is twice as long
+         */
+        public static Transaction fromLogBytes(String id, byte[] data) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            int hashLength = buffer.getInt();
+            TransactionHash hash;
+            if (hashLength == TransactionHash.SHA256_BYTES * 2 || hashLength == TransactionHash.XXHASH_BYTES * 2) {
+                byte[] hexBytes = new byte[hashLength];
+                buffer.get(hexBytes);
+                hash = TransactionHash.fromHex(new String(hexBytes, StandardCharsets.US_ASCII));
+            } else {
+                hash = TransactionHash.readFrom(buffer, hashLength);
+            }
+            double amount = buffer.getDouble();
+            long timestamp = buffer.getLong();
+            byte[] statusBytes = new byte[buffer.getInt()];
+            buffer.get(statusBytes);
+            return new Transaction(id, hash, amount, timestamp, new String(statusBytes, StandardCharsets.UTF_8));
+        }
+    }
 
     // Transaction request record
     public record TransactionRequest(
         String id,
         double amount
-    ) {}
+    ) {
+        /**
+         * Encode as the signed payload accepted by {@link TransactionService#submitSignedTransaction}
+         */
+        public byte[] toPayload() {
+            byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(4 + idBytes.length + 8)
+                .putInt(idBytes.length).put(idBytes)
+                .putDouble(amount)
+                .array();
+        }
+
+        /**
+         * Decode a payload written by {@link #toPayload()} into an ingestion slot
+         *
+         * @return false if the payload is malformed
+         */
+        static boolean decodePayload(byte[] payload, IngestionEvent event) {
+            if (payload.length < 12) {
+                return false;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            int idLength = buffer.getInt();
+            if (idLength <= 0 || idLength != payload.length - 12) {
+                return false;
+            }
+            String id = new String(payload, 4, idLength, StandardCharsets.UTF_8);
+            event.setTransaction(id, buffer.getDouble(4 + idLength));
+            return true;
+        }
+    }
     
     // Performance metrics for AI optimization
     public record PerformanceMetrics(
@@ -926,75 +1069,124 @@ public class TransactionService {
     }
     
     /**
-     * Initialize high-performance batch processing system
+     * Start the Disruptor ingestion ring that batch submissions flow through
      */
     private void initializeBatchProcessing() {
-        batchProcessingActive = true;
-        
-        // Start multiple batch processors for parallel processing
-        for (int i = 0; i < processingParallelism / 4; i++) {
-            // PHASE 4A: Use platform thread pool instead of virtual threads
-            CompletableFuture<Void> processor = CompletableFuture.runAsync(() -> {
-                List<TransactionRequest> batch = new ArrayList<>(optimalBatchSize);
-
-                while (batchProcessingActive) {
-                    try {
-                        // Phase 1 baseline: 10ms blocking poll (proven stable at 1.14M TPS)
-                        TransactionRequest req = batchQueue.poll(10, TimeUnit.MILLISECONDS);
-                        if (req != null) {
-                            batch.add(req);
-
-                            // Process when batch is full
-                            if (batch.size() >= optimalBatchSize) {
-                                processBatch(new ArrayList<>(batch));
-                                batch.clear();
-                            }
-                        } else {
-                            // Timeout - process partial batch if any
-                            if (!batch.isEmpty()) {
-                                processBatch(new ArrayList<>(batch));
-                                batch.clear();
-                            }
-                        }
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        LOG.warn("Batch processor interrupted");
-                        break;
-                    } catch (Exception e) {
-                        LOG.error("Error in batch processor", e);
-                        // Don't break the loop on non-interruption exceptions
-                    }
-                }
-            }, platformThreadPool);  // Phase 4A: Use platform thread pool
+        ingestionRing = new TransactionIngestionRing(
+            ingestionRingSize, ingestionVerifyWorkers, ingestionWaitStrategy, new IngestionStages());
+    }
 
-            batchProcessors.add(processor);
-        }
-        
-        LOG.info("Batch processing initialized with " + batchProcessors.size() + " processors");
+    /**
+     * Submit a trusted transaction to the ingestion ring without waiting for it to commit
+     *
+     * @return false if batch processing is disabled or the ring is full
+     */
+    public boolean submitTransaction(String id, double amount) {
+        return ingestionRing != null && ingestionRing.tryPublish(id, amount);
     }
-    
+
     /**
-     * Process a batch of transactions with optimal performance
+     * Submit a Dilithium-signed transaction encoded by {@link TransactionRequest#toPayload()}.
+     * Transactions that fail to decode or verify are dropped by the ring.
+     *
+     * @return false if batch processing is disabled or the ring is full
      */
-    private void processBatch(List<TransactionRequest> batch) {
-        long startTime = System.nanoTime();
-        
-        // Process batch in parallel
-        List<String> results = batch.parallelStream()
-            .map(req -> processTransactionOptimized(req.id(), req.amount()))
-            .collect(Collectors.toList());
-        
-        // Update batch metrics
-        batchProcessedCount.incrementAndGet();
-        
-        long duration = System.nanoTime() - startTime;
-        if (duration > 0) {
-            double batchTPS = (double) batch.size() * 1_000_000_000.0 / duration;
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(String.format("Batch processed: %d transactions in %.2fms (%.0f TPS)", 
-                      batch.size(), duration / 1_000_000.0, batchTPS));
+    public boolean submitSignedTransaction(byte[] payload, byte[] signature, PublicKey publicKey) {
+        return ingestionRing != null && ingestionRing.tryPublish(payload, signature, publicKey);
+    }
+
+    /**
+     * Ingestion ring counters, or null when batch processing is disabled
+     */
+    public IngestionStats getIngestionStats() {
+        return ingestionRing != null ? ingestionRing.getStats() : null;
+    }
+
+    /**
+     * Transfer between accounts on the lane owning the sender. Transfers to an
+     * account in another lane settle through a two-phase hand-off between lanes.
+     * Committed transfers are stored like any other transaction.
+     *
+     * @param amount in the smallest currency unit; must be positive
+     */
+    public CompletableFuture<AccountLanes.TransferResult> submitTransfer(String id, String from, String to, long amount) {
+        return accountLanes.transfer(id, from, to, amount);
+    }
+
+    /**
+     * Credit an account from outside the ledger, e.g. at genesis
+     *
+     * @return the new balance
+     */
+    public CompletableFuture<Long> depositToAccount(String account, long amount) {
+        return accountLanes.deposit(account, amount);
+    }
+
+    /**
+     * Spendable balance as seen by the account's lane
+     */
+    public CompletableFuture<Long> getAccountBalance(String account) {
+        return accountLanes.balance(account);
+    }
+
+    public List<AccountLanes.LaneStats> getLaneStats() {
+        return accountLanes.getStats();
+    }
+
+    /**
+     * Commit hook, run on the sender's lane thread
+     */
+    private void recordTransfer(String id, String from, String to, long amount) {
+        TransactionHash hash = calculateHash(id, amount, System.nanoTime());
+        storeTransaction(fastHashOptimized(id) % shardCount,
+            new Transaction(id, hash, amount, System.currentTimeMillis(), "COMMITTED"));
+        transactionCounter.incrementAndGet();
+        processedTPS.incrementAndGet();
+    }
+
+    /**
+     * Ingestion stages over the sharded store. Routing uses the same hash as
+     * {@link #getTransaction}, and counters are updated once per ring batch.
+     */
+    private final class IngestionStages implements TransactionIngestionRing.Stages {
+
+        @Override
+        public boolean decode(IngestionEvent event) {
+            return TransactionRequest.decodePayload(event.payload(), event);
+        }
+
+        @Override
+        public boolean verify(IngestionEvent event) {
+            if (!signatureService.isResolvable()) {
+                return false;
+            }
+            try {
+                return signatureService.get().verify(event.payload(), event.signature(), event.publicKey());
+            } catch (IllegalArgumentException e) {
+                return false;
             }
         }
+
+        @Override
+        public int route(IngestionEvent event) {
+            return fastHashOptimized(event.id()) % shardCount;
+        }
+
+        @Override
+        public void commit(IngestionEvent event) {
+            TransactionHash hash = calculateHash(event.id(), event.amount(), System.nanoTime());
+            storeTransaction(event.shard(),
+                new Transaction(event.id(), hash, event.amount(), System.currentTimeMillis(), "PENDING"));
+        }
+
+        @Override
+        public void onCommitBatch(int committed, long latencySum, long latencyMax) {
+            transactionCounter.addAndGet(committed);
+            processedTPS.addAndGet(committed);
+            batchProcessedCount.incrementAndGet();
+            totalLatencyNanos.addAndGet(latencySum);
+            maxLatencyNanos.accumulateAndGet(latencyMax, Math::max);
+        }
     }
     
     /**
@@ -1056,20 +1248,131 @@ public class TransactionService {
     }
     
     /**
-     * Evict oldest entries from shard to manage memory
+     * Insert into a bounded shard, spilling the entry it evicts if spilling is enabled
+     */
+    private void storeTransaction(int shard, Transaction tx) {
+        if (logTransactions && transactionLog.isResolvable()) {
+            transactionLog.get().writeTransaction(tx.id(), tx.toLogBytes()).whenComplete((position, e) -> {
+                if (e != null) {
+                    LOG.warnf("Failed to log transaction %s: %s", tx.id(), e.getMessage());
+                }
+            });
+        }
+        Transaction evicted = transactionShards[shard].insert(tx.id(), tx);
+        if (evicted != null) {
+            spillTransaction(evicted);
+        }
+    }
+
+    /**
+     * Keep an evicted transaction readable through {@link #getTransactionAsync}
      */
-    private void evictOldestEntries(ConcurrentHashMap<String, Transaction> shard) {
-        if (shard.size() > maxCacheSize / shardCount * 0.9) {
-            // Remove 10% of oldest entries
-            int toRemove = shard.size() / 10;
-            shard.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(
-                    (a, b) -> Long.compare(a.timestamp(), b.timestamp())))
-                .limit(toRemove)
-                .map(Map.Entry::getKey)
-                .forEach(shard::remove);
+    private void spillTransaction(Transaction tx) {
+        switch (evictionSpill) {
+            case "log" -> {
+                // With the write-ahead log on, the transaction is already there
+                if (!logTransactions && transactionLog.isResolvable()) {
+                    transactionLog.get().writeTransaction(tx.id(), tx.toLogBytes());
+                }
+            }
+            case "leveldb" -> {
+                if (levelDB.isResolvable()) {
+                    // Before the write, so a lookup racing it is never filtered out
+                    spillFilter.add(tx.id());
+                    levelDB.get().secureBatchWrite(Map.of(SPILL_PREFIX + tx.id(), tx.toLogBytes()), null,
+                            List.of(spillExpiryKey(System.currentTimeMillis(), tx.id())))
+                        .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                        .subscribe().with(
+                            ignored -> { },
+                            e -> LOG.warnf("Failed to spill evicted transaction %s: %s", tx.id(), e.getMessage()));
+                }
+            }
+            default -> { }
         }
     }
+
+    private Uni<Transaction> readSpilledTransaction(String id) {
+        switch (evictionSpill) {
+            case "log" -> {
+                if (transactionLog.isResolvable()) {
+                    MemoryMappedTransactionLog log = transactionLog.get();
+                    // The log's in-memory ID index doubles as the existence filter
+                    if (log.locate(id).isPresent()) {
+                        return Uni.createFrom().completionStage(() -> log.findTransaction(id))
+                            .map(entry -> entry.map(e -> Transaction.fromLogBytes(e.id(), e.data())).orElse(null));
+                    }
+                }
+            }
+            case "leveldb" -> {
+                if (levelDB.isResolvable() && (!spillFilterLoaded || spillFilter.mightContain(id))) {
+                    return levelDB.get().getBytes((SPILL_PREFIX + id).getBytes(StandardCharsets.UTF_8))
+                        .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                        .map(data -> data != null ? Transaction.fromLogBytes(id, data) : null);
+                }
+            }
+            default -> { }
+        }
+        return Uni.createFrom().nullItem();
+    }
+
+    /**
+     * Load the IDs spilled by earlier runs into the filter in the background
+     * (until then every shard miss goes to LevelDB) and schedule expiry of
+     * spilled copies past the retention period
+     */
+    private void initializeLevelDBSpill() {
+        spillFilter = new SpillFilter(spillFilterBits);
+        levelDB.get().streamKeysByPrefix(SPILL_PREFIX.getBytes(StandardCharsets.UTF_8), null, null)
+            .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+            .subscribe().with(
+                key -> spillFilter.add(new String(key, StandardCharsets.UTF_8).substring(SPILL_PREFIX.length())),
+                e -> LOG.warnf("Failed to load spilled transaction IDs: %s", e.getMessage()),
+                () -> spillFilterLoaded = true);
+
+        long sweepMinutes = Math.max(1, Math.min(60, spillRetentionMinutes / 4));
+        metricsScheduler.scheduleAtFixedRate(this::expireSpilledTransactions, sweepMinutes, sweepMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Delete LevelDB spill copies older than the retention period, oldest
+     * first. Each spill also writes a tx:evicted-at:<millis>:<id> marker, so
+     * the sweep reads only the expired prefix of that key range. A
+     * transaction spilled more than once expires with its first spill.
+     */
+    void expireSpilledTransactions() {
+        try {
+            LevelDBService store = levelDB.get();
+            String cutoff = spillExpiryKey(
+                System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(spillRetentionMinutes), "");
+            long expired = 0;
+            List<String> markers;
+            do {
+                markers = store.streamKeysByPrefix(SPILL_EXPIRY_PREFIX.getBytes(StandardCharsets.UTF_8), null, null)
+                    .map(key -> new String(key, StandardCharsets.UTF_8))
+                    .select().first(key -> key.compareTo(cutoff) < 0)
+                    .select().first(SPILL_EXPIRY_BATCH)
+                    .collect().asList().await().indefinitely();
+                List<String> deletes = new ArrayList<>(markers.size() * 2);
+                for (String marker : markers) {
+                    deletes.add(marker);
+                    deletes.add(SPILL_PREFIX + marker.substring(marker.indexOf(':', SPILL_EXPIRY_PREFIX.length()) + 1));
+                }
+                if (!deletes.isEmpty()) {
+                    store.secureBatchWrite(null, deletes, null).await().indefinitely();
+                }
+                expired += markers.size();
+            } while (markers.size() == SPILL_EXPIRY_BATCH);
+            if (expired > 0) {
+                LOG.debugf("Expired %d spilled transactions", expired);
+            }
+        } catch (Exception e) {
+            LOG.warnf("Failed to expire spilled transactions: %s", e.getMessage());
+        }
+    }
+
+    private static String spillExpiryKey(long evictedAtMillis, String id) {
+        return String.format("%s%013d:%s", SPILL_EXPIRY_PREFIX, evictedAtMillis, id);
+    }
     
     /**
      * Get adaptive optimization interval based on current load
@@ -1135,17 +1438,17 @@ public class TransactionService {
         int shard = fastHashOptimized(id) % shardCount;
         
         // Direct hash calculation without string concatenation overhead
-        String hash = calculateHashUltraFast(id, amount, nanoTime);
+        TransactionHash hash = calculateHash(id, amount, nanoTime);
         
         // Direct shard insertion with minimal object allocation
         Transaction tx = new Transaction(id, hash, amount, System.currentTimeMillis(), "PENDING");
-        transactionShards[shard].put(id, tx);
+        storeTransaction(shard, tx);
         
         // Ultra-fast atomic updates
         transactionCounter.incrementAndGet();
         processedTPS.incrementAndGet();
         
-        return hash;
+        return hash.toHex();
     }
     
     /**
@@ -1167,32 +1470,6 @@ public class TransactionService {
         return hash & 0x7FFFFFFF;
     }
     
-    /**
-     * Ultra-fast hash calculation with minimal allocations
-     * Uses xxHash when enabled (Sprint 5-6: 10M+ TPS optimization)
-     */
-    private String calculateHashUltraFast(String id, double amount, long nanoTime) {
-        if (xxHashOptimizationEnabled && xxHashService != null) {
-            // xxHash optimization: 10x+ faster than SHA-256
-            return xxHashService.hashTransactionToHex(id, amount, nanoTime);
-        }
-
-        // Fallback to SHA-256
-        MessageDigest digest = sha256.get();
-        digest.reset();
-
-        // Direct byte array manipulation without string creation
-        byte[] idBytes = id.getBytes();
-        byte[] amountBytes = Double.toString(amount).getBytes();
-        byte[] timeBytes = Long.toString(nanoTime).getBytes();
-
-        digest.update(idBytes);
-        digest.update(amountBytes);
-        digest.update(timeBytes);
-
-        return HexFormat.of().formatHex(digest.digest());
-    }
-    
     /**
      * Update ultra-scale performance metrics
      */
@@ -1336,6 +1613,6 @@ public class TransactionService {
      * @return Number of pending transactions
      */
     public long getPendingTransactionCount() {
-        return batchQueue.size();
+        return ingestionRing != null ? ingestionRing.getPendingCount() : 0;
     }
 }
\ No newline at end of file
@@ -0,0 +1,261 @@
+package io.aurigraph.v11.analytics;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One fixed-interval chunk of a time series, compressed off-heap
+ *
+ * Points are packed into a direct buffer with the Gorilla encoding:
+ * timestamps as zigzagged delta-of-deltas in 1, 9, 12, 16 or 68 bits, and
+ * values as the XOR against the previous value, storing only its
+ * meaningful bits. Regular sampling with slowly changing values costs a
+ * couple of bytes per point instead of a boxed object.
+ *
+ * Points are normally appended in time order; a late point is still
+ * accepted and {@link #decode} sorts the chunk when that happened.
+ * Not thread-safe: the owning series serializes access.
+ */
+final class GorillaChunk {
+
+    private static final int INITIAL_BYTES = 256;
+    // Header-free worst case for one point: 4 + 64 timestamp bits, 2 + 5 + 6 + 64 value bits
+    private static final int MAX_POINT_BITS = 145;
+
+    final long index;
+    private final int maxBytes;
+
+    private ByteBuffer bits;
+    private long bitPosition;
+    private int count;
+    private boolean sorted = true;
+
+    private long lastTimestamp;
+    private long lastDelta;
+    private long lastValueBits;
+    private int lastLeading = -1;
+    private int lastTrailing;
+
+    GorillaChunk(long index, int maxBytes) {
+        this.index = index;
+        this.maxBytes = maxBytes;
+        this.bits = ByteBuffer.allocateDirect(Math.min(INITIAL_BYTES, maxBytes));
+    }
+
+    int count() {
+        return count;
+    }
+
+    int capacityBytes() {
+        return bits.capacity();
+    }
+
+    /**
+     * @return false if the chunk has reached its byte limit and the point was not stored
+     */
+    boolean append(long timestamp, double value) {
+        if (!ensureCapacity(bitPosition + (count == 0 ? 128 : MAX_POINT_BITS))) {
+            return false;
+        }
+        long valueBits = Double.doubleToRawLongBits(value);
+        if (count == 0) {
+            write(timestamp, 64);
+            write(valueBits, 64);
+            lastTimestamp = timestamp;
+            lastValueBits = valueBits;
+            count = 1;
+            return true;
+        }
+
+        long delta = timestamp - lastTimestamp;
+        if (delta < 0) {
+            sorted = false;
+        }
+        long dod = zigzag(delta - lastDelta);
+        if (dod == 0) {
+            write(0, 1);
+        } else if (dod < (1 << 7)) {
+            write(0b10, 2);
+            write(dod, 7);
+        } else if (dod < (1 << 9)) {
+            write(0b110, 3);
+            write(dod, 9);
+        } else if (dod < (1 << 12)) {
+            write(0b1110, 4);
+            write(dod, 12);
+        } else {
+            write(0b1111, 4);
+            write(dod, 64);
+        }
+        lastDelta = delta;
+        lastTimestamp = timestamp;
+
+        long xor = valueBits ^ lastValueBits;
+        if (xor == 0) {
+            write(0, 1);
+        } else {
+            int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trailing = Long.numberOfTrailingZeros(xor);
+            if (lastLeading >= 0 && leading >= lastLeading && trailing >= lastTrailing) {
+                // Fits the previous window: reuse it
+                write(0b10, 2);
+                write(xor >>> lastTrailing, 64 - lastLeading - lastTrailing);
+            } else {
+                int meaningful = 64 - leading - trailing;
+                write(0b11, 2);
+                write(leading, 5);
+                write(meaningful - 1, 6);
+                write(xor >>> trailing, meaningful);
+                lastLeading = leading;
+                lastTrailing = trailing;
+            }
+        }
+        lastValueBits = valueBits;
+        count++;
+        return true;
+    }
+
+    /**
+     * Decode all points in timestamp order
+     *
+     * @param timestamps receives the timestamps; at least {@link #count()} long
+     * @param values receives the values; at least {@link #count()} long
+     */
+    void decode(long[] timestamps, double[] values) {
+        if (count == 0) {
+            return;
+        }
+        long position = 0;
+        long timestamp = read(position, 64);
+        long valueBits = read(position + 64, 64);
+        position += 128;
+        timestamps[0] = timestamp;
+        values[0] = Double.longBitsToDouble(valueBits);
+
+        long delta = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (int i = 1; i < count; i++) {
+            int width;
+            if (read(position++, 1) == 0) {
+                width = 0;
+            } else if (read(position++, 1) == 0) {
+                width = 7;
+            } else if (read(position++, 1) == 0) {
+                width = 9;
+            } else {
+                width = read(position++, 1) == 0 ? 12 : 64;
+            }
+            if (width > 0) {
+                delta += unzigzag(read(position, width));
+                position += width;
+            }
+            timestamp += delta;
+
+            if (read(position++, 1) == 1) {
+                if (read(position++, 1) == 1) {
+                    leading = (int) read(position, 5);
+                    int meaningful = (int) read(position + 5, 6) + 1;
+                    trailing = 64 - leading - meaningful;
+                    position += 11;
+                }
+                int meaningful = 64 - leading - trailing;
+                valueBits ^= read(position, meaningful) << trailing;
+                position += meaningful;
+            }
+            timestamps[i] = timestamp;
+            values[i] = Double.longBitsToDouble(valueBits);
+        }
+        if (!sorted) {
+            sort(timestamps, values, count);
+        }
+    }
+
+    private boolean ensureCapacity(long bitsNeeded) {
+        long bytesNeeded = (bitsNeeded + 7) >>> 3;
+        if (bytesNeeded <= bits.capacity()) {
+            return true;
+        }
+        if (bytesNeeded > maxBytes) {
+            return false;
+        }
+        int capacity = (int) Math.min(maxBytes, Math.max(bytesNeeded, 2L * bits.capacity()));
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        ByteBuffer used = bits.duplicate();
+        used.position(0).limit((int) ((bitPosition + 7) >>> 3));
+        grown.put(used);
+        bits = grown;
+        return true;
+    }
+
+    private void write(long value, int bitCount) {
+        while (bitCount > 0) {
+            int byteIndex = (int) (bitPosition >>> 3);
+            int free = 8 - (int) (bitPosition & 7);
+            int take = Math.min(free, bitCount);
+            int chunk = (int) (value >>> (bitCount - take)) & ((1 << take) - 1);
+            bits.put(byteIndex, (byte) (bits.get(byteIndex) | (chunk << (free - take))));
+            bitPosition += take;
+            bitCount -= take;
+        }
+    }
+
+    private long read(long position, int bitCount) {
+        long result = 0;
+        while (bitCount > 0) {
+            int available = 8 - (int) (position & 7);
+            int take = Math.min(available, bitCount);
+            int current = bits.get((int) (position >>> 3)) & 0xFF;
+            result = (result << take) | ((current >>> (available - take)) & ((1 << take) - 1));
+            position += take;
+            bitCount -= take;
+        }
+        return result;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Stable bottom-up merge sort of parallel arrays by timestamp
+     */
+    private static void sort(long[] timestamps, double[] values, int n) {
+        long[] timestampBuffer = new long[n];
+        double[] valueBuffer = new double[n];
+        long[] fromT = timestamps;
+        double[] fromV = values;
+        long[] toT = timestampBuffer;
+        double[] toV = valueBuffer;
+        for (int width = 1; width < n; width <<= 1) {
+            for (int lo = 0; lo < n; lo += width << 1) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + (width << 1), n);
+                int left = lo;
+                int right = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (left < mid && (right >= hi || fromT[left] <= fromT[right])) {
+                        toT[k] = fromT[left];
+                        toV[k] = fromV[left++];
+                    } else {
+                        toT[k] = fromT[right];
+                        toV[k] = fromV[right++];
+                    }
+                }
+            }
+            long[] swapT = fromT;
+            fromT = toT;
+            toT = swapT;
+            double[] swapV = fromV;
+            fromV = toV;
+            toV = swapV;
+        }
+        if (fromT != timestamps) {
+            System.arraycopy(fromT, 0, timestamps, 0, n);
+            System.arraycopy(fromV, 0, values, 0, n);
+        }
+    }
+}
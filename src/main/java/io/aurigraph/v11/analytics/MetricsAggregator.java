@@ -1,11 +1,13 @@
 package io.aurigraph.v11.analytics;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Metrics Aggregator
@@ -13,6 +15,10 @@ import java.util.concurrent.ConcurrentHashMap;
  * Aggregates and processes platform-wide metrics for analytics.
  * Provides statistical analysis and trend detection.
  *
+ * Points live in a {@link TimeSeriesStore}: compressed off-heap chunks for
+ * raw points plus 1s/1m/1h rollups, all bounded by the configured
+ * retention. Timestamps are kept at millisecond precision.
+ *
  * Part of Sprint 9 - Transaction Analytics (AV11-177)
  *
  * @author Backend Development Agent (BDA)
@@ -24,61 +30,100 @@ public class MetricsAggregator {
 
     private static final Logger LOG = Logger.getLogger(MetricsAggregator.class);
 
-    // In-memory metric storage (replace with time-series DB in production)
-    private final Map<String, List<MetricPoint>> metrics = new ConcurrentHashMap<>();
+    @ConfigProperty(name = "aurigraph.analytics.metrics.chunk-seconds", defaultValue = "60")
+    long chunkSeconds;
+
+    @ConfigProperty(name = "aurigraph.analytics.metrics.raw-retention-minutes", defaultValue = "60")
+    long rawRetentionMinutes;
+
+    @ConfigProperty(name = "aurigraph.analytics.metrics.second-rollup-retention-minutes", defaultValue = "60")
+    long secondRollupRetentionMinutes;
+
+    @ConfigProperty(name = "aurigraph.analytics.metrics.minute-rollup-retention-hours", defaultValue = "24")
+    long minuteRollupRetentionHours;
+
+    @ConfigProperty(name = "aurigraph.analytics.metrics.hour-rollup-retention-days", defaultValue = "30")
+    long hourRollupRetentionDays;
+
+    @ConfigProperty(name = "aurigraph.analytics.metrics.max-chunk-kb", defaultValue = "1024")
+    int maxChunkKb;
+
+    private TimeSeriesStore store;
+
+    @PostConstruct
+    void initialize() {
+        store = new TimeSeriesStore(new TimeSeriesStore.Retention(
+            TimeUnit.SECONDS.toMillis(chunkSeconds),
+            TimeUnit.MINUTES.toMillis(rawRetentionMinutes),
+            TimeUnit.MINUTES.toMillis(secondRollupRetentionMinutes),
+            TimeUnit.HOURS.toMillis(minuteRollupRetentionHours),
+            TimeUnit.DAYS.toMillis(hourRollupRetentionDays),
+            maxChunkKb * 1024));
+        LOG.infof("Metrics store initialized: raw %d min, rollups 1s/%d min, 1m/%d h, 1h/%d d",
+            rawRetentionMinutes, secondRollupRetentionMinutes, minuteRollupRetentionHours, hourRollupRetentionDays);
+    }
 
     /**
      * Record a metric data point
      */
     public void recordMetric(String metricName, double value, Instant timestamp) {
-        metrics.computeIfAbsent(metricName, k -> new ArrayList<>())
-               .add(new MetricPoint(value, timestamp));
+        store.record(metricName, timestamp.toEpochMilli(), value);
         LOG.tracef("Recorded metric: %s = %.2f at %s", metricName, value, timestamp);
     }
 
     /**
-     * Get metrics for a specific time range
+     * Get metrics for a specific time range, within the raw retention
      */
     public List<MetricPoint> getMetrics(String metricName, Instant startTime, Instant endTime) {
-        List<MetricPoint> allPoints = metrics.getOrDefault(metricName, Collections.emptyList());
-        return allPoints.stream()
-                .filter(p -> !p.timestamp.isBefore(startTime) && !p.timestamp.isAfter(endTime))
-                .sorted(Comparator.comparing(p -> p.timestamp))
-                .toList();
+        List<MetricPoint> points = new ArrayList<>();
+        store.forEachPoint(metricName, startTime.toEpochMilli(), endTime.toEpochMilli(),
+            (timestamp, value) -> points.add(new MetricPoint(value, Instant.ofEpochMilli(timestamp))));
+        return points;
     }
 
     /**
      * Calculate average value for a metric in time range
      */
     public double calculateAverage(String metricName, Instant startTime, Instant endTime) {
-        List<MetricPoint> points = getMetrics(metricName, startTime, endTime);
-        if (points.isEmpty()) {
-            return 0.0;
-        }
-        return points.stream()
-                .mapToDouble(p -> p.value)
-                .average()
-                .orElse(0.0);
+        return aggregate(metricName, startTime, endTime).average();
     }
 
     /**
      * Calculate sum of metric values in time range
      */
     public double calculateSum(String metricName, Instant startTime, Instant endTime) {
-        List<MetricPoint> points = getMetrics(metricName, startTime, endTime);
-        return points.stream()
-                .mapToDouble(p -> p.value)
-                .sum();
+        return aggregate(metricName, startTime, endTime).sum();
     }
 
     /**
      * Calculate peak (maximum) value in time range
      */
     public MetricPoint calculatePeak(String metricName, Instant startTime, Instant endTime) {
-        List<MetricPoint> points = getMetrics(metricName, startTime, endTime);
-        return points.stream()
-                .max(Comparator.comparing(p -> p.value))
-                .orElse(new MetricPoint(0.0, Instant.now()));
+        TimeSeriesStore.RangeAggregate aggregate = aggregate(metricName, startTime, endTime);
+        if (aggregate.count() == 0) {
+            return new MetricPoint(0.0, Instant.now());
+        }
+        return new MetricPoint(aggregate.max(), Instant.ofEpochMilli(aggregate.maxTimestamp()));
+    }
+
+    /**
+     * Calculate minimum value in time range
+     */
+    public double calculateMinimum(String metricName, Instant startTime, Instant endTime) {
+        TimeSeriesStore.RangeAggregate aggregate = aggregate(metricName, startTime, endTime);
+        return aggregate.count() == 0 ? 0.0 : aggregate.min();
+    }
+
+    /**
+     * Calculate a percentile (0-100) of the raw points in time range
+     */
+    public double calculatePercentile(String metricName, Instant startTime, Instant endTime, double percentile) {
+        double value = store.percentiles(metricName, startTime.toEpochMilli(), endTime.toEpochMilli(), percentile)[0];
+        return Double.isNaN(value) ? 0.0 : value;
+    }
+
+    private TimeSeriesStore.RangeAggregate aggregate(String metricName, Instant startTime, Instant endTime) {
+        return store.aggregate(metricName, startTime.toEpochMilli(), endTime.toEpochMilli());
     }
 
     /**
@@ -97,15 +142,20 @@ public class MetricsAggregator {
     }
 
     /**
-     * Clear old metrics (retention policy)
+     * Clear old metrics ahead of the retention rings
      */
     public void clearOldMetrics(Instant beforeTime) {
-        metrics.values().forEach(points ->
-            points.removeIf(p -> p.timestamp.isBefore(beforeTime))
-        );
+        store.truncateBefore(beforeTime.toEpochMilli());
         LOG.infof("Cleared metrics before %s", beforeTime);
     }
 
+    /**
+     * Direct memory held by compressed raw points
+     */
+    public long getOffHeapBytes() {
+        return store.offHeapBytes();
+    }
+
     /**
      * Metric data point
      */
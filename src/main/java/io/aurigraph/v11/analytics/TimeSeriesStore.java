@@ -0,0 +1,483 @@
+package io.aurigraph.v11.analytics;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process time-series engine behind {@link MetricsAggregator}
+ *
+ * Each metric keeps two kinds of data, both in fixed-size rings so memory
+ * is bounded by the retention policy rather than by uptime:
+ * - raw points in Gorilla-compressed off-heap chunks, one chunk per
+ *   {@code chunkMillis} interval, kept for {@code rawMillis}
+ * - rollups of count, sum, min and max per 1s, 1m and 1h bucket, each
+ *   kept for its own retention
+ *
+ * A range aggregate walks the range from its start, consuming the
+ * coarsest rollup bucket that fits entirely inside what is left of the
+ * range, and raw points only for the sub-second edges. A month-long
+ * average touches about 720 hourly buckets instead of every point. Where
+ * an edge is older than the raw retention, the finest bucket covering it
+ * is used whole, so such aggregates are approximate at the edges.
+ *
+ * Percentiles need the points themselves and are computed from raw data,
+ * so they only cover the raw retention.
+ *
+ * Timestamps are epoch milliseconds.
+ */
+public class TimeSeriesStore {
+
+    private static final long SECOND = 1_000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+
+    /**
+     * How long each kind of data is kept; all durations in milliseconds
+     */
+    public record Retention(
+        long chunkMillis,
+        long rawMillis,
+        long secondRollupMillis,
+        long minuteRollupMillis,
+        long hourRollupMillis,
+        int maxChunkBytes
+    ) {
+        public static final Retention DEFAULT =
+            new Retention(MINUTE, HOUR, HOUR, 24 * HOUR, 30 * 24 * HOUR, 1 << 20);
+
+        public Retention {
+            if (chunkMillis <= 0 || rawMillis < chunkMillis) {
+                throw new IllegalArgumentException("Raw retention must cover at least one chunk");
+            }
+            if (secondRollupMillis < SECOND || minuteRollupMillis < MINUTE || hourRollupMillis < HOUR) {
+                throw new IllegalArgumentException("Each rollup must keep at least one bucket");
+            }
+            if (maxChunkBytes < 64) {
+                throw new IllegalArgumentException("Chunks need at least 64 bytes: " + maxChunkBytes);
+            }
+        }
+    }
+
+    /**
+     * Aggregate over a range; min and max are NaN when the range is empty
+     */
+    public record RangeAggregate(long count, double sum, double min, double max, long maxTimestamp) {
+        public double average() {
+            return count == 0 ? 0.0 : sum / count;
+        }
+    }
+
+    @FunctionalInterface
+    public interface PointConsumer {
+        void accept(long timestamp, double value);
+    }
+
+    private final Retention retention;
+    private final ConcurrentHashMap<String, Series> series = new ConcurrentHashMap<>();
+
+    public TimeSeriesStore(Retention retention) {
+        this.retention = retention;
+    }
+
+    public Retention getRetention() {
+        return retention;
+    }
+
+    public void record(String metric, long timestamp, double value) {
+        series.computeIfAbsent(metric, name -> new Series()).record(timestamp, value);
+    }
+
+    /**
+     * Visit the raw points of a metric in [start, end] in timestamp order
+     */
+    public void forEachPoint(String metric, long start, long end, PointConsumer consumer) {
+        Series s = series.get(metric);
+        if (s != null) {
+            s.forEachPoint(start, end, consumer);
+        }
+    }
+
+    public RangeAggregate aggregate(String metric, long start, long end) {
+        Series s = series.get(metric);
+        return s == null ? Accumulator.EMPTY : s.aggregate(start, end);
+    }
+
+    /**
+     * Nearest-rank percentiles of the raw points in [start, end]
+     *
+     * @param ranks percentile ranks between 0 and 100
+     * @return one value per rank, NaN when there are no points
+     */
+    public double[] percentiles(String metric, long start, long end, double... ranks) {
+        double[] result = new double[ranks.length];
+        Series s = series.get(metric);
+        double[] values = s == null ? new double[0] : s.rawValues(start, end);
+        if (values.length == 0) {
+            Arrays.fill(result, Double.NaN);
+            return result;
+        }
+        Arrays.sort(values);
+        for (int i = 0; i < ranks.length; i++) {
+            if (ranks[i] < 0 || ranks[i] > 100) {
+                throw new IllegalArgumentException("Percentile rank out of range: " + ranks[i]);
+            }
+            int rank = (int) Math.ceil(ranks[i] / 100.0 * values.length) - 1;
+            result[i] = values[Math.max(0, Math.min(values.length - 1, rank))];
+        }
+        return result;
+    }
+
+    /**
+     * Drop all data before {@code timestamp}, on top of the retention rings
+     */
+    public void truncateBefore(long timestamp) {
+        for (Series s : series.values()) {
+            s.truncateBefore(timestamp);
+        }
+    }
+
+    public int seriesCount() {
+        return series.size();
+    }
+
+    /**
+     * @return direct memory held by raw chunks across all series
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Series s : series.values()) {
+            bytes += s.offHeapBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * @return raw points not stored: older than the raw retention, or past a full chunk
+     */
+    public long droppedPoints() {
+        long dropped = 0;
+        for (Series s : series.values()) {
+            dropped += s.droppedPoints();
+        }
+        return dropped;
+    }
+
+    // ==================== Internals ====================
+
+    private static final class Accumulator {
+        static final RangeAggregate EMPTY = new RangeAggregate(0, 0.0, Double.NaN, Double.NaN, 0L);
+
+        long count;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        long maxTimestamp;
+
+        void add(long timestamp, double value) {
+            merge(1, value, value, value, timestamp);
+        }
+
+        void merge(long otherCount, double otherSum, double otherMin, double otherMax, long otherMaxTimestamp) {
+            if (otherCount == 0) {
+                return;
+            }
+            count += otherCount;
+            sum += otherSum;
+            min = Math.min(min, otherMin);
+            if (otherMax > max || (otherMax == max && otherMaxTimestamp < maxTimestamp)) {
+                max = otherMax;
+                maxTimestamp = otherMaxTimestamp;
+            }
+        }
+
+        RangeAggregate result() {
+            return count == 0 ? EMPTY : new RangeAggregate(count, sum, min, max, maxTimestamp);
+        }
+    }
+
+    /**
+     * Ring of fixed-width buckets; slot i holds the bucket whose number is congruent to i
+     */
+    private static final class Rollup {
+        final long resolution;
+        final int slots;
+        final long[] bucket;
+        final long[] count;
+        final double[] sum;
+        final double[] min;
+        final double[] max;
+        final long[] maxTimestamp;
+
+        Rollup(long resolution, long retentionMillis) {
+            this.resolution = resolution;
+            this.slots = (int) (retentionMillis / resolution);
+            this.bucket = new long[slots];
+            this.count = new long[slots];
+            this.sum = new double[slots];
+            this.min = new double[slots];
+            this.max = new double[slots];
+            this.maxTimestamp = new long[slots];
+            Arrays.fill(bucket, Long.MIN_VALUE);
+        }
+
+        long bucketOf(long timestamp) {
+            return Math.floorDiv(timestamp, resolution);
+        }
+
+        boolean retained(long b, long latest) {
+            return b > bucketOf(latest) - slots;
+        }
+
+        long horizon(long latest) {
+            return (bucketOf(latest) - slots + 1) * resolution;
+        }
+
+        void add(long timestamp, double value, long latest) {
+            long b = bucketOf(timestamp);
+            if (!retained(b, latest)) {
+                return;
+            }
+            int slot = (int) Math.floorMod(b, (long) slots);
+            if (bucket[slot] != b) {
+                bucket[slot] = b;
+                count[slot] = 0;
+                sum[slot] = 0.0;
+                min[slot] = Double.POSITIVE_INFINITY;
+                max[slot] = Double.NEGATIVE_INFINITY;
+            }
+            count[slot]++;
+            sum[slot] += value;
+            min[slot] = Math.min(min[slot], value);
+            if (value > max[slot] || (value == max[slot] && timestamp < maxTimestamp[slot])) {
+                max[slot] = value;
+                maxTimestamp[slot] = timestamp;
+            }
+        }
+
+        /**
+         * A retained bucket with no slot of its own simply had no points
+         */
+        void mergeInto(long b, Accumulator accumulator) {
+            int slot = (int) Math.floorMod(b, (long) slots);
+            if (bucket[slot] == b) {
+                accumulator.merge(count[slot], sum[slot], min[slot], max[slot], maxTimestamp[slot]);
+            }
+        }
+
+        void truncateBefore(long timestamp) {
+            for (int slot = 0; slot < slots; slot++) {
+                if (bucket[slot] != Long.MIN_VALUE && (bucket[slot] + 1) * resolution <= timestamp) {
+                    bucket[slot] = Long.MIN_VALUE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decoded copy of one raw chunk, reused while a query walks through it
+     */
+    private static final class DecodedChunk {
+        long index = Long.MIN_VALUE;
+        long[] timestamps = new long[0];
+        double[] values = new double[0];
+        int count;
+
+        void load(GorillaChunk chunk, long chunkIndex) {
+            index = chunkIndex;
+            count = chunk == null ? 0 : chunk.count();
+            if (timestamps.length < count) {
+                timestamps = new long[count];
+                values = new double[count];
+            }
+            if (chunk != null) {
+                chunk.decode(timestamps, values);
+            }
+        }
+
+        int lowerBound(long timestamp) {
+            int lo = 0;
+            int hi = count;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (timestamps[mid] < timestamp) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+
+    private final class Series {
+        final GorillaChunk[] chunks = new GorillaChunk[(int) (retention.rawMillis() / retention.chunkMillis())];
+        // Coarsest first, the order range aggregates try them in
+        final Rollup[] rollups = {
+            new Rollup(HOUR, retention.hourRollupMillis()),
+            new Rollup(MINUTE, retention.minuteRollupMillis()),
+            new Rollup(SECOND, retention.secondRollupMillis())
+        };
+
+        long latest = Long.MIN_VALUE;
+        long floor = Long.MIN_VALUE;
+        long dropped;
+
+        long chunkOf(long timestamp) {
+            return Math.floorDiv(timestamp, retention.chunkMillis());
+        }
+
+        boolean rawRetained(long timestamp) {
+            return chunkOf(timestamp) > chunkOf(latest) - chunks.length;
+        }
+
+        GorillaChunk chunk(long chunkIndex) {
+            GorillaChunk chunk = chunks[(int) Math.floorMod(chunkIndex, (long) chunks.length)];
+            return chunk != null && chunk.index == chunkIndex ? chunk : null;
+        }
+
+        synchronized void record(long timestamp, double value) {
+            if (timestamp < floor) {
+                dropped++;
+                return;
+            }
+            latest = Math.max(latest, timestamp);
+            for (Rollup rollup : rollups) {
+                rollup.add(timestamp, value, latest);
+            }
+            if (!rawRetained(timestamp)) {
+                dropped++;
+                return;
+            }
+            long chunkIndex = chunkOf(timestamp);
+            int slot = (int) Math.floorMod(chunkIndex, (long) chunks.length);
+            GorillaChunk chunk = chunks[slot];
+            if (chunk == null || chunk.index != chunkIndex) {
+                // Replacing the expired chunk releases its direct buffer
+                chunk = new GorillaChunk(chunkIndex, retention.maxChunkBytes());
+                chunks[slot] = chunk;
+            }
+            if (!chunk.append(timestamp, value)) {
+                dropped++;
+            }
+        }
+
+        /**
+         * Earliest time any retained data could cover
+         */
+        long horizon() {
+            long horizon = (chunkOf(latest) - chunks.length + 1) * retention.chunkMillis();
+            for (Rollup rollup : rollups) {
+                horizon = Math.min(horizon, rollup.horizon(latest));
+            }
+            return Math.max(horizon, floor);
+        }
+
+        synchronized void forEachPoint(long start, long end, PointConsumer consumer) {
+            if (latest == Long.MIN_VALUE) {
+                return;
+            }
+            start = Math.max(start, Math.max(floor, (chunkOf(latest) - chunks.length + 1) * retention.chunkMillis()));
+            end = Math.min(end, latest);
+            DecodedChunk decoded = new DecodedChunk();
+            for (long c = chunkOf(start); start <= end && c <= chunkOf(end); c++) {
+                decoded.load(chunk(c), c);
+                for (int i = decoded.lowerBound(start); i < decoded.count && decoded.timestamps[i] <= end; i++) {
+                    consumer.accept(decoded.timestamps[i], decoded.values[i]);
+                }
+            }
+        }
+
+        double[] rawValues(long start, long end) {
+            double[][] values = {new double[64]};
+            int[] size = {0};
+            forEachPoint(start, end, (timestamp, value) -> {
+                if (size[0] == values[0].length) {
+                    values[0] = Arrays.copyOf(values[0], size[0] * 2);
+                }
+                values[0][size[0]++] = value;
+            });
+            return Arrays.copyOf(values[0], size[0]);
+        }
+
+        synchronized RangeAggregate aggregate(long start, long end) {
+            if (latest == Long.MIN_VALUE) {
+                return Accumulator.EMPTY;
+            }
+            start = Math.max(start, horizon());
+            end = Math.min(end, latest);
+            Accumulator accumulator = new Accumulator();
+            DecodedChunk decoded = new DecodedChunk();
+            long t = start;
+            while (t <= end) {
+                t += step(t, end, accumulator, decoded);
+            }
+            return accumulator.result();
+        }
+
+        /**
+         * Consume the next piece of [t, end]
+         *
+         * @return how far to advance t
+         */
+        private long step(long t, long end, Accumulator accumulator, DecodedChunk decoded) {
+            for (Rollup rollup : rollups) {
+                long b = rollup.bucketOf(t);
+                if (Math.floorMod(t, rollup.resolution) == 0 && end - t >= rollup.resolution - 1
+                        && rollup.retained(b, latest)) {
+                    rollup.mergeInto(b, accumulator);
+                    return rollup.resolution;
+                }
+            }
+
+            long stop = Math.min(end, Math.floorDiv(t, SECOND) * SECOND + SECOND - 1);
+            if (rawRetained(t)) {
+                long c = chunkOf(t);
+                if (decoded.index != c) {
+                    decoded.load(chunk(c), c);
+                }
+                for (int i = decoded.lowerBound(t); i < decoded.count && decoded.timestamps[i] <= stop; i++) {
+                    accumulator.add(decoded.timestamps[i], decoded.values[i]);
+                }
+                return stop - t + 1;
+            }
+
+            // No raw points left for this edge: take the finest bucket covering it whole
+            for (int r = rollups.length - 1; r >= 0; r--) {
+                Rollup rollup = rollups[r];
+                long b = rollup.bucketOf(t);
+                if (rollup.retained(b, latest)) {
+                    rollup.mergeInto(b, accumulator);
+                    return Math.min(end + 1, (b + 1) * rollup.resolution) - t;
+                }
+            }
+            return end - t + 1;
+        }
+
+        synchronized void truncateBefore(long timestamp) {
+            floor = Math.max(floor, timestamp);
+            for (int slot = 0; slot < chunks.length; slot++) {
+                GorillaChunk chunk = chunks[slot];
+                if (chunk != null && (chunk.index + 1) * retention.chunkMillis() <= timestamp) {
+                    chunks[slot] = null;
+                }
+            }
+            for (Rollup rollup : rollups) {
+                rollup.truncateBefore(timestamp);
+            }
+        }
+
+        synchronized long offHeapBytes() {
+            long bytes = 0;
+            for (GorillaChunk chunk : chunks) {
+                if (chunk != null) {
+                    bytes += chunk.capacityBytes();
+                }
+            }
+            return bytes;
+        }
+
+        synchronized long droppedPoints() {
+            return dropped;
+        }
+    }
+}
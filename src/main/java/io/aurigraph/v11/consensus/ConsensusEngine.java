@@ -7,6 +7,7 @@ import jakarta.annotation.PreDestroy;
 import org.jboss.logging.Logger;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
@@ -59,6 +60,21 @@ public class ConsensusEngine {
     @ConfigProperty(name = "consensus.heartbeat.interval.ms", defaultValue = "50")
     int heartbeatIntervalMs;
 
+    // Raft log store: segments beyond the resident limit spill to the log directory
+    @ConfigProperty(name = "consensus.log.segment.entries", defaultValue = "4096")
+    int logSegmentEntries;
+
+    @ConfigProperty(name = "consensus.log.resident.segments", defaultValue = "16")
+    int logResidentSegments;
+
+    @ConfigProperty(name = "consensus.log.directory", defaultValue = "./raft-log")
+    String logDirectory;
+
+    // Applied entries kept before the older half is compacted; 0 keeps the whole log. This engine has no
+    // state-machine snapshots or InstallSnapshot, so a follower behind a compacted index could never catch up
+    @ConfigProperty(name = "consensus.log.compaction.threshold", defaultValue = "0")
+    long compactionThreshold;
+
     @PostConstruct
     public void initialize() {
         // Generate node ID if not configured
@@ -83,7 +99,9 @@ public class ConsensusEngine {
                 nodeId, state, config, clusterNodes);
 
         // Initialize log manager
-        logManager = new LogReplication.LogManager(nodeId, state);
+        RaftLogStore logStore = new RaftLogStore(logSegmentEntries, logResidentSegments,
+                Path.of(logDirectory, nodeId));
+        logManager = new LogReplication.LogManager(nodeId, state, logStore, compactionThreshold);
 
         // Initialize follower indices if leader
         if (state.getCurrentState() == RaftState.NodeState.LEADER) {
@@ -112,6 +130,9 @@ public class ConsensusEngine {
             scheduler.shutdownNow();
             Thread.currentThread().interrupt();
         }
+        if (logManager != null) {
+            logManager.close();
+        }
         LOG.info("Consensus Engine shut down");
     }
 
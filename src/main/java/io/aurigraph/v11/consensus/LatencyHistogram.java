@@ -0,0 +1,135 @@
+package io.aurigraph.v11.consensus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram for consensus timings
+ *
+ * Values are recorded in microseconds into log-linear buckets: every power of
+ * two is split into 8 sub-buckets, so percentiles are accurate to within
+ * 12.5% over the whole range while recording stays a single atomic increment.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong(0);
+    private final AtomicLong totalMicros = new AtomicLong(0);
+    private final AtomicLong maxMicros = new AtomicLong(0);
+
+    /**
+     * Record a latency measured with {@link System#nanoTime()}
+     */
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(indexOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public double getMeanMillis() {
+        long n = count.get();
+        return n > 0 ? totalMicros.get() / (double) n / 1_000.0 : 0.0;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1_000.0;
+    }
+
+    /**
+     * Latency at the given percentile (0-100) in milliseconds
+     */
+    public double getPercentileMillis(double percentile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0.0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                // Report the bucket's upper bound, capped at the largest value actually seen
+                return Math.min(lowerBound(i + 1) - 1, maxMicros.get()) / 1_000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(
+            getCount(),
+            getMeanMillis(),
+            getPercentileMillis(50),
+            getPercentileMillis(90),
+            getPercentileMillis(99),
+            getPercentileMillis(99.9),
+            getMaxMillis()
+        );
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+        int subBucket = (int) (micros >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    }
+
+    /**
+     * Point-in-time view of the histogram
+     */
+    public static class Snapshot {
+        public final long count;
+        public final double meanMs;
+        public final double p50Ms;
+        public final double p90Ms;
+        public final double p99Ms;
+        public final double p999Ms;
+        public final double maxMs;
+
+        public Snapshot(long count, double meanMs, double p50Ms, double p90Ms,
+                       double p99Ms, double p999Ms, double maxMs) {
+            this.count = count;
+            this.meanMs = meanMs;
+            this.p50Ms = p50Ms;
+            this.p90Ms = p90Ms;
+            this.p99Ms = p99Ms;
+            this.p999Ms = p999Ms;
+            this.maxMs = maxMs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d, mean=%.3fms, p50=%.3fms, p90=%.3fms, p99=%.3fms, p99.9=%.3fms, max=%.3fms",
+                    count, meanMs, p50Ms, p90Ms, p99Ms, p999Ms, maxMs);
+        }
+    }
+}
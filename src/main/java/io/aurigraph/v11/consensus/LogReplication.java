@@ -7,7 +7,6 @@ import org.jboss.logging.Logger;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -38,11 +37,15 @@ public class LogReplication {
         public final Instant timestamp;
 
         public LogEntry(long index, long term, String command, byte[] data) {
+            this(index, term, command, data, Instant.now());
+        }
+
+        public LogEntry(long index, long term, String command, byte[] data, Instant timestamp) {
             this.index = index;
             this.term = term;
             this.command = command;
             this.data = data;
-            this.timestamp = Instant.now();
+            this.timestamp = timestamp;
         }
 
         public LogEntry(long index, long term, String command) {
@@ -117,10 +120,12 @@ public class LogReplication {
     /**
      * Log manager
      */
-    public static class LogManager {
+    public static class LogManager implements AutoCloseable {
         private final String nodeId;
-        private final List<LogEntry> log;
+        private final RaftLogStore log;
         private final RaftState.StateData state;
+        private final long compactionThreshold;
+        private final Object appendLock = new Object();
 
         // Log metrics
         private final AtomicLong entriesAppended = new AtomicLong(0);
@@ -133,12 +138,25 @@ public class LogReplication {
         private final Map<String, Long> nextIndex = new ConcurrentHashMap<>();
 
         public LogManager(String nodeId, RaftState.StateData state) {
+            this(nodeId, state, new RaftLogStore(), 0);
+        }
+
+        /**
+         * @param log log store (owned and closed by this manager)
+         * @param compactionThreshold applied entries kept in the log before the
+         *        older half is compacted away, or 0 to disable compaction. Only
+         *        set it where the state machine is snapshotted and followers
+         *        behind the compacted index can be sent that snapshot: compacted
+         *        entries are no longer available to replicate.
+         */
+        public LogManager(String nodeId, RaftState.StateData state, RaftLogStore log, long compactionThreshold) {
             this.nodeId = nodeId;
             this.state = state;
-            this.log = new CopyOnWriteArrayList<>();
+            this.log = log;
+            this.compactionThreshold = compactionThreshold;
 
             // Initialize with sentinel entry
-            log.add(new LogEntry(0, 0, "SENTINEL"));
+            log.append(new LogEntry(0, 0, "SENTINEL"));
         }
 
         /**
@@ -154,16 +172,19 @@ public class LogReplication {
                 long startTime = System.nanoTime();
                 long currentTerm = state.getCurrentTerm();
 
-                // Create log entries
-                List<LogEntry> newEntries = new ArrayList<>();
-                for (String command : commands) {
-                    long index = getLastLogIndex() + newEntries.size() + 1;
-                    LogEntry entry = new LogEntry(index, currentTerm, command);
-                    newEntries.add(entry);
-                }
+                List<LogEntry> newEntries = new ArrayList<>(commands.size());
+                synchronized (appendLock) {
+                    // Create log entries
+                    long lastIndex = getLastLogIndex();
+                    for (String command : commands) {
+                        long index = lastIndex + newEntries.size() + 1;
+                        LogEntry entry = new LogEntry(index, currentTerm, command);
+                        newEntries.add(entry);
+                    }
 
-                // Append to our log
-                log.addAll(newEntries);
+                    // Append to our log
+                    log.appendAll(newEntries);
+                }
                 entriesAppended.addAndGet(newEntries.size());
 
                 long replicationTime = System.nanoTime() - startTime;
@@ -212,8 +233,8 @@ public class LogReplication {
                     long conflictTerm = 0;
 
                     // Only get conflict term if index is within bounds
-                    if (conflictIndex >= 0 && conflictIndex < log.size()) {
-                        conflictTerm = log.get((int) conflictIndex).term;
+                    if (conflictIndex >= 0 && conflictIndex <= getLastLogIndex()) {
+                        conflictTerm = Math.max(0, log.termAt(conflictIndex));
                     }
 
                     LOG.debugf("Log inconsistency at index %d (expected term %d)",
@@ -278,48 +299,66 @@ public class LogReplication {
          * Get log entries for follower synchronization
          */
         public List<LogEntry> getEntriesFrom(long startIndex, int maxCount) {
-            if (startIndex < 0 || startIndex > log.size()) {
-                return Collections.emptyList();
-            }
-
-            int start = (int) startIndex;
-            int end = Math.min(start + maxCount, log.size());
-
-            return new ArrayList<>(log.subList(start, end));
+            return log.getEntriesFrom(startIndex, maxCount);
         }
 
         /**
-         * Get log entry at index
+         * Get log entry at index (null if out of range or compacted)
          */
         public LogEntry getEntry(long index) {
-            if (index < 0 || index >= log.size()) {
-                return null;
-            }
-            return log.get((int) index);
+            return log.get(index);
         }
 
         /**
          * Get last log index
          */
         public long getLastLogIndex() {
-            return log.size() - 1;
+            return log.getLastIndex();
         }
 
         /**
          * Get last log term
          */
         public long getLastLogTerm() {
-            if (log.isEmpty()) {
-                return 0;
-            }
-            return log.get(log.size() - 1).term;
+            return log.getLastTerm();
         }
 
         /**
-         * Get log size
+         * Get log size (entries retained after compaction)
          */
         public int getLogSize() {
-            return log.size();
+            return (int) log.size();
+        }
+
+        /**
+         * First index still held in the log; earlier entries are covered by a snapshot
+         */
+        public long getFirstLogIndex() {
+            return log.getFirstIndex();
+        }
+
+        /**
+         * Discard applied entries up to and including {@code index} once the
+         * state machine has been snapshotted there
+         *
+         * @return number of entries removed
+         */
+        public long compactLog(long index) {
+            long upTo = Math.min(index, state.getLastApplied());
+            long term = log.termAt(upTo);
+            if (term < 0) {
+                return 0;
+            }
+            long removed = log.compactTo(upTo, term);
+            if (removed > 0) {
+                LOG.debugf("Compacted %d log entries up to index %d (term %d)", removed, upTo, term);
+            }
+            return removed;
+        }
+
+        @Override
+        public void close() {
+            log.close();
         }
 
         /**
@@ -344,7 +383,7 @@ public class LogReplication {
                     entriesAppended.get(),
                     entriesCommitted.get(),
                     conflictsResolved.get(),
-                    log.size(),
+                    (int) log.size(),
                     state.getCommitIndex(),
                     avgReplicationTime
             );
@@ -359,54 +398,66 @@ public class LogReplication {
             }
 
             // Check if we have the entry at prevLogIndex
-            if (prevLogIndex >= log.size()) {
+            if (prevLogIndex > getLastLogIndex()) {
                 return false;
             }
 
+            // Entries covered by a snapshot are committed, so they match the leader's
+            if (prevLogIndex < log.getSnapshotIndex()) {
+                return true;
+            }
+
             // Check if the term matches
-            LogEntry entry = log.get((int) prevLogIndex);
-            return entry.term == prevLogTerm;
+            return log.termAt(prevLogIndex) == prevLogTerm;
         }
 
         private long findConflictIndex(long prevLogIndex) {
             // Find the first index of conflicting term
-            if (prevLogIndex >= log.size()) {
-                return log.size();
+            long lastIndex = getLastLogIndex();
+            if (prevLogIndex > lastIndex) {
+                return lastIndex + 1;
             }
 
             // If prevLogIndex is within bounds, find conflict term
-            if (prevLogIndex >= 0 && prevLogIndex < log.size()) {
-                long conflictTerm = log.get((int) prevLogIndex).term;
-                for (int i = (int) prevLogIndex; i >= 0; i--) {
-                    if (log.get(i).term != conflictTerm) {
+            long firstIndex = log.getFirstIndex();
+            if (prevLogIndex >= firstIndex) {
+                long conflictTerm = log.termAt(prevLogIndex);
+                for (long i = prevLogIndex; i >= firstIndex; i--) {
+                    if (log.termAt(i) != conflictTerm) {
                         return i + 1;
                     }
                 }
+                return firstIndex;
             }
-            return Math.min(prevLogIndex, log.size());
+            return Math.max(0, prevLogIndex);
         }
 
         private void appendAndResolveConflicts(long prevLogIndex, List<LogEntry> entries) {
-            int insertIndex = (int) prevLogIndex + 1;
-
-            for (LogEntry entry : entries) {
-                // If an existing entry conflicts, delete it and all following entries
-                if (insertIndex < log.size()) {
-                    LogEntry existing = log.get(insertIndex);
-                    if (existing.term != entry.term) {
-                        // Remove conflicting entries
-                        log.subList(insertIndex, log.size()).clear();
+            long insertIndex = prevLogIndex + 1;
+
+            synchronized (appendLock) {
+                for (LogEntry entry : entries) {
+                    // Entries covered by our snapshot are already committed
+                    if (insertIndex <= log.getSnapshotIndex()) {
+                        insertIndex++;
+                        continue;
+                    }
+
+                    // If an existing entry conflicts, delete it and all following entries
+                    if (insertIndex <= log.getLastIndex() && log.termAt(insertIndex) != entry.term) {
+                        log.truncateFrom(insertIndex);
                         conflictsResolved.incrementAndGet();
                     }
-                }
 
-                // Append new entry if not already present
-                if (insertIndex >= log.size()) {
-                    log.add(entry);
-                    entriesAppended.incrementAndGet();
-                }
+                    // Append new entry if not already present
+                    if (insertIndex > log.getLastIndex()) {
+                        log.append(entry.index == insertIndex ? entry
+                                : new LogEntry(insertIndex, entry.term, entry.command, entry.data, entry.timestamp));
+                        entriesAppended.incrementAndGet();
+                    }
 
-                insertIndex++;
+                    insertIndex++;
+                }
             }
         }
 
@@ -426,10 +477,8 @@ public class LogReplication {
 
             // Try to find the highest index replicated on majority
             for (long n = lastIndex; n > currentCommit; n--) {
-                LogEntry entry = log.get((int) n);
-
                 // Only commit entries from current term
-                if (entry.term != state.getCurrentTerm()) {
+                if (log.termAt(n) != state.getCurrentTerm()) {
                     continue;
                 }
 
@@ -459,10 +508,12 @@ public class LogReplication {
 
             while (lastApplied < commitIndex) {
                 lastApplied++;
-                LogEntry entry = log.get((int) lastApplied);
+                LogEntry entry = log.get(lastApplied);
 
-                // Apply entry to state machine (simplified for now)
-                applyToStateMachine(entry);
+                // Apply entry to state machine (simplified for now); compacted entries were applied before the snapshot
+                if (entry != null) {
+                    applyToStateMachine(entry);
+                }
 
                 state.setLastApplied(lastApplied);
                 entriesCommitted.incrementAndGet();
@@ -471,6 +522,11 @@ public class LogReplication {
             if (lastApplied > state.getLastApplied()) {
                 LOG.debugf("Applied entries up to index %d", lastApplied);
             }
+
+            // Bound memory: once the applied prefix exceeds the threshold, drop its older half
+            if (compactionThreshold > 0 && lastApplied - log.getSnapshotIndex() > compactionThreshold) {
+                compactLog(lastApplied - compactionThreshold / 2);
+            }
         }
 
         private void applyToStateMachine(LogEntry entry) {
@@ -0,0 +1,496 @@
+package io.aurigraph.v11.consensus;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Segmented Raft Log Store
+ *
+ * Holds log entries in fixed-size segments addressed by log index, so
+ * append, lookup and suffix truncation are O(1) in the log length (no
+ * copy-on-write of the whole log per append).
+ *
+ * - Only the newest {@code maxResidentSegments} segments stay on the heap;
+ *   older full segments are spilled to memory-mapped files and decoded on
+ *   demand
+ * - Truncating into a spilled segment loads it back first
+ * - {@link #compactTo} drops the prefix covered by a snapshot, releasing
+ *   whole segments and their files
+ *
+ * Spill files are scratch space for bounding memory, not a durable log:
+ * they are deleted on {@link #close()}.
+ */
+public class RaftLogStore implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(RaftLogStore.class);
+
+    public static final int DEFAULT_SEGMENT_ENTRIES = 4096;
+    public static final int DEFAULT_RESIDENT_SEGMENTS = 16;
+
+    private final int segmentEntries;
+    private final int maxResidentSegments;
+    private final Path spillDirectory;
+
+    // segments.get(i) holds indices [(firstSegment + i) * segmentEntries, ... + segmentEntries)
+    private final List<Segment> segments = new ArrayList<>();
+    private long firstSegment = 0;
+    private int residentSegments = 0;
+
+    private long snapshotIndex = -1;
+    private long snapshotTerm = 0;
+    private long lastIndex = -1;
+    private long lastTerm = 0;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * In-memory store with default segment size and no spilling
+     */
+    public RaftLogStore() {
+        this(DEFAULT_SEGMENT_ENTRIES, DEFAULT_RESIDENT_SEGMENTS, null);
+    }
+
+    /**
+     * @param segmentEntries entries per segment
+     * @param maxResidentSegments segments kept on the heap before spilling
+     * @param spillDirectory directory for spilled segments, or null to keep everything on the heap
+     */
+    public RaftLogStore(int segmentEntries, int maxResidentSegments, Path spillDirectory) {
+        if (segmentEntries <= 0 || maxResidentSegments <= 0) {
+            throw new IllegalArgumentException("Segment size and resident segment count must be positive");
+        }
+        this.segmentEntries = segmentEntries;
+        this.maxResidentSegments = maxResidentSegments;
+        this.spillDirectory = spillDirectory;
+        if (spillDirectory != null) {
+            try {
+                Files.createDirectories(spillDirectory);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create Raft log spill directory: " + spillDirectory, e);
+            }
+        }
+    }
+
+    /**
+     * Append an entry; its index must be {@link #getLastIndex()} + 1
+     */
+    public void append(LogReplication.LogEntry entry) {
+        lock.writeLock().lock();
+        try {
+            appendLocked(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Append consecutive entries
+     */
+    public void appendAll(List<LogReplication.LogEntry> entries) {
+        lock.writeLock().lock();
+        try {
+            for (LogReplication.LogEntry entry : entries) {
+                appendLocked(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Entry at index, or null if it is past the end or compacted away
+     */
+    public LogReplication.LogEntry get(long index) {
+        lock.readLock().lock();
+        try {
+            return getLocked(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Term of the entry at index, the snapshot term at the snapshot index,
+     * or -1 if the index is past the end or compacted away
+     */
+    public long termAt(long index) {
+        lock.readLock().lock();
+        try {
+            if (index == snapshotIndex) {
+                return snapshotTerm;
+            }
+            if (index == lastIndex) {
+                return lastTerm;
+            }
+            LogReplication.LogEntry entry = getLocked(index);
+            return entry != null ? entry.term : -1;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code maxCount} consecutive entries starting at {@code startIndex}.
+     * Empty if the start is past the end or compacted away.
+     */
+    public List<LogReplication.LogEntry> getEntriesFrom(long startIndex, int maxCount) {
+        lock.readLock().lock();
+        try {
+            if (startIndex <= snapshotIndex || startIndex > lastIndex || maxCount <= 0) {
+                return Collections.emptyList();
+            }
+            long end = Math.min(lastIndex, startIndex + maxCount - 1);
+            List<LogReplication.LogEntry> result = new ArrayList<>((int) (end - startIndex + 1));
+            for (long index = startIndex; index <= end; index++) {
+                result.add(getLocked(index));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the entry at {@code index} and everything after it
+     */
+    public void truncateFrom(long index) {
+        lock.writeLock().lock();
+        try {
+            if (index > lastIndex) {
+                return;
+            }
+            if (index <= snapshotIndex) {
+                throw new IllegalArgumentException("Cannot truncate into snapshot (index " + index
+                        + " <= snapshot index " + snapshotIndex + ")");
+            }
+
+            int keepSegments = (int) (segmentOf(index) - firstSegment) + 1;
+            while (segments.size() > keepSegments) {
+                release(segments.remove(segments.size() - 1));
+            }
+            Segment tail = segments.get(keepSegments - 1);
+            if (tail.entries == null) {
+                load(tail);
+            }
+            Arrays.fill(tail.entries, offsetOf(index), segmentEntries, null);
+
+            lastIndex = index - 1;
+            lastTerm = lastIndex == snapshotIndex ? snapshotTerm : termOf(getLocked(lastIndex));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop every entry up to and including {@code index}, which a snapshot
+     * with the given term now covers
+     *
+     * @return number of entries removed
+     */
+    public long compactTo(long index, long term) {
+        lock.writeLock().lock();
+        try {
+            if (index <= snapshotIndex) {
+                return 0;
+            }
+            long removed = Math.min(index, lastIndex) - firstEntryIndex() + 1;
+
+            // Whole segments below the new first index go away; the boundary segment is cleared in place
+            long newFirstSegment = segmentOf(index + 1);
+            while (firstSegment < newFirstSegment && !segments.isEmpty()) {
+                release(segments.remove(0));
+                firstSegment++;
+            }
+            firstSegment = Math.max(firstSegment, newFirstSegment);
+            if (!segments.isEmpty() && segments.get(0).entries != null) {
+                Arrays.fill(segments.get(0).entries, 0, offsetOf(index + 1), null);
+            }
+
+            snapshotIndex = index;
+            snapshotTerm = term;
+            if (lastIndex < index) {
+                // Snapshot is ahead of the log (installed from the leader)
+                segments.forEach(this::release);
+                segments.clear();
+                firstSegment = segmentOf(index + 1);
+                lastIndex = index;
+                lastTerm = term;
+            }
+            return Math.max(0, removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long getFirstIndex() {
+        lock.readLock().lock();
+        try {
+            return firstEntryIndex();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getLastIndex() {
+        lock.readLock().lock();
+        try {
+            return lastIndex;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getLastTerm() {
+        lock.readLock().lock();
+        try {
+            return lastTerm;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getSnapshotIndex() {
+        lock.readLock().lock();
+        try {
+            return snapshotIndex;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long getSnapshotTerm() {
+        lock.readLock().lock();
+        try {
+            return snapshotTerm;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of entries held (excluding the compacted prefix)
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return lastIndex - snapshotIndex;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getResidentSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return residentSegments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getSpilledSegmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size() - residentSegments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Release all segments and delete spill files
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            segments.forEach(this::release);
+            segments.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== Internals (caller holds the lock) ====================
+
+    private void appendLocked(LogReplication.LogEntry entry) {
+        if (entry.index != lastIndex + 1) {
+            throw new IllegalArgumentException("Non-contiguous append: expected index " + (lastIndex + 1)
+                    + " but got " + entry.index);
+        }
+        int segmentPosition = (int) (segmentOf(entry.index) - firstSegment);
+        if (segmentPosition == segments.size()) {
+            segments.add(new Segment(new LogReplication.LogEntry[segmentEntries]));
+            residentSegments++;
+            spillIfNeeded();
+        }
+        segments.get(segmentPosition).entries[offsetOf(entry.index)] = entry;
+        lastIndex = entry.index;
+        lastTerm = entry.term;
+    }
+
+    private LogReplication.LogEntry getLocked(long index) {
+        if (index <= snapshotIndex || index > lastIndex || index < 0) {
+            return null;
+        }
+        Segment segment = segments.get((int) (segmentOf(index) - firstSegment));
+        return segment.entries != null
+                ? segment.entries[offsetOf(index)]
+                : decode(segment.file, segment.offsets[offsetOf(index)]);
+    }
+
+    private long firstEntryIndex() {
+        return snapshotIndex + 1;
+    }
+
+    private long segmentOf(long index) {
+        return index / segmentEntries;
+    }
+
+    private int offsetOf(long index) {
+        return (int) (index % segmentEntries);
+    }
+
+    private static long termOf(LogReplication.LogEntry entry) {
+        return entry != null ? entry.term : 0;
+    }
+
+    /**
+     * Spill the oldest resident segments once more than the limit are on the heap.
+     * The newest segment (being appended to) is never spilled.
+     */
+    private void spillIfNeeded() {
+        if (spillDirectory == null) {
+            return;
+        }
+        for (int i = 0; residentSegments > maxResidentSegments && i < segments.size() - 1; i++) {
+            Segment segment = segments.get(i);
+            if (segment.entries != null) {
+                spill(segment, firstSegment + i);
+            }
+        }
+    }
+
+    private void spill(Segment segment, long segmentNumber) {
+        int size = 0;
+        for (LogReplication.LogEntry entry : segment.entries) {
+            if (entry != null) {
+                size += encodedSize(entry);
+            }
+        }
+
+        Path path = spillDirectory.resolve(String.format("raft-log-%012d.seg", segmentNumber));
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.setLength(size);
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            int[] offsets = new int[segmentEntries];
+            for (int i = 0; i < segmentEntries; i++) {
+                LogReplication.LogEntry entry = segment.entries[i];
+                offsets[i] = entry != null ? buffer.position() : -1;
+                if (entry != null) {
+                    encode(buffer, entry);
+                }
+            }
+            segment.file = buffer;
+            segment.path = path;
+            segment.offsets = offsets;
+            segment.entries = null;
+            residentSegments--;
+        } catch (IOException e) {
+            // Keep the segment on the heap; memory is bounded on a best-effort basis
+            LOG.warnf("Failed to spill Raft log segment %d: %s", segmentNumber, e.getMessage());
+        }
+    }
+
+    private void load(Segment segment) {
+        LogReplication.LogEntry[] entries = new LogReplication.LogEntry[segmentEntries];
+        for (int i = 0; i < segmentEntries; i++) {
+            if (segment.offsets[i] >= 0) {
+                entries[i] = decode(segment.file, segment.offsets[i]);
+            }
+        }
+        deleteSpillFile(segment);
+        segment.entries = entries;
+        residentSegments++;
+    }
+
+    private void release(Segment segment) {
+        if (segment.entries != null) {
+            residentSegments--;
+        } else {
+            deleteSpillFile(segment);
+        }
+        segment.entries = null;
+    }
+
+    private void deleteSpillFile(Segment segment) {
+        if (segment.path != null) {
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                LOG.warnf("Failed to delete Raft log spill file %s: %s", segment.path, e.getMessage());
+            }
+        }
+        segment.file = null;
+        segment.path = null;
+        segment.offsets = null;
+    }
+
+    // Entry layout: index(8) term(8) epochSecond(8) nano(4) commandLength(4) command dataLength(4) data
+
+    private static int encodedSize(LogReplication.LogEntry entry) {
+        return 36 + entry.command.getBytes(StandardCharsets.UTF_8).length + entry.data.length;
+    }
+
+    private static void encode(ByteBuffer buffer, LogReplication.LogEntry entry) {
+        byte[] command = entry.command.getBytes(StandardCharsets.UTF_8);
+        buffer.putLong(entry.index);
+        buffer.putLong(entry.term);
+        buffer.putLong(entry.timestamp.getEpochSecond());
+        buffer.putInt(entry.timestamp.getNano());
+        buffer.putInt(command.length);
+        buffer.put(command);
+        buffer.putInt(entry.data.length);
+        buffer.put(entry.data);
+    }
+
+    private static LogReplication.LogEntry decode(ByteBuffer file, int offset) {
+        ByteBuffer buffer = file.duplicate().position(offset);
+        long index = buffer.getLong();
+        long term = buffer.getLong();
+        Instant timestamp = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+        byte[] command = new byte[buffer.getInt()];
+        buffer.get(command);
+        byte[] data = new byte[buffer.getInt()];
+        buffer.get(data);
+        return new LogReplication.LogEntry(index, term, new String(command, StandardCharsets.UTF_8), data, timestamp);
+    }
+
+    /**
+     * A segment is either resident ({@code entries}) or spilled ({@code file} + {@code offsets})
+     */
+    private static final class Segment {
+        LogReplication.LogEntry[] entries;
+        MappedByteBuffer file;
+        Path path;
+        int[] offsets;
+
+        Segment(LogReplication.LogEntry[] entries) {
+            this.entries = entries;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.aurigraph.v11.consensus;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * State checkpoints backing HyperRAFT++ log compaction
+ *
+ * A checkpoint is a self-contained file holding the node's state. The leader
+ * writes one when it compacts its log and streams the file to followers
+ * that need entries it no longer has; the follower then replaces its state
+ * with the checkpoint instead of replaying the log from the beginning.
+ */
+public interface RaftSnapshotStore {
+
+    /**
+     * Write a consistent checkpoint of the current state to a new file
+     */
+    void writeCheckpoint(Path target) throws IOException;
+
+    /**
+     * Replace the current state with a checkpoint written by {@link #writeCheckpoint}
+     */
+    void restoreCheckpoint(Path source) throws IOException;
+}
@@ -0,0 +1,49 @@
+package io.aurigraph.v11.consensus;
+
+import io.smallrye.mutiny.Multi;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Network transport for HyperRAFT++ node-to-node RPCs
+ *
+ * Peers are addressed by the {@link HyperRAFTPlusProduction.NodeInfo#address}
+ * they were registered with. Futures complete exceptionally when the peer is
+ * unreachable or the call times out; a rejected request is a normal response.
+ */
+public interface RaftTransport {
+
+    /**
+     * Send a RequestVote RPC to a peer
+     */
+    CompletableFuture<HyperRAFTPlusProduction.VoteResponse> requestVote(
+            String address, HyperRAFTPlusProduction.VoteRequest request);
+
+    /**
+     * Send one AppendEntries RPC (a heartbeat when the request carries no entries)
+     */
+    CompletableFuture<HyperRAFTPlusProduction.AppendEntriesResponse> appendEntries(
+            String address, HyperRAFTPlusProduction.AppendEntriesRequest request);
+
+    /**
+     * Stream a run of consecutive AppendEntries batches to a peer on a single call,
+     * used to catch up a lagging follower without a round trip per batch.
+     *
+     * Completes with the response to the last batch, or with the first
+     * unsuccessful response, after which the remaining batches are not sent.
+     */
+    CompletableFuture<HyperRAFTPlusProduction.AppendEntriesResponse> streamAppendEntries(
+            String address, List<HyperRAFTPlusProduction.AppendEntriesRequest> requests);
+
+    /**
+     * Stream snapshot chunks to a peer on a single call. Chunks are requested
+     * only as fast as the call can send them, so a slow peer slows reading
+     * of the snapshot instead of buffering it.
+     *
+     * Completes with the peer's response, which arrives after the last chunk
+     * or as soon as the peer rejects one; a failing chunk stream cancels the call.
+     */
+    CompletableFuture<HyperRAFTPlusProduction.InstallSnapshotResponse> installSnapshot(
+            String address, Multi<HyperRAFTPlusProduction.InstallSnapshotRequest> chunks);
+}
@@ -0,0 +1,38 @@
+package io.aurigraph.v11.consensus;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte-rate limiter shared by concurrent bulk transfers
+ *
+ * Each caller reserves the time its bytes take at the configured rate and is
+ * told how long to wait before sending them, so transfers to several peers
+ * together stay under the limit without blocking a thread. Unused capacity
+ * is not saved up, which keeps bursts to a single chunk.
+ */
+public class TransferRateLimiter {
+
+    private final long bytesPerSecond;
+    private final AtomicLong nextFreeNanos = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param bytesPerSecond limit, or 0 for unlimited
+     */
+    public TransferRateLimiter(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Reserve capacity for a chunk and return the delay before it may be sent
+     */
+    public Duration reserve(long bytes) {
+        if (bytesPerSecond <= 0) {
+            return Duration.ZERO;
+        }
+        long cost = (long) (bytes * 1_000_000_000.0 / bytesPerSecond);
+        long now = System.nanoTime();
+        long previousFree = nextFreeNanos.getAndAccumulate(cost, (free, c) -> Math.max(free, now) + c);
+        return Duration.ofNanos(Math.max(0, previousFree - now));
+    }
+}
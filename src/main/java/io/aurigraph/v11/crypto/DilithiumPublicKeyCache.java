@@ -0,0 +1,95 @@
+package io.aurigraph.v11.crypto;
+
+import org.bouncycastle.pqc.jcajce.provider.dilithium.BCDilithiumPublicKey;
+
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU of decoded Dilithium public keys
+ *
+ * Verifying with a key that did not come from the BouncyCastle PQC
+ * provider means validating and decoding its X.509 encoding first. That
+ * decode is cached here per key ID, the key's encoded bytes, so repeat
+ * signers are parsed once. Keys that are already provider keys were
+ * decoded when they were built and are returned as they are.
+ */
+final class DilithiumPublicKeyCache {
+
+    private final int capacity;
+    private final Map<KeyId, PublicKey> keys;
+
+    DilithiumPublicKeyCache(int capacity) {
+        this.capacity = capacity;
+        this.keys = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<KeyId, PublicKey> eldest) {
+                return size() > DilithiumPublicKeyCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @return a provider key ready for {@code Signature.initVerify}, or null if the key is not a valid Dilithium key
+     */
+    PublicKey resolve(PublicKey publicKey) {
+        if (publicKey instanceof BCDilithiumPublicKey) {
+            return publicKey;
+        }
+        String algorithm = publicKey.getAlgorithm();
+        if (algorithm == null || !algorithm.toUpperCase().contains("DILITHIUM")) {
+            return null;
+        }
+        byte[] encoded = publicKey.getEncoded();
+        if (encoded == null || encoded.length == 0) {
+            return null;
+        }
+
+        KeyId id = new KeyId(encoded);
+        synchronized (keys) {
+            PublicKey cached = keys.get(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        PublicKey decoded;
+        try {
+            decoded = KeyFactory.getInstance(DilithiumSignatureService.DILITHIUM_ALGORITHM,
+                DilithiumSignatureService.PROVIDER).generatePublic(new X509EncodedKeySpec(encoded));
+        } catch (Exception e) {
+            return null;
+        }
+        synchronized (keys) {
+            keys.put(id, decoded);
+        }
+        return decoded;
+    }
+
+    int size() {
+        synchronized (keys) {
+            return keys.size();
+        }
+    }
+
+    void clear() {
+        synchronized (keys) {
+            keys.clear();
+        }
+    }
+
+    private record KeyId(byte[] encoded) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof KeyId other && Arrays.equals(encoded, other.encoded);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(encoded);
+        }
+    }
+}
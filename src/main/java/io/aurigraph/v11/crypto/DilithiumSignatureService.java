@@ -2,8 +2,14 @@ package io.aurigraph.v11.crypto;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.bouncycastle.pqc.jcajce.provider.BouncyCastlePQCProvider;
 import org.bouncycastle.pqc.jcajce.spec.DilithiumParameterSpec;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
 import java.security.*;
@@ -12,7 +18,14 @@ import java.security.spec.PKCS8EncodedKeySpec;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * CRYSTALS-Dilithium Digital Signature Service
@@ -36,10 +49,45 @@ public class DilithiumSignatureService {
     // Dilithium5 parameters (NIST Level 5)
     private static final DilithiumParameterSpec DILITHIUM5 = DilithiumParameterSpec.dilithium5;
     
+    // Batches are claimed by verify workers this many items at a time
+    private static final int VERIFY_CLAIM_SIZE = 8;
+    private static final int DEFAULT_PUBLIC_KEY_CACHE_SIZE = 4096;
+
     // Cryptographic components
     private KeyPairGenerator keyPairGenerator;
     private final ConcurrentHashMap<String, KeyPair> keyPairCache = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<String, Signature> signerCache = new ConcurrentHashMap<>();
+    private final AtomicInteger signatureInstanceCount = new AtomicInteger();
+    private final ThreadLocal<Signature> signatureInstances = ThreadLocal.withInitial(() -> {
+        try {
+            Signature signature = Signature.getInstance(DILITHIUM_ALGORITHM, PROVIDER);
+            signatureInstanceCount.incrementAndGet();
+            return signature;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Dilithium signature unavailable", e);
+        }
+    });
+
+    // Batch verification threads; 0 means one per core
+    @ConfigProperty(name = "aurigraph.crypto.verify.parallelism", defaultValue = "0")
+    int verifyParallelism;
+
+    // Decoded public keys kept for keys from other providers
+    @ConfigProperty(name = "aurigraph.crypto.public-key-cache.size", defaultValue = "4096")
+    int publicKeyCacheSize;
+
+    // Valid verifications remembered so later pipeline stages skip the lattice math; 0 disables
+    @ConfigProperty(name = "aurigraph.crypto.verification-cache.size", defaultValue = "262144")
+    int verificationCacheSize;
+
+    @ConfigProperty(name = "aurigraph.crypto.verification-cache.ttl-seconds", defaultValue = "300")
+    long verificationCacheTtlSeconds;
+
+    @Inject
+    Instance<MeterRegistry> meterRegistry;
+
+    private DilithiumPublicKeyCache publicKeyCache;
+    private SignatureVerificationCache verificationCache;
+    private ExecutorService verifyPool;
     
     // Performance metrics
     private long keyGenerationCount = 0;
@@ -63,6 +111,25 @@ public class DilithiumSignatureService {
             // Initialize Dilithium key pair generator with Level 5 parameters
             keyPairGenerator = KeyPairGenerator.getInstance(DILITHIUM_ALGORITHM, PROVIDER);
             keyPairGenerator.initialize(DILITHIUM5, new SecureRandom());
+
+            publicKeyCache = new DilithiumPublicKeyCache(
+                publicKeyCacheSize > 0 ? publicKeyCacheSize : DEFAULT_PUBLIC_KEY_CACHE_SIZE);
+            if (verificationCacheSize > 0) {
+                verificationCache = new SignatureVerificationCache(
+                    verificationCacheSize, TimeUnit.SECONDS.toNanos(verificationCacheTtlSeconds));
+                registerVerificationCacheMetrics();
+            }
+
+            // Bounded pool for batch verification
+            if (verifyParallelism <= 0) {
+                verifyParallelism = Runtime.getRuntime().availableProcessors();
+            }
+            AtomicInteger workerCount = new AtomicInteger();
+            verifyPool = Executors.newFixedThreadPool(verifyParallelism, r -> {
+                Thread thread = new Thread(r, "dilithium-verify-" + workerCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
             
             LOG.info("DilithiumSignatureService initialized with CRYSTALS-Dilithium5 (NIST Level 5)");
             
@@ -176,17 +243,29 @@ public class DilithiumSignatureService {
             throw new IllegalArgumentException("Signature cannot be null or empty");
         }
 
-        if (publicKey == null || !validatePublicKey(publicKey)) {
+        PublicKey verificationKey = publicKey == null ? null : publicKeyCache.resolve(publicKey);
+        if (verificationKey == null) {
             throw new IllegalArgumentException("Invalid Dilithium public key");
         }
 
+        SignatureVerificationCache.Key cacheKey = null;
+        if (verificationCache != null) {
+            cacheKey = SignatureVerificationCache.keyOf(verificationKey.getEncoded(), data, signature);
+            if (verificationCache.isVerified(cacheKey)) {
+                return true;
+            }
+        }
+
         try {
             // Get or create signature instance
             Signature verifier = getSignatureInstance();
-            verifier.initVerify(publicKey);
+            verifier.initVerify(verificationKey);
             verifier.update(data);
 
             boolean isValid = verifier.verify(signature);
+            if (isValid && cacheKey != null) {
+                verificationCache.recordValid(cacheKey);
+            }
 
             // Update performance metrics
             long duration = (System.nanoTime() - startTime) / 1_000_000;
@@ -251,40 +330,183 @@ public class DilithiumSignatureService {
     
     /**
      * Batch verify multiple signatures for improved performance
-     * 
+     *
+     * The batch is spread over the verify pool. Every item gets a result, so
+     * this suits mempool admission; items with missing data, an empty
+     * signature or an invalid key are reported as invalid.
+     *
      * @param dataItems Array of original data
      * @param signatures Array of signatures to verify
      * @param publicKeys Array of public keys for verification
      * @return Array of verification results
      */
     public boolean[] batchVerify(byte[][] dataItems, byte[][] signatures, PublicKey[] publicKeys) {
+        checkBatch(dataItems, signatures, publicKeys);
+        boolean[] results = new boolean[dataItems.length];
+        verifyInParallel(dataItems, signatures, publicKeys, results, false);
+        return results;
+    }
+
+    /**
+     * Check that every signature in a batch is valid, as for block validation
+     *
+     * Stops handing out work at the first invalid signature, so a bad block
+     * is rejected without verifying the rest of it.
+     *
+     * @return true only if all signatures are valid
+     */
+    public boolean verifyAll(byte[][] dataItems, byte[][] signatures, PublicKey[] publicKeys) {
+        checkBatch(dataItems, signatures, publicKeys);
+        return verifyInParallel(dataItems, signatures, publicKeys, null, true);
+    }
+
+    private static void checkBatch(byte[][] dataItems, byte[][] signatures, PublicKey[] publicKeys) {
         if (dataItems == null || signatures == null || publicKeys == null ||
             dataItems.length != signatures.length || dataItems.length != publicKeys.length) {
             throw new IllegalArgumentException("Input arrays must have matching lengths");
         }
-        
+    }
+
+    /**
+     * Verify a batch on up to {@code verifyParallelism} threads, the caller
+     * included. Workers claim {@link #VERIFY_CLAIM_SIZE} items at a time.
+     *
+     * @param results per-item results, or null if only the overall outcome is needed
+     * @param stopOnInvalid stop claiming items once one is invalid
+     * @return true if no verified item was invalid
+     */
+    private boolean verifyInParallel(byte[][] dataItems, byte[][] signatures, PublicKey[] publicKeys,
+                                     boolean[] results, boolean stopOnInvalid) {
+        int n = dataItems.length;
+        if (n == 0) {
+            return true;
+        }
         long startTime = System.nanoTime();
-        boolean[] results = new boolean[dataItems.length];
-        
-        try {
-            for (int i = 0; i < dataItems.length; i++) {
-                if (dataItems[i] != null && signatures[i] != null && publicKeys[i] != null) {
-                    results[i] = verify(dataItems[i], signatures[i], publicKeys[i]);
-                } else {
-                    results[i] = false;
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicInteger verified = new AtomicInteger();
+        AtomicBoolean invalid = new AtomicBoolean();
+
+        Runnable worker = () -> {
+            int count = 0;
+            claim:
+            while (!(stopOnInvalid && invalid.get())) {
+                int start = cursor.getAndAdd(VERIFY_CLAIM_SIZE);
+                if (start >= n) {
+                    break;
+                }
+                for (int i = start, end = Math.min(n, start + VERIFY_CLAIM_SIZE); i < end; i++) {
+                    boolean valid = verifyItem(dataItems[i], signatures[i], publicKeys[i]);
+                    count++;
+                    if (results != null) {
+                        results[i] = valid;
+                    }
+                    if (!valid) {
+                        invalid.set(true);
+                        if (stopOnInvalid) {
+                            break claim;
+                        }
+                    }
                 }
             }
-            
-            long duration = (System.nanoTime() - startTime) / 1_000_000;
-            LOG.debug("Batch verified " + dataItems.length + " signatures in " + duration + "ms");
-            
-            return results;
-            
+            verified.addAndGet(count);
+        };
+
+        int workers = Math.min(verifyParallelism, (n + VERIFY_CLAIM_SIZE - 1) / VERIFY_CLAIM_SIZE);
+        List<Future<?>> futures = new ArrayList<>(workers - 1);
+        for (int w = 1; w < workers; w++) {
+            futures.add(verifyPool.submit(worker));
+        }
+        worker.run();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Batch verification interrupted", e);
+        } catch (ExecutionException e) {
+            LOG.error("Batch verification failed", e.getCause());
+            throw new RuntimeException("Batch verification failed", e.getCause());
+        }
+
+        long duration = (System.nanoTime() - startTime) / 1_000_000;
+        synchronized (this) {
+            verificationCount += verified.get();
+            totalVerificationTime += duration * workers;
+        }
+        LOG.debug("Batch verified " + verified.get() + "/" + n + " signatures on " + workers +
+                  " threads in " + duration + "ms");
+
+        return !invalid.get();
+    }
+
+    /**
+     * Verify one batch item on the calling thread; malformed items are invalid
+     */
+    private boolean verifyItem(byte[] data, byte[] signature, PublicKey publicKey) {
+        if (data == null || data.length == 0 || signature == null || signature.length == 0 || publicKey == null) {
+            return false;
+        }
+        PublicKey verificationKey = publicKeyCache.resolve(publicKey);
+        if (verificationKey == null) {
+            return false;
+        }
+        SignatureVerificationCache.Key cacheKey = null;
+        if (verificationCache != null) {
+            cacheKey = SignatureVerificationCache.keyOf(verificationKey.getEncoded(), data, signature);
+            if (verificationCache.isVerified(cacheKey)) {
+                return true;
+            }
+        }
+        try {
+            Signature verifier = signatureInstances.get();
+            verifier.initVerify(verificationKey);
+            verifier.update(data);
+            boolean isValid = verifier.verify(signature);
+            if (isValid && cacheKey != null) {
+                verificationCache.recordValid(cacheKey);
+            }
+            return isValid;
         } catch (Exception e) {
-            LOG.error("Batch verification failed", e);
-            throw new RuntimeException("Batch verification failed", e);
+            return false;
         }
     }
+
+    /**
+     * Export verification cache hits, misses and size when a meter registry is available
+     */
+    private void registerVerificationCacheMetrics() {
+        if (meterRegistry == null || !meterRegistry.isResolvable()) {
+            return;
+        }
+        MeterRegistry registry = meterRegistry.get();
+        SignatureVerificationCache cache = verificationCache;
+        FunctionCounter.builder("aurigraph.crypto.verification.cache", cache, SignatureVerificationCache::hitCount)
+            .tag("result", "hit")
+            .description("Signature verifications answered from the cache")
+            .register(registry);
+        FunctionCounter.builder("aurigraph.crypto.verification.cache", cache, SignatureVerificationCache::missCount)
+            .tag("result", "miss")
+            .description("Signature verifications that had to run Dilithium")
+            .register(registry);
+        Gauge.builder("aurigraph.crypto.verification.cache.size", cache, SignatureVerificationCache::size)
+            .description("Valid verifications currently cached")
+            .register(registry);
+    }
+
+    /**
+     * @return verifications answered from the cache, or 0 when the cache is disabled
+     */
+    public long getVerificationCacheHits() {
+        return verificationCache != null ? verificationCache.hitCount() : 0;
+    }
+
+    /**
+     * @return verifications that missed the cache, or 0 when the cache is disabled
+     */
+    public long getVerificationCacheMisses() {
+        return verificationCache != null ? verificationCache.missCount() : 0;
+    }
     
     /**
      * Validate that a public key is a valid Dilithium public key
@@ -359,19 +581,10 @@ public class DilithiumSignatureService {
     }
     
     /**
-     * Get or create a signature instance for thread-safe operation
+     * Get this thread's signature instance
      */
-    private Signature getSignatureInstance() throws Exception {
-        String threadId = String.valueOf(Thread.currentThread().getId());
-        
-        // Try to reuse cached signature instance for this thread
-        Signature signature = signerCache.get(threadId);
-        if (signature == null) {
-            signature = Signature.getInstance(DILITHIUM_ALGORITHM, PROVIDER);
-            signerCache.put(threadId, signature);
-        }
-        
-        return signature;
+    private Signature getSignatureInstance() {
+        return signatureInstances.get();
     }
     
     /**
@@ -389,23 +602,28 @@ public class DilithiumSignatureService {
                 signingCount > 0 ? totalSigningTime / signingCount : 0,
                 verificationCount > 0 ? totalVerificationTime / verificationCount : 0,
                 keyPairCache.size(),
-                signerCache.size()
+                signatureInstanceCount.get()
             );
         }
     }
     
     /**
-     * Clear caches to free memory
+     * Clear caches to free memory. Per-thread signature instances live as long as their threads.
      */
     public void clearCaches() {
         int keyPairsBefore = keyPairCache.size();
-        int signersBefore = signerCache.size();
+        int publicKeysBefore = publicKeyCache != null ? publicKeyCache.size() : 0;
         
         keyPairCache.clear();
-        signerCache.clear();
+        if (publicKeyCache != null) {
+            publicKeyCache.clear();
+        }
+        if (verificationCache != null) {
+            verificationCache.clear();
+        }
         
         LOG.debug("Dilithium caches cleared: " + keyPairsBefore + " key pairs, " + 
-                 signersBefore + " signers removed");
+                 publicKeysBefore + " public keys removed");
     }
     
     /**
@@ -614,6 +832,9 @@ public class DilithiumSignatureService {
         try {
             clearCaches();
             keyPairGenerator = null;
+            if (verifyPool != null) {
+                verifyPool.shutdownNow();
+            }
 
             LOG.info("DilithiumSignatureService shutdown completed");
 
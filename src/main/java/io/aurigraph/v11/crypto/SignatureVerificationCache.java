@@ -0,0 +1,165 @@
+package io.aurigraph.v11.crypto;
+
+import java.nio.ByteBuffer;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of successful signature verifications
+ *
+ * A transaction is verified at several pipeline stages; once one stage has
+ * verified it, the others find the result here. Entries are keyed by
+ * SHA-256 over the public key encoding, the message and the signature,
+ * each length-prefixed, so a hit implies the exact same triple was
+ * verified before. Only valid results are stored: a failed verification
+ * is never cached and is always recomputed.
+ *
+ * The cache is split into segments, each an insertion-ordered map under its
+ * own lock. Entries share one TTL, so the eldest entry in a segment is both
+ * the first to expire and the one evicted when the segment is full.
+ */
+final class SignatureVerificationCache {
+
+    private static final int SEGMENTS = 16;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private static final ThreadLocal<ByteBuffer> DIGEST_OUTPUT = ThreadLocal.withInitial(() -> ByteBuffer.allocate(32));
+
+    record Key(long h0, long h1, long h2, long h3) {}
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    SignatureVerificationCache(int capacity, long ttlNanos) {
+        this(capacity, ttlNanos, System::nanoTime);
+    }
+
+    SignatureVerificationCache(int capacity, long ttlNanos, LongSupplier nanoClock) {
+        int segmentCapacity = Math.max(1, capacity / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        this.ttlNanos = ttlNanos;
+        this.nanoClock = nanoClock;
+    }
+
+    static Key keyOf(byte[] encodedPublicKey, byte[] data, byte[] signature) {
+        MessageDigest digest = SHA256.get();
+        update(digest, encodedPublicKey);
+        update(digest, data);
+        update(digest, signature);
+        ByteBuffer output = DIGEST_OUTPUT.get();
+        try {
+            digest.digest(output.array(), 0, 32);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+        return new Key(output.getLong(0), output.getLong(8), output.getLong(16), output.getLong(24));
+    }
+
+    private static void update(MessageDigest digest, byte[] bytes) {
+        int length = bytes.length;
+        digest.update((byte) (length >>> 24));
+        digest.update((byte) (length >>> 16));
+        digest.update((byte) (length >>> 8));
+        digest.update((byte) length);
+        digest.update(bytes);
+    }
+
+    /**
+     * @return whether this key was verified as valid within the TTL; counts a hit or miss
+     */
+    boolean isVerified(Key key) {
+        boolean hit = segmentFor(key).contains(key, nanoClock.getAsLong());
+        if (hit) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return hit;
+    }
+
+    void recordValid(Key key) {
+        segmentFor(key).put(key, nanoClock.getAsLong() + ttlNanos);
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private Segment segmentFor(Key key) {
+        return segments[(int) key.h0() & (SEGMENTS - 1)];
+    }
+
+    private static final class Segment {
+        private final LinkedHashMap<Key, Long> expiries;
+
+        Segment(int capacity) {
+            this.expiries = new LinkedHashMap<>() {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Long> eldest) {
+                    return size() > capacity;
+                }
+            };
+        }
+
+        synchronized boolean contains(Key key, long now) {
+            Long expiry = expiries.get(key);
+            if (expiry == null) {
+                return false;
+            }
+            if (expiry - now <= 0) {
+                expiries.remove(key);
+                return false;
+            }
+            return true;
+        }
+
+        synchronized void put(Key key, long expiry) {
+            // Re-insert so the entry moves to the back with its new expiry
+            expiries.remove(key);
+            expiries.put(key, expiry);
+        }
+
+        synchronized int size() {
+            return expiries.size();
+        }
+
+        synchronized void clear() {
+            expiries.clear();
+        }
+    }
+}
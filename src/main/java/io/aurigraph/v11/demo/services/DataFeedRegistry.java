@@ -117,7 +117,7 @@ public class DataFeedRegistry extends MerkleTreeRegistry<DataFeedToken> {
 
             // Add to registry (which updates Merkle tree)
             registry.put(tokenId, token);
-            rebuildMerkleTree();
+            refreshEntry(tokenId);
 
             // Update metadata
             lastUpdateTime.put(apiId, System.currentTimeMillis());
@@ -143,7 +143,7 @@ public class DataFeedRegistry extends MerkleTreeRegistry<DataFeedToken> {
             }
 
             token.update(newData);
-            rebuildMerkleTree();
+            refreshEntry(tokenId);
             totalUpdates++;
 
             ExternalAPI api = externalAPIs.get(token.feedId);
@@ -0,0 +1,463 @@
+package io.aurigraph.v11.execution;
+
+import net.openhft.hashing.LongHashFunction;
+import org.jboss.logging.Logger;
+import org.jctools.queues.MpscUnboundedArrayQueue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Account-partitioned execution lanes
+ *
+ * Each lane owns a contiguous range of the 64-bit account hash space and
+ * is the only thread that ever touches the balances in that range. Work
+ * reaches a lane through its MPSC inbox, so account state needs no locks
+ * or CAS, and a hot account costs its own lane time only.
+ *
+ * A transfer runs on the lane owning the source account. If the
+ * destination is in the same lane it is applied at once. Otherwise it is
+ * handed off in two phases:
+ * 1. the source lane moves the amount from the source balance into escrow
+ *    and sends a credit to the destination lane
+ * 2. the destination lane applies the credit, or rejects it, and reports
+ *    back; the source lane then releases the escrow, refunding it on
+ *    rejection, and completes the transfer
+ * Funds in escrow cannot be spent twice, and each lane still only writes
+ * its own accounts.
+ */
+public class AccountLanes {
+
+    private static final Logger LOG = Logger.getLogger(AccountLanes.class);
+
+    private static final int INBOX_CHUNK_SIZE = 1024;
+    private static final int DRAIN_LIMIT = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final LongHashFunction ACCOUNT_HASH = LongHashFunction.xx();
+
+    public enum TransferStatus {
+        COMMITTED,
+        INSUFFICIENT_FUNDS,
+        /** The destination lane refused the credit, e.g. because the balance would overflow */
+        REJECTED
+    }
+
+    public record TransferResult(String id, TransferStatus status, int sourceLane, int destinationLane) {
+        public boolean isCrossLane() {
+            return sourceLane != destinationLane;
+        }
+    }
+
+    /**
+     * Called on the source lane's thread once a transfer commits
+     */
+    @FunctionalInterface
+    public interface CommitListener {
+        void onCommit(String id, String from, String to, long amount);
+    }
+
+    public record LaneStats(
+        int lane,
+        int accounts,
+        int queueDepth,
+        long transfersCommitted,
+        long crossLaneHandoffs,
+        long creditsRejected,
+        long insufficientFunds
+    ) {}
+
+    private final Lane[] lanes;
+    private final CommitListener listener;
+    private volatile boolean closed;
+
+    public AccountLanes(int laneCount, CommitListener listener) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("At least one lane is required: " + laneCount);
+        }
+        this.listener = listener;
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i);
+        }
+        for (Lane lane : lanes) {
+            lane.thread.start();
+        }
+        LOG.infof("Account lanes started: %d lanes", laneCount);
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Lane owning an account: lane i holds the i-th of laneCount equal,
+     * contiguous slices of the unsigned hash range
+     */
+    public int laneOf(String account) {
+        return (int) Math.unsignedMultiplyHigh(ACCOUNT_HASH.hashChars(account), lanes.length);
+    }
+
+    /**
+     * Move {@code amount} from one account to another
+     *
+     * @return completes on the source lane once the transfer commits or fails
+     */
+    public CompletableFuture<TransferResult> transfer(String id, String from, String to, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Transfer amount must be positive: " + amount);
+        }
+        CompletableFuture<TransferResult> result = new CompletableFuture<>();
+        return submit(from, new Transfer(id, from, to, amount, result), result);
+    }
+
+    /**
+     * Add funds to an account from outside the ledger
+     */
+    public CompletableFuture<Long> deposit(String account, long amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Deposit amount must be positive: " + amount);
+        }
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        return submit(account, new Deposit(account, amount, result), result);
+    }
+
+    /**
+     * Spendable balance, excluding funds in escrow for unsettled cross-lane transfers
+     */
+    public CompletableFuture<Long> balance(String account) {
+        CompletableFuture<Long> result = new CompletableFuture<>();
+        return submit(account, new BalanceQuery(account, result), result);
+    }
+
+    /**
+     * Queue a caller's message on the account's lane, or fail it once shutdown has begun.
+     * A message that slipped in as its lane stopped is failed here, since nothing will drain it.
+     */
+    private <T> CompletableFuture<T> submit(String account, Message message, CompletableFuture<T> result) {
+        if (!closed) {
+            Lane lane = lanes[laneOf(account)];
+            lane.send(message);
+            if (!lane.stopped) {
+                return result;
+            }
+        }
+        result.completeExceptionally(shutDown());
+        return result;
+    }
+
+    private static IllegalStateException shutDown() {
+        return new IllegalStateException("Account lanes are shut down");
+    }
+
+    public List<LaneStats> getStats() {
+        List<LaneStats> stats = new ArrayList<>(lanes.length);
+        for (Lane lane : lanes) {
+            stats.add(lane.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Stop all lanes after they finish the work already queued. New requests
+     * fail at once. Messages still queued once every lane has stopped, such as
+     * a cross-lane reply that reached its source lane too late, are failed and
+     * their escrow returned, except that a confirmed credit still settles.
+     */
+    public void shutdown() {
+        closed = true;
+        for (Lane lane : lanes) {
+            lane.running = false;
+            LockSupport.unpark(lane.thread);
+        }
+        for (Lane lane : lanes) {
+            try {
+                lane.thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (lane.thread.isAlive()) {
+                LOG.warnf("Account lane %d did not stop in time; its queued work is left to it", lane.index);
+            } else {
+                lane.stopped = true;
+            }
+        }
+        // The lane threads are gone, so their state is safe to touch from here
+        for (Lane lane : lanes) {
+            if (lane.stopped) {
+                lane.abandonQueued();
+            }
+        }
+        LOG.info("Account lanes stopped");
+    }
+
+    // ==================== Lane messages ====================
+
+    private sealed interface Message permits Transfer, Credit, Settle, Deposit, BalanceQuery {}
+
+    private record Transfer(String id, String from, String to, long amount,
+                            CompletableFuture<TransferResult> result) implements Message {}
+
+    /** Phase 1 hand-off: sent by the source lane once the amount is in escrow */
+    private record Credit(Transfer transfer, int sourceLane) implements Message {}
+
+    /** Phase 2 reply: sent back by the destination lane; {@code failure} is set if it could not handle the credit */
+    private record Settle(Transfer transfer, int destinationLane, boolean credited,
+                          RuntimeException failure) implements Message {}
+
+    private record Deposit(String account, long amount, CompletableFuture<Long> result) implements Message {}
+
+    private record BalanceQuery(String account, CompletableFuture<Long> result) implements Message {}
+
+    /**
+     * Lane-local account state; only ever touched by the owning lane's thread
+     */
+    private static final class Account {
+        long balance;
+        long escrow;
+    }
+
+    private final class Lane implements Runnable {
+        final int index;
+        final Thread thread;
+        final MpscUnboundedArrayQueue<Message> inbox = new MpscUnboundedArrayQueue<>(INBOX_CHUNK_SIZE);
+        final Map<String, Account> accounts = new HashMap<>();
+
+        volatile boolean running = true;
+        volatile boolean parked;
+        /** Set by shutdown once the thread has exited; nothing drains the inbox after that */
+        volatile boolean stopped;
+
+        // Written by the lane thread only, read by getStats
+        volatile long transfersCommitted;
+        volatile long crossLaneHandoffs;
+        volatile long creditsRejected;
+        volatile long insufficientFunds;
+        volatile int accountCount;
+
+        Lane(int index) {
+            this.index = index;
+            this.thread = new Thread(this, "account-lane-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        void send(Message message) {
+            inbox.offer(message);
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                int drained = inbox.drain(this::handle, DRAIN_LIMIT);
+                if (drained > 0) {
+                    continue;
+                }
+                if (!running) {
+                    break;
+                }
+                parked = true;
+                if (inbox.isEmpty()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                parked = false;
+            }
+        }
+
+        private void handle(Message message) {
+            try {
+                switch (message) {
+                    case Transfer transfer -> onTransfer(transfer);
+                    case Credit credit -> onCredit(credit);
+                    case Settle settle -> onSettle(settle);
+                    case Deposit deposit -> onDeposit(deposit);
+                    case BalanceQuery query -> query.result().complete(balanceOf(query.account()));
+                }
+            } catch (RuntimeException e) {
+                LOG.errorf(e, "Account lane %d failed to handle %s", index, message.getClass().getSimpleName());
+                try {
+                    fail(message, e);
+                } catch (RuntimeException f) {
+                    LOG.errorf(f, "Account lane %d failed to report a failed %s", index, message.getClass().getSimpleName());
+                }
+            }
+        }
+
+        /**
+         * Complete the caller's future of a message that could not be handled,
+         * returning any escrow it holds to the source account
+         */
+        private void fail(Message message, RuntimeException cause) {
+            switch (message) {
+                case Transfer transfer -> transfer.result().completeExceptionally(cause);
+                // The source lane still holds the escrow; let it refund
+                case Credit credit -> lanes[credit.sourceLane()].send(
+                    new Settle(credit.transfer(), index, false, cause));
+                case Settle settle -> settle.transfer().result().completeExceptionally(cause);
+                case Deposit deposit -> deposit.result().completeExceptionally(cause);
+                case BalanceQuery query -> query.result().completeExceptionally(cause);
+            }
+        }
+
+        /**
+         * Fail what is left in the inbox once every lane has stopped
+         */
+        void abandonQueued() {
+            Message message;
+            while ((message = inbox.poll()) != null) {
+                try {
+                    switch (message) {
+                        case Credit credit -> {
+                            Lane source = lanes[credit.sourceLane()];
+                            if (source.stopped) {
+                                source.refund(credit.transfer());
+                            }
+                            credit.transfer().result().completeExceptionally(shutDown());
+                        }
+                        // The destination already decided; settling touches only this lane's accounts
+                        case Settle settle -> onSettle(settle);
+                        default -> fail(message, shutDown());
+                    }
+                } catch (RuntimeException e) {
+                    LOG.errorf(e, "Account lane %d failed to abandon %s", index, message.getClass().getSimpleName());
+                }
+            }
+        }
+
+        private Account account(String id) {
+            Account account = accounts.get(id);
+            if (account == null) {
+                account = new Account();
+                accounts.put(id, account);
+                accountCount = accounts.size();
+            }
+            return account;
+        }
+
+        private long balanceOf(String id) {
+            Account account = accounts.get(id);
+            return account == null ? 0L : account.balance;
+        }
+
+        private void onTransfer(Transfer transfer) {
+            Account source = accounts.get(transfer.from());
+            if (source == null || source.balance < transfer.amount()) {
+                insufficientFunds++;
+                transfer.result().complete(
+                    new TransferResult(transfer.id(), TransferStatus.INSUFFICIENT_FUNDS, index, laneOf(transfer.to())));
+                return;
+            }
+
+            int destinationLane = laneOf(transfer.to());
+            if (destinationLane == index) {
+                if (transfer.from().equals(transfer.to())) {
+                    commit(transfer, index);
+                    return;
+                }
+                Account destination = account(transfer.to());
+                long credited;
+                try {
+                    credited = Math.addExact(destination.balance, transfer.amount());
+                } catch (ArithmeticException e) {
+                    reject(transfer, index);
+                    return;
+                }
+                source.balance -= transfer.amount();
+                destination.balance = credited;
+                commit(transfer, index);
+                return;
+            }
+
+            // Phase 1: hold the funds, then hand the credit to the owning lane
+            source.balance -= transfer.amount();
+            source.escrow += transfer.amount();
+            try {
+                lanes[destinationLane].send(new Credit(transfer, index));
+            } catch (RuntimeException e) {
+                refund(transfer);
+                throw e;
+            }
+            crossLaneHandoffs++;
+        }
+
+        private void onCredit(Credit credit) {
+            Transfer transfer = credit.transfer();
+            Account destination = account(transfer.to());
+            boolean credited;
+            try {
+                destination.balance = Math.addExact(destination.balance, transfer.amount());
+                credited = true;
+            } catch (ArithmeticException e) {
+                creditsRejected++;
+                credited = false;
+            }
+            lanes[credit.sourceLane()].send(new Settle(transfer, index, credited, null));
+        }
+
+        private void onSettle(Settle settle) {
+            // Phase 2: release the escrow held since phase 1
+            Transfer transfer = settle.transfer();
+            if (settle.credited()) {
+                accounts.get(transfer.from()).escrow -= transfer.amount();
+                commit(transfer, settle.destinationLane());
+                return;
+            }
+            refund(transfer);
+            if (settle.failure() != null) {
+                transfer.result().completeExceptionally(settle.failure());
+            } else {
+                reject(transfer, settle.destinationLane());
+            }
+        }
+
+        /**
+         * Return a transfer's escrow to its source account
+         */
+        private void refund(Transfer transfer) {
+            Account source = accounts.get(transfer.from());
+            source.escrow -= transfer.amount();
+            source.balance += transfer.amount();
+        }
+
+        private void onDeposit(Deposit deposit) {
+            Account account = account(deposit.account());
+            try {
+                account.balance = Math.addExact(account.balance, deposit.amount());
+                deposit.result().complete(account.balance);
+            } catch (ArithmeticException e) {
+                deposit.result().completeExceptionally(e);
+            }
+        }
+
+        private void commit(Transfer transfer, int destinationLane) {
+            transfersCommitted++;
+            if (listener != null) {
+                try {
+                    listener.onCommit(transfer.id(), transfer.from(), transfer.to(), transfer.amount());
+                } catch (RuntimeException e) {
+                    LOG.errorf(e, "Commit listener failed for transfer %s", transfer.id());
+                }
+            }
+            transfer.result().complete(
+                new TransferResult(transfer.id(), TransferStatus.COMMITTED, index, destinationLane));
+        }
+
+        private void reject(Transfer transfer, int destinationLane) {
+            transfer.result().complete(
+                new TransferResult(transfer.id(), TransferStatus.REJECTED, index, destinationLane));
+        }
+
+        LaneStats stats() {
+            return new LaneStats(index, accountCount, inbox.size(), transfersCommitted, crossLaneHandoffs,
+                creditsRejected, insufficientFunds);
+        }
+    }
+}
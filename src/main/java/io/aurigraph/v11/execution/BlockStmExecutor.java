@@ -0,0 +1,611 @@
+package io.aurigraph.v11.execution;
+
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Block-STM optimistic parallel executor
+ *
+ * Transactions of a block run speculatively on all workers against
+ * multi-version memory: every write is stored under the writing
+ * transaction's index, and a read sees the latest write by a lower index,
+ * falling back to storage. After a transaction executes its read set is
+ * validated against the current versions; if a lower transaction has since
+ * written something it read, it is aborted, its writes are marked as
+ * estimates and it re-executes. A read that hits an estimate suspends the
+ * reader until the writer finishes instead of running on stale data.
+ *
+ * Tasks are handed out lowest index first, so the final state is always
+ * the one sequential execution in block order would produce, whatever the
+ * thread timing. This follows the scheduler and memory design of Gelashvili
+ * et al., "Block-STM: Scaling Blockchain Execution by Turning Ordering
+ * Curse to a Performance Blessing".
+ *
+ * A transaction that throws is recorded as failed with no writes; like any
+ * other outcome this is re-validated, so a failure caused by an
+ * inconsistent speculative read is retried.
+ */
+public class BlockStmExecutor {
+
+    private static final Logger LOG = Logger.getLogger(BlockStmExecutor.class);
+
+    /**
+     * State access for a transaction body
+     */
+    public interface TransactionContext {
+
+        /**
+         * @return the value visible to this transaction, or null if absent
+         */
+        Object read(String key);
+
+        void write(String key, Object value);
+    }
+
+    /**
+     * A transaction body. It must be deterministic in what it reads from the
+     * context and may run several times, so it should have no other side effects.
+     */
+    @FunctionalInterface
+    public interface Transition {
+        void apply(TransactionContext context) throws Exception;
+    }
+
+    private final int workers;
+    private final ExecutorService workerPool;
+
+    private final AtomicLong totalBlocks = new AtomicLong(0);
+    private final AtomicLong totalTransactions = new AtomicLong(0);
+    private final AtomicLong totalIncarnations = new AtomicLong(0);
+
+    public BlockStmExecutor(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is required: " + workers);
+        }
+        this.workers = workers;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workerPool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "block-stm-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Execute a block against storage, which is only read
+     *
+     * @param storage committed state before the block; returns null for absent keys
+     * @return the block's writes and per-transaction outcomes
+     */
+    public BlockResult execute(List<Transition> block, Function<String, Object> storage) {
+        long startTime = System.nanoTime();
+        int n = block.size();
+        if (n == 0) {
+            return new BlockResult(Map.of(), new boolean[0], 0, 0, 0.0);
+        }
+
+        BlockRun run = new BlockRun(block, storage);
+        int threads = Math.min(workers, n);
+        CompletionService<Void> completion = new ExecutorCompletionService<>(workerPool);
+        List<Future<Void>> futures = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            futures.add(completion.submit(run::work, null));
+        }
+        // Take workers as they finish, so the first failure is reported while the others still run
+        try {
+            for (int i = 0; i < threads; i++) {
+                completion.take().get();
+            }
+        } catch (InterruptedException e) {
+            abort(run, futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while executing block", e);
+        } catch (ExecutionException e) {
+            abort(run, futures);
+            throw new IllegalStateException("Block-STM worker failed", e.getCause());
+        }
+
+        int incarnations = run.incarnations.get();
+        int aborts = incarnations - n;
+        totalBlocks.incrementAndGet();
+        totalTransactions.addAndGet(n);
+        totalIncarnations.addAndGet(incarnations);
+
+        BlockResult result = new BlockResult(run.memory.snapshot(), run.failed.clone(), incarnations, aborts,
+            (double) aborts / incarnations);
+        LOG.debugf("Block-STM executed %d transactions in %.2f ms: %d incarnations, abort rate %.3f",
+            n, (System.nanoTime() - startTime) / 1_000_000.0, incarnations, result.abortRate());
+        return result;
+    }
+
+    /**
+     * Stop the remaining workers of a failed block
+     */
+    private static void abort(BlockRun run, List<Future<Void>> futures) {
+        run.scheduler.doneMarker.set(true);
+        for (Future<Void> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Aborted incarnations over all incarnations since startup
+     */
+    public double getAbortRate() {
+        long incarnations = totalIncarnations.get();
+        return incarnations == 0 ? 0.0 : (double) (incarnations - totalTransactions.get()) / incarnations;
+    }
+
+    public long getTotalBlocks() {
+        return totalBlocks.get();
+    }
+
+    public void shutdown() {
+        workerPool.shutdownNow();
+    }
+
+    /**
+     * Outcome of one block
+     *
+     * @param writes final value of every key written by a successful transaction
+     * @param failed per transaction, whether its final incarnation threw
+     * @param incarnations executions started, including re-executions
+     * @param aborts incarnations discarded by validation or dependency waits
+     * @param abortRate aborts over incarnations
+     */
+    public record BlockResult(
+        Map<String, Object> writes,
+        boolean[] failed,
+        int incarnations,
+        int aborts,
+        double abortRate
+    ) {
+        public int failedCount() {
+            int count = 0;
+            for (boolean f : failed) {
+                if (f) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    // ==================== Per-block state ====================
+
+    private record Version(int txnIndex, int incarnation) {}
+
+    private record Task(Version version, boolean validation) {}
+
+    private record ReadDescriptor(String key, Version version) {}
+
+    /**
+     * Signals that a read hit an estimate left by an aborted lower transaction
+     */
+    private static final class DependencyException extends RuntimeException {
+        final int blockingIndex;
+
+        DependencyException(int blockingIndex) {
+            super(null, null, false, false);
+            this.blockingIndex = blockingIndex;
+        }
+    }
+
+    private final class BlockRun {
+        final List<Transition> block;
+        final Function<String, Object> storage;
+        final Scheduler scheduler;
+        final MultiVersionMemory memory;
+        final boolean[] failed;
+        final AtomicInteger incarnations = new AtomicInteger();
+
+        BlockRun(List<Transition> block, Function<String, Object> storage) {
+            this.block = block;
+            this.storage = storage;
+            this.scheduler = new Scheduler(block.size());
+            this.memory = new MultiVersionMemory(block.size());
+            this.failed = new boolean[block.size()];
+        }
+
+        /**
+         * Run tasks until the block is done. Anything a transition throws
+         * beyond an Exception, or a failure of the scheduler itself, ends the
+         * whole block: the task it held would never finish, and the other
+         * workers would otherwise wait for it forever.
+         */
+        void work() {
+            try {
+                Task task = null;
+                while (!scheduler.done()) {
+                    if (task != null && !task.validation()) {
+                        task = tryExecute(task.version());
+                    }
+                    if (task != null && task.validation()) {
+                        task = needsReexecution(task.version());
+                    }
+                    if (task == null) {
+                        task = scheduler.nextTask();
+                        if (task == null) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }
+            } catch (Throwable t) {
+                scheduler.doneMarker.set(true);
+                throw t;
+            }
+        }
+
+        private Task tryExecute(Version version) {
+            int txnIndex = version.txnIndex();
+            while (true) {
+                incarnations.incrementAndGet();
+                SpeculativeContext context = new SpeculativeContext(txnIndex);
+                boolean threw = false;
+                try {
+                    block.get(txnIndex).apply(context);
+                } catch (DependencyException e) {
+                    if (scheduler.addDependency(txnIndex, e.blockingIndex)) {
+                        return null;
+                    }
+                    // The blocking transaction finished in the meantime: run again
+                    continue;
+                } catch (Exception e) {
+                    threw = true;
+                }
+                failed[txnIndex] = threw;
+                Map<String, Object> writes = threw ? Map.of() : context.writes;
+                boolean wroteNewLocation = memory.record(version, context.reads, writes);
+                return scheduler.finishExecution(txnIndex, version.incarnation(), wroteNewLocation);
+            }
+        }
+
+        private Task needsReexecution(Version version) {
+            int txnIndex = version.txnIndex();
+            boolean aborted = !memory.validateReadSet(txnIndex)
+                && scheduler.tryValidationAbort(txnIndex, version.incarnation());
+            if (aborted) {
+                memory.convertWritesToEstimates(txnIndex);
+            }
+            return scheduler.finishValidation(txnIndex, aborted);
+        }
+
+        /**
+         * One incarnation's view: its own writes first, then lower
+         * transactions' writes, then storage
+         */
+        private final class SpeculativeContext implements TransactionContext {
+            final int txnIndex;
+            final Map<String, Object> writes = new HashMap<>();
+            final List<ReadDescriptor> reads = new ArrayList<>();
+
+            SpeculativeContext(int txnIndex) {
+                this.txnIndex = txnIndex;
+            }
+
+            @Override
+            public Object read(String key) {
+                if (writes.containsKey(key)) {
+                    return writes.get(key);
+                }
+                MultiVersionMemory.Entry entry = memory.read(key, txnIndex);
+                if (entry == null) {
+                    reads.add(new ReadDescriptor(key, null));
+                    return storage.apply(key);
+                }
+                if (entry.estimate()) {
+                    throw new DependencyException(entry.version().txnIndex());
+                }
+                reads.add(new ReadDescriptor(key, entry.version()));
+                return entry.value();
+            }
+
+            @Override
+            public void write(String key, Object value) {
+                writes.put(Objects.requireNonNull(key), value);
+            }
+        }
+    }
+
+    /**
+     * Versioned writes keyed by location, each location holding its writers
+     * ordered by transaction index
+     */
+    private static final class MultiVersionMemory {
+
+        record Entry(Version version, Object value, boolean estimate) {}
+
+        private final ConcurrentHashMap<String, ConcurrentSkipListMap<Integer, Entry>> data = new ConcurrentHashMap<>();
+        private final Set<String>[] lastWrittenLocations;
+        private final List<ReadDescriptor>[] lastReadSet;
+
+        @SuppressWarnings("unchecked")
+        MultiVersionMemory(int n) {
+            this.lastWrittenLocations = new Set[n];
+            this.lastReadSet = new List[n];
+            for (int i = 0; i < n; i++) {
+                lastWrittenLocations[i] = Set.of();
+                lastReadSet[i] = List.of();
+            }
+        }
+
+        /**
+         * Store an incarnation's writes and reads
+         *
+         * @return whether it wrote a location the previous incarnation did not
+         */
+        boolean record(Version version, List<ReadDescriptor> reads, Map<String, Object> writes) {
+            int txnIndex = version.txnIndex();
+            for (Map.Entry<String, Object> write : writes.entrySet()) {
+                data.computeIfAbsent(write.getKey(), k -> new ConcurrentSkipListMap<>())
+                    .put(txnIndex, new Entry(version, write.getValue(), false));
+            }
+            Set<String> previous = lastWrittenLocations[txnIndex];
+            for (String location : previous) {
+                if (!writes.containsKey(location)) {
+                    data.get(location).remove(txnIndex);
+                }
+            }
+            boolean wroteNewLocation = false;
+            for (String location : writes.keySet()) {
+                if (!previous.contains(location)) {
+                    wroteNewLocation = true;
+                    break;
+                }
+            }
+            lastWrittenLocations[txnIndex] = new HashSet<>(writes.keySet());
+            lastReadSet[txnIndex] = reads;
+            return wroteNewLocation;
+        }
+
+        /**
+         * @return latest entry written below {@code txnIndex}, or null to read storage
+         */
+        Entry read(String key, int txnIndex) {
+            ConcurrentSkipListMap<Integer, Entry> versions = data.get(key);
+            if (versions == null) {
+                return null;
+            }
+            Map.Entry<Integer, Entry> lower = versions.lowerEntry(txnIndex);
+            return lower == null ? null : lower.getValue();
+        }
+
+        boolean validateReadSet(int txnIndex) {
+            for (ReadDescriptor read : lastReadSet[txnIndex]) {
+                Entry current = read(read.key(), txnIndex);
+                if (current == null) {
+                    if (read.version() != null) {
+                        return false;
+                    }
+                } else if (current.estimate() || !current.version().equals(read.version())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void convertWritesToEstimates(int txnIndex) {
+            for (String location : lastWrittenLocations[txnIndex]) {
+                data.get(location).computeIfPresent(txnIndex,
+                    (index, entry) -> new Entry(entry.version(), null, true));
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> result = new HashMap<>();
+            data.forEach((key, versions) -> {
+                Map.Entry<Integer, Entry> last = versions.lastEntry();
+                if (last != null) {
+                    result.put(key, last.getValue().value());
+                }
+            });
+            return result;
+        }
+    }
+
+    /**
+     * Collaborative scheduler handing out the lowest-index pending execution
+     * or validation task
+     */
+    private static final class Scheduler {
+
+        private static final int READY_TO_EXECUTE = 0;
+        private static final int EXECUTING = 1;
+        private static final int EXECUTED = 2;
+        private static final int ABORTING = 3;
+
+        private final int n;
+        private final AtomicInteger executionIndex = new AtomicInteger();
+        private final AtomicInteger validationIndex = new AtomicInteger();
+        private final AtomicInteger decreaseCount = new AtomicInteger();
+        private final AtomicInteger activeTasks = new AtomicInteger();
+        final AtomicBoolean doneMarker = new AtomicBoolean();
+
+        private final int[] incarnation;
+        private final int[] status;
+        private final List<Integer>[] dependencies;
+
+        @SuppressWarnings("unchecked")
+        Scheduler(int n) {
+            this.n = n;
+            this.incarnation = new int[n];
+            this.status = new int[n];
+            this.dependencies = new List[n];
+            for (int i = 0; i < n; i++) {
+                dependencies[i] = new ArrayList<>();
+            }
+        }
+
+        boolean done() {
+            return doneMarker.get();
+        }
+
+        private void decreaseExecutionIndex(int target) {
+            executionIndex.accumulateAndGet(target, Math::min);
+            decreaseCount.incrementAndGet();
+        }
+
+        private void decreaseValidationIndex(int target) {
+            validationIndex.accumulateAndGet(target, Math::min);
+            decreaseCount.incrementAndGet();
+        }
+
+        private void checkDone() {
+            int observed = decreaseCount.get();
+            if (Math.min(executionIndex.get(), validationIndex.get()) >= n
+                    && activeTasks.get() == 0
+                    && observed == decreaseCount.get()) {
+                doneMarker.set(true);
+            }
+        }
+
+        private Version tryIncarnate(int txnIndex) {
+            if (txnIndex < n) {
+                synchronized (dependencies[txnIndex]) {
+                    if (status[txnIndex] == READY_TO_EXECUTE) {
+                        status[txnIndex] = EXECUTING;
+                        return new Version(txnIndex, incarnation[txnIndex]);
+                    }
+                }
+            }
+            return null;
+        }
+
+        private Version nextVersionToExecute() {
+            if (executionIndex.get() >= n) {
+                checkDone();
+                return null;
+            }
+            activeTasks.incrementAndGet();
+            Version version = tryIncarnate(executionIndex.getAndIncrement());
+            if (version == null) {
+                activeTasks.decrementAndGet();
+            }
+            return version;
+        }
+
+        private Version nextVersionToValidate() {
+            if (validationIndex.get() >= n) {
+                checkDone();
+                return null;
+            }
+            activeTasks.incrementAndGet();
+            int txnIndex = validationIndex.getAndIncrement();
+            if (txnIndex < n) {
+                synchronized (dependencies[txnIndex]) {
+                    if (status[txnIndex] == EXECUTED) {
+                        return new Version(txnIndex, incarnation[txnIndex]);
+                    }
+                }
+            }
+            activeTasks.decrementAndGet();
+            return null;
+        }
+
+        Task nextTask() {
+            if (validationIndex.get() < executionIndex.get()) {
+                Version version = nextVersionToValidate();
+                return version == null ? null : new Task(version, true);
+            }
+            Version version = nextVersionToExecute();
+            return version == null ? null : new Task(version, false);
+        }
+
+        /**
+         * Suspend {@code txnIndex} until {@code blockingIndex} finishes executing
+         *
+         * @return false if the blocking transaction has already finished
+         */
+        boolean addDependency(int txnIndex, int blockingIndex) {
+            synchronized (dependencies[blockingIndex]) {
+                if (status[blockingIndex] == EXECUTED) {
+                    return false;
+                }
+                synchronized (dependencies[txnIndex]) {
+                    status[txnIndex] = ABORTING;
+                }
+                dependencies[blockingIndex].add(txnIndex);
+            }
+            activeTasks.decrementAndGet();
+            return true;
+        }
+
+        private void setReadyStatus(int txnIndex) {
+            synchronized (dependencies[txnIndex]) {
+                incarnation[txnIndex]++;
+                status[txnIndex] = READY_TO_EXECUTE;
+            }
+        }
+
+        Task finishExecution(int txnIndex, int finishedIncarnation, boolean wroteNewLocation) {
+            List<Integer> dependents;
+            synchronized (dependencies[txnIndex]) {
+                status[txnIndex] = EXECUTED;
+                // The list doubles as this transaction's lock, so it is emptied rather than replaced
+                dependents = new ArrayList<>(dependencies[txnIndex]);
+                dependencies[txnIndex].clear();
+            }
+            if (!dependents.isEmpty()) {
+                int minDependent = Integer.MAX_VALUE;
+                for (int dependent : dependents) {
+                    setReadyStatus(dependent);
+                    minDependent = Math.min(minDependent, dependent);
+                }
+                decreaseExecutionIndex(minDependent);
+            }
+            if (validationIndex.get() > txnIndex) {
+                if (wroteNewLocation) {
+                    decreaseValidationIndex(txnIndex);
+                } else {
+                    return new Task(new Version(txnIndex, finishedIncarnation), true);
+                }
+            }
+            activeTasks.decrementAndGet();
+            return null;
+        }
+
+        boolean tryValidationAbort(int txnIndex, int validatedIncarnation) {
+            synchronized (dependencies[txnIndex]) {
+                if (incarnation[txnIndex] == validatedIncarnation && status[txnIndex] == EXECUTED) {
+                    status[txnIndex] = ABORTING;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Task finishValidation(int txnIndex, boolean aborted) {
+            if (aborted) {
+                setReadyStatus(txnIndex);
+                decreaseValidationIndex(txnIndex + 1);
+                if (executionIndex.get() > txnIndex) {
+                    Version version = tryIncarnate(txnIndex);
+                    if (version != null) {
+                        return new Task(version, false);
+                    }
+                }
+            }
+            activeTasks.decrementAndGet();
+            return null;
+        }
+    }
+}
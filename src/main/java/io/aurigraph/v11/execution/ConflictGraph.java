@@ -0,0 +1,231 @@
+package io.aurigraph.v11.execution;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conflict graph over primitive arrays
+ *
+ * Addresses are interned to dense int IDs and each transaction's accesses
+ * are scanned once in batch order. For every address the builder keeps its
+ * last writer and the readers since that write, so a transaction only gets
+ * an edge to the accesses it must follow: a read depends on the last
+ * writer, a write on the last writer and every reader since. Read-read
+ * pairs never conflict. Edges always point from a lower to a higher batch
+ * index and are stored as predecessor lists in CSR form
+ * ({@code predecessorOffsets}/{@code predecessors}).
+ *
+ * From the edges the graph derives:
+ * - connected components, via {@link ParallelTransactionExecutor.UnionFind};
+ *   no two components share a conflicting address
+ * - wavefronts, where wave k holds the transactions whose longest chain of
+ *   predecessors has length k. The members of a wave never conflict with
+ *   each other, so running the waves in order, each one in parallel, gives
+ *   the same result as running the batch in order.
+ */
+final class ConflictGraph {
+
+    private static final int NONE = -1;
+
+    private final int transactionCount;
+    private final int addressCount;
+    private final int[] predecessorOffsets;
+    private final int[] predecessors;
+    private final int[] level;
+    private final int waveCount;
+
+    private ConflictGraph(int transactionCount, int addressCount, int[] predecessorOffsets, int[] predecessors,
+                          int[] level, int waveCount) {
+        this.transactionCount = transactionCount;
+        this.addressCount = addressCount;
+        this.predecessorOffsets = predecessorOffsets;
+        this.predecessors = predecessors;
+        this.level = level;
+        this.waveCount = waveCount;
+    }
+
+    static ConflictGraph build(List<ParallelTransactionExecutor.TransactionTask> transactions) {
+        Builder builder = new Builder(transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            ParallelTransactionExecutor.TransactionTask tx = transactions.get(i);
+            for (String address : tx.readSet) {
+                if (!tx.writeSet.contains(address)) {
+                    builder.read(i, builder.intern(address));
+                }
+            }
+            for (String address : tx.writeSet) {
+                builder.write(i, builder.intern(address));
+            }
+            builder.finishTransaction(i);
+        }
+        return builder.build();
+    }
+
+    private static final class Builder {
+        private final int n;
+        private final Map<String, Integer> addressIds = new HashMap<>();
+
+        // Per address: last writer, and the readers since then as a linked list of read slots
+        private int[] lastWriter = new int[64];
+        private int[] readerHead = new int[64];
+        private int[] readerTx = new int[64];
+        private int[] readerNext = new int[64];
+        private int readSlots;
+
+        private final int[] predecessorOffsets;
+        private int[] predecessors;
+        private int edgeCount;
+        private final int[] level;
+        private int waveCount;
+
+        // Last transaction that got an edge from each transaction, to drop duplicate edges
+        private final int[] lastEdgeTarget;
+
+        Builder(int n) {
+            this.n = n;
+            this.predecessorOffsets = new int[n + 1];
+            this.predecessors = new int[Math.max(16, n)];
+            this.level = new int[n];
+            this.lastEdgeTarget = new int[n];
+            Arrays.fill(lastEdgeTarget, NONE);
+        }
+
+        int intern(String address) {
+            Integer existing = addressIds.get(address);
+            if (existing != null) {
+                return existing;
+            }
+            int id = addressIds.size();
+            addressIds.put(address, id);
+            if (id == lastWriter.length) {
+                lastWriter = Arrays.copyOf(lastWriter, id * 2);
+                readerHead = Arrays.copyOf(readerHead, id * 2);
+            }
+            lastWriter[id] = NONE;
+            readerHead[id] = NONE;
+            return id;
+        }
+
+        void read(int tx, int address) {
+            addEdge(lastWriter[address], tx);
+            if (readSlots == readerTx.length) {
+                readerTx = Arrays.copyOf(readerTx, readSlots * 2);
+                readerNext = Arrays.copyOf(readerNext, readSlots * 2);
+            }
+            readerTx[readSlots] = tx;
+            readerNext[readSlots] = readerHead[address];
+            readerHead[address] = readSlots++;
+        }
+
+        void write(int tx, int address) {
+            addEdge(lastWriter[address], tx);
+            for (int slot = readerHead[address]; slot != NONE; slot = readerNext[slot]) {
+                addEdge(readerTx[slot], tx);
+            }
+            lastWriter[address] = tx;
+            readerHead[address] = NONE;
+        }
+
+        private void addEdge(int from, int to) {
+            if (from == NONE || from == to || lastEdgeTarget[from] == to) {
+                return;
+            }
+            lastEdgeTarget[from] = to;
+            if (edgeCount == predecessors.length) {
+                predecessors = Arrays.copyOf(predecessors, edgeCount * 2);
+            }
+            predecessors[edgeCount++] = from;
+        }
+
+        void finishTransaction(int tx) {
+            int wave = 0;
+            for (int e = predecessorOffsets[tx]; e < edgeCount; e++) {
+                wave = Math.max(wave, level[predecessors[e]] + 1);
+            }
+            level[tx] = wave;
+            waveCount = Math.max(waveCount, wave + 1);
+            predecessorOffsets[tx + 1] = edgeCount;
+        }
+
+        ConflictGraph build() {
+            return new ConflictGraph(n, addressIds.size(), predecessorOffsets,
+                Arrays.copyOf(predecessors, edgeCount), level, waveCount);
+        }
+    }
+
+    int transactionCount() {
+        return transactionCount;
+    }
+
+    int addressCount() {
+        return addressCount;
+    }
+
+    int edgeCount() {
+        return predecessors.length;
+    }
+
+    int waveCount() {
+        return waveCount;
+    }
+
+    /**
+     * @return wave of transaction {@code index}; 0 if it has no predecessors
+     */
+    int level(int index) {
+        return level[index];
+    }
+
+    /**
+     * @return copy of the batch indexes {@code index} must run after
+     */
+    int[] predecessorsOf(int index) {
+        return Arrays.copyOfRange(predecessors, predecessorOffsets[index], predecessorOffsets[index + 1]);
+    }
+
+    /**
+     * Connected components of the conflict graph, each in batch order
+     */
+    <T> List<List<T>> components(List<T> transactions) {
+        ParallelTransactionExecutor.UnionFind uf = new ParallelTransactionExecutor.UnionFind(transactionCount);
+        for (int i = 0; i < transactionCount; i++) {
+            for (int e = predecessorOffsets[i]; e < predecessorOffsets[i + 1]; e++) {
+                uf.union(i, predecessors[e]);
+            }
+        }
+
+        int[] componentOf = new int[transactionCount];
+        Arrays.fill(componentOf, NONE);
+        List<List<T>> components = new ArrayList<>(uf.getComponentCount());
+        for (int i = 0; i < transactionCount; i++) {
+            int root = uf.find(i);
+            if (componentOf[root] == NONE) {
+                componentOf[root] = components.size();
+                components.add(new ArrayList<>());
+            }
+            components.get(componentOf[root]).add(transactions.get(i));
+        }
+        return components;
+    }
+
+    /**
+     * Transactions grouped by wave, each wave in batch order
+     */
+    <T> List<List<T>> wavefronts(List<T> transactions) {
+        int[] waveSizes = new int[waveCount];
+        for (int i = 0; i < transactionCount; i++) {
+            waveSizes[level[i]]++;
+        }
+        List<List<T>> waves = new ArrayList<>(waveCount);
+        for (int size : waveSizes) {
+            waves.add(new ArrayList<>(size));
+        }
+        for (int i = 0; i < transactionCount; i++) {
+            waves.get(level[i]).add(transactions.get(i));
+        }
+        return waves;
+    }
+}
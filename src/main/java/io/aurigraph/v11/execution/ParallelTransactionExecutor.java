@@ -6,6 +6,7 @@ import org.jboss.logging.Logger;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -17,6 +18,8 @@ import java.util.stream.Collectors;
  * - Conflict detection and resolution
  * - Virtual thread-based parallel processing
  * - Transaction scheduling optimization
+ * - Block-STM speculative execution for batches without declared
+ *   read/write sets (see {@link BlockStmExecutor})
  *
  * Target: 2M+ TPS sustained throughput
  */
@@ -27,20 +30,22 @@ public class ParallelTransactionExecutor {
 
     private final ExecutorService virtualThreadExecutor;
     private final DependencyGraphAnalyzer dependencyAnalyzer;
-    private final ConflictResolver conflictResolver;
     private final TransactionScheduler scheduler;
+    private final BlockStmExecutor speculativeExecutor;
 
     // Performance metrics
     private final AtomicLong totalExecuted = new AtomicLong(0);
     private final AtomicLong totalConflicts = new AtomicLong(0);
     private final AtomicLong totalParallelBatches = new AtomicLong(0);
+    private final AtomicLong totalAborts = new AtomicLong(0);
+    private volatile double lastBatchAbortRate = 0.0;
 
     public ParallelTransactionExecutor() {
         // Virtual thread executor for massive concurrency
         this.virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
         this.dependencyAnalyzer = new DependencyGraphAnalyzer();
-        this.conflictResolver = new ConflictResolver();
         this.scheduler = new TransactionScheduler();
+        this.speculativeExecutor = new BlockStmExecutor(Runtime.getRuntime().availableProcessors());
 
         LOG.info("Parallel Transaction Executor initialized with virtual threads");
     }
@@ -62,10 +67,41 @@ public class ParallelTransactionExecutor {
 
         LOG.infof("Identified %d independent transaction groups", independentGroups.size());
 
-        // Step 3: Execute groups in parallel
-        List<CompletableFuture<GroupExecutionResult>> futures = new ArrayList<>();
+        // Step 3: Execute conflict components in parallel, or conflict-free layers one after another
+        GroupExecutionResult[] results;
+        if (defaultAlgorithm.groupsAreComponents()) {
+            results = executeConcurrently(independentGroups);
+        } else {
+            List<GroupExecutionResult> layerResults = new ArrayList<>();
+            for (List<TransactionTask> layer : independentGroups) {
+                layerResults.addAll(Arrays.asList(executeConcurrently(partition(layer))));
+            }
+            results = layerResults.toArray(new GroupExecutionResult[0]);
+        }
+
+        // Step 5: Aggregate results
+        long executionTime = System.nanoTime() - startTime;
+        ExecutionResult result = aggregateResults(results, executionTime, transactions.size());
+
+        totalExecuted.addAndGet(result.successCount);
+        totalConflicts.addAndGet(result.conflictCount);
+        totalParallelBatches.incrementAndGet();
+
+        LOG.infof("Parallel execution complete: %d successful, %d failed in %.2f ms (%.0f TPS)",
+            result.successCount, result.failedCount,
+            executionTime / 1_000_000.0,
+            calculateTPS(transactions.size(), executionTime));
+
+        return result;
+    }
+
+    /**
+     * Run each group on its own virtual thread and wait for all of them
+     */
+    private GroupExecutionResult[] executeConcurrently(List<List<TransactionTask>> groups) {
+        List<CompletableFuture<GroupExecutionResult>> futures = new ArrayList<>(groups.size());
 
-        for (List<TransactionTask> group : independentGroups) {
+        for (List<TransactionTask> group : groups) {
             CompletableFuture<GroupExecutionResult> future = CompletableFuture.supplyAsync(
                 () -> executeGroup(group),
                 virtualThreadExecutor
@@ -73,95 +109,87 @@ public class ParallelTransactionExecutor {
             futures.add(future);
         }
 
-        // Step 4: Wait for all groups to complete
         CompletableFuture<Void> allFutures = CompletableFuture.allOf(
             futures.toArray(new CompletableFuture[0])
         );
 
-        GroupExecutionResult[] results;
         try {
             allFutures.get(30, TimeUnit.SECONDS);
-            results = futures.stream()
+            return futures.stream()
                 .map(CompletableFuture::join)
                 .toArray(GroupExecutionResult[]::new);
         } catch (Exception e) {
             LOG.error("Parallel execution failed", e);
             throw new RuntimeException("Parallel execution failed", e);
         }
+    }
 
-        // Step 5: Aggregate results
-        long executionTime = System.nanoTime() - startTime;
-        ExecutionResult result = aggregateResults(results, executionTime, transactions.size());
-
-        totalExecuted.addAndGet(result.successCount);
-        totalConflicts.addAndGet(result.conflictCount);
-        totalParallelBatches.incrementAndGet();
-
-        LOG.infof("Parallel execution complete: %d successful, %d failed in %.2f ms (%.0f TPS)",
-            result.successCount, result.failedCount,
-            executionTime / 1_000_000.0,
-            calculateTPS(transactions.size(), executionTime));
-
+    /**
+     * Split a conflict-free layer into one contiguous slice per processor
+     */
+    private static List<List<TransactionTask>> partition(List<TransactionTask> layer) {
+        int slices = Math.min(layer.size(), Runtime.getRuntime().availableProcessors());
+        List<List<TransactionTask>> result = new ArrayList<>(slices);
+        for (int s = 0; s < slices; s++) {
+            result.add(layer.subList(layer.size() * s / slices, layer.size() * (s + 1) / slices));
+        }
         return result;
     }
 
     /**
-     * Execute a group of independent transactions
+     * Execute a group of transactions in batch order
+     *
+     * Connected components of the conflict graph may touch the same state
+     * internally and must not overlap; parallelism comes from running the
+     * components themselves concurrently. Slices of a conflict-free layer
+     * could run in any order, so running them in order is merely convenient.
      */
     private GroupExecutionResult executeGroup(List<TransactionTask> group) {
         int successCount = 0;
         int failedCount = 0;
-        int conflictCount = 0;
 
-        // Execute all transactions in group concurrently
-        List<CompletableFuture<TaskExecutionResult>> taskFutures = group.stream()
-            .map(task -> CompletableFuture.supplyAsync(
-                () -> executeTransaction(task),
-                virtualThreadExecutor
-            ))
-            .toList();
-
-        // Wait for all tasks in group
-        for (CompletableFuture<TaskExecutionResult> future : taskFutures) {
+        for (TransactionTask task : group) {
             try {
-                TaskExecutionResult taskResult = future.get();
-                if (taskResult.success) {
-                    successCount++;
-                } else {
-                    if (taskResult.conflict) {
-                        conflictCount++;
-                    }
-                    failedCount++;
-                }
+                task.execute();
+                successCount++;
             } catch (Exception e) {
-                LOG.error("Task execution failed", e);
+                LOG.errorf(e, "Transaction %s execution failed", task.id);
                 failedCount++;
             }
         }
 
-        return new GroupExecutionResult(successCount, failedCount, conflictCount);
+        return new GroupExecutionResult(successCount, failedCount, 0);
     }
 
     /**
-     * Execute a single transaction
+     * Execute transactions speculatively with Block-STM
+     *
+     * Unlike {@link #executeParallel}, this needs no declared read/write
+     * sets: each task's {@link BlockStmExecutor.Transition} runs against
+     * multi-version state, conflicts are found by validating what it actually
+     * read, and the resulting writes equal those of running the list in order.
+     *
+     * @param storage committed state the batch reads from; returns null for absent keys
+     * @return the batch's writes and abort statistics
      */
-    private TaskExecutionResult executeTransaction(TransactionTask task) {
-        try {
-            // Check for conflicts with currently executing transactions
-            if (conflictResolver.hasConflict(task)) {
-                LOG.debugf("Transaction %s has conflict, retrying...", task.id);
-                return new TaskExecutionResult(false, true);
+    public BlockStmExecutor.BlockResult executeSpeculative(List<TransactionTask> transactions,
+                                                            Function<String, Object> storage) {
+        List<BlockStmExecutor.Transition> block = new ArrayList<>(transactions.size());
+        for (TransactionTask task : transactions) {
+            if (task.transition == null) {
+                throw new IllegalArgumentException("Transaction " + task.id + " has no state transition");
             }
+            block.add(task.transition);
+        }
 
-            // Execute the transaction logic
-            task.execute();
+        BlockStmExecutor.BlockResult result = speculativeExecutor.execute(block, storage);
 
-            return new TaskExecutionResult(true, false);
+        totalExecuted.addAndGet(transactions.size() - result.failedCount());
+        totalAborts.addAndGet(result.aborts());
+        totalParallelBatches.incrementAndGet();
+        lastBatchAbortRate = result.abortRate();
 
-        } catch (Exception e) {
-            LOG.errorf(e, "Transaction %s execution failed", task.id);
-            return new TaskExecutionResult(false, false);
-        }
+        return result;
     }
 
     /**
@@ -200,7 +228,9 @@ public class ParallelTransactionExecutor {
             totalExecuted.get(),
             totalConflicts.get(),
             totalParallelBatches.get(),
-            calculateAverageTPS()
+            calculateAverageTPS(),
+            totalAborts.get(),
+            lastBatchAbortRate
         );
     }
 
@@ -211,6 +241,7 @@ public class ParallelTransactionExecutor {
 
     public void shutdown() {
         virtualThreadExecutor.shutdown();
+        speculativeExecutor.shutdown();
         LOG.info("Parallel Transaction Executor shutdown");
     }
 
@@ -223,7 +254,8 @@ public class ParallelTransactionExecutor {
     public enum GroupingAlgorithm {
         /**
          * Original O(n²) nested loop algorithm
-         * For reference and comparison
+         * For reference and comparison. Like OPTIMIZED_HASH it yields sets of
+         * mutually non-conflicting transactions, run one set after another
          */
         LEGACY,
 
@@ -231,6 +263,7 @@ public class ParallelTransactionExecutor {
          * Hash-based greedy coloring: O(n) average case
          * Week 1, Day 1 implementation
          * Best for: Medium-sized batches (1K-50K transactions)
+         * Each color is conflict-free and runs in parallel; colors run in order
          */
         OPTIMIZED_HASH,
 
@@ -239,7 +272,23 @@ public class ParallelTransactionExecutor {
          * Week 1, Day 2 implementation
          * Best for: Large batches (50K+ transactions) with complex conflicts
          */
-        UNION_FIND
+        UNION_FIND,
+
+        /**
+         * Layered schedule over the same conflict graph: O(n + edges)
+         * Waves run in order, each wave in parallel, so independent links
+         * of different dependency chains overlap instead of a whole
+         * connected component running on one thread
+         */
+        WAVEFRONT;
+
+        /**
+         * Whether groups are conflict components, which run concurrently with
+         * each other; otherwise they are conflict-free layers run in order
+         */
+        boolean groupsAreComponents() {
+            return this == UNION_FIND;
+        }
     }
 
     // Default algorithm (can be configured)
@@ -260,20 +309,7 @@ public class ParallelTransactionExecutor {
     static class DependencyGraphAnalyzer {
 
         public DependencyGraph buildDependencyGraph(List<TransactionTask> transactions) {
-            // Build dependency graph based on read/write sets
-            Map<String, Set<TransactionTask>> readSets = new HashMap<>();
-            Map<String, Set<TransactionTask>> writeSets = new HashMap<>();
-
-            for (TransactionTask tx : transactions) {
-                for (String address : tx.readSet) {
-                    readSets.computeIfAbsent(address, k -> new HashSet<>()).add(tx);
-                }
-                for (String address : tx.writeSet) {
-                    writeSets.computeIfAbsent(address, k -> new HashSet<>()).add(tx);
-                }
-            }
-
-            return new DependencyGraph(transactions, readSets, writeSets);
+            return new DependencyGraph(transactions);
         }
     }
 
@@ -283,15 +319,17 @@ public class ParallelTransactionExecutor {
      */
     static class DependencyGraph {
         private final List<TransactionTask> transactions;
-        private final Map<String, Set<TransactionTask>> readSets;
-        private final Map<String, Set<TransactionTask>> writeSets;
+        private ConflictGraph conflictGraph;
 
-        public DependencyGraph(List<TransactionTask> transactions,
-                             Map<String, Set<TransactionTask>> readSets,
-                             Map<String, Set<TransactionTask>> writeSets) {
+        public DependencyGraph(List<TransactionTask> transactions) {
             this.transactions = transactions;
-            this.readSets = readSets;
-            this.writeSets = writeSets;
+        }
+
+        private ConflictGraph conflictGraph() {
+            if (conflictGraph == null) {
+                conflictGraph = ConflictGraph.build(transactions);
+            }
+            return conflictGraph;
         }
 
         /**
@@ -303,9 +341,18 @@ public class ParallelTransactionExecutor {
                 case LEGACY -> getIndependentGroupsLegacy();
                 case OPTIMIZED_HASH -> getIndependentGroupsOptimized();
                 case UNION_FIND -> getIndependentGroupsWithUnionFind();
+                case WAVEFRONT -> getWavefronts();
             };
         }
 
+        /**
+         * Layered schedule: waves must run one after another, while the
+         * transactions within a wave are conflict-free and can run in any order
+         */
+        public List<List<TransactionTask>> getWavefronts() {
+            return conflictGraph().wavefronts(transactions);
+        }
+
         /**
          * LEGACY: Original O(n²) implementation (kept for reference)
          */
@@ -452,80 +499,11 @@ public class ParallelTransactionExecutor {
          * Performance: O(n * α(n)) where α is inverse Ackermann (nearly constant)
          *
          * Week 1, Day 2: Agent BDA implementation
-         * Uses path compression and union by rank for optimal performance
+         * Uses path compression and union by rank for optimal performance,
+         * unioning along the edges of the primitive {@link ConflictGraph}
          */
         private List<List<TransactionTask>> getIndependentGroupsWithUnionFind() {
-            int n = transactions.size();
-            if (n == 0) return new ArrayList<>();
-
-            // Build transaction index for O(1) lookup
-            Map<TransactionTask, Integer> txIndex = new HashMap<>();
-            for (int i = 0; i < n; i++) {
-                txIndex.put(transactions.get(i), i);
-            }
-
-            // Initialize Union-Find structure
-            UnionFind uf = new UnionFind(n);
-
-            // Build address indices for efficient conflict detection
-            Map<String, List<Integer>> writeIndex = new HashMap<>();
-            Map<String, List<Integer>> readIndex = new HashMap<>();
-
-            for (int i = 0; i < n; i++) {
-                TransactionTask tx = transactions.get(i);
-                for (String addr : tx.writeSet) {
-                    writeIndex.computeIfAbsent(addr, k -> new ArrayList<>()).add(i);
-                }
-                for (String addr : tx.readSet) {
-                    readIndex.computeIfAbsent(addr, k -> new ArrayList<>()).add(i);
-                }
-            }
-
-            // Union transactions that have conflicts
-            for (int i = 0; i < n; i++) {
-                TransactionTask tx = transactions.get(i);
-                Set<Integer> conflictingTxs = new HashSet<>();
-
-                // Find write-write conflicts
-                for (String addr : tx.writeSet) {
-                    List<Integer> writers = writeIndex.get(addr);
-                    if (writers != null) {
-                        conflictingTxs.addAll(writers);
-                    }
-                }
-
-                // Find read-write conflicts
-                for (String addr : tx.readSet) {
-                    List<Integer> writers = writeIndex.get(addr);
-                    if (writers != null) {
-                        conflictingTxs.addAll(writers);
-                    }
-                }
-
-                // Find write-read conflicts
-                for (String addr : tx.writeSet) {
-                    List<Integer> readers = readIndex.get(addr);
-                    if (readers != null) {
-                        conflictingTxs.addAll(readers);
-                    }
-                }
-
-                // Union all conflicting transactions
-                for (Integer j : conflictingTxs) {
-                    if (i != j) {
-                        uf.union(i, j);
-                    }
-                }
-            }
-
-            // Group transactions by their root component
-            Map<Integer, List<TransactionTask>> componentGroups = new HashMap<>();
-            for (int i = 0; i < n; i++) {
-                int root = uf.find(i);
-                componentGroups.computeIfAbsent(root, k -> new ArrayList<>()).add(transactions.get(i));
-            }
-
-            return new ArrayList<>(componentGroups.values());
+            return conflictGraph().components(transactions);
         }
 
         private boolean conflictsWith(TransactionTask tx1, TransactionTask tx2) {
@@ -637,42 +615,6 @@ public class ParallelTransactionExecutor {
         }
     }
 
-    /**
-     * Conflict Resolver
-     * Sprint 15 - Conflict detection and resolution
-     */
-    static class ConflictResolver {
-        private final Set<String> activeWrites = ConcurrentHashMap.newKeySet();
-        private final Set<String> activeReads = ConcurrentHashMap.newKeySet();
-
-        public boolean hasConflict(TransactionTask task) {
-            // Check for conflicts with active transactions
-            for (String addr : task.writeSet) {
-                if (activeWrites.contains(addr) || activeReads.contains(addr)) {
-                    return true;
-                }
-            }
-
-            for (String addr : task.readSet) {
-                if (activeWrites.contains(addr)) {
-                    return true;
-                }
-            }
-
-            return false;
-        }
-
-        public void acquireLocks(TransactionTask task) {
-            activeWrites.addAll(task.writeSet);
-            activeReads.addAll(task.readSet);
-        }
-
-        public void releaseLocks(TransactionTask task) {
-            activeWrites.removeAll(task.writeSet);
-            activeReads.removeAll(task.readSet);
-        }
-    }
-
     /**
      * Transaction Scheduler
      * Sprint 15 - AI-based transaction scheduling (placeholder)
@@ -695,6 +637,7 @@ public class ParallelTransactionExecutor {
         public final Set<String> writeSet;
         public final int priority;
         private final Runnable execution;
+        private final BlockStmExecutor.Transition transition;
 
         public TransactionTask(String id, Set<String> readSet, Set<String> writeSet,
                               int priority, Runnable execution) {
@@ -703,6 +646,20 @@ public class ParallelTransactionExecutor {
             this.writeSet = writeSet;
             this.priority = priority;
             this.execution = execution;
+            this.transition = null;
+        }
+
+        /**
+         * Task for {@link #executeSpeculative}, whose state access is
+         * discovered at execution time
+         */
+        public TransactionTask(String id, int priority, BlockStmExecutor.Transition transition) {
+            this.id = id;
+            this.readSet = Set.of();
+            this.writeSet = Set.of();
+            this.priority = priority;
+            this.execution = null;
+            this.transition = transition;
         }
 
         public void execute() {
@@ -712,8 +669,6 @@ public class ParallelTransactionExecutor {
 
     record GroupExecutionResult(int successCount, int failedCount, int conflictCount) {}
 
-    record TaskExecutionResult(boolean success, boolean conflict) {}
-
     public record ExecutionResult(
         int successCount,
         int failedCount,
@@ -726,6 +681,8 @@ public class ParallelTransactionExecutor {
         long totalExecuted,
         long totalConflicts,
         long totalBatches,
-        double averageTPS
+        double averageTPS,
+        long totalAborts,
+        double lastBatchAbortRate
     ) {}
 }
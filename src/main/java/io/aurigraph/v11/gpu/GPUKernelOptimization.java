@@ -4,11 +4,13 @@ import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -46,12 +48,23 @@ public class GPUKernelOptimization {
     @ConfigProperty(name = "gpu.merkle.batch.size", defaultValue = "100000")
     int merkleBatchSize;
 
+    @ConfigProperty(name = "gpu.merkle.parallel.threshold", defaultValue = "4096")
+    int merkleParallelThreshold;
+
     private final AtomicBoolean gpuAvailable = new AtomicBoolean(false);
     private final AtomicBoolean gpuHardwareDetected = new AtomicBoolean(false);
     private final AtomicLong gpuFallbackCount = new AtomicLong(0);
     private final AtomicLong gpuSuccessCount = new AtomicLong(0);
     private final ForkJoinPool parallelPool = ForkJoinPool.commonPool();
 
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    });
+
     /**
      * Initialize GPU acceleration on application startup
      */
@@ -199,35 +212,12 @@ public class GPUKernelOptimization {
         long startTime = System.nanoTime();
 
         try {
-            // Pad to next power of 2
+            // Pad to next power of 2 (padding leaves are all-zero hashes)
             int paddedSize = nextPowerOfTwo(leaves.length);
-            byte[][] currentLevel = Arrays.copyOf(leaves, paddedSize);
-
-            // Fill padding with empty hashes
-            for (int i = leaves.length; i < paddedSize; i++) {
-                currentLevel[i] = new byte[32];
-            }
 
-            // Build tree bottom-up
-            while (currentLevel.length > 1) {
-                final byte[][] nextLevelFinal = new byte[currentLevel.length / 2][];
-                final byte[][] currentLevelFinal = currentLevel;
-
-                // Use parallel stream for tree construction
-                int[] indices = new int[nextLevelFinal.length];
-                for (int i = 0; i < indices.length; i++) {
-                    indices[i] = i;
-                }
-
-                Arrays.stream(indices).parallel().forEach(i -> {
-                    byte[] combined = new byte[64];
-                    System.arraycopy(currentLevelFinal[i * 2], 0, combined, 0, 32);
-                    System.arraycopy(currentLevelFinal[i * 2 + 1], 0, combined, 32, 32);
-                    nextLevelFinal[i] = sha256Hash(combined);
-                });
-
-                currentLevel = nextLevelFinal;
-            }
+            // Build subtrees in parallel, merging at the top levels
+            byte[] root = parallelPool.invoke(new MerkleSubtreeTask(leaves, 0, paddedSize,
+                    Math.max(2, merkleParallelThreshold)));
 
             long duration = System.nanoTime() - startTime;
             gpuSuccessCount.incrementAndGet();
@@ -237,7 +227,7 @@ public class GPUKernelOptimization {
                         leaves.length, duration / 1_000_000.0));
             }
 
-            return currentLevel[0];
+            return root;
         } catch (Exception e) {
             Log.warn("Merkle tree calculation failed: " + e.getMessage());
             gpuFallbackCount.incrementAndGet();
@@ -245,6 +235,66 @@ public class GPUKernelOptimization {
         }
     }
 
+    /**
+     * Computes the root of a power-of-two leaf range, forking both halves while
+     * the range is larger than the threshold and hashing sequentially below it
+     */
+    private static final class MerkleSubtreeTask extends RecursiveTask<byte[]> {
+        private final byte[][] leaves;
+        private final int start;
+        private final int size;
+        private final int threshold;
+
+        MerkleSubtreeTask(byte[][] leaves, int start, int size, int threshold) {
+            this.leaves = leaves;
+            this.start = start;
+            this.size = size;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected byte[] compute() {
+            if (size <= threshold) {
+                return subtreeRoot(leaves, start, size);
+            }
+
+            int half = size / 2;
+            MerkleSubtreeTask right = new MerkleSubtreeTask(leaves, start + half, half, threshold);
+            right.fork();
+            byte[] leftRoot = new MerkleSubtreeTask(leaves, start, half, threshold).compute();
+            byte[] rightRoot = right.join();
+
+            MessageDigest digest = SHA256.get();
+            digest.update(leftRoot);
+            digest.update(rightRoot);
+            return digest.digest();
+        }
+
+        /**
+         * Hash a subtree level by level in place in one flat buffer
+         */
+        private static byte[] subtreeRoot(byte[][] leaves, int start, int size) {
+            byte[] buffer = new byte[size * 32];
+            int available = Math.min(size, Math.max(0, leaves.length - start));
+            for (int i = 0; i < available; i++) {
+                System.arraycopy(leaves[start + i], 0, buffer, i * 32, 32);
+            }
+
+            MessageDigest digest = SHA256.get();
+            try {
+                for (int width = size; width > 1; width /= 2) {
+                    for (int i = 0; i < width / 2; i++) {
+                        digest.update(buffer, i * 64, 64);
+                        digest.digest(buffer, i * 32, 32);
+                    }
+                }
+            } catch (DigestException e) {
+                throw new IllegalStateException("SHA-256 digest failed", e);
+            }
+            return Arrays.copyOf(buffer, 32);
+        }
+    }
+
     /**
      * Find next power of 2 for tree padding
      */
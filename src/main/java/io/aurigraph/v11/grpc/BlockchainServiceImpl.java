@@ -16,6 +16,7 @@ import io.smallrye.mutiny.Uni;
 import io.smallrye.mutiny.Multi;
 import jakarta.inject.Singleton;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
 import com.google.protobuf.Timestamp;
 
@@ -63,6 +64,10 @@ public class BlockchainServiceImpl extends BlockchainServiceGrpc.BlockchainServi
     @Inject
     TransactionRepository transactionRepository;
 
+    // Blocks with more transactions than this build their Merkle root on the fork-join pool
+    @ConfigProperty(name = "merkle.parallel.threshold", defaultValue = "16384")
+    int merkleParallelThreshold;
+
     // Block cache for fast lookups (LRU cache with 1000 entries)
     private final Map<String, Block> blockCache = new ConcurrentHashMap<>(1000);
     private final Map<Long, String> heightToHashCache = new ConcurrentHashMap<>(1000);
@@ -120,7 +125,7 @@ public class BlockchainServiceImpl extends BlockchainServiceGrpc.BlockchainServi
             String merkleRoot = request.getTransactionRoot();
             if (merkleRoot.isEmpty() && !transactionHashes.isEmpty()) {
                 // Compute Merkle root if not provided
-                MerkleTree<String> merkleTree = new MerkleTree<>(transactionHashes, hash -> hash);
+                MerkleTree<String> merkleTree = new MerkleTree<>(transactionHashes, hash -> hash, merkleParallelThreshold);
                 merkleRoot = merkleTree.getRootHash();
             }
 
@@ -261,7 +266,8 @@ public class BlockchainServiceImpl extends BlockchainServiceGrpc.BlockchainServi
             if (protoBlock.getTransactionHashesList().size() > 0) {
                 MerkleTree<String> merkleTree = new MerkleTree<>(
                     protoBlock.getTransactionHashesList(),
-                    hash -> hash
+                    hash -> hash,
+                    merkleParallelThreshold
                 );
 
                 String computedRoot = merkleTree.getRootHash();
@@ -1,6 +1,8 @@
 package io.aurigraph.v11.grpc;
 
+import io.aurigraph.v11.consensus.HyperRAFTPlusProduction;
 import io.quarkus.grpc.GrpcService;
+import jakarta.inject.Inject;
 import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import io.aurigraph.v11.proto.*;
@@ -13,19 +15,26 @@ import com.google.protobuf.Timestamp;
 /**
  * ConsensusServiceImpl - HyperRAFT++ Distributed Consensus Service
  *
- * Implements 11 RPC methods for blockchain consensus with:
+ * Implements 14 RPC methods for blockchain consensus with:
  * - Block proposal and voting mechanism
  * - Leader election with term-based voting
  * - Heartbeat and state synchronization
  * - Raft log replication and management
  * - Real-time consensus event streaming
  *
+ * requestLeaderElection, heartbeat, appendEntries, streamAppendEntries and
+ * installSnapshot are the server side of the HyperRAFT++ node-to-node protocol and are handled by
+ * the local {@link HyperRAFTPlusProduction} node.
+ *
  * Target Performance: 1.1M-1.3M TPS (50-70% improvement from 776K baseline)
  * Protocol: gRPC with Protocol Buffers and HTTP/2 multiplexing
  */
 @GrpcService
 public class ConsensusServiceImpl implements io.aurigraph.v11.proto.ConsensusService {
 
+    @Inject
+    HyperRAFTPlusProduction raftNode;
+
     // Consensus state management
     private volatile io.aurigraph.v11.proto.ConsensusRole currentRole = io.aurigraph.v11.proto.ConsensusRole.ROLE_FOLLOWER;
     private volatile io.aurigraph.v11.proto.ConsensusPhase currentPhase = io.aurigraph.v11.proto.ConsensusPhase.PHASE_UNKNOWN;
@@ -59,6 +68,16 @@ public class ConsensusServiceImpl implements io.aurigraph.v11.proto.ConsensusSer
     private volatile int activeValidators = 0;
     private volatile int requiredMajority = 0;
 
+    public ConsensusServiceImpl() {
+    }
+
+    /**
+     * Serve RPCs for a node created outside the container (in-process clusters)
+     */
+    ConsensusServiceImpl(HyperRAFTPlusProduction raftNode) {
+        this.raftNode = raftNode;
+    }
+
     /**
      * RPC 1: proposeBlock - Submit block proposal for consensus voting
      */
@@ -199,39 +218,23 @@ public class ConsensusServiceImpl implements io.aurigraph.v11.proto.ConsensusSer
     }
 
     /**
-     * RPC 4: requestLeaderElection - Initiate leader election
+     * RPC 4: requestLeaderElection - RequestVote from a candidate
      */
     @Override
     public Uni<LeaderElectionResponse> requestLeaderElection(LeaderElectionRequest request) {
-        return Uni.createFrom().item(() -> {
-            try {
-                String candidateId = request.getCandidateId();
-                long electionTerm = request.getElectionTerm();
-
-                electionQueue.offer(candidateId);
-                electionVotes.putIfAbsent(electionTerm, Collections.synchronizedList(new ArrayList<>()));
-
-                // Simulate election acceptance (in production, would collect actual votes)
-                currentTerm = Math.max(currentTerm, electionTerm);
-                currentRole = ConsensusRole.ROLE_CANDIDATE;
-
-                int votesRequired = calculateMajority(activeValidators);
-
-                return LeaderElectionResponse.newBuilder()
-                    .setElectionAccepted(true)
-                    .setNewLeaderId(candidateId)
-                    .setElectionTerm(electionTerm)
-                    .setVotesReceived(1)
-                    .setVotesRequired(votesRequired)
-                    .setTimestamp(getCurrentTimestamp())
-                    .build();
-            } catch (Exception e) {
-                return LeaderElectionResponse.newBuilder()
-                    .setElectionAccepted(false)
-                    .setTimestamp(getCurrentTimestamp())
+        electionQueue.offer(request.getCandidateId());
+        return raftNode.handleVoteRequest(RaftMessageConverter.fromProto(request))
+            .onItem().transform(vote -> {
+                syncRaftState();
+                return RaftMessageConverter.toProto(vote, request.getCandidateId()).toBuilder()
+                    .setVotesRequired(calculateMajority(raftNode.getClusterSize()))
                     .build();
-            }
-        });
+            })
+            .onFailure().recoverWithItem(e -> LeaderElectionResponse.newBuilder()
+                .setElectionAccepted(false)
+                .setRejectReason(String.valueOf(e.getMessage()))
+                .setTimestamp(getCurrentTimestamp())
+                .build());
     }
 
     /**
@@ -239,33 +242,17 @@ public class ConsensusServiceImpl implements io.aurigraph.v11.proto.ConsensusSer
      */
     @Override
     public Uni<HeartbeatResponse> heartbeat(HeartbeatRequest request) {
-        return Uni.createFrom().item(() -> {
-            try {
+        return raftNode.handleAppendEntries(RaftMessageConverter.fromHeartbeat(request))
+            .onItem().transform(response -> {
                 lastHeartbeatTime = System.currentTimeMillis();
-                currentTerm = Math.max(currentTerm, request.getCurrentTerm());
-
-                if (!currentLeader.equals(request.getLeaderId())) {
-                    currentLeader = request.getLeaderId();
-                    currentRole = ConsensusRole.ROLE_FOLLOWER;
-                }
-
-                long nextIndex = Math.max(lastAppliedIndex + 1, request.getPrevLogIndex());
-                nextIndexMap.put(request.getLeaderId(), nextIndex);
-
-                return HeartbeatResponse.newBuilder()
-                    .setFollowerId("")
-                    .setCurrentTerm(currentTerm)
-                    .setHeartbeatAccepted(true)
-                    .setNextLogIndex(nextIndex)
-                    .setTimestamp(getCurrentTimestamp())
-                    .build();
-            } catch (Exception e) {
-                return HeartbeatResponse.newBuilder()
-                    .setHeartbeatAccepted(false)
-                    .setTimestamp(getCurrentTimestamp())
-                    .build();
-            }
-        });
+                syncRaftState();
+                nextIndexMap.put(request.getLeaderId(), response.matchIndex + 1);
+                return RaftMessageConverter.toHeartbeatResponse(response);
+            })
+            .onFailure().recoverWithItem(e -> HeartbeatResponse.newBuilder()
+                .setHeartbeatAccepted(false)
+                .setTimestamp(getCurrentTimestamp())
+                .build());
     }
 
     /**
@@ -493,7 +480,56 @@ public class ConsensusServiceImpl implements io.aurigraph.v11.proto.ConsensusSer
             .recoverWithCompletion();
     }
 
+    /**
+     * RPC 12: appendEntries - Replicate a batch of log entries from the leader
+     */
+    @Override
+    public Uni<AppendEntriesResponse> appendEntries(AppendEntriesRequest request) {
+        return raftNode.handleAppendEntries(RaftMessageConverter.fromProto(request))
+            .onItem().transform(response -> {
+                lastHeartbeatTime = System.currentTimeMillis();
+                syncRaftState();
+                return RaftMessageConverter.toProto(response);
+            });
+    }
+
+    /**
+     * RPC 13: streamAppendEntries - Catch-up replication (bidirectional streaming)
+     *
+     * Batches are applied strictly in order and answered one response per batch.
+     */
+    @Override
+    public Multi<AppendEntriesResponse> streamAppendEntries(Multi<AppendEntriesRequest> requests) {
+        return requests.onItem().transformToUniAndConcatenate(this::appendEntries);
+    }
+
+    /**
+     * RPC 14: installSnapshot - Receive a compacted state snapshot (client streaming)
+     *
+     * Answered once, after the last chunk or at the first rejected chunk.
+     */
+    @Override
+    public Uni<InstallSnapshotResponse> installSnapshot(Multi<InstallSnapshotRequest> chunks) {
+        return raftNode.handleInstallSnapshot(chunks.map(RaftMessageConverter::fromProto))
+            .onItem().transform(response -> {
+                lastHeartbeatTime = System.currentTimeMillis();
+                syncRaftState();
+                return RaftMessageConverter.toProto(response);
+            });
+    }
+
     // Helper methods
+    private void syncRaftState() {
+        currentTerm = raftNode.getCurrentTerm();
+        String leader = raftNode.getCurrentLeader();
+        currentLeader = leader != null ? leader : "";
+        currentRole = switch (raftNode.getCurrentState()) {
+            case LEADER -> ConsensusRole.ROLE_LEADER;
+            case CANDIDATE -> ConsensusRole.ROLE_CANDIDATE;
+            default -> ConsensusRole.ROLE_FOLLOWER;
+        };
+    }
+
     private int calculateMajority(int totalValidators) {
         return (totalValidators / 2) + 1;
     }
@@ -11,6 +11,8 @@ import io.aurigraph.v11.proto.TransactionServiceGrpc;
 import io.aurigraph.v11.proto.ConsensusServiceGrpc;
 import io.aurigraph.v11.proto.BlockchainServiceGrpc;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -77,6 +79,9 @@ public class GrpcClientFactory {
     private ManagedChannel storageChannel;
     private ManagedChannel networkChannel;
 
+    // HyperRAFT++ peer channels, one per consensus.cluster.peers target
+    private final Map<String, ManagedChannel> consensusPeerChannels = new ConcurrentHashMap<>();
+
     // Service stubs
     private TransactionServiceGrpc.TransactionServiceBlockingStub transactionStub;
     private TransactionServiceGrpc.TransactionServiceFutureStub transactionFutureStub;
@@ -381,6 +386,31 @@ public class GrpcClientFactory {
         return consensusAsyncStub;
     }
 
+    /**
+     * Get channel to another consensus node (HyperRAFT++ peer RPCs)
+     *
+     * Channels are created on first use and shared by all calls to the same target.
+     * No deadline is set here: Raft RPCs set a short per-call deadline instead.
+     *
+     * @param target gRPC target of the peer, e.g. "node-2.internal:9001"
+     */
+    public ManagedChannel getConsensusPeerChannel(String target) {
+        return consensusPeerChannels.compute(target, (key, channel) -> {
+            if (channel != null && !channel.isShutdown()) {
+                return channel;
+            }
+            Log.infof("Initializing HTTP/2 channel for consensus peer %s", key);
+            return ManagedChannelBuilder
+                    .forTarget(key)
+                    .usePlaintext()  // Development: plaintext
+                    .keepAliveWithoutCalls(true)          // Peers exchange heartbeats continuously
+                    .keepAliveTime(30, TimeUnit.SECONDS)
+                    .keepAliveTimeout(5, TimeUnit.SECONDS)
+                    .maxInboundMessageSize(16 * 1024 * 1024)  // Catch-up batches can be large
+                    .build();
+        });
+    }
+
     /**
      * Shutdown all gRPC channels gracefully
      * Called on application shutdown
@@ -392,6 +422,8 @@ public class GrpcClientFactory {
         try {
             shutdownChannel(transactionChannel, "TransactionService");
             shutdownChannel(consensusChannel, "ConsensusService");
+            consensusPeerChannels.forEach((target, channel) -> shutdownChannel(channel, "Consensus peer " + target));
+            consensusPeerChannels.clear();
             // TODO: Shutdown other channels as implementations complete
         } catch (Exception e) {
             Log.warnf("Error during gRPC channel shutdown: %s", e.getMessage());
@@ -478,7 +510,8 @@ public class GrpcClientFactory {
         Log.info("✅ ConsensusService (Agent 1.2 - Sprint 7)");
         Log.info("   Methods: proposeBlock, voteOnBlock, commitBlock, requestLeaderElection, heartbeat, syncState");
         Log.info("            getConsensusState, getValidatorInfo, submitConsensusMetrics, getRaftLog, streamConsensusEvents");
-        Log.info("   Status: Implemented (11 RPC methods)");
+        Log.info("            appendEntries, streamAppendEntries");
+        Log.info("   Status: Implemented (13 RPC methods)");
         Log.info("");
         Log.info("[TODO] ContractService (Phase 2 - Sprint 8)");
         Log.info("[TODO] TraceabilityService (Phase 2 - Sprint 8)");
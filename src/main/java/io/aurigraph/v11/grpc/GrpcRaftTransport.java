@@ -0,0 +1,263 @@
+package io.aurigraph.v11.grpc;
+
+import io.aurigraph.v11.consensus.HyperRAFTPlusProduction;
+import io.aurigraph.v11.consensus.RaftTransport;
+import io.aurigraph.v11.proto.ConsensusServiceGrpc;
+import io.grpc.Channel;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.MultiSubscriber;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * gRPC transport for HyperRAFT++ node-to-node RPCs
+ *
+ * Peer addresses are gRPC targets (host:port) served by ConsensusServiceImpl:
+ * - RequestVote -> requestLeaderElection
+ * - Heartbeat (empty AppendEntries) -> heartbeat
+ * - AppendEntries batch -> appendEntries
+ * - Follower catch-up -> streamAppendEntries (bidirectional stream, one response per batch)
+ * - Snapshot transfer -> installSnapshot (client stream of chunks, one response)
+ *
+ * Every call gets a deadline of consensus.rpc.timeout.ms (per batch for streams),
+ * so an unreachable peer fails the future instead of stalling replication.
+ * Snapshot transfers have no overall deadline since their length depends on
+ * the snapshot size; the chunk stream fails the call when it stalls.
+ */
+@ApplicationScoped
+public class GrpcRaftTransport implements RaftTransport {
+
+    @Inject
+    GrpcClientFactory clientFactory;
+
+    @ConfigProperty(name = "consensus.rpc.timeout.ms", defaultValue = "500")
+    long rpcTimeoutMs = 500;
+
+    private final Function<String, Channel> channels;
+
+    GrpcRaftTransport() {
+        this.channels = null;
+    }
+
+    /**
+     * Create a transport outside the container, resolving peer addresses to channels
+     */
+    public GrpcRaftTransport(Function<String, Channel> channels, long rpcTimeoutMs) {
+        this.channels = channels;
+        this.rpcTimeoutMs = rpcTimeoutMs;
+    }
+
+    @Override
+    public CompletableFuture<HyperRAFTPlusProduction.VoteResponse> requestVote(
+            String address, HyperRAFTPlusProduction.VoteRequest request) {
+        CompletableFuture<HyperRAFTPlusProduction.VoteResponse> result = new CompletableFuture<>();
+        stub(address, rpcTimeoutMs).requestLeaderElection(
+            RaftMessageConverter.toProto(request),
+            completing(result, RaftMessageConverter::fromProto));
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<HyperRAFTPlusProduction.AppendEntriesResponse> appendEntries(
+            String address, HyperRAFTPlusProduction.AppendEntriesRequest request) {
+        CompletableFuture<HyperRAFTPlusProduction.AppendEntriesResponse> result = new CompletableFuture<>();
+        if (request.heartbeat) {
+            stub(address, rpcTimeoutMs).heartbeat(
+                RaftMessageConverter.toHeartbeat(request),
+                completing(result, RaftMessageConverter::fromHeartbeatResponse));
+        } else {
+            stub(address, rpcTimeoutMs).appendEntries(
+                RaftMessageConverter.toProto(request),
+                completing(result, RaftMessageConverter::fromProto));
+        }
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<HyperRAFTPlusProduction.AppendEntriesResponse> streamAppendEntries(
+            String address, List<HyperRAFTPlusProduction.AppendEntriesRequest> requests) {
+        CompletableFuture<HyperRAFTPlusProduction.AppendEntriesResponse> result = new CompletableFuture<>();
+        if (requests.isEmpty()) {
+            result.completeExceptionally(new IllegalArgumentException("No batches to stream"));
+            return result;
+        }
+
+        stub(address, rpcTimeoutMs * requests.size()).streamAppendEntries(
+            new ClientResponseObserver<io.aurigraph.v11.proto.AppendEntriesRequest,
+                                       io.aurigraph.v11.proto.AppendEntriesResponse>() {
+
+                private final Iterator<HyperRAFTPlusProduction.AppendEntriesRequest> pending = requests.iterator();
+                private ClientCallStreamObserver<io.aurigraph.v11.proto.AppendEntriesRequest> requestStream;
+                private boolean halfClosed;
+                private int received;
+
+                @Override
+                public void beforeStart(ClientCallStreamObserver<io.aurigraph.v11.proto.AppendEntriesRequest> stream) {
+                    requestStream = stream;
+                    // Send as fast as flow control allows; gRPC serializes this with the response callbacks
+                    stream.setOnReadyHandler(() -> {
+                        while (stream.isReady() && pending.hasNext() && !result.isDone()) {
+                            stream.onNext(RaftMessageConverter.toProto(pending.next()));
+                        }
+                        if (!pending.hasNext() && !halfClosed && !result.isDone()) {
+                            halfClosed = true;
+                            stream.onCompleted();
+                        }
+                    });
+                }
+
+                @Override
+                public void onNext(io.aurigraph.v11.proto.AppendEntriesResponse value) {
+                    HyperRAFTPlusProduction.AppendEntriesResponse response = RaftMessageConverter.fromProto(value);
+                    received++;
+                    if (!response.success) {
+                        // Later batches build on the rejected one, so stop the stream here
+                        result.complete(response);
+                        requestStream.cancel("Batch rejected by follower", null);
+                    } else if (received == requests.size()) {
+                        result.complete(response);
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    result.completeExceptionally(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    if (!result.isDone()) {
+                        result.completeExceptionally(new IllegalStateException(String.format(
+                            "Stream closed after %d of %d responses", received, requests.size())));
+                    }
+                }
+            });
+        return result;
+    }
+
+    @Override
+    public CompletableFuture<HyperRAFTPlusProduction.InstallSnapshotResponse> installSnapshot(
+            String address, Multi<HyperRAFTPlusProduction.InstallSnapshotRequest> chunks) {
+        CompletableFuture<HyperRAFTPlusProduction.InstallSnapshotResponse> result = new CompletableFuture<>();
+
+        ConsensusServiceGrpc.newStub(channel(address)).installSnapshot(
+            new ClientResponseObserver<io.aurigraph.v11.proto.InstallSnapshotRequest,
+                                       io.aurigraph.v11.proto.InstallSnapshotResponse>() {
+
+                private ClientCallStreamObserver<io.aurigraph.v11.proto.InstallSnapshotRequest> requestStream;
+                private volatile Flow.Subscription subscription;
+                // One chunk is requested at a time, and only while the call can take it
+                private final AtomicBoolean awaitingChunk = new AtomicBoolean(false);
+
+                @Override
+                public void beforeStart(ClientCallStreamObserver<io.aurigraph.v11.proto.InstallSnapshotRequest> stream) {
+                    requestStream = stream;
+                    stream.setOnReadyHandler(this::requestChunk);
+                    chunks.subscribe().withSubscriber(new MultiSubscriber<HyperRAFTPlusProduction.InstallSnapshotRequest>() {
+                        @Override
+                        public void onSubscribe(Flow.Subscription s) {
+                            // The first chunk is requested by the onReady handler once the call has started
+                            subscription = s;
+                        }
+
+                        @Override
+                        public void onItem(HyperRAFTPlusProduction.InstallSnapshotRequest chunk) {
+                            awaitingChunk.set(false);
+                            if (!result.isDone()) {
+                                stream.onNext(RaftMessageConverter.toProto(chunk));
+                                requestChunk();
+                            }
+                        }
+
+                        @Override
+                        public void onFailure(Throwable failure) {
+                            result.completeExceptionally(failure);
+                            stream.onError(failure);
+                        }
+
+                        @Override
+                        public void onCompletion() {
+                            stream.onCompleted();
+                        }
+                    });
+                }
+
+                private void requestChunk() {
+                    Flow.Subscription s = subscription;
+                    if (s != null && !result.isDone() && requestStream.isReady()
+                            && awaitingChunk.compareAndSet(false, true)) {
+                        s.request(1);
+                    }
+                }
+
+                @Override
+                public void onNext(io.aurigraph.v11.proto.InstallSnapshotResponse value) {
+                    // An early response is a rejection; stop reading the snapshot
+                    result.complete(RaftMessageConverter.fromProto(value));
+                    cancelChunks();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    result.completeExceptionally(t);
+                    cancelChunks();
+                }
+
+                @Override
+                public void onCompleted() {
+                    if (!result.isDone()) {
+                        result.completeExceptionally(new IllegalStateException("Call completed without a response"));
+                    }
+                }
+
+                private void cancelChunks() {
+                    Flow.Subscription s = subscription;
+                    if (s != null) {
+                        s.cancel();
+                    }
+                }
+            });
+        return result;
+    }
+
+    private ConsensusServiceGrpc.ConsensusServiceStub stub(String address, long timeoutMs) {
+        return ConsensusServiceGrpc.newStub(channel(address)).withDeadlineAfter(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    private Channel channel(String address) {
+        return channels != null ? channels.apply(address) : clientFactory.getConsensusPeerChannel(address);
+    }
+
+    private static <T, R> StreamObserver<T> completing(CompletableFuture<R> future, Function<T, R> converter) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(T value) {
+                future.complete(converter.apply(value));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!future.isDone()) {
+                    future.completeExceptionally(new IllegalStateException("Call completed without a response"));
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,271 @@
+package io.aurigraph.v11.grpc;
+
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Timestamp;
+import io.aurigraph.v11.consensus.HyperRAFTPlusProduction;
+import io.aurigraph.v11.proto.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HyperRAFT++ message <-> Protocol Buffer converter for node-to-node Raft RPCs
+ *
+ * Conversion Mappings:
+ * VoteRequest <-> LeaderElectionRequest
+ * VoteResponse <-> LeaderElectionResponse
+ * AppendEntriesRequest (heartbeat) <-> HeartbeatRequest
+ * AppendEntriesResponse (heartbeat) <-> HeartbeatResponse (next_log_index = matchIndex + 1)
+ * AppendEntriesRequest/Response <-> AppendEntriesRequest/Response
+ * LogEntry <-> LogEntry (entry type carried in command)
+ * InstallSnapshotRequest/Response <-> InstallSnapshotRequest/Response
+ *
+ * Thread-safe: Yes (stateless conversion methods)
+ */
+final class RaftMessageConverter {
+
+    private RaftMessageConverter() {
+    }
+
+    // ==================== RequestVote ====================
+
+    static LeaderElectionRequest toProto(HyperRAFTPlusProduction.VoteRequest request) {
+        return LeaderElectionRequest.newBuilder()
+            .setCandidateId(request.candidateId)
+            .setElectionTerm(request.term)
+            .setLastLogIndex(request.lastLogIndex)
+            .setLastLogTerm(request.lastLogTerm)
+            .setPreVote(request.preVote)
+            .build();
+    }
+
+    static HyperRAFTPlusProduction.VoteRequest fromProto(LeaderElectionRequest request) {
+        return new HyperRAFTPlusProduction.VoteRequest(
+            request.getElectionTerm(),
+            request.getCandidateId(),
+            request.getLastLogIndex(),
+            request.getLastLogTerm(),
+            request.getPreVote()
+        );
+    }
+
+    static LeaderElectionResponse toProto(HyperRAFTPlusProduction.VoteResponse response, String candidateId) {
+        LeaderElectionResponse.Builder builder = LeaderElectionResponse.newBuilder()
+            .setElectionAccepted(response.voteGranted)
+            .setElectionTerm(response.term)
+            .setVotesReceived(response.voteGranted ? 1 : 0)
+            .setVoterId(nullToEmpty(response.voterId))
+            .setRejectReason(nullToEmpty(response.rejectReason))
+            .setTimestamp(toTimestamp(Instant.now()));
+        if (response.voteGranted) {
+            builder.setNewLeaderId(candidateId);
+        }
+        return builder.build();
+    }
+
+    static HyperRAFTPlusProduction.VoteResponse fromProto(LeaderElectionResponse response) {
+        return new HyperRAFTPlusProduction.VoteResponse(
+            response.getElectionTerm(),
+            response.getElectionAccepted(),
+            response.getVoterId(),
+            emptyToNull(response.getRejectReason())
+        );
+    }
+
+    // ==================== Heartbeat ====================
+
+    static HeartbeatRequest toHeartbeat(HyperRAFTPlusProduction.AppendEntriesRequest request) {
+        return HeartbeatRequest.newBuilder()
+            .setLeaderId(request.leaderId)
+            .setCurrentTerm(request.term)
+            .setPrevLogIndex(request.prevLogIndex)
+            .setPrevLogTerm(request.prevLogTerm)
+            .setLeaderCommitIndex(request.leaderCommit)
+            .build();
+    }
+
+    static HyperRAFTPlusProduction.AppendEntriesRequest fromHeartbeat(HeartbeatRequest request) {
+        return new HyperRAFTPlusProduction.AppendEntriesRequest(
+            request.getCurrentTerm(),
+            request.getLeaderId(),
+            request.getPrevLogIndex(),
+            request.getPrevLogTerm(),
+            List.of(),
+            request.getLeaderCommitIndex(),
+            true
+        );
+    }
+
+    static HeartbeatResponse toHeartbeatResponse(HyperRAFTPlusProduction.AppendEntriesResponse response) {
+        return HeartbeatResponse.newBuilder()
+            .setFollowerId(nullToEmpty(response.followerId))
+            .setCurrentTerm(response.term)
+            .setHeartbeatAccepted(response.success)
+            .setNextLogIndex(response.matchIndex + 1)
+            .setConflictHint(nullToEmpty(response.conflictHint))
+            .setConflictIndex(response.conflictIndex)
+            .setConflictTerm(response.conflictTerm)
+            .setTimestamp(toTimestamp(Instant.now()))
+            .build();
+    }
+
+    static HyperRAFTPlusProduction.AppendEntriesResponse fromHeartbeatResponse(HeartbeatResponse response) {
+        return new HyperRAFTPlusProduction.AppendEntriesResponse(
+            response.getCurrentTerm(),
+            response.getHeartbeatAccepted(),
+            Math.max(0, response.getNextLogIndex() - 1),
+            response.getFollowerId(),
+            emptyToNull(response.getConflictHint()),
+            response.getConflictIndex(),
+            response.getConflictTerm()
+        );
+    }
+
+    // ==================== AppendEntries ====================
+
+    static AppendEntriesRequest toProto(HyperRAFTPlusProduction.AppendEntriesRequest request) {
+        AppendEntriesRequest.Builder builder = AppendEntriesRequest.newBuilder()
+            .setTerm(request.term)
+            .setLeaderId(request.leaderId)
+            .setPrevLogIndex(request.prevLogIndex)
+            .setPrevLogTerm(request.prevLogTerm)
+            .setLeaderCommit(request.leaderCommit);
+        for (HyperRAFTPlusProduction.LogEntry entry : request.entries) {
+            builder.addEntries(toProto(entry));
+        }
+        return builder.build();
+    }
+
+    static HyperRAFTPlusProduction.AppendEntriesRequest fromProto(AppendEntriesRequest request) {
+        List<HyperRAFTPlusProduction.LogEntry> entries = new ArrayList<>(request.getEntriesCount());
+        for (LogEntry entry : request.getEntriesList()) {
+            entries.add(fromProto(entry));
+        }
+        return new HyperRAFTPlusProduction.AppendEntriesRequest(
+            request.getTerm(),
+            request.getLeaderId(),
+            request.getPrevLogIndex(),
+            request.getPrevLogTerm(),
+            entries,
+            request.getLeaderCommit(),
+            false
+        );
+    }
+
+    static AppendEntriesResponse toProto(HyperRAFTPlusProduction.AppendEntriesResponse response) {
+        return AppendEntriesResponse.newBuilder()
+            .setTerm(response.term)
+            .setSuccess(response.success)
+            .setMatchIndex(response.matchIndex)
+            .setFollowerId(nullToEmpty(response.followerId))
+            .setConflictHint(nullToEmpty(response.conflictHint))
+            .setConflictIndex(response.conflictIndex)
+            .setConflictTerm(response.conflictTerm)
+            .build();
+    }
+
+    static HyperRAFTPlusProduction.AppendEntriesResponse fromProto(AppendEntriesResponse response) {
+        return new HyperRAFTPlusProduction.AppendEntriesResponse(
+            response.getTerm(),
+            response.getSuccess(),
+            response.getMatchIndex(),
+            response.getFollowerId(),
+            emptyToNull(response.getConflictHint()),
+            response.getConflictIndex(),
+            response.getConflictTerm()
+        );
+    }
+
+    // ==================== InstallSnapshot ====================
+
+    static InstallSnapshotRequest toProto(HyperRAFTPlusProduction.InstallSnapshotRequest request) {
+        return InstallSnapshotRequest.newBuilder()
+            .setTerm(request.term)
+            .setLeaderId(request.leaderId)
+            .setLastIncludedIndex(request.lastIncludedIndex)
+            .setLastIncludedTerm(request.lastIncludedTerm)
+            .setOffset(request.offset)
+            .setData(ByteString.copyFrom(request.data))
+            .setDone(request.done)
+            .setChunkCrc32C(request.chunkCrc32c)
+            .setTotalSize(request.totalSize)
+            .setSnapshotChecksum(ByteString.copyFrom(request.checksum))
+            .build();
+    }
+
+    static HyperRAFTPlusProduction.InstallSnapshotRequest fromProto(InstallSnapshotRequest request) {
+        return new HyperRAFTPlusProduction.InstallSnapshotRequest(
+            request.getTerm(),
+            request.getLeaderId(),
+            request.getLastIncludedIndex(),
+            request.getLastIncludedTerm(),
+            request.getOffset(),
+            request.getData().toByteArray(),
+            request.getDone(),
+            request.getChunkCrc32C(),
+            request.getTotalSize(),
+            request.getSnapshotChecksum().toByteArray()
+        );
+    }
+
+    static InstallSnapshotResponse toProto(HyperRAFTPlusProduction.InstallSnapshotResponse response) {
+        return InstallSnapshotResponse.newBuilder()
+            .setTerm(response.term)
+            .setSuccess(response.success)
+            .setNextOffset(response.nextOffset)
+            .setFollowerId(nullToEmpty(response.followerId))
+            .setRejectReason(nullToEmpty(response.rejectReason))
+            .build();
+    }
+
+    static HyperRAFTPlusProduction.InstallSnapshotResponse fromProto(InstallSnapshotResponse response) {
+        return new HyperRAFTPlusProduction.InstallSnapshotResponse(
+            response.getTerm(),
+            response.getSuccess(),
+            response.getNextOffset(),
+            response.getFollowerId(),
+            emptyToNull(response.getRejectReason())
+        );
+    }
+
+    // ==================== Log entries ====================
+
+    static LogEntry toProto(HyperRAFTPlusProduction.LogEntry entry) {
+        return LogEntry.newBuilder()
+            .setIndex(entry.index)
+            .setTerm(entry.term)
+            .setCommand(entry.type.name())
+            .setData(ByteString.copyFrom(entry.data))
+            .setClientId(nullToEmpty(entry.clientId))
+            .setCreatedAt(toTimestamp(entry.timestamp))
+            .build();
+    }
+
+    static HyperRAFTPlusProduction.LogEntry fromProto(LogEntry entry) {
+        return new HyperRAFTPlusProduction.LogEntry(
+            entry.getTerm(),
+            entry.getIndex(),
+            entry.getData().toByteArray(),
+            entry.getClientId(),
+            HyperRAFTPlusProduction.EntryType.valueOf(entry.getCommand()),
+            Instant.ofEpochSecond(entry.getCreatedAt().getSeconds(), entry.getCreatedAt().getNanos())
+        );
+    }
+
+    // Helper methods
+    private static Timestamp toTimestamp(Instant instant) {
+        return Timestamp.newBuilder()
+            .setSeconds(instant.getEpochSecond())
+            .setNanos(instant.getNano())
+            .build();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+}
@@ -0,0 +1,296 @@
+package io.aurigraph.v11.merkle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Incrementally maintained Merkle tree over positional leaf hashes
+ *
+ * Every internal node is cached per level, so changing a leaf only rehashes
+ * the nodes on its path to the root (O(log n)). Mutations are staged and
+ * applied by {@link #commit()}, which recomputes each dirty node exactly
+ * once, so a batch of k updates costs O(k log n) rather than k full rebuilds.
+ *
+ * Nodes are stored as 32-byte slots in one growable array per level and
+ * hashed with {@link MerkleNodeHasher}, so for the same leaf order the root
+ * matches {@link MerkleTree} and proofs verify with {@link MerkleTree#verifyProofStatic}.
+ *
+ * Not thread-safe; callers are expected to guard it (see {@link MerkleTreeRegistry}).
+ *
+ * @version 11.3.2
+ * @author Backend Development Agent (BDA)
+ */
+public class IncrementalMerkleTree {
+
+    private static final int HASH_SIZE = MerkleNodeHasher.HASH_SIZE;
+    private static final String EMPTY_TREE_HASH =
+        MerkleNodeHasher.toHex(MerkleNodeHasher.local().hashString("EMPTY_TREE"), 0);
+
+    // levelNodes[0] holds the leaf hashes, levelNodes[height - 1] holds the root
+    private byte[][] levelNodes = new byte[][] { new byte[HASH_SIZE * 16] };
+    private int[] levelSizes = new int[1];
+    private int height = 1;
+
+    // Leaf hashes that are not canonical hex digests, hashed verbatim (null when there are none)
+    private String[] rawLeaves;
+
+    // Leaf indices touched since the last commit (unsorted, may repeat)
+    private int[] dirty = new int[16];
+    private int dirtyCount = 0;
+    private int committedLeafCount = 0;
+
+    private String rootHash = EMPTY_TREE_HASH;
+    private long nodesHashed = 0;
+
+    public IncrementalMerkleTree() {
+    }
+
+    /**
+     * Build a tree from an initial set of leaf hashes
+     */
+    public IncrementalMerkleTree(List<String> leafHashes) {
+        this();
+        for (String leafHash : leafHashes) {
+            appendLeaf(leafHash);
+        }
+        commit();
+    }
+
+    /**
+     * Append a leaf and return its index
+     */
+    public int appendLeaf(String leafHash) {
+        int index = levelSizes[0];
+        ensureCapacity(0, index + 1);
+        levelSizes[0] = index + 1;
+        writeLeaf(index, leafHash);
+        return index;
+    }
+
+    /**
+     * Replace the hash of an existing leaf
+     */
+    public void setLeaf(int index, String leafHash) {
+        if (index < 0 || index >= levelSizes[0]) {
+            throw new IllegalArgumentException("Invalid leaf index: " + index);
+        }
+        writeLeaf(index, leafHash);
+    }
+
+    /**
+     * Drop the last leaf
+     */
+    public void removeLastLeaf() {
+        if (levelSizes[0] == 0) {
+            throw new IllegalStateException("Tree is empty");
+        }
+        levelSizes[0]--;
+        if (rawLeaves != null && rawLeaves.length > levelSizes[0]) {
+            rawLeaves[levelSizes[0]] = null;
+        }
+    }
+
+    /**
+     * Recompute every node affected by the staged mutations and refresh the root
+     */
+    public void commit() {
+        int leafCount = levelSizes[0];
+        if (leafCount != committedLeafCount && leafCount > 0) {
+            // The last node's pairing may have changed even if it was not written
+            markDirty(leafCount - 1);
+        }
+
+        // One spare slot per level for the "last node changed shape" marker
+        int[] current = Arrays.copyOf(dirty, dirtyCount + 64);
+        int currentCount = sortDistinct(current, dirtyCount, leafCount);
+        dirtyCount = 0;
+        committedLeafCount = leafCount;
+
+        if (leafCount == 0) {
+            height = 1;
+            rootHash = EMPTY_TREE_HASH;
+            return;
+        }
+
+        MerkleNodeHasher nodeHasher = MerkleNodeHasher.local();
+        int level = 0;
+        while (levelSizes[level] > 1) {
+            int childCount = levelSizes[level];
+            int parentCount = (childCount + 1) / 2;
+
+            int previousParentCount = 0;
+            if (height == level + 1) {
+                growLevels(level + 2);
+                height = level + 2;
+            } else {
+                previousParentCount = levelSizes[level + 1];
+            }
+            ensureCapacity(level + 1, parentCount);
+            levelSizes[level + 1] = parentCount;
+
+            // Parents of dirty children, plus the last parent when the level changed shape
+            int parentDirtyCount = 0;
+            for (int i = 0; i < currentCount; i++) {
+                int parent = current[i] >>> 1;
+                if (parentDirtyCount == 0 || current[parentDirtyCount - 1] != parent) {
+                    current[parentDirtyCount++] = parent;
+                }
+            }
+            if (parentCount != previousParentCount
+                    && (parentDirtyCount == 0 || current[parentDirtyCount - 1] != parentCount - 1)) {
+                current[parentDirtyCount++] = parentCount - 1;
+            }
+            currentCount = parentDirtyCount;
+
+            byte[] parents = levelNodes[level + 1];
+            for (int i = 0; i < currentCount; i++) {
+                int parent = current[i];
+                int left = parent << 1;
+                int right = left + 1 < childCount ? left + 1 : left;
+                feedNode(nodeHasher, level, left);
+                feedNode(nodeHasher, level, right);
+                nodeHasher.finish(parents, parent * HASH_SIZE);
+                nodesHashed++;
+            }
+            level++;
+        }
+
+        height = level + 1;
+        rootHash = node(level, 0).toHex();
+    }
+
+    /**
+     * Generate a proof for a leaf from the cached levels (no rebuild)
+     */
+    public MerkleProof generateProof(int leafIndex) {
+        if (leafIndex < 0 || leafIndex >= levelSizes[0]) {
+            throw new IllegalArgumentException("Invalid leaf index: " + leafIndex);
+        }
+        if (dirtyCount > 0 || levelSizes[0] != committedLeafCount) {
+            throw new IllegalStateException("Tree has uncommitted changes");
+        }
+
+        List<MerkleProof.ProofElement> proofPath = new ArrayList<>(height);
+        int currentIndex = leafIndex;
+
+        for (int level = 0; level < height - 1; level++) {
+            // isLeft marks the sibling's side, as consumed by MerkleTree.verifyProofStatic
+            boolean isLeft = (currentIndex & 1) == 1;
+            int siblingIndex = isLeft ? currentIndex - 1 : currentIndex + 1;
+            if (siblingIndex >= levelSizes[level]) {
+                siblingIndex = currentIndex;
+            }
+
+            proofPath.add(new MerkleProof.ProofElement(node(level, siblingIndex), isLeft));
+            currentIndex >>>= 1;
+        }
+
+        return new MerkleProof(node(0, leafIndex), node(height - 1, 0), leafIndex, proofPath);
+    }
+
+    /**
+     * Verify a proof against the current root
+     */
+    public boolean verifyProof(MerkleProof proof) {
+        return proof != null
+            && proof.getRootHash().equals(rootHash)
+            && MerkleTree.verifyProofStatic(proof);
+    }
+
+    public String getRootHash() {
+        return rootHash;
+    }
+
+    public String getLeafHash(int index) {
+        return node(0, index).toHex();
+    }
+
+    public int getLeafCount() {
+        return levelSizes[0];
+    }
+
+    public int getTreeHeight() {
+        return height;
+    }
+
+    /**
+     * Total internal nodes hashed since construction
+     */
+    public long getNodesHashed() {
+        return nodesHashed;
+    }
+
+    private void writeLeaf(int index, String leafHash) {
+        if (MerkleNodeHasher.isCanonical(leafHash)) {
+            MerkleNodeHasher.decode(leafHash, levelNodes[0], index * HASH_SIZE);
+            if (rawLeaves != null && index < rawLeaves.length) {
+                rawLeaves[index] = null;
+            }
+        } else {
+            if (rawLeaves == null || rawLeaves.length <= index) {
+                rawLeaves = Arrays.copyOf(rawLeaves == null ? new String[0] : rawLeaves,
+                    levelNodes[0].length / HASH_SIZE);
+            }
+            rawLeaves[index] = leafHash;
+        }
+        markDirty(index);
+    }
+
+    private void feedNode(MerkleNodeHasher nodeHasher, int level, int index) {
+        if (level == 0 && rawLeaves != null && index < rawLeaves.length && rawLeaves[index] != null) {
+            nodeHasher.updateRaw(rawLeaves[index]);
+        } else {
+            nodeHasher.updateNode(levelNodes[level], index * HASH_SIZE);
+        }
+    }
+
+    private MerkleHash node(int level, int index) {
+        if (level == 0 && rawLeaves != null && index < rawLeaves.length && rawLeaves[index] != null) {
+            return MerkleHash.of(rawLeaves[index]);
+        }
+        return MerkleHash.of(levelNodes[level], index * HASH_SIZE);
+    }
+
+    private void markDirty(int index) {
+        if (dirtyCount == dirty.length) {
+            dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        }
+        dirty[dirtyCount++] = index;
+    }
+
+    private void growLevels(int levels) {
+        if (levelNodes.length < levels) {
+            levelNodes = Arrays.copyOf(levelNodes, levels);
+            levelSizes = Arrays.copyOf(levelSizes, levels);
+        }
+        for (int level = 0; level < levels; level++) {
+            if (levelNodes[level] == null) {
+                levelNodes[level] = new byte[HASH_SIZE * 16];
+            }
+        }
+    }
+
+    private void ensureCapacity(int level, int nodeCount) {
+        byte[] current = levelNodes[level];
+        if (current.length < nodeCount * HASH_SIZE) {
+            int capacity = Math.max(nodeCount, current.length / HASH_SIZE * 2);
+            levelNodes[level] = Arrays.copyOf(current, capacity * HASH_SIZE);
+        }
+    }
+
+    /**
+     * Sort and de-duplicate the first {@code count} values in place, dropping
+     * indices at or beyond {@code limit} (leaves removed after being marked)
+     */
+    private static int sortDistinct(int[] values, int count, int limit) {
+        Arrays.sort(values, 0, count);
+        int size = 0;
+        for (int i = 0; i < count && values[i] < limit; i++) {
+            if (size == 0 || values[size - 1] != values[i]) {
+                values[size++] = values[i];
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,93 @@
+package io.aurigraph.v11.merkle;
+
+import java.util.Arrays;
+
+/**
+ * A single Merkle node value
+ *
+ * Normally a 32-byte digest, converted to hex only when requested. Leaf values
+ * supplied by callers that are not canonical hex digests are kept verbatim so
+ * they hash exactly as before.
+ *
+ * @version 11.3.2
+ * @author Backend Development Agent (BDA)
+ */
+final class MerkleHash {
+
+    private final byte[] digest;
+    private final String raw;
+    private String hex;
+
+    private MerkleHash(byte[] digest, String raw) {
+        this.digest = digest;
+        this.raw = raw;
+    }
+
+    /**
+     * Copy a 32-byte node slot
+     */
+    static MerkleHash of(byte[] source, int offset) {
+        return new MerkleHash(Arrays.copyOfRange(source, offset, offset + MerkleNodeHasher.HASH_SIZE), null);
+    }
+
+    /**
+     * Parse a hash string, keeping non-canonical values verbatim
+     */
+    static MerkleHash of(String value) {
+        if (MerkleNodeHasher.isCanonical(value)) {
+            byte[] digest = new byte[MerkleNodeHasher.HASH_SIZE];
+            MerkleNodeHasher.decode(value, digest, 0);
+            return new MerkleHash(digest, null);
+        }
+        return new MerkleHash(null, value);
+    }
+
+    void feed(MerkleNodeHasher hasher) {
+        if (digest != null) {
+            hasher.updateNode(digest, 0);
+        } else {
+            hasher.updateRaw(raw);
+        }
+    }
+
+    boolean matches(byte[] source, int offset) {
+        return digest != null
+            && Arrays.equals(digest, 0, digest.length, source, offset, offset + MerkleNodeHasher.HASH_SIZE);
+    }
+
+    /**
+     * Digest bytes, or null for a verbatim leaf value
+     */
+    byte[] bytes() {
+        return digest == null ? null : digest.clone();
+    }
+
+    String toHex() {
+        if (digest == null) {
+            return raw;
+        }
+        if (hex == null) {
+            hex = MerkleNodeHasher.toHex(digest, 0);
+        }
+        return hex;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MerkleHash other)) return false;
+        return digest != null
+            ? Arrays.equals(digest, other.digest)
+            : other.digest == null && raw.equals(other.raw);
+    }
+
+    @Override
+    public int hashCode() {
+        return digest != null ? Arrays.hashCode(digest) : raw.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toHex();
+    }
+}
@@ -0,0 +1,113 @@
+package io.aurigraph.v11.merkle;
+
+import org.bouncycastle.crypto.digests.SHA3Digest;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reusable SHA3-256 node hasher working directly on 32-byte node slots
+ *
+ * Parent nodes have always been computed as SHA3(hex(left) + hex(right)).
+ * Instead of building and encoding those strings, child digests are written
+ * as lowercase hex ASCII into a reused scratch buffer and fed straight to a
+ * reused digest, so roots stay byte-for-byte identical to the string path
+ * without allocating per node.
+ *
+ * Instances are not thread-safe; use {@link #local()} for a per-thread instance.
+ *
+ * @version 11.3.2
+ * @author Backend Development Agent (BDA)
+ */
+final class MerkleNodeHasher {
+
+    static final int HASH_SIZE = 32;
+
+    private static final byte[] HEX_DIGITS = {
+        '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
+    };
+
+    private static final ThreadLocal<MerkleNodeHasher> LOCAL = ThreadLocal.withInitial(MerkleNodeHasher::new);
+
+    private final SHA3Digest digest = new SHA3Digest(256);
+    private final byte[] hexBuffer = new byte[2 * HASH_SIZE];
+
+    static MerkleNodeHasher local() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Feed a 32-byte node in its hex form
+     */
+    void updateNode(byte[] source, int offset) {
+        for (int i = 0; i < HASH_SIZE; i++) {
+            int b = source[offset + i] & 0xff;
+            hexBuffer[2 * i] = HEX_DIGITS[b >>> 4];
+            hexBuffer[2 * i + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        digest.update(hexBuffer, 0, hexBuffer.length);
+    }
+
+    /**
+     * Feed a leaf value that is not a canonical digest (hashed as its string bytes)
+     */
+    void updateRaw(String value) {
+        byte[] bytes = value.getBytes();
+        digest.update(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Complete the digest into a 32-byte slot and reset for the next node
+     */
+    void finish(byte[] target, int offset) {
+        digest.doFinal(target, offset);
+    }
+
+    /**
+     * SHA3-256 of a string, as a 32-byte digest
+     */
+    byte[] hashString(String input) {
+        updateRaw(input);
+        byte[] hash = new byte[HASH_SIZE];
+        finish(hash, 0);
+        return hash;
+    }
+
+    /**
+     * True if the value is exactly the lowercase hex form of a 32-byte digest
+     */
+    static boolean isCanonical(String hash) {
+        if (hash == null || hash.length() != 2 * HASH_SIZE) {
+            return false;
+        }
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decode a canonical hex digest into a 32-byte slot
+     */
+    static void decode(String hex, byte[] target, int offset) {
+        for (int i = 0; i < HASH_SIZE; i++) {
+            target[offset + i] = (byte) ((Character.digit(hex.charAt(2 * i), 16) << 4)
+                | Character.digit(hex.charAt(2 * i + 1), 16));
+        }
+    }
+
+    /**
+     * Encode a 32-byte slot as lowercase hex
+     */
+    static String toHex(byte[] source, int offset) {
+        byte[] chars = new byte[2 * HASH_SIZE];
+        for (int i = 0; i < HASH_SIZE; i++) {
+            int b = source[offset + i] & 0xff;
+            chars[2 * i] = HEX_DIGITS[b >>> 4];
+            chars[2 * i + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        return new String(chars, StandardCharsets.US_ASCII);
+    }
+}
@@ -14,12 +14,17 @@ import java.util.List;
  */
 public class MerkleProof {
 
-    private final String leafHash;
-    private final String rootHash;
+    // Hashes are held in binary form and only hex-encoded on access
+    private final MerkleHash leafHash;
+    private final MerkleHash rootHash;
     private final int leafIndex;
     private final List<ProofElement> proofPath;
 
     public MerkleProof(String leafHash, String rootHash, int leafIndex, List<ProofElement> proofPath) {
+        this(MerkleHash.of(leafHash), MerkleHash.of(rootHash), leafIndex, proofPath);
+    }
+
+    MerkleProof(MerkleHash leafHash, MerkleHash rootHash, int leafIndex, List<ProofElement> proofPath) {
         this.leafHash = leafHash;
         this.rootHash = rootHash;
         this.leafIndex = leafIndex;
@@ -27,18 +32,26 @@ public class MerkleProof {
     }
 
     /**
-     * Proof element containing sibling hash and position
+     * Proof element containing sibling hash and the side the sibling sits on
      */
     public static class ProofElement {
-        private final String siblingHash;
+        private final MerkleHash siblingHash;
         private final boolean isLeft;
 
         public ProofElement(String siblingHash, boolean isLeft) {
+            this(MerkleHash.of(siblingHash), isLeft);
+        }
+
+        ProofElement(MerkleHash siblingHash, boolean isLeft) {
             this.siblingHash = siblingHash;
             this.isLeft = isLeft;
         }
 
         public String getSiblingHash() {
+            return siblingHash.toHex();
+        }
+
+        MerkleHash sibling() {
             return siblingHash;
         }
 
@@ -49,17 +62,25 @@ public class MerkleProof {
         @Override
         public String toString() {
             return String.format("ProofElement[%s, %s]",
-                siblingHash.substring(0, 16) + "...",
+                siblingHash.toHex().substring(0, 16) + "...",
                 isLeft ? "left" : "right");
         }
     }
 
     // Getters
     public String getLeafHash() {
-        return leafHash;
+        return leafHash.toHex();
     }
 
     public String getRootHash() {
+        return rootHash.toHex();
+    }
+
+    MerkleHash leaf() {
+        return leafHash;
+    }
+
+    MerkleHash root() {
         return rootHash;
     }
 
@@ -76,18 +97,18 @@ public class MerkleProof {
     }
 
     /**
-     * Convert to JSON-compatible format
+     * Convert to JSON-compatible format (the only place proofs are hex-encoded in bulk)
      */
     public ProofData toProofData() {
-        List<String> siblingHashes = new ArrayList<>();
-        List<Boolean> positions = new ArrayList<>();
+        List<String> siblingHashes = new ArrayList<>(proofPath.size());
+        List<Boolean> positions = new ArrayList<>(proofPath.size());
 
         for (ProofElement element : proofPath) {
             siblingHashes.add(element.getSiblingHash());
             positions.add(element.isLeft());
         }
 
-        return new ProofData(leafHash, rootHash, leafIndex, siblingHashes, positions);
+        return new ProofData(leafHash.toHex(), rootHash.toHex(), leafIndex, siblingHashes, positions);
     }
 
     /**
@@ -126,8 +147,8 @@ public class MerkleProof {
     @Override
     public String toString() {
         return String.format("MerkleProof[leaf=%s, root=%s, index=%d, pathLength=%d]",
-            leafHash.substring(0, 16) + "...",
-            rootHash.substring(0, 16) + "...",
+            leafHash.toHex().substring(0, 16) + "...",
+            rootHash.toHex().substring(0, 16) + "...",
             leafIndex,
             proofPath.size());
     }
@@ -1,43 +1,68 @@
 package io.aurigraph.v11.merkle;
 
-import org.bouncycastle.crypto.digests.SHA3Digest;
-import org.bouncycastle.util.encoders.Hex;
-
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * High-performance Merkle Tree implementation for Aurigraph V11
  *
  * Features:
  * - SHA3-256 cryptographic hashing (quantum-resistant)
+ * - Binary node storage: every level lives in one flat array of 32-byte slots
+ * - Allocation-free node hashing with a reused digest
+ * - Fork-join construction for large trees (subtrees built in parallel)
  * - Efficient proof generation and verification
- * - Concurrent access support
  * - Optimized for blockchain registry integrity
  *
+ * Hex strings are only produced at the API boundary (root, leaf hashes, proofs).
+ *
  * @version 11.3.2
  * @author Backend Development Agent (BDA)
  */
 public class MerkleTree<T> {
 
+    /**
+     * Leaf count up to which trees are built on the calling thread
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 16_384;
+
+    private static final int HASH_SIZE = MerkleNodeHasher.HASH_SIZE;
+    private static final String EMPTY_TREE_HASH =
+        MerkleNodeHasher.toHex(MerkleNodeHasher.local().hashString("EMPTY_TREE"), 0);
+
     private final List<T> leaves;
-    private final List<String> leafHashes;
-    private final Map<Integer, List<String>> levels;
-    private String rootHash;
     private final MerkleHasher<T> hasher;
+    private final int parallelThreshold;
+
+    // All levels, leaf level first; level L occupies slots [levelOffsets[L], levelOffsets[L] + levelSizes[L])
+    private byte[] nodes = new byte[0];
+    private int[] levelOffsets = new int[0];
+    private int[] levelSizes = new int[0];
+
+    // Leaf hashes that are not canonical hex digests, hashed verbatim (null when there are none)
+    private String[] rawLeaves;
+
+    private String rootHash;
 
     /**
      * Create Merkle tree from leaf data
      */
     public MerkleTree(List<T> data, MerkleHasher<T> hasher) {
+        this(data, hasher, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Create Merkle tree, building subtrees of more than {@code parallelThreshold}
+     * leaves in parallel on the common fork-join pool
+     */
+    public MerkleTree(List<T> data, MerkleHasher<T> hasher, int parallelThreshold) {
         this.leaves = new ArrayList<>(data);
         this.hasher = hasher;
-        this.levels = new ConcurrentHashMap<>();
-        this.leafHashes = new ArrayList<>();
+        this.parallelThreshold = Math.max(2, parallelThreshold);
 
         if (data.isEmpty()) {
-            this.rootHash = computeHash("EMPTY_TREE");
+            this.rootHash = EMPTY_TREE_HASH;
         } else {
             buildTree();
         }
@@ -47,49 +72,143 @@ public class MerkleTree<T> {
      * Build the Merkle tree from leaves to root
      */
     private void buildTree() {
-        // Hash all leaf data
-        leafHashes.clear();
-        for (T leaf : leaves) {
-            leafHashes.add(hasher.hash(leaf));
+        allocateLevels(leaves.size());
+        rawLeaves = null;
+
+        int top = levelSizes.length - 1;
+        if (leaves.size() > parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new SubtreeTask(top, 0));
+        } else {
+            buildSubtree(MerkleNodeHasher.local(), top, 0);
+        }
+
+        // Root is the single hash at the top level
+        rootHash = leafOrNode(top, 0).toHex();
+    }
+
+    /**
+     * Hash the leaves under node (level, index) and every node above them up to it
+     *
+     * Both the sequential and the fork-join path end up here, so they produce
+     * identical nodes.
+     */
+    private void buildSubtree(MerkleNodeHasher nodeHasher, int level, int index) {
+        int leafStart = (int) ((long) index << level);
+        int leafEnd = (int) Math.min(leaves.size(), (long) (index + 1) << level);
+
+        // Hash all leaf data into the leaf level
+        String[] raw = null;
+        for (int i = leafStart; i < leafEnd; i++) {
+            String leafHash = hasher.hash(leaves.get(i));
+            if (MerkleNodeHasher.isCanonical(leafHash)) {
+                MerkleNodeHasher.decode(leafHash, nodes, i * HASH_SIZE);
+            } else {
+                if (raw == null) {
+                    raw = rawLeafSlots();
+                }
+                raw[i] = leafHash;
+            }
         }
 
-        // Build tree levels bottom-up
-        List<String> currentLevel = new ArrayList<>(leafHashes);
-        int levelIndex = 0;
-        levels.put(levelIndex, new ArrayList<>(currentLevel));
+        // Build levels bottom-up within this subtree
+        for (int l = 1; l <= level; l++) {
+            int from = leafStart >> l;
+            int to = ((leafEnd - 1) >> l) + 1;
+            for (int i = from; i < to; i++) {
+                hashNode(nodeHasher, l, i, raw);
+            }
+        }
+    }
+
+    /**
+     * Hash node (level, index) from its children, pairing an odd last child with itself
+     */
+    private void hashNode(MerkleNodeHasher nodeHasher, int level, int index, String[] raw) {
+        int childCount = levelSizes[level - 1];
+        int left = 2 * index;
+        // Odd number of nodes - duplicate the last one
+        int right = left + 1 < childCount ? left + 1 : left;
+        feedNode(nodeHasher, level - 1, left, raw);
+        feedNode(nodeHasher, level - 1, right, raw);
+        nodeHasher.finish(nodes, (levelOffsets[level] + index) * HASH_SIZE);
+    }
 
-        while (currentLevel.size() > 1) {
-            currentLevel = buildNextLevel(currentLevel);
-            levelIndex++;
-            levels.put(levelIndex, new ArrayList<>(currentLevel));
+    private void feedNode(MerkleNodeHasher nodeHasher, int level, int index, String[] raw) {
+        if (level == 0 && raw != null && raw[index] != null) {
+            nodeHasher.updateRaw(raw[index]);
+        } else {
+            nodeHasher.updateNode(nodes, (levelOffsets[level] + index) * HASH_SIZE);
         }
+    }
 
-        // Root is the single hash at the top level
-        rootHash = currentLevel.get(0);
+    /**
+     * Lazily allocated slots for non-canonical leaf values (shared by subtree tasks)
+     */
+    private synchronized String[] rawLeafSlots() {
+        if (rawLeaves == null) {
+            rawLeaves = new String[leaves.size()];
+        }
+        return rawLeaves;
     }
 
     /**
-     * Build next level of tree by pairing and hashing
+     * Builds a subtree, forking its two halves while it covers more than
+     * {@code parallelThreshold} leaves, then hashes its own root node
      */
-    private List<String> buildNextLevel(List<String> currentLevel) {
-        List<String> nextLevel = new ArrayList<>();
+    private final class SubtreeTask extends RecursiveAction {
+        private final int level;
+        private final int index;
 
-        for (int i = 0; i < currentLevel.size(); i += 2) {
-            String left = currentLevel.get(i);
-            String right;
+        SubtreeTask(int level, int index) {
+            this.level = level;
+            this.index = index;
+        }
 
-            if (i + 1 < currentLevel.size()) {
-                right = currentLevel.get(i + 1);
+        @Override
+        protected void compute() {
+            if (level <= 1 || (1L << level) <= parallelThreshold) {
+                buildSubtree(MerkleNodeHasher.local(), level, index);
+                return;
+            }
+
+            SubtreeTask left = new SubtreeTask(level - 1, 2 * index);
+            if (2 * index + 1 < levelSizes[level - 1]) {
+                invokeAll(left, new SubtreeTask(level - 1, 2 * index + 1));
             } else {
-                // Odd number of nodes - duplicate the last one
-                right = left;
+                left.compute();
             }
+            // Children are at level >= 1, so no raw leaf values are involved
+            hashNode(MerkleNodeHasher.local(), level, index, null);
+        }
+    }
 
-            String combinedHash = computeHash(left + right);
-            nextLevel.add(combinedHash);
+    /**
+     * Lay out level sizes and offsets for a tree with the given leaf count
+     */
+    private void allocateLevels(int leafCount) {
+        int height = 1;
+        for (int size = leafCount; size > 1; size = (size + 1) / 2) {
+            height++;
         }
 
-        return nextLevel;
+        levelOffsets = new int[height];
+        levelSizes = new int[height];
+        int offset = 0;
+        int size = leafCount;
+        for (int level = 0; level < height; level++) {
+            levelOffsets[level] = offset;
+            levelSizes[level] = size;
+            offset += size;
+            size = (size + 1) / 2;
+        }
+        nodes = new byte[offset * HASH_SIZE];
+    }
+
+    private MerkleHash leafOrNode(int level, int index) {
+        if (level == 0 && rawLeaves != null && rawLeaves[index] != null) {
+            return MerkleHash.of(rawLeaves[index]);
+        }
+        return MerkleHash.of(nodes, (levelOffsets[level] + index) * HASH_SIZE);
     }
 
     /**
@@ -100,44 +219,29 @@ public class MerkleTree<T> {
             throw new IllegalArgumentException("Invalid leaf index: " + leafIndex);
         }
 
-        List<MerkleProof.ProofElement> proofPath = new ArrayList<>();
+        List<MerkleProof.ProofElement> proofPath = new ArrayList<>(levelSizes.length);
         int currentIndex = leafIndex;
 
         // Traverse from leaf to root
-        for (int level = 0; level < levels.size() - 1; level++) {
-            List<String> currentLevel = levels.get(level);
-
-            // Determine sibling index
-            int siblingIndex;
-            boolean isLeft;
-
-            if (currentIndex % 2 == 0) {
-                // Current node is left child
-                siblingIndex = currentIndex + 1;
-                isLeft = true;
-            } else {
-                // Current node is right child
-                siblingIndex = currentIndex - 1;
-                isLeft = false;
-            }
-
-            // Get sibling hash (duplicate if odd)
-            String siblingHash;
-            if (siblingIndex < currentLevel.size()) {
-                siblingHash = currentLevel.get(siblingIndex);
-            } else {
-                siblingHash = currentLevel.get(currentIndex);
+        for (int level = 0; level < levelSizes.length - 1; level++) {
+            // isLeft marks the sibling's side, as consumed by verifyProof
+            boolean isLeft = (currentIndex & 1) == 1;
+            int siblingIndex = isLeft ? currentIndex - 1 : currentIndex + 1;
+
+            // Duplicate the node itself if it has no sibling (odd level)
+            if (siblingIndex >= levelSizes[level]) {
+                siblingIndex = currentIndex;
             }
 
-            proofPath.add(new MerkleProof.ProofElement(siblingHash, isLeft));
+            proofPath.add(new MerkleProof.ProofElement(leafOrNode(level, siblingIndex), isLeft));
 
             // Move to parent index
             currentIndex = currentIndex / 2;
         }
 
         return new MerkleProof(
-            leafHashes.get(leafIndex),
-            rootHash,
+            leafOrNode(0, leafIndex),
+            leafOrNode(levelSizes.length - 1, 0),
             leafIndex,
             proofPath
         );
@@ -150,37 +254,32 @@ public class MerkleTree<T> {
         if (proof == null || !proof.getRootHash().equals(this.rootHash)) {
             return false;
         }
-
-        String currentHash = proof.getLeafHash();
-
-        for (MerkleProof.ProofElement element : proof.getProofPath()) {
-            if (element.isLeft()) {
-                // Sibling is on the left
-                currentHash = computeHash(element.getSiblingHash() + currentHash);
-            } else {
-                // Sibling is on the right
-                currentHash = computeHash(currentHash + element.getSiblingHash());
-            }
-        }
-
-        return currentHash.equals(proof.getRootHash());
+        return verifyProofStatic(proof);
     }
 
     /**
      * Static verification without tree instance
      */
     public static boolean verifyProofStatic(MerkleProof proof) {
-        String currentHash = proof.getLeafHash();
+        MerkleNodeHasher nodeHasher = MerkleNodeHasher.local();
+        MerkleHash current = proof.leaf();
+        byte[] buffer = new byte[HASH_SIZE];
 
         for (MerkleProof.ProofElement element : proof.getProofPath()) {
             if (element.isLeft()) {
-                currentHash = computeHashStatic(element.getSiblingHash() + currentHash);
+                // Sibling is on the left
+                element.sibling().feed(nodeHasher);
+                current.feed(nodeHasher);
             } else {
-                currentHash = computeHashStatic(currentHash + element.getSiblingHash());
+                // Sibling is on the right
+                current.feed(nodeHasher);
+                element.sibling().feed(nodeHasher);
             }
+            nodeHasher.finish(buffer, 0);
+            current = MerkleHash.of(buffer, 0);
         }
 
-        return currentHash.equals(proof.getRootHash());
+        return current.equals(proof.root());
     }
 
     /**
@@ -189,11 +288,13 @@ public class MerkleTree<T> {
     public void update(List<T> newData) {
         this.leaves.clear();
         this.leaves.addAll(newData);
-        this.levels.clear();
-        this.leafHashes.clear();
 
         if (newData.isEmpty()) {
-            this.rootHash = computeHash("EMPTY_TREE");
+            this.nodes = new byte[0];
+            this.levelOffsets = new int[0];
+            this.levelSizes = new int[0];
+            this.rawLeaves = null;
+            this.rootHash = EMPTY_TREE_HASH;
         } else {
             buildTree();
         }
@@ -207,25 +308,6 @@ public class MerkleTree<T> {
         buildTree();
     }
 
-    /**
-     * Compute SHA3-256 hash
-     */
-    private String computeHash(String input) {
-        return computeHashStatic(input);
-    }
-
-    /**
-     * Static SHA3-256 hash computation
-     */
-    private static String computeHashStatic(String input) {
-        SHA3Digest digest = new SHA3Digest(256);
-        byte[] inputBytes = input.getBytes();
-        digest.update(inputBytes, 0, inputBytes.length);
-        byte[] hash = new byte[32];
-        digest.doFinal(hash, 0);
-        return Hex.toHexString(hash);
-    }
-
     // Getters
     public String getRootHash() {
         return rootHash;
@@ -236,11 +318,15 @@ public class MerkleTree<T> {
     }
 
     public List<String> getLeafHashes() {
-        return new ArrayList<>(leafHashes);
+        List<String> leafHashes = new ArrayList<>(leaves.size());
+        for (int i = 0; i < leaves.size(); i++) {
+            leafHashes.add(leafOrNode(0, i).toHex());
+        }
+        return leafHashes;
     }
 
     public int getTreeHeight() {
-        return levels.size();
+        return levelSizes.length;
     }
 
     public int getLeafCount() {
@@ -254,8 +340,8 @@ public class MerkleTree<T> {
         return new MerkleTreeStats(
             rootHash,
             leaves.size(),
-            levels.size(),
-            leafHashes.size()
+            levelSizes.length,
+            leaves.size()
         );
     }
 
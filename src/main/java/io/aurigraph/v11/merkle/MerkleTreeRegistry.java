@@ -13,11 +13,18 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * Base Merkle Tree Registry for cryptographically verifiable data storage
  *
  * Provides:
- * - Automatic Merkle tree construction and maintenance
- * - Proof generation and verification
+ * - Incremental Merkle tree maintenance (O(log n) rehash per mutation)
+ * - Batched mutations that rehash each dirty node once
+ * - Proof generation and verification from cached tree levels
  * - Root hash tracking for tamper detection
  * - Thread-safe concurrent access
  *
+ * Leaves are always laid out in key order, so the root depends only on the
+ * entries, not on the order they were added or removed in, and matches a
+ * {@link #rebuildMerkleTree()} after a restart. A value change rehashes one
+ * leaf's path; adding or removing keys shifts the leaves after the first
+ * affected key, which a batch pays once.
+ *
  * @param <T> The type of data stored in the registry
  * @version 11.3.2
  * @author Backend Development Agent (BDA)
@@ -27,9 +34,15 @@ public abstract class MerkleTreeRegistry<T> {
     private static final Logger LOG = Logger.getLogger(MerkleTreeRegistry.class);
 
     protected final Map<String, T> registry = new ConcurrentHashMap<>();
-    protected MerkleTree<Map.Entry<String, T>> merkleTree;
+    protected IncrementalMerkleTree merkleTree;
     protected final ReadWriteLock treeLock = new ReentrantReadWriteLock();
 
+    // Leaf layout, guarded by treeLock: leaf i holds slotKeys.get(i), sorted by key
+    private final List<String> slotKeys = new ArrayList<>();
+    // Mutations not yet laid out: new leaf hashes by key, and removed keys
+    private final Map<String, String> stagedLeaves = new HashMap<>();
+    private final Set<String> stagedRemovals = new HashSet<>();
+
     protected String currentRootHash;
     protected Instant lastTreeUpdate;
     protected long treeRebuildCount = 0;
@@ -42,14 +55,15 @@ public abstract class MerkleTreeRegistry<T> {
     }
 
     /**
-     * Add entry to registry and update Merkle tree
+     * Add (or replace) entry in registry and update Merkle tree
      */
     public Uni<Boolean> add(String key, T value) {
         return Uni.createFrom().item(() -> {
             treeLock.writeLock().lock();
             try {
                 registry.put(key, value);
-                rebuildMerkleTree();
+                stageLeaf(key, value);
+                commitTree();
                 LOG.debugf("Added entry %s to registry, new root: %s", key, currentRootHash.substring(0, 16));
                 return true;
             } finally {
@@ -58,6 +72,26 @@ public abstract class MerkleTreeRegistry<T> {
         }).runSubscriptionOn(r -> Thread.startVirtualThread(r));
     }
 
+    /**
+     * Add (or replace) a batch of entries with a single tree update
+     */
+    public Uni<Integer> addAll(Map<String, T> entries) {
+        return Uni.createFrom().item(() -> {
+            treeLock.writeLock().lock();
+            try {
+                for (Map.Entry<String, T> entry : entries.entrySet()) {
+                    registry.put(entry.getKey(), entry.getValue());
+                    stageLeaf(entry.getKey(), entry.getValue());
+                }
+                commitTree();
+                LOG.debugf("Added %d entries to registry, new root: %s", entries.size(), currentRootHash.substring(0, 16));
+                return entries.size();
+            } finally {
+                treeLock.writeLock().unlock();
+            }
+        }).runSubscriptionOn(r -> Thread.startVirtualThread(r));
+    }
+
     /**
      * Remove entry from registry and update Merkle tree
      */
@@ -67,7 +101,8 @@ public abstract class MerkleTreeRegistry<T> {
             try {
                 T removed = registry.remove(key);
                 if (removed != null) {
-                    rebuildMerkleTree();
+                    stageRemoval(key);
+                    commitTree();
                     LOG.debugf("Removed entry %s from registry, new root: %s", key, currentRootHash.substring(0, 16));
                     return true;
                 }
@@ -78,6 +113,31 @@ public abstract class MerkleTreeRegistry<T> {
         }).runSubscriptionOn(r -> Thread.startVirtualThread(r));
     }
 
+    /**
+     * Remove a batch of entries with a single tree update
+     */
+    public Uni<Integer> removeAll(Collection<String> keys) {
+        return Uni.createFrom().item(() -> {
+            treeLock.writeLock().lock();
+            try {
+                int removedCount = 0;
+                for (String key : keys) {
+                    if (registry.remove(key) != null) {
+                        stageRemoval(key);
+                        removedCount++;
+                    }
+                }
+                if (removedCount > 0) {
+                    commitTree();
+                    LOG.debugf("Removed %d entries from registry, new root: %s", removedCount, currentRootHash.substring(0, 16));
+                }
+                return removedCount;
+            } finally {
+                treeLock.writeLock().unlock();
+            }
+        }).runSubscriptionOn(r -> Thread.startVirtualThread(r));
+    }
+
     /**
      * Get entry from registry
      */
@@ -114,24 +174,11 @@ public abstract class MerkleTreeRegistry<T> {
         return Uni.createFrom().item(() -> {
             treeLock.readLock().lock();
             try {
-                if (!registry.containsKey(key)) {
+                int index = Collections.binarySearch(slotKeys, key);
+                if (index < 0) {
                     throw new IllegalArgumentException("Key not found in registry: " + key);
                 }
 
-                // Find index of this entry
-                List<Map.Entry<String, T>> entries = new ArrayList<>(registry.entrySet());
-                int index = -1;
-                for (int i = 0; i < entries.size(); i++) {
-                    if (entries.get(i).getKey().equals(key)) {
-                        index = i;
-                        break;
-                    }
-                }
-
-                if (index == -1) {
-                    throw new IllegalStateException("Failed to find entry index");
-                }
-
                 return merkleTree.generateProof(index);
             } finally {
                 treeLock.readLock().unlock();
@@ -188,7 +235,25 @@ public abstract class MerkleTreeRegistry<T> {
     }
 
     /**
-     * Rebuild Merkle tree from current registry state
+     * Rehash the leaf of an entry whose value was mutated in place
+     */
+    protected void refreshEntry(String key) {
+        treeLock.writeLock().lock();
+        try {
+            T value = registry.get(key);
+            if (value == null) {
+                stageRemoval(key);
+            } else {
+                stageLeaf(key, value);
+            }
+            commitTree();
+        } finally {
+            treeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild Merkle tree from current registry state, laying leaves out in key order
      */
     protected void rebuildMerkleTree() {
         List<Map.Entry<String, T>> entries = new ArrayList<>(registry.entrySet());
@@ -196,14 +261,118 @@ public abstract class MerkleTreeRegistry<T> {
         // Sort entries by key for consistent ordering
         entries.sort(Comparator.comparing(Map.Entry::getKey));
 
-        // Create new Merkle tree
-        merkleTree = new MerkleTree<>(entries, this::hashEntry);
+        slotKeys.clear();
+        stagedLeaves.clear();
+        stagedRemovals.clear();
+        List<String> leafHashes = new ArrayList<>(entries.size());
+        for (Map.Entry<String, T> entry : entries) {
+            slotKeys.add(entry.getKey());
+            leafHashes.add(hashEntry(entry));
+        }
+
+        merkleTree = new IncrementalMerkleTree(leafHashes);
+
+        currentRootHash = merkleTree.getRootHash();
+        lastTreeUpdate = Instant.now();
+        treeRebuildCount++;
+    }
+
+    /**
+     * Stage a leaf update for a new or existing key
+     */
+    private void stageLeaf(String key, T value) {
+        stagedRemovals.remove(key);
+        stagedLeaves.put(key, hashEntry(Map.entry(key, value)));
+    }
+
+    /**
+     * Stage removal of a key's leaf
+     */
+    private void stageRemoval(String key) {
+        stagedLeaves.remove(key);
+        stagedRemovals.add(key);
+    }
 
+    /**
+     * Apply staged leaf changes and publish the new root
+     */
+    private void commitTree() {
+        layOutStagedLeaves();
+        merkleTree.commit();
         currentRootHash = merkleTree.getRootHash();
         lastTreeUpdate = Instant.now();
         treeRebuildCount++;
     }
 
+    /**
+     * Write staged changes into the key-ordered leaves. Existing keys are
+     * updated in place; added and removed keys re-lay the leaves from the
+     * first slot whose key changes.
+     */
+    private void layOutStagedLeaves() {
+        List<String> added = new ArrayList<>();
+        int from = slotKeys.size();
+        for (Map.Entry<String, String> staged : stagedLeaves.entrySet()) {
+            int slot = Collections.binarySearch(slotKeys, staged.getKey());
+            if (slot >= 0) {
+                merkleTree.setLeaf(slot, staged.getValue());
+            } else {
+                added.add(staged.getKey());
+                from = Math.min(from, -slot - 1);
+            }
+        }
+        boolean removedAny = false;
+        for (String key : stagedRemovals) {
+            int slot = Collections.binarySearch(slotKeys, key);
+            if (slot >= 0) {
+                removedAny = true;
+                from = Math.min(from, slot);
+            }
+        }
+        if (added.isEmpty() && !removedAny) {
+            stagedLeaves.clear();
+            stagedRemovals.clear();
+            return;
+        }
+
+        // Merge the surviving old keys from 'from' on with the added ones
+        added.sort(Comparator.naturalOrder());
+        List<String> keys = new ArrayList<>();
+        List<String> hashes = new ArrayList<>();
+        int old = from;
+        int next = 0;
+        while (old < slotKeys.size() || next < added.size()) {
+            if (old < slotKeys.size() && stagedRemovals.contains(slotKeys.get(old))) {
+                old++;
+            } else if (next == added.size()
+                    || (old < slotKeys.size() && slotKeys.get(old).compareTo(added.get(next)) < 0)) {
+                keys.add(slotKeys.get(old));
+                hashes.add(merkleTree.getLeafHash(old));
+                old++;
+            } else {
+                keys.add(added.get(next));
+                hashes.add(stagedLeaves.get(added.get(next)));
+                next++;
+            }
+        }
+
+        slotKeys.subList(from, slotKeys.size()).clear();
+        slotKeys.addAll(keys);
+        for (int i = 0; i < hashes.size(); i++) {
+            int slot = from + i;
+            if (slot < merkleTree.getLeafCount()) {
+                merkleTree.setLeaf(slot, hashes.get(i));
+            } else {
+                merkleTree.appendLeaf(hashes.get(i));
+            }
+        }
+        while (merkleTree.getLeafCount() > slotKeys.size()) {
+            merkleTree.removeLastLeaf();
+        }
+        stagedLeaves.clear();
+        stagedRemovals.clear();
+    }
+
     /**
      * Hash a registry entry (key + value)
      * Subclasses can override for custom hashing
@@ -103,16 +103,15 @@ public class XXHashService {
             return 0L;
         }
 
-        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
         long amountBits = Double.doubleToRawLongBits(amount);
 
-        // Multi-stage hash combining all components
-        long hash = xxHash.hashBytes(idBytes);
+        // Multi-stage hash combining all components; the ID's chars are hashed in place
+        long hash = xxHash.hashChars(id);
         hash = xxHash.hashLong(hash ^ amountBits);
         hash = xxHash.hashLong(hash ^ timestamp);
 
         hashOperations.incrementAndGet();
-        totalBytesHashed.addAndGet(idBytes.length + 16);
+        totalBytesHashed.addAndGet(id.length() * 2L + 16);
 
         return hash;
     }
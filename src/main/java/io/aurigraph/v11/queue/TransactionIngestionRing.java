@@ -0,0 +1,412 @@
+package io.aurigraph.v11.queue;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import org.jboss.logging.Logger;
+
+import java.security.PublicKey;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transaction ingestion pipeline on an LMAX Disruptor ring buffer
+ *
+ * Every ring position holds one pre-allocated, mutable {@link IngestionEvent}
+ * that producers overwrite in place, so publishing a transaction allocates
+ * nothing and the ring applies backpressure once consumers fall a full ring
+ * behind. Each event passes four stages, each running on its own thread:
+ *
+ * <pre>
+ *   decode -> verify (N workers, striped by sequence) -> route -> commit
+ * </pre>
+ *
+ * Handlers see the batches the ring hands them: the commit stage reports
+ * counts and publish-to-commit latency once per batch rather than once per
+ * transaction. An event rejected by decode or verify still moves through the
+ * later stages, which skip it.
+ */
+public class TransactionIngestionRing {
+
+    private static final Logger LOG = Logger.getLogger(TransactionIngestionRing.class);
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 5000;
+
+    /**
+     * Stage callbacks supplied by the ring's owner. Each is called from a
+     * single pipeline thread; {@link #verify} may be called from several
+     * workers concurrently, but never for the same event.
+     */
+    public interface Stages {
+
+        /**
+         * Fill the event's transaction fields from its raw payload
+         *
+         * @return false to reject the event
+         */
+        boolean decode(IngestionEvent event);
+
+        /**
+         * Check the event's signature
+         *
+         * @return false to reject the event
+         */
+        boolean verify(IngestionEvent event);
+
+        /**
+         * @return shard the transaction belongs to
+         */
+        int route(IngestionEvent event);
+
+        /**
+         * Apply an accepted transaction
+         */
+        void commit(IngestionEvent event);
+
+        /**
+         * Called by the commit stage at the end of every batch that committed anything
+         *
+         * @param committed transactions committed in the batch
+         * @param latencySumNanos publish-to-commit latency summed over the batch
+         * @param maxLatencyNanos largest publish-to-commit latency in the batch
+         */
+        void onCommitBatch(int committed, long latencySumNanos, long maxLatencyNanos);
+    }
+
+    /**
+     * A reusable ring slot. Fields are only meaningful between publication
+     * and the commit stage, which clears references before the slot is reused.
+     */
+    public static final class IngestionEvent {
+        String id;
+        double amount;
+        byte[] payload;
+        byte[] signature;
+        PublicKey publicKey;
+        int shard;
+        boolean rejected;
+        long publishNanos;
+
+        public String id() {
+            return id;
+        }
+
+        public double amount() {
+            return amount;
+        }
+
+        public byte[] payload() {
+            return payload;
+        }
+
+        public byte[] signature() {
+            return signature;
+        }
+
+        public PublicKey publicKey() {
+            return publicKey;
+        }
+
+        public int shard() {
+            return shard;
+        }
+
+        /**
+         * Set the decoded transaction fields
+         */
+        public void setTransaction(String id, double amount) {
+            this.id = id;
+            this.amount = amount;
+        }
+
+        void reset() {
+            id = null;
+            payload = null;
+            signature = null;
+            publicKey = null;
+            shard = -1;
+            rejected = false;
+        }
+    }
+
+    private final Disruptor<IngestionEvent> disruptor;
+    private final RingBuffer<IngestionEvent> ringBuffer;
+
+    private final AtomicLong rejectedFull = new AtomicLong(0);
+    private final AtomicLong rejectedInvalid = new AtomicLong(0);
+    private final AtomicLong committed = new AtomicLong(0);
+    private final AtomicLong batches = new AtomicLong(0);
+
+    /**
+     * Create and start the ring
+     *
+     * @param ringSize number of slots, a power of two
+     * @param verifyWorkers threads sharing the verify stage
+     * @param waitStrategy one of blocking, sleeping, yielding, busy-spin
+     */
+    public TransactionIngestionRing(int ringSize, int verifyWorkers, String waitStrategy, Stages stages) {
+        if (Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of two: " + ringSize);
+        }
+        if (verifyWorkers < 1) {
+            throw new IllegalArgumentException("At least one verify worker is required: " + verifyWorkers);
+        }
+
+        this.disruptor = new Disruptor<>(IngestionEvent::new, ringSize, new StageThreadFactory(),
+            ProducerType.MULTI, waitStrategy(waitStrategy));
+        disruptor.setDefaultExceptionHandler(new LoggingExceptionHandler());
+
+        @SuppressWarnings("unchecked")
+        EventHandler<IngestionEvent>[] verifiers = new EventHandler[verifyWorkers];
+        for (int i = 0; i < verifyWorkers; i++) {
+            verifiers[i] = new VerifyHandler(stages, i, verifyWorkers);
+        }
+        disruptor.handleEventsWith(new DecodeHandler(stages))
+            .then(verifiers)
+            .then(new RouteHandler(stages))
+            .then(new CommitHandler(stages));
+
+        this.ringBuffer = disruptor.start();
+        LOG.infof("Transaction ingestion ring started: %d slots, %d verify workers, %s wait strategy",
+            ringSize, verifyWorkers, waitStrategy);
+    }
+
+    static WaitStrategy waitStrategy(String name) {
+        return switch (name) {
+            case "blocking" -> new BlockingWaitStrategy();
+            case "sleeping" -> new SleepingWaitStrategy();
+            case "yielding" -> new YieldingWaitStrategy();
+            case "busy-spin" -> new BusySpinWaitStrategy();
+            default -> throw new IllegalArgumentException("Unknown wait strategy: " + name);
+        };
+    }
+
+    /**
+     * Publish an already decoded, trusted transaction, skipping decode and verify
+     *
+     * @return false if the ring is full
+     */
+    public boolean tryPublish(String id, double amount) {
+        long sequence;
+        try {
+            sequence = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            rejectedFull.incrementAndGet();
+            return false;
+        }
+        IngestionEvent event = ringBuffer.get(sequence);
+        event.reset();
+        event.id = id;
+        event.amount = amount;
+        event.publishNanos = System.nanoTime();
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    /**
+     * Publish a raw signed transaction for decoding and signature verification
+     *
+     * @return false if the ring is full
+     */
+    public boolean tryPublish(byte[] payload, byte[] signature, PublicKey publicKey) {
+        long sequence;
+        try {
+            sequence = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            rejectedFull.incrementAndGet();
+            return false;
+        }
+        IngestionEvent event = ringBuffer.get(sequence);
+        event.reset();
+        event.payload = payload;
+        event.signature = signature;
+        event.publicKey = publicKey;
+        event.publishNanos = System.nanoTime();
+        ringBuffer.publish(sequence);
+        return true;
+    }
+
+    /**
+     * @return transactions published but not yet through the commit stage
+     */
+    public long getPendingCount() {
+        return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+    }
+
+    public IngestionStats getStats() {
+        return new IngestionStats(
+            ringBuffer.getBufferSize(),
+            getPendingCount(),
+            ringBuffer.getCursor() + 1,
+            committed.get(),
+            rejectedFull.get(),
+            rejectedInvalid.get(),
+            batches.get()
+        );
+    }
+
+    /**
+     * Drain in-flight events and stop the pipeline threads
+     */
+    public void shutdown() {
+        try {
+            disruptor.shutdown(SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.warnf("Ingestion ring did not drain within %d ms, halting", SHUTDOWN_TIMEOUT_MS);
+            disruptor.halt();
+        }
+    }
+
+    private final class DecodeHandler implements EventHandler<IngestionEvent> {
+        private final Stages stages;
+
+        DecodeHandler(Stages stages) {
+            this.stages = stages;
+        }
+
+        @Override
+        public void onEvent(IngestionEvent event, long sequence, boolean endOfBatch) {
+            if (event.payload != null && !stages.decode(event)) {
+                event.rejected = true;
+            }
+        }
+    }
+
+    private final class VerifyHandler implements EventHandler<IngestionEvent> {
+        private final Stages stages;
+        private final int ordinal;
+        private final int workers;
+
+        VerifyHandler(Stages stages, int ordinal, int workers) {
+            this.stages = stages;
+            this.ordinal = ordinal;
+            this.workers = workers;
+        }
+
+        @Override
+        public void onEvent(IngestionEvent event, long sequence, boolean endOfBatch) {
+            if (sequence % workers != ordinal || event.rejected || event.signature == null) {
+                return;
+            }
+            if (!stages.verify(event)) {
+                event.rejected = true;
+            }
+        }
+    }
+
+    private final class RouteHandler implements EventHandler<IngestionEvent> {
+        private final Stages stages;
+
+        RouteHandler(Stages stages) {
+            this.stages = stages;
+        }
+
+        @Override
+        public void onEvent(IngestionEvent event, long sequence, boolean endOfBatch) {
+            if (!event.rejected) {
+                event.shard = stages.route(event);
+            }
+        }
+    }
+
+    private final class CommitHandler implements EventHandler<IngestionEvent> {
+        private final Stages stages;
+        private int batchCommitted;
+        private int batchRejected;
+        private long batchLatencySum;
+        private long batchMaxLatency;
+
+        CommitHandler(Stages stages) {
+            this.stages = stages;
+        }
+
+        @Override
+        public void onEvent(IngestionEvent event, long sequence, boolean endOfBatch) {
+            try {
+                if (event.rejected) {
+                    batchRejected++;
+                } else {
+                    stages.commit(event);
+                    long latency = System.nanoTime() - event.publishNanos;
+                    batchCommitted++;
+                    batchLatencySum += latency;
+                    batchMaxLatency = Math.max(batchMaxLatency, latency);
+                }
+                event.reset();
+            } finally {
+                if (endOfBatch) {
+                    endBatch();
+                }
+            }
+        }
+
+        private void endBatch() {
+            if (batchRejected > 0) {
+                rejectedInvalid.addAndGet(batchRejected);
+            }
+            if (batchCommitted > 0) {
+                committed.addAndGet(batchCommitted);
+                batches.incrementAndGet();
+                stages.onCommitBatch(batchCommitted, batchLatencySum, batchMaxLatency);
+            }
+            batchCommitted = 0;
+            batchRejected = 0;
+            batchLatencySum = 0;
+            batchMaxLatency = 0;
+        }
+    }
+
+    /**
+     * Logs a failed stage and marks the event rejected so it is skipped
+     * downstream instead of stalling the ring
+     */
+    private static final class LoggingExceptionHandler implements ExceptionHandler<IngestionEvent> {
+        @Override
+        public void handleEventException(Throwable ex, long sequence, IngestionEvent event) {
+            LOG.errorf(ex, "Ingestion stage failed for transaction %s at sequence %d", event.id, sequence);
+            event.rejected = true;
+        }
+
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            LOG.error("Ingestion stage failed to start", ex);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            LOG.error("Ingestion stage failed to shut down", ex);
+        }
+    }
+
+    private static final class StageThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "tx-ingest-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    public record IngestionStats(
+        long ringSize,
+        long pending,
+        long published,
+        long committed,
+        long rejectedFull,
+        long rejectedInvalid,
+        long batches
+    ) {}
+}
@@ -0,0 +1,245 @@
+package io.aurigraph.v11.storage;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * AES-256-GCM sealing of LevelDB checkpoint streams under the cluster checkpoint key
+ *
+ * The stream is cut into frames of at most FRAME_SIZE plaintext bytes, each
+ * sealed on its own so neither side holds more than a frame in memory. A
+ * frame's IV is a random per-stream prefix followed by the frame's sequence
+ * number, and the sequence number and last-frame flag are authenticated, so
+ * frames cannot be reordered, dropped or cut off at a frame boundary unnoticed.
+ *
+ * Layout: [IV_PREFIX:4] then per frame [FLAGS:1][LENGTH:4][CIPHERTEXT+TAG]
+ */
+final class CheckpointCipher {
+
+    private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final int KEY_SIZE_BYTES = 32;
+    private static final int IV_PREFIX_BYTES = 4;
+    private static final int TAG_SIZE_BITS = 128;
+    private static final int FRAME_SIZE = 64 * 1024;
+    private static final int MAX_SEALED_FRAME = FRAME_SIZE + TAG_SIZE_BITS / 8;
+    private static final byte LAST_FRAME = 1;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private CheckpointCipher() {
+    }
+
+    /**
+     * Parse a Base64-encoded 256-bit key
+     */
+    static SecretKey key(String base64) {
+        byte[] key;
+        try {
+            key = Base64.getDecoder().decode(base64.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Checkpoint key is not valid Base64", e);
+        }
+        if (key.length != KEY_SIZE_BYTES) {
+            throw new IllegalStateException("Checkpoint key must be " + KEY_SIZE_BYTES + " bytes, got " + key.length);
+        }
+        return new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     * Seal everything written to the returned stream; {@link SealingStream#finish()} writes the last frame
+     */
+    static SealingStream seal(OutputStream out, SecretKey key) throws IOException {
+        return new SealingStream(out, key);
+    }
+
+    /**
+     * Open a stream written through {@link #seal}; reads fail if it was altered, truncated or sealed with another key
+     */
+    static InputStream open(InputStream in, SecretKey key) throws IOException {
+        return new OpeningStream(in, key);
+    }
+
+    private static byte[] iv(byte[] prefix, long sequence) {
+        return ByteBuffer.allocate(IV_PREFIX_BYTES + Long.BYTES).put(prefix).putLong(sequence).array();
+    }
+
+    private static byte[] aad(long sequence, byte flags) {
+        return ByteBuffer.allocate(Long.BYTES + 1).putLong(sequence).put(flags).array();
+    }
+
+    static final class SealingStream extends OutputStream {
+
+        private final DataOutputStream out;
+        private final SecretKey key;
+        private final byte[] prefix = new byte[IV_PREFIX_BYTES];
+        private final byte[] buffer = new byte[FRAME_SIZE];
+        private int buffered;
+        private long sequence;
+        private boolean finished;
+
+        private SealingStream(OutputStream out, SecretKey key) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.key = key;
+            RANDOM.nextBytes(prefix);
+            this.out.write(prefix);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (buffered == buffer.length) {
+                writeFrame((byte) 0);
+            }
+            buffer[buffered++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (buffered == buffer.length) {
+                    writeFrame((byte) 0);
+                }
+                int n = Math.min(len, buffer.length - buffered);
+                System.arraycopy(b, off, buffer, buffered, n);
+                buffered += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        /**
+         * Seal the buffered bytes as the last frame and flush, leaving the underlying stream open
+         */
+        void finish() throws IOException {
+            if (!finished) {
+                writeFrame(LAST_FRAME);
+                finished = true;
+                out.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+            out.close();
+        }
+
+        private void writeFrame(byte flags) throws IOException {
+            if (finished) {
+                throw new IOException("Checkpoint stream already finished");
+            }
+            byte[] sealed;
+            try {
+                Cipher cipher = Cipher.getInstance(ALGORITHM);
+                cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_SIZE_BITS, iv(prefix, sequence)));
+                cipher.updateAAD(aad(sequence, flags));
+                sealed = cipher.doFinal(buffer, 0, buffered);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Failed to seal checkpoint frame " + sequence, e);
+            }
+            out.writeByte(flags);
+            out.writeInt(sealed.length);
+            out.write(sealed);
+            sequence++;
+            buffered = 0;
+        }
+    }
+
+    private static final class OpeningStream extends InputStream {
+
+        private final DataInputStream in;
+        private final SecretKey key;
+        private final byte[] prefix = new byte[IV_PREFIX_BYTES];
+        private byte[] frame = new byte[0];
+        private int position;
+        private long sequence;
+        private boolean last;
+
+        private OpeningStream(InputStream in, SecretKey key) throws IOException {
+            this.in = new DataInputStream(in);
+            this.key = key;
+            this.in.readFully(prefix);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return frame[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, frame.length - position);
+            System.arraycopy(frame, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        /**
+         * @return false once the last frame has been read out
+         */
+        private boolean fill() throws IOException {
+            while (position == frame.length) {
+                if (last) {
+                    return false;
+                }
+                readFrame();
+            }
+            return true;
+        }
+
+        private void readFrame() throws IOException {
+            byte flags;
+            byte[] sealed;
+            try {
+                flags = in.readByte();
+                int length = in.readInt();
+                if (length < 0 || length > MAX_SEALED_FRAME) {
+                    throw new IOException("Corrupt checkpoint frame " + sequence + ": length " + length);
+                }
+                sealed = new byte[length];
+                in.readFully(sealed);
+            } catch (EOFException e) {
+                throw new EOFException("Checkpoint stream ended before its last frame");
+            }
+            try {
+                Cipher cipher = Cipher.getInstance(ALGORITHM);
+                cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_SIZE_BITS, iv(prefix, sequence)));
+                cipher.updateAAD(aad(sequence, flags));
+                frame = cipher.doFinal(sealed);
+            } catch (AEADBadTagException e) {
+                throw new IOException("Checkpoint frame " + sequence
+                    + " failed authentication: altered, or sealed with a different checkpoint key", e);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Failed to open checkpoint frame " + sequence, e);
+            }
+            position = 0;
+            sequence++;
+            last = flags == LAST_FRAME;
+        }
+    }
+}
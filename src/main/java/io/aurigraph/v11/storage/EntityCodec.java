@@ -0,0 +1,49 @@
+package io.aurigraph.v11.storage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Entity Codec SPI
+ *
+ * Converts repository entities to and from the byte form stored in LevelDB.
+ * Encryption and validation are applied by {@link LevelDBService} on the
+ * encoded bytes, so codecs only deal with plaintext.
+ *
+ * @param <T> Entity type
+ *
+ * @version 1.0.0
+ * @author Aurigraph V11 Development Team
+ */
+public interface EntityCodec<T> {
+
+    /**
+     * Encode an entity
+     */
+    byte[] encode(T entity);
+
+    /**
+     * Decode a full entity
+     */
+    T decode(byte[] data);
+
+    /**
+     * Decode a single top-level field without binding the whole entity.
+     * Returns null if the field is absent.
+     */
+    JsonNode readField(byte[] data, String field);
+
+    /**
+     * Whether the data was written in this codec's format
+     */
+    boolean accepts(byte[] data);
+
+    /**
+     * Text of an encoded record that the value content checks run over.
+     * Binary codecs should return the field names and string values.
+     */
+    default String textContent(byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,170 @@
+package io.aurigraph.v11.storage;
+
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.WriteBatch;
+import org.iq80.leveldb.WriteOptions;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Group-commit stage for LevelDB writes
+ *
+ * Concurrent puts and deletes are queued and a single committer thread
+ * coalesces them into one WriteBatch, committed once {@code maxOps}
+ * operations are pending or {@code maxDelayMicros} have passed since the
+ * first one arrived. Each caller's future completes only after its batch
+ * has been written, so a completed write is visible and, with
+ * {@code sync}, durable. Queue order is preserved, so writes from one
+ * caller apply in submission order.
+ *
+ * @version 1.0.0
+ * @author Aurigraph V11 Development Team
+ */
+class GroupCommitWriter implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(GroupCommitWriter.class);
+
+    private final DB db;
+    private final int maxOps;
+    private final long maxDelayNanos;
+    private final WriteOptions writeOptions;
+    private final LinkedBlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private volatile boolean running = true;
+
+    private final AtomicLong commits = new AtomicLong(0);
+    private final AtomicLong committedOps = new AtomicLong(0);
+    private final AtomicLong commitNanos = new AtomicLong(0);
+    private final AtomicLong maxBatchSize = new AtomicLong(0);
+
+    GroupCommitWriter(DB db, int maxOps, long maxDelayMicros, boolean sync) {
+        this.db = db;
+        this.maxOps = Math.max(1, maxOps);
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(Math.max(0, maxDelayMicros));
+        this.writeOptions = new WriteOptions().sync(sync);
+        this.committer = new Thread(this::run, "leveldb-group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Queue a put, or a delete when {@code value} is null
+     */
+    CompletableFuture<Void> submit(byte[] key, byte[] value) {
+        PendingWrite write = new PendingWrite(key, value, new CompletableFuture<>());
+        if (!running) {
+            write.future.completeExceptionally(new IllegalStateException("LevelDB writer is closed"));
+            return write.future;
+        }
+        queue.add(write);
+        if (!running && queue.remove(write)) {
+            // Raced with close() after the final drain
+            write.future.completeExceptionally(new IllegalStateException("LevelDB writer is closed"));
+        }
+        return write.future;
+    }
+
+    long getCommitCount() {
+        return commits.get();
+    }
+
+    long getCommittedOps() {
+        return committedOps.get();
+    }
+
+    double getAverageBatchSize() {
+        long count = commits.get();
+        return count == 0 ? 0.0 : (double) committedOps.get() / count;
+    }
+
+    long getMaxBatchSize() {
+        return maxBatchSize.get();
+    }
+
+    double getAverageCommitLatencyMicros() {
+        long count = commits.get();
+        return count == 0 ? 0.0 : commitNanos.get() / 1_000.0 / count;
+    }
+
+    /**
+     * Stop accepting writes, commit everything already queued and stop the committer
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            committer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PendingWrite write;
+        while ((write = queue.poll()) != null) {
+            write.future.completeExceptionally(new IllegalStateException("LevelDB writer is closed"));
+        }
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxOps);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxOps) {
+                    queue.drainTo(batch, maxOps - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxOps || remaining <= 0) {
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                commit(batch);
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> batch) {
+        long start = System.nanoTime();
+        try (WriteBatch writeBatch = db.createWriteBatch()) {
+            for (PendingWrite write : batch) {
+                if (write.value == null) {
+                    writeBatch.delete(write.key);
+                } else {
+                    writeBatch.put(write.key, write.value);
+                }
+            }
+            db.write(writeBatch, writeOptions);
+        } catch (Exception e) {
+            LOG.errorf(e, "Group commit of %d writes failed", batch.size());
+            batch.forEach(write -> write.future.completeExceptionally(e));
+            return;
+        }
+
+        commits.incrementAndGet();
+        committedOps.addAndGet(batch.size());
+        commitNanos.addAndGet(System.nanoTime() - start);
+        maxBatchSize.accumulateAndGet(batch.size(), Math::max);
+        batch.forEach(write -> write.future.complete(null));
+    }
+
+    private record PendingWrite(byte[] key, byte[] value, CompletableFuture<Void> future) {}
+}
@@ -0,0 +1,62 @@
+package io.aurigraph.v11.storage;
+
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LevelDB Entity Codec Migration
+ *
+ * Rewrites records of every {@link LevelDBRepository} into the configured
+ * entity codec (see {@code leveldb.entity.codec}). Reads already accept both
+ * formats, so migration can run at any time, or at startup with
+ * {@code leveldb.entity.codec.migrate-on-startup=true}.
+ *
+ * @version 1.0.0
+ * @author Aurigraph V11 Development Team
+ */
+@ApplicationScoped
+public class LevelDBCodecMigration {
+
+    private static final Logger LOG = Logger.getLogger(LevelDBCodecMigration.class);
+
+    @Inject
+    @Any
+    Instance<LevelDBRepository<?, ?>> repositories;
+
+    @ConfigProperty(name = "leveldb.entity.codec.migrate-on-startup", defaultValue = "false")
+    boolean migrateOnStartup;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (migrateOnStartup) {
+            migrateAll().await().indefinitely();
+        }
+    }
+
+    /**
+     * Migrate all repositories
+     *
+     * @return records rewritten per repository key prefix
+     */
+    public Uni<Map<String, Long>> migrateAll() {
+        return Uni.createFrom().item(() -> {
+            Map<String, Long> migrated = new LinkedHashMap<>();
+            for (LevelDBRepository<?, ?> repository : repositories) {
+                long count = repository.migrateCodec().await().indefinitely();
+                migrated.put(repository.getKeyPrefix(), count);
+                LOG.infof("Migrated %d records under '%s' to the current entity codec",
+                        count, repository.getKeyPrefix());
+            }
+            return migrated;
+        });
+    }
+}
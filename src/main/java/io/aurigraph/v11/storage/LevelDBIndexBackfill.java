@@ -0,0 +1,59 @@
+package io.aurigraph.v11.storage;
+
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * LevelDB Secondary Index Backfill
+ *
+ * Builds the secondary indexes of every {@link LevelDBRepository} whose index
+ * version marker is missing or stale, e.g. records written before the indexes
+ * were declared. Runs on a worker thread after startup; index queries fall
+ * back to full scans until each repository finishes.
+ *
+ * @version 1.0.0
+ * @author Aurigraph V11 Development Team
+ */
+@ApplicationScoped
+public class LevelDBIndexBackfill {
+
+    private static final Logger LOG = Logger.getLogger(LevelDBIndexBackfill.class);
+
+    @Inject
+    @Any
+    Instance<LevelDBRepository<?, ?>> repositories;
+
+    @ConfigProperty(name = "leveldb.index.backfill-on-startup", defaultValue = "true")
+    boolean backfillOnStartup;
+
+    void onStart(@Observes StartupEvent ev) {
+        if (backfillOnStartup) {
+            Infrastructure.getDefaultWorkerPool().execute(this::backfillAll);
+        }
+    }
+
+    /**
+     * Rebuild the indexes of every repository that needs it, one at a time
+     */
+    public void backfillAll() {
+        for (LevelDBRepository<?, ?> repository : repositories) {
+            try {
+                long indexed = repository.ensureIndexes().await().indefinitely();
+                if (indexed >= 0) {
+                    LOG.infof("Backfilled secondary indexes for %d records under '%s'",
+                            indexed, repository.getKeyPrefix());
+                }
+            } catch (Exception e) {
+                LOG.errorf(e, "Secondary index backfill failed for '%s'; index queries keep scanning",
+                        repository.getKeyPrefix());
+            }
+        }
+    }
+}
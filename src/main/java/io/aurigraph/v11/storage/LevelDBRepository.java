@@ -1,13 +1,20 @@
 package io.aurigraph.v11.storage;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -16,6 +23,27 @@ import java.util.stream.Collectors;
  * Provides generic CRUD operations for LevelDB storage.
  * Replaces Panache repository pattern with key-value storage.
  *
+ * Subclasses can declare secondary indexes via {@link #getIndexes()}. Each
+ * indexed value is kept as an empty marker key
+ * {@code idx:<keyPrefix><field>:<value>:<id>}, written in the same
+ * WriteBatch as the entity, so index queries range-scan only the matching
+ * keys and deserialize only the entities they return. Writes to the same
+ * entity are serialized by a striped lock so the index entries always match
+ * the stored entity.
+ *
+ * A version marker records that the indexes were built for the current set
+ * of declared fields. Until it exists (data written before an index was
+ * declared, or a rebuild in progress) index queries fall back to a full
+ * scan; {@link #ensureIndexes()} backfills them, and runs at startup through
+ * {@link LevelDBIndexBackfill}.
+ *
+ * Entities are stored through an {@link EntityCodec}: plain JSON by default,
+ * or Jackson Smile with {@code leveldb.entity.codec=binary}. Records in
+ * either format are read transparently; {@link #migrateCodec()} rewrites
+ * records still in the other format, e.g. back to JSON before rolling back
+ * to a build that only reads JSON. Encoded records pass the same content
+ * checks as string values.
+ *
  * @param <T> Entity type
  * @param <ID> ID type (typically String)
  *
@@ -24,12 +52,46 @@ import java.util.stream.Collectors;
  */
 public abstract class LevelDBRepository<T, ID> {
 
+    /**
+     * Key prefix shared by all secondary index entries
+     */
+    protected static final String INDEX_PREFIX = "idx:";
+
+    /**
+     * Key prefix of the per-repository index version markers
+     */
+    protected static final String INDEX_VERSION_PREFIX = "idx-version:";
+
+    // Bump when the index key layout changes so existing indexes are rebuilt
+    private static final int INDEX_FORMAT_VERSION = 1;
+    private static final int WRITE_LOCK_STRIPES = 64;
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    // Longer encoded index values are replaced by their SHA-256 to bound key length
+    private static final int MAX_INDEX_VALUE_LENGTH = 200;
+
     @Inject
     protected LevelDBService levelDB;
 
     @Inject
     protected ObjectMapper objectMapper;
 
+    @ConfigProperty(name = "leveldb.entity.codec", defaultValue = "json")
+    String codecFormat;
+
+    private volatile EntityCodec<T> jsonCodec;
+    private volatile EntityCodec<T> smileCodec;
+
+    private final ReentrantLock[] writeLocks = new ReentrantLock[WRITE_LOCK_STRIPES];
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile boolean indexesReady;
+
+    protected LevelDBRepository() {
+        for (int i = 0; i < writeLocks.length; i++) {
+            writeLocks[i] = new ReentrantLock();
+        }
+    }
+
     /**
      * Get the entity class for JSON serialization
      */
@@ -45,6 +107,22 @@ public abstract class LevelDBRepository<T, ID> {
      */
     protected abstract ID getId(T entity);
 
+    /**
+     * Secondary indexes for this repository, keyed by field name.
+     * Extractors may return a single value or a collection (one entry per
+     * element); null values are not indexed. Override to declare indexes.
+     */
+    protected Map<String, Function<T, Object>> getIndexes() {
+        return Map.of();
+    }
+
+    /**
+     * Codec used for new writes. Override to plug in an entity-specific codec.
+     */
+    protected EntityCodec<T> getCodec() {
+        return jacksonCodec(!"json".equalsIgnoreCase(codecFormat));
+    }
+
     // ==================== BASIC CRUD OPERATIONS ====================
 
     /**
@@ -54,8 +132,16 @@ public abstract class LevelDBRepository<T, ID> {
         return Uni.createFrom().item(() -> {
             try {
                 String key = buildKey(getId(entity));
-                String value = objectMapper.writeValueAsString(entity);
-                levelDB.put(key, value).await().indefinitely();
+                byte[] value = encode(entity);
+                if (getIndexes().isEmpty()) {
+                    levelDB.put(key.getBytes(StandardCharsets.UTF_8), value).await().indefinitely();
+                } else {
+                    Set<String> indexKeys = indexKeys(entity);
+                    withWriteLocks(List.of(key), () -> {
+                        List<String> staleIndexKeys = staleIndexKeys(loadByKey(key), indexKeys);
+                        return levelDB.secureBatchWrite(Map.of(key, value), staleIndexKeys, indexKeys).await().indefinitely();
+                    });
+                }
                 return entity;
             } catch (Exception e) {
                 throw new RuntimeException("Failed to persist entity", e);
@@ -69,13 +155,7 @@ public abstract class LevelDBRepository<T, ID> {
     public Uni<Optional<T>> findById(ID id) {
         return Uni.createFrom().item(() -> {
             try {
-                String key = buildKey(id);
-                String value = levelDB.get(key).await().indefinitely();
-                if (value == null) {
-                    return Optional.empty();
-                }
-                T entity = objectMapper.readValue(value, getEntityClass());
-                return Optional.of(entity);
+                return Optional.ofNullable(loadByKey(buildKey(id)));
             } catch (Exception e) {
                 throw new RuntimeException("Failed to find entity by ID", e);
             }
@@ -89,7 +169,19 @@ public abstract class LevelDBRepository<T, ID> {
         return Uni.createFrom().item(() -> {
             try {
                 String key = buildKey(id);
-                levelDB.delete(key).await().indefinitely();
+                if (getIndexes().isEmpty()) {
+                    levelDB.delete(key).await().indefinitely();
+                } else {
+                    withWriteLocks(List.of(key), () -> {
+                        List<String> deletes = new ArrayList<>();
+                        deletes.add(key);
+                        T existing = loadByKey(key);
+                        if (existing != null) {
+                            deletes.addAll(indexKeys(existing));
+                        }
+                        return levelDB.secureBatchWrite(null, deletes, null).await().indefinitely();
+                    });
+                }
                 return null;
             } catch (Exception e) {
                 throw new RuntimeException("Failed to delete entity", e);
@@ -124,8 +216,7 @@ public abstract class LevelDBRepository<T, ID> {
     public Uni<Long> count() {
         return Uni.createFrom().item(() -> {
             try {
-                List<String> keys = levelDB.getKeysByPrefix(getKeyPrefix()).await().indefinitely();
-                return (long) keys.size();
+                return levelDB.countKeys(getKeyPrefix()).await().indefinitely();
             } catch (Exception e) {
                 throw new RuntimeException("Failed to count entities", e);
             }
@@ -136,18 +227,14 @@ public abstract class LevelDBRepository<T, ID> {
      * List all entities
      */
     public Uni<List<T>> listAll() {
-        return Uni.createFrom().item(() -> {
-            try {
-                java.util.Map<String, String> entries = levelDB.scanByPrefix(getKeyPrefix()).await().indefinitely();
-                List<T> entities = new ArrayList<>();
-                for (String value : entries.values()) {
-                    entities.add(objectMapper.readValue(value, getEntityClass()));
-                }
-                return entities;
-            } catch (Exception e) {
-                throw new RuntimeException("Failed to list all entities", e);
-            }
-        });
+        return streamAll().collect().asList();
+    }
+
+    /**
+     * Stream all entities in key order, decoding each one only as it is requested
+     */
+    public Multi<T> streamAll() {
+        return levelDB.streamByPrefix(getKeyPrefix()).map(entry -> decode(entry.value()));
     }
 
     // ==================== QUERY OPERATIONS ====================
@@ -156,33 +243,191 @@ public abstract class LevelDBRepository<T, ID> {
      * Find entities matching a predicate
      */
     public Uni<List<T>> findBy(Predicate<T> predicate) {
-        return listAll().map(entities ->
-            entities.stream()
-                .filter(predicate)
-                .collect(Collectors.toList())
-        );
+        return streamAll().select().where(predicate).collect().asList();
     }
 
     /**
      * Find first entity matching a predicate
      */
     public Uni<Optional<T>> findFirstBy(Predicate<T> predicate) {
-        return listAll().map(entities ->
-            entities.stream()
-                .filter(predicate)
-                .findFirst()
-        );
+        return streamAll().select().where(predicate).toUni().map(Optional::ofNullable);
     }
 
     /**
      * Count entities matching a predicate
      */
     public Uni<Long> countBy(Predicate<T> predicate) {
-        return listAll().map(entities ->
-            entities.stream()
-                .filter(predicate)
-                .count()
-        );
+        return streamAll().select().where(predicate).collect().with(Collectors.counting());
+    }
+
+    /**
+     * Find entities whose top-level field matches a predicate. Only that field
+     * is decoded for each record; full entities are built for matches only.
+     */
+    public Uni<List<T>> findByField(String field, Predicate<JsonNode> predicate) {
+        return levelDB.streamByPrefix(getKeyPrefix())
+            .select().where(entry -> {
+                JsonNode value = codecFor(entry.value()).readField(entry.value(), field);
+                return value != null && predicate.test(value);
+            })
+            .map(entry -> decode(entry.value()))
+            .collect().asList();
+    }
+
+    // ==================== INDEX QUERIES ====================
+
+    /**
+     * Find entities whose indexed field equals a value
+     */
+    public Uni<List<T>> findByIndex(String field, Object value) {
+        return findByIndex(field, value, null, 0, -1);
+    }
+
+    /**
+     * Find a page of entities whose indexed field equals a value
+     */
+    public Uni<List<T>> findByIndex(String field, Object value, int offset, int limit) {
+        return findByIndex(field, value, null, offset, limit);
+    }
+
+    /**
+     * Find entities whose indexed field equals a value and that match a residual
+     * predicate. Offset and limit apply after the predicate; the index scan stops
+     * as soon as the page is full (negative limit = unbounded).
+     */
+    public Uni<List<T>> findByIndex(String field, Object value, Predicate<T> filter, int offset, int limit) {
+        return Uni.createFrom().item(() -> {
+            List<T> results = new ArrayList<>();
+            if (limit == 0) {
+                return results;
+            }
+            int[] skipped = {0};
+            scanIndex(field, value, entity -> {
+                if (filter != null && !filter.test(entity)) {
+                    return true;
+                }
+                if (skipped[0] < offset) {
+                    skipped[0]++;
+                    return true;
+                }
+                results.add(entity);
+                return limit < 0 || results.size() < limit;
+            });
+            return results;
+        });
+    }
+
+    /**
+     * Find first entity whose indexed field equals a value
+     */
+    public Uni<Optional<T>> findFirstByIndex(String field, Object value) {
+        return findByIndex(field, value, null, 0, 1)
+            .map(list -> list.stream().findFirst());
+    }
+
+    /**
+     * Count entities whose indexed field equals a value. Each hit is checked
+     * against its entity, so the count always agrees with {@link #findByIndex}.
+     */
+    public Uni<Long> countByIndex(String field, Object value) {
+        return Uni.createFrom().item(() -> {
+            long[] count = {0};
+            scanIndex(field, value, entity -> {
+                count[0]++;
+                return true;
+            });
+            return count[0];
+        });
+    }
+
+    /**
+     * Whether the index entries are complete for the currently declared
+     * indexes. While false, index queries fall back to a full scan.
+     */
+    public boolean indexesReady() {
+        if (getIndexes().isEmpty()) {
+            return true;
+        }
+        // Checked first: a rebuild removes the version marker and must not be raced
+        if (rebuilding.get()) {
+            return false;
+        }
+        if (!indexesReady && levelDB.exists(indexVersionKey()).await().indefinitely()) {
+            indexesReady = true;
+        }
+        return indexesReady;
+    }
+
+    /**
+     * Rebuild the indexes if their version marker is missing or stale, e.g.
+     * after an upgrade that declared new indexes over existing data
+     *
+     * @return number of entities indexed, or -1 if the indexes were current
+     */
+    public Uni<Long> ensureIndexes() {
+        return Uni.createFrom().deferred(() -> indexesReady()
+            ? Uni.createFrom().item(-1L)
+            : rebuildIndexes());
+    }
+
+    /**
+     * Rebuild all secondary index entries from the stored entities, then
+     * record the index version. Index queries scan the entities meanwhile.
+     *
+     * @return number of entities indexed
+     */
+    public Uni<Long> rebuildIndexes() {
+        return Uni.createFrom().item(() -> {
+            if (!rebuilding.compareAndSet(false, true)) {
+                throw new IllegalStateException("Index rebuild already running for " + getKeyPrefix());
+            }
+            try {
+                indexesReady = false;
+                deleteKeysByPrefix(INDEX_VERSION_PREFIX + getKeyPrefix());
+                deleteKeysByPrefix(INDEX_PREFIX + getKeyPrefix());
+
+                // Entities written from here on maintain their own entries; each batch is
+                // re-read under the write locks so it cannot resurrect entries a concurrent
+                // update just removed
+                long[] indexed = {0};
+                List<String> pending = new ArrayList<>();
+                levelDB.forEachKey(getKeyPrefix(), key -> {
+                    pending.add(key);
+                    if (pending.size() >= REBUILD_BATCH_SIZE) {
+                        indexed[0] += indexBatch(pending);
+                    }
+                    return true;
+                }).await().indefinitely();
+                indexed[0] += indexBatch(pending);
+
+                levelDB.secureBatchWrite(null, null, List.of(indexVersionKey())).await().indefinitely();
+                indexesReady = true;
+                return indexed[0];
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+    }
+
+    private int indexBatch(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        int indexed = withWriteLocks(keys, () -> {
+            Set<String> indexKeys = new HashSet<>();
+            int count = 0;
+            for (String key : keys) {
+                T entity = loadByKey(key);
+                if (entity != null) {
+                    indexKeys.addAll(indexKeys(entity));
+                    count++;
+                }
+            }
+            levelDB.secureBatchWrite(null, null, indexKeys).await().indefinitely();
+            return count;
+        });
+        keys.clear();
+        return indexed;
     }
 
     // ==================== BATCH OPERATIONS ====================
@@ -193,18 +438,26 @@ public abstract class LevelDBRepository<T, ID> {
     public Uni<List<T>> persistAll(List<T> entities) {
         return Uni.createFrom().item(() -> {
             try {
-                var puts = entities.stream()
-                    .collect(Collectors.toMap(
-                        e -> buildKey(getId(e)),
-                        e -> {
-                            try {
-                                return objectMapper.writeValueAsString(e);
-                            } catch (Exception ex) {
-                                throw new RuntimeException(ex);
-                            }
-                        }
-                    ));
-                levelDB.batchWrite(puts, null).await().indefinitely();
+                Map<String, byte[]> puts = new LinkedHashMap<>();
+                for (T entity : entities) {
+                    puts.put(buildKey(getId(entity)), encode(entity));
+                }
+                if (getIndexes().isEmpty()) {
+                    levelDB.secureBatchWrite(puts, null, null).await().indefinitely();
+                    return entities;
+                }
+
+                withWriteLocks(puts.keySet(), () -> {
+                    Set<String> indexKeys = new HashSet<>();
+                    List<String> staleIndexKeys = new ArrayList<>();
+                    for (T entity : entities) {
+                        Set<String> entityIndexKeys = indexKeys(entity);
+                        indexKeys.addAll(entityIndexKeys);
+                        staleIndexKeys.addAll(staleIndexKeys(loadByKey(buildKey(getId(entity))), entityIndexKeys));
+                    }
+                    staleIndexKeys.removeAll(indexKeys);
+                    return levelDB.secureBatchWrite(puts, staleIndexKeys, indexKeys).await().indefinitely();
+                });
                 return entities;
             } catch (Exception e) {
                 throw new RuntimeException("Failed to persist all entities", e);
@@ -212,14 +465,40 @@ public abstract class LevelDBRepository<T, ID> {
         });
     }
 
+    /**
+     * Delete the given entities and their index entries in one batch
+     *
+     * @return number of entities deleted
+     */
+    public Uni<Long> deleteEntities(List<T> entities) {
+        return Uni.createFrom().item(() -> {
+            List<String> keys = new ArrayList<>();
+            for (T entity : entities) {
+                keys.add(buildKey(getId(entity)));
+            }
+            withWriteLocks(keys, () -> {
+                // Index entries are taken from the stored entities, which may be newer than the arguments
+                List<String> deletes = new ArrayList<>(keys);
+                for (String key : keys) {
+                    T existing = loadByKey(key);
+                    if (existing != null) {
+                        deletes.addAll(indexKeys(existing));
+                    }
+                }
+                return levelDB.secureBatchWrite(null, deletes, null).await().indefinitely();
+            });
+            return (long) entities.size();
+        });
+    }
+
     /**
      * Delete all entities
      */
     public Uni<Void> deleteAll() {
         return Uni.createFrom().item(() -> {
             try {
-                List<String> keys = levelDB.getKeysByPrefix(getKeyPrefix()).await().indefinitely();
-                levelDB.batchWrite(null, keys).await().indefinitely();
+                deleteKeysByPrefix(getKeyPrefix());
+                deleteKeysByPrefix(INDEX_PREFIX + getKeyPrefix());
                 return null;
             } catch (Exception e) {
                 throw new RuntimeException("Failed to delete all entities", e);
@@ -227,6 +506,58 @@ public abstract class LevelDBRepository<T, ID> {
         });
     }
 
+    // ==================== CODEC MIGRATION ====================
+
+    /**
+     * Rewrite every record not yet in the current codec's format, in place and
+     * in bounded batches. Index entries are unaffected. Safe to re-run.
+     *
+     * @return number of records rewritten
+     */
+    public Uni<Long> migrateCodec() {
+        return Uni.createFrom().item(() -> {
+            EntityCodec<T> codec = getCodec();
+            long[] migrated = {0};
+            List<String> pending = new ArrayList<>();
+            levelDB.streamByPrefix(getKeyPrefix())
+                .select().where(entry -> !codec.accepts(entry.value()))
+                .subscribe().asIterable()
+                .forEach(entry -> {
+                    pending.add(new String(entry.key(), StandardCharsets.UTF_8));
+                    if (pending.size() >= 500) {
+                        migrated[0] += migrateBatch(codec, pending);
+                    }
+                });
+            migrated[0] += migrateBatch(codec, pending);
+            return migrated[0];
+        });
+    }
+
+    /**
+     * Re-read and rewrite a batch under the write locks, so a concurrent
+     * update is never overwritten with the older record
+     */
+    private int migrateBatch(EntityCodec<T> codec, List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        int migrated = withWriteLocks(keys, () -> {
+            Map<String, byte[]> puts = new LinkedHashMap<>();
+            for (String key : keys) {
+                byte[] stored = levelDB.getBytes(key.getBytes(StandardCharsets.UTF_8)).await().indefinitely();
+                if (stored != null && !codec.accepts(stored)) {
+                    puts.put(key, encode(codec, decode(stored)));
+                }
+            }
+            if (!puts.isEmpty()) {
+                levelDB.secureBatchWrite(puts, null, null).await().indefinitely();
+            }
+            return puts.size();
+        });
+        keys.clear();
+        return migrated;
+    }
+
     // ==================== HELPER METHODS ====================
 
     /**
@@ -242,4 +573,207 @@ public abstract class LevelDBRepository<T, ID> {
     protected String extractId(String key) {
         return key.substring(getKeyPrefix().length());
     }
+
+    /**
+     * Load and deserialize the entity stored under a key, or null if absent
+     */
+    protected T loadByKey(String key) {
+        try {
+            byte[] value = levelDB.getBytes(key.getBytes(StandardCharsets.UTF_8)).await().indefinitely();
+            return value != null ? decode(value) : null;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load entity: " + key, e);
+        }
+    }
+
+    /**
+     * Encode an entity with the current codec and run the value content checks on it
+     */
+    protected byte[] encode(T entity) {
+        return encode(getCodec(), entity);
+    }
+
+    private byte[] encode(EntityCodec<T> codec, T entity) {
+        byte[] data = codec.encode(entity);
+        levelDB.validateContent(codec.textContent(data));
+        return data;
+    }
+
+    /**
+     * Decode a stored record in whichever format it was written
+     */
+    protected T decode(byte[] data) {
+        return codecFor(data).decode(data);
+    }
+
+    private EntityCodec<T> codecFor(byte[] data) {
+        EntityCodec<T> codec = getCodec();
+        // Records written before a codec switch are read with the matching Jackson codec
+        return codec.accepts(data) ? codec : jacksonCodec(JacksonEntityCodec.isSmile(data));
+    }
+
+    private EntityCodec<T> jacksonCodec(boolean binary) {
+        if (binary) {
+            if (smileCodec == null) {
+                smileCodec = JacksonEntityCodec.smile(objectMapper, getEntityClass());
+            }
+            return smileCodec;
+        }
+        if (jsonCodec == null) {
+            jsonCodec = JacksonEntityCodec.json(objectMapper, getEntityClass());
+        }
+        return jsonCodec;
+    }
+
+    /**
+     * Delete every key under a prefix in bounded batches
+     */
+    private void deleteKeysByPrefix(String prefix) {
+        List<String> pending = new ArrayList<>();
+        levelDB.forEachKey(prefix, key -> {
+            pending.add(key);
+            if (pending.size() >= 1000) {
+                levelDB.batchWrite(null, pending).await().indefinitely();
+                pending.clear();
+            }
+            return true;
+        }).await().indefinitely();
+        if (!pending.isEmpty()) {
+            levelDB.batchWrite(null, pending).await().indefinitely();
+        }
+    }
+
+    /**
+     * Stream the entities referenced by an index value in id order until the
+     * visitor returns false. Entries whose entity no longer carries the value
+     * are skipped. Scans all entities while the indexes are not ready.
+     */
+    private void scanIndex(String field, Object value, Predicate<T> visitor) {
+        Function<T, Object> extractor = requireIndex(field);
+        String expected = indexValue(value);
+        if (!indexesReady()) {
+            levelDB.forEachKey(getKeyPrefix(), key -> {
+                T entity = loadByKey(key);
+                if (entity == null || !indexValues(extractor.apply(entity)).contains(expected)) {
+                    return true;
+                }
+                return visitor.test(entity);
+            }).await().indefinitely();
+            return;
+        }
+        String prefix = indexValuePrefix(field, value);
+        levelDB.forEachKey(prefix, indexKey -> {
+            T entity = loadByKey(getKeyPrefix() + indexKey.substring(prefix.length()));
+            if (entity == null || !indexValues(extractor.apply(entity)).contains(expected)) {
+                return true;
+            }
+            return visitor.test(entity);
+        }).await().indefinitely();
+    }
+
+    /**
+     * Run an action holding the write locks of the given entity keys,
+     * acquired in stripe order so overlapping batches cannot deadlock
+     */
+    private <R> R withWriteLocks(Collection<String> keys, Supplier<R> action) {
+        int[] stripes = keys.stream()
+            .mapToInt(key -> Math.floorMod(key.hashCode(), WRITE_LOCK_STRIPES))
+            .distinct().sorted().toArray();
+        for (int stripe : stripes) {
+            writeLocks[stripe].lock();
+        }
+        try {
+            return action.get();
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                writeLocks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    /**
+     * Marker key recording that the indexes were built for the declared fields
+     */
+    private String indexVersionKey() {
+        return INDEX_VERSION_PREFIX + getKeyPrefix() + INDEX_FORMAT_VERSION + ":"
+            + String.join(",", new TreeSet<>(getIndexes().keySet()));
+    }
+
+    private Function<T, Object> requireIndex(String field) {
+        Function<T, Object> extractor = getIndexes().get(field);
+        if (extractor == null) {
+            throw new IllegalArgumentException("No secondary index '" + field + "' on " + getKeyPrefix());
+        }
+        return extractor;
+    }
+
+    /**
+     * All index keys for an entity
+     */
+    private Set<String> indexKeys(T entity) {
+        Set<String> keys = new HashSet<>();
+        String id = extractId(buildKey(getId(entity)));
+        for (Map.Entry<String, Function<T, Object>> index : getIndexes().entrySet()) {
+            for (String value : indexValues(index.getValue().apply(entity))) {
+                keys.add(INDEX_PREFIX + getKeyPrefix() + index.getKey() + ":" + value + ":" + id);
+            }
+        }
+        return keys;
+    }
+
+    private List<String> staleIndexKeys(T previous, Set<String> currentIndexKeys) {
+        if (previous == null) {
+            return List.of();
+        }
+        List<String> stale = new ArrayList<>(indexKeys(previous));
+        stale.removeAll(currentIndexKeys);
+        return stale;
+    }
+
+    private String indexValuePrefix(String field, Object value) {
+        return INDEX_PREFIX + getKeyPrefix() + field + ":" + indexValue(value) + ":";
+    }
+
+    private static Set<String> indexValues(Object raw) {
+        if (raw == null) {
+            return Set.of();
+        }
+        if (raw instanceof Collection<?> values) {
+            Set<String> encoded = new HashSet<>();
+            for (Object value : values) {
+                if (value != null) {
+                    encoded.add(indexValue(value));
+                }
+            }
+            return encoded;
+        }
+        return Set.of(indexValue(raw));
+    }
+
+    /**
+     * Encode a value into the key-safe charset: characters outside [A-Za-z0-9.-]
+     * become "_" plus four hex digits, which keeps the encoding injective and
+     * prevents a value from spanning the ':' separators
+     */
+    private static String indexValue(Object value) {
+        String raw = value instanceof Enum<?> e ? e.name() : value.toString();
+        StringBuilder encoded = new StringBuilder(raw.length() + 8);
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '.' || c == '-') {
+                encoded.append(c);
+            } else {
+                encoded.append('_').append(String.format("%04x", (int) c));
+            }
+        }
+        if (encoded.length() <= MAX_INDEX_VALUE_LENGTH) {
+            return encoded.toString();
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(raw.getBytes(StandardCharsets.UTF_8));
+            return "_sha256_" + HexFormat.of().formatHex(digest);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to hash index value", e);
+        }
+    }
 }
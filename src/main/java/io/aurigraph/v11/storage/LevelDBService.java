@@ -3,7 +3,9 @@ package io.aurigraph.v11.storage;
 import io.aurigraph.v11.security.LevelDBEncryptionService;
 import io.aurigraph.v11.security.LevelDBValidator;
 import io.aurigraph.v11.security.LevelDBAccessControl;
+import io.smallrye.mutiny.Multi;
 import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -13,11 +15,22 @@ import org.iq80.leveldb.*;
 import org.iq80.leveldb.impl.Iq80DBFactory;
 import org.jboss.logging.Logger;
 
+import javax.crypto.SecretKey;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * LevelDB Storage Service for Aurigraph V11
@@ -28,7 +41,9 @@ import java.util.concurrent.atomic.AtomicLong;
  * Features:
  * - Fast key-value storage
  * - Atomic batch writes
+ * - Group commit of concurrent single writes
  * - Snapshot isolation
+ * - Checkpoint export/import for Raft snapshot transfer
  * - Compression support
  * - Per-node data isolation
  *
@@ -52,6 +67,26 @@ public class LevelDBService {
     @ConfigProperty(name = "leveldb.compression.enabled", defaultValue = "true")
     boolean compressionEnabled;
 
+    @ConfigProperty(name = "leveldb.group-commit.enabled", defaultValue = "true")
+    boolean groupCommitEnabled;
+
+    @ConfigProperty(name = "leveldb.group-commit.max-ops", defaultValue = "256")
+    int groupCommitMaxOps;
+
+    @ConfigProperty(name = "leveldb.group-commit.max-delay-us", defaultValue = "50")
+    long groupCommitMaxDelayMicros;
+
+    @ConfigProperty(name = "leveldb.group-commit.sync", defaultValue = "false")
+    boolean groupCommitSync;
+
+    // Base64 AES-256 key shared by all validators; checkpoints are sealed with it on disk and in transfer
+    @ConfigProperty(name = "leveldb.checkpoint.encryption-key")
+    Optional<String> checkpointKey;
+
+    // Comma-separated prefixes of node-local keys, left out of checkpoints and kept across imports
+    @ConfigProperty(name = "leveldb.checkpoint.local-prefixes", defaultValue = "tx:evicted:,tx:evicted-at:")
+    List<String> localPrefixes;
+
     @Inject
     LevelDBEncryptionService encryptionService;
 
@@ -61,8 +96,21 @@ public class LevelDBService {
     @Inject
     LevelDBAccessControl accessControl;
 
-    private DB db;
+    private static final byte[] EMPTY_VALUE = new byte[0];
+    private static final int CHECKPOINT_MAGIC = 0x4C444253; // "LDBS": sealed with the cluster checkpoint key
+    private static final int PLAINTEXT_CHECKPOINT_MAGIC = 0x4C444250; // "LDBP": unsealed plaintext values
+    private static final int LEGACY_CHECKPOINT_MAGIC = 0x4C444243; // "LDBC": values under the exporting node's key
+    private static final byte CHECKPOINT_RAW = 0;
+    private static final byte CHECKPOINT_ENCRYPTED = 1;
+    private static final long CHECKPOINT_BATCH_BYTES = 4L * 1024 * 1024;
+    private static final String STAGING_SUFFIX = ".checkpoint-staging";
+    private static final String RETIRED_SUFFIX = ".checkpoint-retired";
+    private static final String SWAP_MARKER_SUFFIX = ".checkpoint-complete";
+
+    // Replaced when a checkpoint import swaps in a new database
+    private volatile DB db;
     private Options options;
+    private volatile GroupCommitWriter groupCommit;
 
     // Performance metrics
     private final AtomicLong readCount = new AtomicLong(0);
@@ -91,14 +139,23 @@ public class LevelDBService {
             options.maxOpenFiles(1000);
             options.blockSize(4 * 1024);
 
+            // Finish or discard a checkpoint import interrupted by a crash
+            finishCheckpointSwap(dbDir.toPath());
+
             // Open database
             db = Iq80DBFactory.factory.open(dbDir, options);
+            if (groupCommitEnabled) {
+                groupCommit = new GroupCommitWriter(db, groupCommitMaxOps, groupCommitMaxDelayMicros, groupCommitSync);
+            }
 
             LOG.infof("✅ LevelDB initialized successfully");
             LOG.infof("   - Path: %s", dataPath);
             LOG.infof("   - Cache: %d MB", cacheSizeMB);
             LOG.infof("   - Write Buffer: %d MB", writeBufferMB);
             LOG.infof("   - Compression: %s", compressionEnabled ? "SNAPPY" : "NONE");
+            LOG.infof("   - Group commit: %s", groupCommitEnabled
+                    ? String.format("%d ops / %d us, sync=%s", groupCommitMaxOps, groupCommitMaxDelayMicros, groupCommitSync)
+                    : "disabled");
 
         } catch (IOException e) {
             LOG.errorf(e, "Failed to initialize LevelDB");
@@ -108,6 +165,9 @@ public class LevelDBService {
 
     @PreDestroy
     void cleanup() {
+        if (groupCommit != null) {
+            groupCommit.close();
+        }
         if (db != null) {
             try {
                 LOG.info("Closing LevelDB...");
@@ -139,11 +199,7 @@ public class LevelDBService {
             encryptionService.encryptString(value)
         ).flatMap(encryptedValue ->
             // Store encrypted value
-            Uni.createFrom().item(() -> {
-                db.put(bytes(key), encryptedValue);
-                writeCount.incrementAndGet();
-                return null;
-            })
+            write(bytes(key), encryptedValue)
         );
     }
 
@@ -166,11 +222,7 @@ public class LevelDBService {
             encryptionService.encrypt(value)
         ).flatMap(encryptedValue ->
             // Store encrypted value
-            Uni.createFrom().item(() -> {
-                db.put(key, encryptedValue);
-                writeCount.incrementAndGet();
-                return null;
-            })
+            write(key, encryptedValue)
         );
     }
 
@@ -219,22 +271,34 @@ public class LevelDBService {
      * Delete a key
      */
     public Uni<Void> delete(String key) {
-        return Uni.createFrom().item(() -> {
-            db.delete(bytes(key));
-            deleteCount.incrementAndGet();
-            return null;
-        });
+        return write(bytes(key), null);
     }
 
     /**
      * Delete a key (bytes)
      */
     public Uni<Void> delete(byte[] key) {
-        return Uni.createFrom().item(() -> {
-            db.delete(key);
-            deleteCount.incrementAndGet();
-            return null;
-        });
+        return write(key, null);
+    }
+
+    /**
+     * Apply a single put (or delete when value is null), through the group-commit
+     * stage when enabled. Completes once the write is committed.
+     */
+    private Uni<Void> write(byte[] key, byte[] value) {
+        Uni<Void> write = groupCommit != null
+            ? Uni.createFrom().completionStage(() -> groupCommit.submit(key, value))
+                // Leave the committer thread before running caller continuations
+                .emitOn(Infrastructure.getDefaultWorkerPool())
+            : Uni.createFrom().item(() -> {
+                if (value == null) {
+                    db.delete(key);
+                } else {
+                    db.put(key, value);
+                }
+                return null;
+            });
+        return write.invoke(() -> (value == null ? deleteCount : writeCount).incrementAndGet());
     }
 
     /**
@@ -282,25 +346,91 @@ public class LevelDBService {
         });
     }
 
+    /**
+     * Atomically write validated, encrypted values plus unencrypted marker keys
+     * (e.g. secondary index entries) and deletes in a single WriteBatch
+     */
+    public Uni<Void> secureBatchWrite(Map<String, byte[]> puts, List<String> deletes, Collection<String> markerKeys) {
+        return Uni.createFrom().item(() -> {
+            WriteBatch batch = db.createWriteBatch();
+            try {
+                if (puts != null) {
+                    for (Map.Entry<String, byte[]> entry : puts.entrySet()) {
+                        validator.validateKey(entry.getKey());
+                        validator.validateValueBytes(entry.getValue());
+                        accessControl.checkWritePermission(entry.getKey());
+                        byte[] encryptedValue = encryptionService.encrypt(entry.getValue()).await().indefinitely();
+                        batch.put(bytes(entry.getKey()), encryptedValue);
+                    }
+                }
+
+                // Markers carry no payload, only their key matters. Their keys are
+                // derived internally from escaped values, so they skip key validation
+                if (markerKeys != null) {
+                    for (String key : markerKeys) {
+                        batch.put(bytes(key), EMPTY_VALUE);
+                    }
+                }
+
+                // Deletes go after puts so a key that is both re-put and deleted ends up deleted
+                if (deletes != null) {
+                    deletes.forEach(k -> batch.delete(bytes(k)));
+                }
+
+                db.write(batch);
+                batchCount.incrementAndGet();
+                writeCount.addAndGet((puts != null ? puts.size() : 0) + (markerKeys != null ? markerKeys.size() : 0));
+                return null;
+            } finally {
+                try {
+                    batch.close();
+                } catch (IOException e) {
+                    LOG.warnf(e, "Error closing batch");
+                }
+            }
+        });
+    }
+
+    /**
+     * Apply the string value checks (length and dangerous patterns) to the text
+     * content of an encoded record, which the byte-oriented writes do not scan
+     */
+    public void validateContent(String text) {
+        validator.validateValue(text);
+    }
+
     // ==================== RANGE QUERIES ====================
 
     /**
-     * Get all keys with a prefix
+     * Get all keys with a prefix. Like the other key-only scans this lists
+     * keys without a read permission check.
      */
     public Uni<List<String>> getKeysByPrefix(String prefix) {
+        return streamKeysByPrefix(bytes(prefix), null, null)
+            .map(this::asString)
+            .collect().asList();
+    }
+
+    /**
+     * Visit keys with a prefix in key order without materializing them.
+     * Iteration stops as soon as the visitor returns false.
+     *
+     * @return number of keys visited
+     */
+    public Uni<Long> forEachKey(String prefix, Predicate<String> visitor) {
         return Uni.createFrom().item(() -> {
-            List<String> keys = new ArrayList<>();
+            byte[] prefixBytes = bytes(prefix);
+            long visited = 0;
             DBIterator iterator = db.iterator();
             try {
-                byte[] prefixBytes = bytes(prefix);
                 iterator.seek(prefixBytes);
-
                 while (iterator.hasNext()) {
-                    Map.Entry<byte[], byte[]> entry = iterator.next();
-                    String key = asString(entry.getKey());
-                    if (key.startsWith(prefix)) {
-                        keys.add(key);
-                    } else {
+                    byte[] key = iterator.next().getKey();
+                    if (!startsWith(key, prefixBytes)) {
+                        break;
+                    }
+                    visited++;
+                    if (!visitor.test(asString(key))) {
                         break;
                     }
                 }
@@ -311,29 +441,22 @@ public class LevelDBService {
                     LOG.warnf(e, "Error closing iterator");
                 }
             }
-            return keys;
+            return visited;
         });
     }
 
     /**
-     * Scan all keys and values with prefix
+     * Count keys with a prefix without materializing them
      */
-    public Uni<Map<String, String>> scanByPrefix(String prefix) {
+    public Uni<Long> countKeys(String prefix) {
         return Uni.createFrom().item(() -> {
-            Map<String, String> result = new HashMap<>();
+            byte[] prefixBytes = bytes(prefix);
+            long count = 0;
             DBIterator iterator = db.iterator();
             try {
-                byte[] prefixBytes = bytes(prefix);
                 iterator.seek(prefixBytes);
-
-                while (iterator.hasNext()) {
-                    Map.Entry<byte[], byte[]> entry = iterator.next();
-                    String key = asString(entry.getKey());
-                    if (key.startsWith(prefix)) {
-                        result.put(key, asString(entry.getValue()));
-                    } else {
-                        break;
-                    }
+                while (iterator.hasNext() && startsWith(iterator.next().getKey(), prefixBytes)) {
+                    count++;
                 }
             } finally {
                 try {
@@ -342,10 +465,140 @@ public class LevelDBService {
                     LOG.warnf(e, "Error closing iterator");
                 }
             }
-            return result;
+            return count;
         });
     }
 
+    /**
+     * Scan all keys and values with prefix, in key order. Materializes the
+     * whole range; prefer {@link #streamByPrefix} for large prefixes.
+     *
+     * Values are decrypted as by {@link #get(String)} and the prefix needs read
+     * permission. Earlier versions returned the stored (still encrypted) bytes
+     * without a permission check, which callers writing through
+     * {@link #put(String, String)} could only parse with encryption disabled.
+     */
+    public Uni<Map<String, String>> scanByPrefix(String prefix) {
+        return streamByPrefix(prefix)
+            .collect().in(LinkedHashMap::new, (result, entry) ->
+                result.put(asString(entry.key()), asString(entry.value())));
+    }
+
+    /**
+     * Stream decrypted entries with a prefix in key order
+     */
+    public Multi<Entry> streamByPrefix(String prefix) {
+        return streamByPrefix(bytes(prefix), null, null);
+    }
+
+    /**
+     * Stream decrypted entries with a prefix, resuming after a previously seen key
+     */
+    public Multi<Entry> streamByPrefix(String prefix, String startAfter) {
+        return streamByPrefix(bytes(prefix), startAfter != null ? bytes(startAfter) : null, null);
+    }
+
+    /**
+     * Stream decrypted entries with a prefix in key order.
+     *
+     * Entries are read from the underlying iterator only as downstream requests
+     * them, so memory stays constant regardless of range size. The iterator is
+     * closed on completion, failure or cancellation.
+     *
+     * @param startAfter resume cursor: only keys strictly greater are emitted (nullable)
+     * @param snapshot   snapshot from {@link #createSnapshot()} to read a consistent view (nullable)
+     */
+    public Multi<Entry> streamByPrefix(byte[] prefix, byte[] startAfter, Snapshot snapshot) {
+        return scan(prefix, startAfter, snapshot, true)
+            .map(entry -> new Entry(entry.getKey(), decryptValue(entry.getValue())));
+    }
+
+    /**
+     * Stream keys with a prefix in key order without reading values. No read
+     * permission is required, as for {@link #getKeysByPrefix} and {@link #forEachKey}.
+     *
+     * @param startAfter resume cursor: only keys strictly greater are emitted (nullable)
+     * @param snapshot   snapshot from {@link #createSnapshot()} to read a consistent view (nullable)
+     */
+    public Multi<byte[]> streamKeysByPrefix(byte[] prefix, byte[] startAfter, Snapshot snapshot) {
+        return scan(prefix, startAfter, snapshot, false).map(Map.Entry::getKey);
+    }
+
+    private Multi<Map.Entry<byte[], byte[]>> scan(byte[] prefix, byte[] startAfter, Snapshot snapshot,
+                                                  boolean readsValues) {
+        return Multi.createFrom().resource(
+                () -> openIterator(prefix, startAfter, snapshot, readsValues),
+                iterator -> Multi.createFrom().<Map.Entry<byte[], byte[]>>iterable(
+                    () -> new PrefixIterator(iterator, prefix, startAfter)))
+            .withFinalizer(this::closeIterator)
+            .onItem().invoke(entry -> readCount.incrementAndGet());
+    }
+
+    private DBIterator openIterator(byte[] prefix, byte[] startAfter, Snapshot snapshot, boolean readsValues) {
+        if (readsValues) {
+            accessControl.checkReadPermission(asString(prefix));
+        }
+        DBIterator iterator = snapshot != null
+            ? db.iterator(new ReadOptions().snapshot(snapshot))
+            : db.iterator();
+        iterator.seek(startAfter != null && Arrays.compareUnsigned(startAfter, prefix) > 0 ? startAfter : prefix);
+        return iterator;
+    }
+
+    private void closeIterator(DBIterator iterator) {
+        try {
+            iterator.close();
+        } catch (IOException e) {
+            LOG.warnf(e, "Error closing iterator");
+        }
+    }
+
+    private byte[] decryptValue(byte[] stored) {
+        // Index markers carry no payload and are never encrypted
+        return stored.length == 0 ? stored : encryptionService.decrypt(stored).await().indefinitely();
+    }
+
+    /**
+     * Forward iterator over one key prefix, skipping the resume cursor itself
+     */
+    private static final class PrefixIterator implements Iterator<Map.Entry<byte[], byte[]>> {
+
+        private final DBIterator iterator;
+        private final byte[] prefix;
+        private final byte[] startAfter;
+        private Map.Entry<byte[], byte[]> next;
+
+        PrefixIterator(DBIterator iterator, byte[] prefix, byte[] startAfter) {
+            this.iterator = iterator;
+            this.prefix = prefix;
+            this.startAfter = startAfter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                Map.Entry<byte[], byte[]> candidate = iterator.next();
+                if (!startsWith(candidate.getKey(), prefix)) {
+                    return false;
+                }
+                if (startAfter == null || !Arrays.equals(candidate.getKey(), startAfter)) {
+                    next = candidate;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<byte[], byte[]> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<byte[], byte[]> entry = next;
+            next = null;
+            return entry;
+        }
+    }
+
     // ==================== SNAPSHOTS ====================
 
     /**
@@ -368,6 +621,273 @@ public class LevelDBService {
         });
     }
 
+    // ==================== CHECKPOINTS ====================
+
+    /**
+     * Write every replicated key and its value from a consistent snapshot of
+     * the database. Data keys are encrypted with a random per-node key, so
+     * values are decrypted and the whole stream is sealed with the cluster
+     * checkpoint key instead; the importing node re-encrypts with its own key.
+     * Keys under leveldb.checkpoint.local-prefixes belong to this node only
+     * and are left out.
+     *
+     * Format: [MAGIC:4] then, sealed by {@link CheckpointCipher}, per entry
+     * [KEY_LEN:4][KEY][FLAGS:1][VALUE_LEN:4][VALUE], ended by KEY_LEN -1.
+     * FLAGS is 1 for values stored encrypted and 0 for payload-free markers
+     * (e.g. index entries), which are stored raw.
+     *
+     * @return number of entries written
+     * @throws IOException also if no checkpoint key is configured
+     */
+    public long exportCheckpoint(OutputStream out) throws IOException {
+        SecretKey key = checkpointKey();
+        List<byte[]> local = localPrefixBytes();
+        new DataOutputStream(out).writeInt(CHECKPOINT_MAGIC);
+        CheckpointCipher.SealingStream sealed = CheckpointCipher.seal(out, key);
+        DataOutputStream data = new DataOutputStream(sealed);
+        long entries = 0;
+        try (Snapshot snapshot = db.getSnapshot();
+             DBIterator iterator = db.iterator(new ReadOptions().snapshot(snapshot))) {
+            iterator.seekToFirst();
+            while (iterator.hasNext()) {
+                Map.Entry<byte[], byte[]> entry = iterator.next();
+                if (isLocalKey(entry.getKey(), local)) {
+                    continue;
+                }
+                byte[] stored = entry.getValue();
+                data.writeInt(entry.getKey().length);
+                data.write(entry.getKey());
+                data.writeByte(stored.length == 0 ? CHECKPOINT_RAW : CHECKPOINT_ENCRYPTED);
+                byte[] value = decryptValue(stored);
+                data.writeInt(value.length);
+                data.write(value);
+                entries++;
+            }
+        }
+        data.writeInt(-1);
+        data.flush();
+        sealed.finish();
+        return entries;
+    }
+
+    /**
+     * Replace the replicated state with the entries of a checkpoint written
+     * by {@link #exportCheckpoint}, re-encrypting values with this node's key.
+     * Node-local keys are kept as they are, and any in the checkpoint are
+     * ignored.
+     *
+     * The checkpoint is written to a staging database next to the live one,
+     * which keeps serving until the staging copy is complete. The node-local
+     * keys are then copied over, a marker file commits the import and the
+     * directories are swapped; a crash before the marker leaves the old
+     * state, one after it is finished on the next startup. Reads and writes
+     * issued during the swap itself fail.
+     *
+     * @return number of entries imported
+     */
+    public long importCheckpoint(InputStream in) throws IOException {
+        SecretKey key = checkpointKey();
+        int magic = new DataInputStream(in).readInt();
+        if (magic == LEGACY_CHECKPOINT_MAGIC || magic == PLAINTEXT_CHECKPOINT_MAGIC) {
+            throw new IOException("Checkpoint is not sealed with the cluster checkpoint key; "
+                + "the leader must take a new snapshot");
+        }
+        if (magic != CHECKPOINT_MAGIC) {
+            throw new IOException("Not a LevelDB checkpoint");
+        }
+        DataInputStream data = new DataInputStream(CheckpointCipher.open(in, key));
+        List<byte[]> local = localPrefixBytes();
+
+        Path live = Paths.get(dataPath);
+        Path staging = sibling(live, STAGING_SUFFIX);
+        // Leftovers of an import that failed before it was committed
+        deleteRecursively(staging);
+
+        long imported = 0;
+        try (DB target = Iq80DBFactory.factory.open(staging.toFile(), options)) {
+            CheckpointBatch batch = new CheckpointBatch(target);
+            int keyLength;
+            while ((keyLength = data.readInt()) >= 0) {
+                byte[] entryKey = new byte[keyLength];
+                data.readFully(entryKey);
+                byte flags = data.readByte();
+                byte[] value = new byte[data.readInt()];
+                data.readFully(value);
+                if (isLocalKey(entryKey, local)) {
+                    continue;
+                }
+                batch.put(entryKey, flags == CHECKPOINT_ENCRYPTED
+                    ? encryptionService.encrypt(value).await().indefinitely() : value);
+                imported++;
+            }
+            // Nothing may follow the end marker inside the sealed stream
+            if (data.read() != -1) {
+                throw new IOException("Unexpected data after the last checkpoint entry");
+            }
+            batch.flush();
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(staging);
+            throw e;
+        }
+
+        swapInCheckpoint(live, staging);
+        writeCount.addAndGet(imported);
+        LOG.infof("Imported LevelDB checkpoint: %d entries", imported);
+        return imported;
+    }
+
+    private SecretKey checkpointKey() throws IOException {
+        String encoded = checkpointKey != null ? checkpointKey.orElse("") : "";
+        if (encoded.isBlank()) {
+            throw new IOException("leveldb.checkpoint.encryption-key is not set; checkpoints are never written in plaintext");
+        }
+        return CheckpointCipher.key(encoded);
+    }
+
+    private List<byte[]> localPrefixBytes() {
+        List<byte[]> prefixes = new ArrayList<>();
+        for (String prefix : localPrefixes != null ? localPrefixes : List.<String>of()) {
+            if (!prefix.isBlank()) {
+                prefixes.add(bytes(prefix.trim()));
+            }
+        }
+        return prefixes;
+    }
+
+    private static boolean isLocalKey(byte[] key, List<byte[]> localPrefixes) {
+        for (byte[] prefix : localPrefixes) {
+            if (startsWith(key, prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Commit a complete staging database and make it the live one
+     */
+    private synchronized void swapInCheckpoint(Path live, Path staging) throws IOException {
+        if (groupCommit != null) {
+            groupCommit.close();
+        }
+        try {
+            copyLocalKeys(staging);
+        } catch (IOException | RuntimeException e) {
+            deleteRecursively(staging);
+            if (groupCommitEnabled) {
+                groupCommit = new GroupCommitWriter(db, groupCommitMaxOps, groupCommitMaxDelayMicros, groupCommitSync);
+            }
+            throw e;
+        }
+        Files.createFile(sibling(live, SWAP_MARKER_SUFFIX));
+        db.close();
+        finishCheckpointSwap(live);
+        db = Iq80DBFactory.factory.open(live.toFile(), options);
+        if (groupCommitEnabled) {
+            groupCommit = new GroupCommitWriter(db, groupCommitMaxOps, groupCommitMaxDelayMicros, groupCommitSync);
+        }
+    }
+
+    /**
+     * Carry this node's local keys over into a staging database, stored values as they are
+     */
+    private void copyLocalKeys(Path staging) throws IOException {
+        try (DB target = Iq80DBFactory.factory.open(staging.toFile(), options);
+             Snapshot snapshot = db.getSnapshot();
+             DBIterator iterator = db.iterator(new ReadOptions().snapshot(snapshot))) {
+            CheckpointBatch batch = new CheckpointBatch(target);
+            for (byte[] start : localPrefixBytes()) {
+                iterator.seek(start);
+                while (iterator.hasNext()) {
+                    Map.Entry<byte[], byte[]> entry = iterator.next();
+                    if (!startsWith(entry.getKey(), start)) {
+                        break;
+                    }
+                    batch.put(entry.getKey(), entry.getValue());
+                }
+            }
+            batch.flush();
+        }
+    }
+
+    /**
+     * Bring the data directory to a consistent state after a checkpoint
+     * import. With the marker present the staging database is complete and
+     * replaces the live one (each step is safe to repeat); without it the
+     * staging database is an unfinished import and is dropped.
+     */
+    private static void finishCheckpointSwap(Path live) throws IOException {
+        Path staging = sibling(live, STAGING_SUFFIX);
+        Path retired = sibling(live, RETIRED_SUFFIX);
+        Path marker = sibling(live, SWAP_MARKER_SUFFIX);
+        if (Files.exists(marker)) {
+            if (Files.exists(staging)) {
+                if (Files.exists(live)) {
+                    deleteRecursively(retired);
+                    Files.move(live, retired);
+                }
+                Files.move(staging, live);
+            }
+            deleteRecursively(retired);
+            Files.delete(marker);
+            LOG.infof("Completed checkpoint import into %s", live);
+        } else if (Files.exists(staging)) {
+            LOG.warnf("Discarding unfinished checkpoint import at %s", staging);
+            deleteRecursively(staging);
+        }
+    }
+
+    private static Path sibling(Path live, String suffix) {
+        return live.resolveSibling(live.getFileName() + suffix);
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Write batch that commits itself whenever it grows past CHECKPOINT_BATCH_BYTES
+     */
+    private final class CheckpointBatch {
+
+        private final DB target;
+        private WriteBatch batch;
+        private long bytes;
+
+        CheckpointBatch(DB target) {
+            this.target = target;
+            this.batch = target.createWriteBatch();
+        }
+
+        void put(byte[] key, byte[] value) throws IOException {
+            batch.put(key, value);
+            bytes += key.length + value.length;
+            if (bytes >= CHECKPOINT_BATCH_BYTES) {
+                flush();
+                batch = target.createWriteBatch();
+            }
+        }
+
+        void flush() throws IOException {
+            try {
+                if (bytes > 0) {
+                    target.write(batch);
+                    batchCount.incrementAndGet();
+                }
+            } finally {
+                batch.close();
+                bytes = 0;
+            }
+        }
+    }
+
     // ==================== STATISTICS ====================
 
     /**
@@ -388,7 +908,11 @@ public class LevelDBService {
                     writeBufferMB,
                     compressionEnabled,
                     stats,
-                    sstables
+                    sstables,
+                    groupCommit != null ? groupCommit.getCommitCount() : 0,
+                    groupCommit != null ? groupCommit.getAverageBatchSize() : 0.0,
+                    groupCommit != null ? groupCommit.getMaxBatchSize() : 0,
+                    groupCommit != null ? groupCommit.getAverageCommitLatencyMicros() : 0.0
             );
         });
     }
@@ -403,8 +927,18 @@ public class LevelDBService {
         return new String(bytes, StandardCharsets.UTF_8);
     }
 
+    private static boolean startsWith(byte[] key, byte[] prefix) {
+        return key.length >= prefix.length
+            && Arrays.equals(key, 0, prefix.length, prefix, 0, prefix.length);
+    }
+
     // ==================== DATA MODELS ====================
 
+    /**
+     * Raw key and decrypted value emitted by the streaming scans
+     */
+    public record Entry(byte[] key, byte[] value) {}
+
     public record StorageStats(
             long readCount,
             long writeCount,
@@ -415,6 +949,10 @@ public class LevelDBService {
             int writeBufferMB,
             boolean compressionEnabled,
             String internalStats,
-            String sstables
+            String sstables,
+            long groupCommits,
+            double avgGroupCommitSize,
+            long maxGroupCommitSize,
+            double avgGroupCommitLatencyMicros
     ) {}
 }
@@ -0,0 +1,50 @@
+package io.aurigraph.v11.storage;
+
+import io.aurigraph.v11.consensus.RaftSnapshotStore;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * HyperRAFT++ snapshot checkpoints of the node's LevelDB instance
+ *
+ * Checkpoints are sealed with the cluster checkpoint key, so the files and
+ * InstallSnapshot streams never hold plaintext. Inside, values are decrypted
+ * from this node's LevelDB key and the restoring node re-encrypts them with
+ * its own, so nodes need not share their at-rest keys.
+ */
+@ApplicationScoped
+public class LevelDBSnapshotStore implements RaftSnapshotStore {
+
+    private static final Logger LOG = Logger.getLogger(LevelDBSnapshotStore.class);
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    @Inject
+    LevelDBService levelDB;
+
+    @Override
+    public void writeCheckpoint(Path target) throws IOException {
+        long start = System.currentTimeMillis();
+        long entries;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE)) {
+            entries = levelDB.exportCheckpoint(out);
+        }
+        LOG.infof("Wrote LevelDB checkpoint %s: %d entries, %d bytes in %d ms",
+            target.getFileName(), entries, Files.size(target), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void restoreCheckpoint(Path source) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source), BUFFER_SIZE)) {
+            levelDB.importCheckpoint(in);
+        }
+    }
+}
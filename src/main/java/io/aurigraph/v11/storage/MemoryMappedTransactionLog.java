@@ -8,7 +8,10 @@ import org.jboss.logging.Logger;
 
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
@@ -18,12 +21,19 @@ import java.nio.charset.StandardCharsets;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * Ultra-High-Performance Memory-Mapped Transaction Log
@@ -31,10 +41,32 @@ import java.util.Map;
  * Features:
  * - Zero-copy I/O with memory-mapped files
  * - Lock-free append operations for hot path
+ *
+ * Writers reserve space in the current segment with a single getAndAdd on
+ * its position and copy their records into the mapped buffer in parallel.
+ * Each record is 8-byte aligned and published by storing a commit marker
+ * in its header with release semantics after the payload is copied, so
+ * readers (acquire) never observe a torn record. When a reservation
+ * overflows, the segment is sealed with an end marker and writers CAS the
+ * current segment over to a pre-allocated spare, so rollover never blocks.
  * - Segmented storage for parallel access
  * - Automatic file rotation and cleanup
  * - SIMD-optimized data serialization
  * - Crash recovery with consistency checks
+ *
+ * Every record carries a CRC32C over its header, ID and payload. On
+ * startup the existing segments are scanned: intact records are kept, a
+ * torn tail (a record that was reserved or half-written at the crash) is
+ * cut off by sealing the segment at the last intact record, and writing
+ * continues in a fresh segment. A persistent {@link TransactionLogIndex}
+ * maps transaction IDs to (segment, offset) for O(1) lookups; it is
+ * rebuilt from the scan if the previous run did not shut down cleanly.
+ * {@link #replay} streams records from any {@link LogPosition} so state
+ * such as the TransactionService shards can be rebuilt after a crash.
+ *
+ * At most {@code aurigraph.storage.segments.max} segments are kept: after a
+ * rollover the oldest segments beyond that are deleted and their index
+ * entries dropped, so the log and its index stay bounded.
  * - 2M+ TPS write performance target
  */
 @ApplicationScoped
@@ -66,10 +98,14 @@ public class MemoryMappedTransactionLog {
     private final AtomicLong totalBytesWritten = new AtomicLong(0);
     private final AtomicLong currentSegmentIndex = new AtomicLong(0);
     private final AtomicReference<TransactionLogSegment> currentSegment = new AtomicReference<>();
+    private final AtomicReference<TransactionLogSegment> spareSegment = new AtomicReference<>();
+    private final AtomicLong recoveredTransactions = new AtomicLong(0);
+    private final AtomicLong truncatedSegments = new AtomicLong(0);
+    private final AtomicLong droppedSegments = new AtomicLong(0);
+    private TransactionLogIndex index;
     
     // Segment management
     private final ConcurrentHashMap<Long, TransactionLogSegment> segments = new ConcurrentHashMap<>();
-    private final ReentrantReadWriteLock segmentLock = new ReentrantReadWriteLock();
     
     // Performance optimization
     private final ThreadLocal<ByteBuffer> threadLocalBuffer = ThreadLocal.withInitial(() -> 
@@ -79,8 +115,20 @@ public class MemoryMappedTransactionLog {
     private CompletableFuture<Void> backgroundSync;
     
     // Constants
-    private static final int TRANSACTION_HEADER_SIZE = 32; // 8 bytes timestamp + 8 bytes size + 16 bytes hash
+    private static final int TRANSACTION_HEADER_SIZE = 32; // 8 bytes timestamp + 4 bytes size + 4 bytes marker + 4 bytes crc + 4 bytes id length + 8 bytes id hash
+    private static final int RECORD_ALIGNMENT = 8;
+    private static final int SIZE_OFFSET = 8;
+    private static final int MARKER_OFFSET = 12;
+    private static final int CRC_OFFSET = 16;
+    private static final int ID_LENGTH_OFFSET = 20;
+    private static final int ID_HASH_OFFSET = 24;
+    private static final int MARKER_UNCOMMITTED = 0;
+    private static final int MARKER_COMMITTED = 0x434F4D54; // "COMT"
+    private static final int MARKER_END_OF_SEGMENT = 0x454E4453; // "ENDS"
+    private static final VarHandle INT_VIEW = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
     private static final long SEGMENT_SIZE_BYTES = 256L * 1024 * 1024; // Default 256MB per segment
+    private static final Pattern SEGMENT_FILE = Pattern.compile("transaction_log_(\\d{6,})\\.dat");
+    private static final String INDEX_FILE = "transaction_log.idx";
     
     @PostConstruct
     void initialize() {
@@ -92,8 +140,16 @@ public class MemoryMappedTransactionLog {
             Path logPath = Paths.get(logDirectory);
             Files.createDirectories(logPath);
             
-            // Initialize first segment
-            createNewSegment();
+            // Validate existing segments and restore the ID index
+            index = TransactionLogIndex.open(logPath.resolve(INDEX_FILE));
+            recover(logPath);
+            
+            // Initialize first segment and its pre-allocated successor
+            TransactionLogSegment first = createNewSegment();
+            segments.put(first.getIndex(), first);
+            currentSegment.set(first);
+            preallocateSpareSegment();
+            dropOldSegments();
             
             // Start background sync process
             startBackgroundSync();
@@ -117,12 +173,16 @@ public class MemoryMappedTransactionLog {
             }
             
             // Close all segments
-            segmentLock.writeLock().lock();
-            try {
-                segments.values().forEach(TransactionLogSegment::close);
-                segments.clear();
-            } finally {
-                segmentLock.writeLock().unlock();
+            segments.values().forEach(TransactionLogSegment::close);
+            segments.clear();
+            TransactionLogSegment spare = spareSegment.getAndSet(null);
+            if (spare != null) {
+                spare.discard();
+            }
+            
+            // Segments are flushed; the index is now complete
+            if (index != null) {
+                index.close();
             }
             
             LOG.info("MemoryMappedTransactionLog shutdown complete");
@@ -139,41 +199,24 @@ public class MemoryMappedTransactionLog {
         return CompletableFuture.supplyAsync(() -> {
             try {
                 long timestamp = System.nanoTime();
-                ByteBuffer buffer = threadLocalBuffer.get();
-                buffer.clear();
+                byte[] idBytes = transactionId.getBytes(StandardCharsets.UTF_8);
+                long idHash = TransactionLogIndex.hash(transactionId);
+                int totalSize = recordSize(idBytes.length, transactionData.length);
+                ByteBuffer buffer = stagingBuffer(totalSize);
                 
                 // Prepare transaction entry with header
-                int dataSize = transactionData.length;
-                int totalSize = TRANSACTION_HEADER_SIZE + dataSize;
-                
-                if (buffer.capacity() < totalSize) {
-                    // Allocate larger buffer if needed
-                    buffer = ByteBuffer.allocateDirect(totalSize + bufferSize);
-                    threadLocalBuffer.set(buffer);
-                }
-                
-                // Write header: timestamp(8) + size(4) + reserved(4) + id_hash(16)
-                buffer.putLong(timestamp);
-                buffer.putInt(dataSize);
-                buffer.putInt(0); // Reserved for flags
-                
-                // Simple hash of transaction ID for integrity
-                byte[] idHash = calculateSimpleHash(transactionId);
-                buffer.put(idHash);
-                
-                // Write transaction data
-                buffer.put(transactionData);
+                encodeRecord(buffer, timestamp, idHash, idBytes, transactionData);
                 buffer.flip();
                 
-                // Write to current segment
-                TransactionLogSegment segment = getCurrentSegment();
-                long position = segment.write(buffer);
+                // Append to current segment
+                LogPosition position = append(buffer);
+                indexRecord(idHash, position.segmentIndex(), position.offset());
                 
                 // Update counters
                 totalTransactionsLogged.incrementAndGet();
                 totalBytesWritten.addAndGet(totalSize);
                 
-                return position;
+                return position.offset();
                 
             } catch (Exception e) {
                 LOG.error("Failed to write transaction to log: " + e.getMessage());
@@ -190,44 +233,37 @@ public class MemoryMappedTransactionLog {
             List<Long> positions = new ArrayList<>(transactions.size());
             
             try {
-                ByteBuffer buffer = threadLocalBuffer.get();
-                buffer.clear();
-                
                 // Calculate total size needed
+                int count = transactions.size();
+                byte[][] ids = new byte[count][];
+                long[] idHashes = new long[count];
                 int totalSize = 0;
-                for (TransactionEntry entry : transactions) {
-                    totalSize += TRANSACTION_HEADER_SIZE + entry.data().length;
-                }
-                
-                if (buffer.capacity() < totalSize) {
-                    buffer = ByteBuffer.allocateDirect(totalSize + bufferSize);
-                    threadLocalBuffer.set(buffer);
+                for (int i = 0; i < count; i++) {
+                    TransactionEntry entry = transactions.get(i);
+                    ids[i] = entry.id().getBytes(StandardCharsets.UTF_8);
+                    idHashes[i] = TransactionLogIndex.hash(entry.id());
+                    totalSize += recordSize(ids[i].length, entry.data().length);
                 }
+                ByteBuffer buffer = stagingBuffer(totalSize);
                 
                 long timestamp = System.nanoTime();
                 
                 // Serialize all transactions into buffer
-                for (TransactionEntry entry : transactions) {
-                    int dataSize = entry.data().length;
-                    
-                    buffer.putLong(timestamp);
-                    buffer.putInt(dataSize);
-                    buffer.putInt(0); // Reserved
-                    buffer.put(calculateSimpleHash(entry.id()));
-                    buffer.put(entry.data());
+                for (int i = 0; i < count; i++) {
+                    encodeRecord(buffer, timestamp, idHashes[i], ids[i], transactions.get(i).data());
                 }
                 
                 buffer.flip();
                 
-                // Write entire batch to segment
-                TransactionLogSegment segment = getCurrentSegment();
-                long startPosition = segment.write(buffer);
+                // Append entire batch with one reservation
+                LogPosition start = append(buffer);
                 
                 // Calculate individual positions
-                long currentPos = startPosition;
-                for (TransactionEntry entry : transactions) {
+                long currentPos = start.offset();
+                for (int i = 0; i < count; i++) {
                     positions.add(currentPos);
-                    currentPos += TRANSACTION_HEADER_SIZE + entry.data().length;
+                    indexRecord(idHashes[i], start.segmentIndex(), currentPos);
+                    currentPos += recordSize(ids[i].length, transactions.get(i).data().length);
                 }
                 
                 // Update counters
@@ -264,29 +300,241 @@ public class MemoryMappedTransactionLog {
     }
     
     /**
-     * Get current active segment, creating new one if full
+     * Locate the most recent record for a transaction ID via the index
      */
-    private TransactionLogSegment getCurrentSegment() {
-        TransactionLogSegment segment = currentSegment.get();
+    public Optional<LogPosition> locate(String transactionId) {
+        for (long[] candidate : index.lookup(TransactionLogIndex.hash(transactionId))) {
+            TransactionLogSegment segment = segments.get(candidate[0]);
+            if (segment != null && segment.hasRecord(candidate[1], transactionId)) {
+                return Optional.of(new LogPosition(candidate[0], candidate[1]));
+            }
+        }
+        return Optional.empty();
+    }
+    
+    /**
+     * Read the most recent record for a transaction ID
+     */
+    public CompletableFuture<Optional<TransactionEntry>> findTransaction(String transactionId) {
+        return CompletableFuture.supplyAsync(() -> locate(transactionId).flatMap(position -> {
+            // The segment may have been dropped since it was located
+            TransactionLogSegment segment = segments.get(position.segmentIndex());
+            return segment == null ? Optional.empty() : Optional.of(segment.read(position.offset()));
+        }), ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Replay committed records in log order, starting at {@code from}
+     * (inclusive). Intended for rebuilding state after a restart; records
+     * still being written by concurrent appenders are not waited for.
+     *
+     * @return number of records delivered to the consumer
+     */
+    public long replay(LogPosition from, Consumer<TransactionEntry> consumer) {
+        long replayed = 0;
+        for (TransactionLogSegment segment : new TreeMap<>(segments).tailMap(from.segmentIndex()).values()) {
+            long start = segment.getIndex() == from.segmentIndex() ? from.offset() : 0;
+            long[] count = {0};
+            segment.scan(start, offset -> {
+                consumer.accept(segment.read(offset));
+                count[0]++;
+            });
+            replayed += count[0];
+        }
+        LOG.infof("Replayed %d transactions from segment %d offset %d",
+                 Long.valueOf(replayed), Long.valueOf(from.segmentIndex()), Long.valueOf(from.offset()));
+        return replayed;
+    }
+    
+    /**
+     * Replay every committed record in the log
+     */
+    public long replay(Consumer<TransactionEntry> consumer) {
+        return replay(LogPosition.START, consumer);
+    }
+    
+    /**
+     * Recovery pass over segments left by a previous run: validate every
+     * record, seal torn tails, drop empty segments and rebuild the index if
+     * it was not closed cleanly. Recovered segments stay readable but are
+     * never appended to.
+     */
+    private void recover(Path logPath) throws IOException {
+        TreeMap<Long, Path> existing = new TreeMap<>();
+        try (Stream<Path> files = Files.list(logPath)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    existing.put(Long.parseLong(matcher.group(1)), file);
+                }
+            });
+        }
         
-        if (segment == null || segment.isFull()) {
-            segmentLock.writeLock().lock();
-            try {
-                // Double-check after acquiring lock
-                segment = currentSegment.get();
-                if (segment == null || segment.isFull()) {
-                    segment = createNewSegment();
+        boolean rebuildIndex = !index.wasClean();
+        if (rebuildIndex && !existing.isEmpty()) {
+            LOG.warn("Transaction log index was not closed cleanly; rebuilding from segments");
+            index.clear();
+        }
+        
+        for (Map.Entry<Long, Path> entry : existing.entrySet()) {
+            long segmentIndex = entry.getKey();
+            TransactionLogSegment segment = TransactionLogSegment.recover(segmentIndex, entry.getValue());
+            long[] records = {0};
+            long end = segment.scan(0, offset -> {
+                if (rebuildIndex) {
+                    index.put(segment.idHashAt(offset), segmentIndex, offset);
                 }
-            } finally {
-                segmentLock.writeLock().unlock();
+                records[0]++;
+            });
+            
+            if (segment.hasDataAt(end)) {
+                truncatedSegments.incrementAndGet();
+                LOG.warnf("Truncated torn tail of transaction log segment %d at offset %d",
+                         Long.valueOf(segmentIndex), Long.valueOf(end));
+            }
+            segment.seal(end);
+            currentSegmentIndex.accumulateAndGet(segmentIndex + 1, Math::max);
+            
+            if (records[0] == 0) {
+                segment.discard();
+                continue;
+            }
+            segments.put(segmentIndex, segment);
+            recoveredTransactions.addAndGet(records[0]);
+        }
+        
+        if (!existing.isEmpty()) {
+            index.sync();
+            LOG.infof("Recovered %d transactions from %d segments (%d truncated)",
+                     Long.valueOf(recoveredTransactions.get()), Integer.valueOf(segments.size()),
+                     Long.valueOf(truncatedSegments.get()));
+        }
+    }
+    
+    /**
+     * Append encoded records to the current segment, rolling over as needed
+     */
+    private LogPosition append(ByteBuffer records) {
+        int size = records.remaining();
+        if (size > segmentSizeMB * 1024 * 1024) {
+            throw new IllegalArgumentException("Records exceed segment size: " + size + " bytes");
+        }
+        while (true) {
+            TransactionLogSegment segment = currentSegment.get();
+            long position = segment.append(records);
+            if (position >= 0) {
+                return new LogPosition(segment.getIndex(), position);
             }
+            rollOver(segment);
+        }
+    }
+    
+    /**
+     * Replace a sealed segment with the pre-allocated spare. Writers racing on
+     * the same full segment all converge on whichever successor wins the CAS.
+     *
+     * Segment indexes are handed out when a segment is mapped, not when it
+     * becomes current, so a spare can be older than the segment it would
+     * follow: a fallback segment may have been created while the spare was
+     * still being mapped, or a CAS loser may have parked a lower-indexed
+     * segment as the spare. Replay and index lookups rely on later records
+     * living in higher-indexed segments, so such a spare is discarded and
+     * the successor always has a higher index than the segment it replaces.
+     */
+    private void rollOver(TransactionLogSegment full) {
+        if (currentSegment.get() != full) {
+            return;
+        }
+        TransactionLogSegment next = spareSegment.getAndSet(null);
+        if (next != null && next.getIndex() <= full.getIndex()) {
+            LOG.debugf("Discarding stale spare segment %d behind segment %d",
+                      Long.valueOf(next.getIndex()), Long.valueOf(full.getIndex()));
+            next.discard();
+            next = null;
+        }
+        if (next == null) {
+            // Spare not ready yet (rollover outpaced pre-allocation)
+            next = createNewSegment();
         }
         
-        return segment;
+        segments.put(next.getIndex(), next);
+        if (currentSegment.compareAndSet(full, next)) {
+            LOG.infof("Rolled over to transaction log segment %d", Long.valueOf(next.getIndex()));
+            preallocateSpareSegment();
+            CompletableFuture.runAsync(this::dropOldSegments, ForkJoinPool.commonPool()).exceptionally(e -> {
+                LOG.warn("Failed to drop old transaction log segments: " + e.getMessage());
+                return null;
+            });
+        } else {
+            // Lost the race; keep ours as the spare if it can follow the winner
+            segments.remove(next.getIndex());
+            if (next.getIndex() <= currentSegment.get().getIndex()
+                    || !spareSegment.compareAndSet(null, next)) {
+                next.discard();
+            }
+        }
     }
     
     /**
-     * Create new transaction log segment
+     * Delete the oldest segments beyond {@code maxSegments}, never the current
+     * one. They are unlisted first so lookups stop resolving to them, then
+     * their index entries are dropped and their files deleted.
+     */
+    private synchronized void dropOldSegments() {
+        if (maxSegments <= 0 || segments.size() <= maxSegments) {
+            return;
+        }
+        TreeMap<Long, TransactionLogSegment> ordered = new TreeMap<>(segments);
+        long current = currentSegment.get().getIndex();
+        List<TransactionLogSegment> dropped = new ArrayList<>();
+        while (ordered.size() > maxSegments && ordered.firstKey() < current) {
+            dropped.add(ordered.pollFirstEntry().getValue());
+        }
+        if (dropped.isEmpty()) {
+            return;
+        }
+        dropped.forEach(segment -> segments.remove(segment.getIndex()));
+        index.removeSegmentsBelow(ordered.firstKey());
+        dropped.forEach(TransactionLogSegment::discard);
+        droppedSegments.addAndGet(dropped.size());
+        LOG.infof("Dropped %d transaction log segments below segment %d (max %d)",
+                 Integer.valueOf(dropped.size()), ordered.firstKey(), Integer.valueOf(maxSegments));
+    }
+    
+    /**
+     * Index a record that is already in the log. A failure here must not
+     * fail the write: the record stays readable by replay, and the index is
+     * left marked incomplete so the next start rebuilds it from the segments.
+     */
+    private void indexRecord(long idHash, long segmentIndex, long offset) {
+        try {
+            index.put(idHash, segmentIndex, offset);
+        } catch (RuntimeException e) {
+            index.markIncomplete();
+            LOG.error("Failed to index transaction log record; index will be rebuilt on restart: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Map the next segment in the background so rollover only swaps a reference
+     */
+    private void preallocateSpareSegment() {
+        CompletableFuture.runAsync(() -> {
+            if (spareSegment.get() == null) {
+                TransactionLogSegment spare = createNewSegment();
+                if (spare.getIndex() <= currentSegment.get().getIndex()
+                        || !spareSegment.compareAndSet(null, spare)) {
+                    spare.discard();
+                }
+            }
+        }, ForkJoinPool.commonPool()).exceptionally(e -> {
+            LOG.warn("Failed to pre-allocate transaction log segment: " + e.getMessage());
+            return null;
+        });
+    }
+    
+    /**
+     * Create and map a new transaction log segment
      */
     private TransactionLogSegment createNewSegment() {
         try {
@@ -296,9 +544,6 @@ public class MemoryMappedTransactionLog {
             
             TransactionLogSegment segment = new TransactionLogSegment(segmentIndex, segmentPath, segmentSizeMB * 1024 * 1024);
             
-            segments.put(segmentIndex, segment);
-            currentSegment.set(segment);
-            
             LOG.infof("Created new transaction log segment: %s", filename);
             return segment;
             
@@ -307,6 +552,55 @@ public class MemoryMappedTransactionLog {
         }
     }
     
+    /**
+     * Per-thread staging buffer with room for {@code size} bytes
+     */
+    private ByteBuffer stagingBuffer(int size) {
+        ByteBuffer buffer = threadLocalBuffer.get();
+        if (buffer.capacity() < size) {
+            // Allocate larger buffer if needed
+            buffer = ByteBuffer.allocateDirect(size + bufferSize);
+            threadLocalBuffer.set(buffer);
+        }
+        buffer.clear();
+        return buffer;
+    }
+    
+    /**
+     * Encode one record: timestamp(8) + size(4) + marker(4) + crc(4) +
+     * id_length(4) + id_hash(8) + id + data, padded to the record alignment.
+     * The marker is left uncommitted; the segment publishes it once the
+     * record is in place.
+     */
+    private void encodeRecord(ByteBuffer buffer, long timestamp, long idHash, byte[] id, byte[] data) {
+        int start = buffer.position();
+        buffer.putLong(timestamp);
+        buffer.putInt(data.length);
+        buffer.putInt(MARKER_UNCOMMITTED);
+        buffer.putInt(0);
+        buffer.putInt(id.length);
+        buffer.putLong(idHash);
+        buffer.put(id);
+        buffer.put(data);
+        buffer.putInt(start + CRC_OFFSET, checksum(buffer, start, id.length, data.length));
+        buffer.position(start + recordSize(id.length, data.length));
+    }
+    
+    private static int recordSize(int idLength, int dataSize) {
+        int size = TRANSACTION_HEADER_SIZE + idLength + dataSize;
+        return (size + RECORD_ALIGNMENT - 1) & -RECORD_ALIGNMENT;
+    }
+    
+    /**
+     * CRC32C of a record, excluding the marker (published later) and the CRC itself
+     */
+    private static int checksum(ByteBuffer buffer, int start, int idLength, int dataSize) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start, MARKER_OFFSET));
+        crc.update(buffer.slice(start + ID_LENGTH_OFFSET, TRANSACTION_HEADER_SIZE - ID_LENGTH_OFFSET + idLength + dataSize));
+        return (int) crc.getValue();
+    }
+    
     /**
      * Start background sync process for durability
      */
@@ -317,12 +611,8 @@ public class MemoryMappedTransactionLog {
                     Thread.sleep(syncIntervalMs);
                     
                     // Sync all segments
-                    segmentLock.readLock().lock();
-                    try {
-                        segments.values().parallelStream().forEach(TransactionLogSegment::sync);
-                    } finally {
-                        segmentLock.readLock().unlock();
-                    }
+                    segments.values().parallelStream().forEach(TransactionLogSegment::sync);
+                    index.sync();
                     
                 } catch (InterruptedException e) {
                     Thread.currentThread().interrupt();
@@ -334,21 +624,6 @@ public class MemoryMappedTransactionLog {
         }, ForkJoinPool.commonPool());
     }
     
-    /**
-     * Calculate simple hash for transaction ID
-     */
-    private byte[] calculateSimpleHash(String transactionId) {
-        byte[] idBytes = transactionId.getBytes(StandardCharsets.UTF_8);
-        byte[] hash = new byte[16];
-        
-        // Simple hash function for performance
-        for (int i = 0; i < idBytes.length; i++) {
-            hash[i % 16] ^= idBytes[i];
-        }
-        
-        return hash;
-    }
-    
     /**
      * Get performance statistics
      */
@@ -358,7 +633,10 @@ public class MemoryMappedTransactionLog {
             totalBytesWritten.get(),
             segments.size(),
             currentSegmentIndex.get(),
-            isRunning
+            isRunning,
+            recoveredTransactions.get(),
+            truncatedSegments.get(),
+            droppedSegments.get()
         );
     }
     
@@ -373,12 +651,14 @@ public class MemoryMappedTransactionLog {
         private final FileChannel channel;
         private final MappedByteBuffer buffer;
         private final AtomicLong position = new AtomicLong(0);
+        private final boolean recovered;
         private volatile boolean closed = false;
         
         public TransactionLogSegment(long index, Path filePath, long maxSize) throws IOException {
             this.index = index;
             this.filePath = filePath;
             this.maxSize = maxSize;
+            this.recovered = false;
             
             this.file = new RandomAccessFile(filePath.toFile(), "rw");
             this.channel = file.getChannel();
@@ -392,60 +672,203 @@ public class MemoryMappedTransactionLog {
             LOG.debugf("Created segment %d: %s, size: %d MB", Long.valueOf(index), filePath, Long.valueOf(maxSize / (1024L * 1024L)));
         }
         
+        private TransactionLogSegment(long index, Path filePath, RandomAccessFile file) throws IOException {
+            this.index = index;
+            this.filePath = filePath;
+            this.maxSize = file.length();
+            this.recovered = true;
+            this.file = file;
+            this.channel = file.getChannel();
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, maxSize);
+        }
+        
+        /**
+         * Map an existing segment file left by a previous run
+         */
+        static TransactionLogSegment recover(long index, Path filePath) throws IOException {
+            return new TransactionLogSegment(index, filePath, new RandomAccessFile(filePath.toFile(), "rw"));
+        }
+        
         /**
-         * Write data to segment (thread-safe)
+         * Append encoded records (thread-safe, lock-free).
+         * Returns the start position, or -1 if the segment is sealed and the
+         * caller must roll over.
          */
-        public synchronized long write(ByteBuffer data) {
+        public long append(ByteBuffer records) {
             if (closed) {
                 throw new IllegalStateException("Segment is closed");
             }
             
-            long currentPos = position.get();
-            int dataSize = data.remaining();
-            
-            if (currentPos + dataSize > maxSize) {
-                throw new IllegalStateException("Segment is full");
+            int size = records.remaining();
+            long start = position.getAndAdd(size);
+            if (start + size > maxSize) {
+                // Only the first overflowing writer starts inside the segment; it seals it
+                if (start + TRANSACTION_HEADER_SIZE <= maxSize) {
+                    INT_VIEW.setRelease(buffer, (int) start + MARKER_OFFSET, MARKER_END_OF_SEGMENT);
+                }
+                return -1;
             }
             
-            // Write data to memory-mapped buffer
-            buffer.position((int) currentPos);
-            buffer.put(data);
+            // Copy into the reserved range, concurrently with other writers
+            buffer.put((int) start, records, records.position(), size);
             
-            position.addAndGet(dataSize);
-            return currentPos;
+            // Publish each record once its bytes are in place
+            int offset = 0;
+            while (offset < size) {
+                int dataSize = records.getInt(records.position() + offset + SIZE_OFFSET);
+                int idLength = records.getInt(records.position() + offset + ID_LENGTH_OFFSET);
+                INT_VIEW.setRelease(buffer, (int) start + offset + MARKER_OFFSET, MARKER_COMMITTED);
+                offset += recordSize(idLength, dataSize);
+            }
+            return start;
         }
         
         /**
-         * Read transaction from segment
+         * Visit the offset of each intact committed record from {@code from},
+         * in order. Returns the offset where the scan stopped: an end marker,
+         * unwritten space, or a torn record.
+         *
+         * In a recovered segment a run of unpublished records followed by an
+         * intact one is writers that died between copying and publishing;
+         * the run is skipped. Live segments stop there instead, since the
+         * writers may still be copying.
+         */
+        public long scan(long from, LongConsumer visitor) {
+            long limit = recovered ? maxSize : getPosition();
+            int offset = (int) from;
+            while (offset + TRANSACTION_HEADER_SIZE <= limit) {
+                int marker = (int) INT_VIEW.getAcquire(buffer, offset + MARKER_OFFSET);
+                if (marker == MARKER_COMMITTED) {
+                    if (!isIntact(offset, limit)) {
+                        break;
+                    }
+                    visitor.accept(offset);
+                    offset += recordLength(offset);
+                } else if (recovered && isUnpublished(offset, limit)) {
+                    int next = offset + recordLength(offset);
+                    while (next + TRANSACTION_HEADER_SIZE <= limit && isUnpublished(next, limit)) {
+                        next += recordLength(next);
+                    }
+                    if (next + TRANSACTION_HEADER_SIZE > limit
+                            || (int) INT_VIEW.getAcquire(buffer, next + MARKER_OFFSET) != MARKER_COMMITTED
+                            || !isIntact(next, limit)) {
+                        break;
+                    }
+                    offset = next;
+                } else {
+                    break;
+                }
+            }
+            return offset;
+        }
+        
+        /**
+         * Whether anything other than an end marker or unwritten space starts at {@code pos}
+         */
+        public boolean hasDataAt(long pos) {
+            int offset = (int) pos;
+            if (offset + TRANSACTION_HEADER_SIZE > maxSize
+                    || buffer.getInt(offset + MARKER_OFFSET) == MARKER_END_OF_SEGMENT) {
+                return false;
+            }
+            for (int i = 0; i < TRANSACTION_HEADER_SIZE; i += 8) {
+                if (buffer.getLong(offset + i) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        /**
+         * Seal a recovered segment at {@code end}, cutting off anything after it
+         */
+        public void seal(long end) {
+            if (end + TRANSACTION_HEADER_SIZE <= maxSize) {
+                INT_VIEW.setRelease(buffer, (int) end + MARKER_OFFSET, MARKER_END_OF_SEGMENT);
+                buffer.force();
+            }
+            position.set(end);
+        }
+        
+        /**
+         * Whether the committed record at {@code pos} belongs to {@code transactionId}
+         */
+        public boolean hasRecord(long pos, String transactionId) {
+            int offset = (int) pos;
+            // Records past a recovered segment's seal were cut off, even if they look intact
+            if (pos < 0 || pos >= getPosition() || pos + TRANSACTION_HEADER_SIZE > maxSize
+                    || (int) INT_VIEW.getAcquire(buffer, offset + MARKER_OFFSET) != MARKER_COMMITTED) {
+                return false;
+            }
+            byte[] id = transactionId.getBytes(StandardCharsets.UTF_8);
+            int idLength = buffer.getInt(offset + ID_LENGTH_OFFSET);
+            return idLength == id.length
+                && offset + TRANSACTION_HEADER_SIZE + idLength <= maxSize
+                && buffer.slice(offset + TRANSACTION_HEADER_SIZE, idLength).equals(ByteBuffer.wrap(id));
+        }
+        
+        public long idHashAt(long pos) {
+            return buffer.getLong((int) pos + ID_HASH_OFFSET);
+        }
+        
+        private int recordLength(int offset) {
+            return recordSize(buffer.getInt(offset + ID_LENGTH_OFFSET), buffer.getInt(offset + SIZE_OFFSET));
+        }
+        
+        private boolean hasPlausibleHeader(int offset, long limit) {
+            int dataSize = buffer.getInt(offset + SIZE_OFFSET);
+            int idLength = buffer.getInt(offset + ID_LENGTH_OFFSET);
+            return dataSize >= 0 && idLength >= 0
+                && (long) offset + TRANSACTION_HEADER_SIZE + idLength + dataSize <= limit;
+        }
+        
+        private boolean isUnpublished(int offset, long limit) {
+            return (int) INT_VIEW.getAcquire(buffer, offset + MARKER_OFFSET) == MARKER_UNCOMMITTED
+                && hasDataAt(offset) && hasPlausibleHeader(offset, limit);
+        }
+        
+        private boolean isIntact(int offset, long limit) {
+            return hasPlausibleHeader(offset, limit)
+                && buffer.getInt(offset + CRC_OFFSET)
+                    == checksum(buffer, offset, buffer.getInt(offset + ID_LENGTH_OFFSET), buffer.getInt(offset + SIZE_OFFSET));
+        }
+        
+        /**
+         * Read a committed transaction from segment
          */
         public TransactionEntry read(long pos) {
             if (closed) {
                 throw new IllegalStateException("Segment is closed");
             }
             
-            synchronized (this) {
-                buffer.position((int) pos);
-                
-                // Read header
-                long timestamp = buffer.getLong();
-                int dataSize = buffer.getInt();
-                int flags = buffer.getInt();
-                byte[] idHash = new byte[16];
-                buffer.get(idHash);
-                
-                // Read data
-                byte[] data = new byte[dataSize];
-                buffer.get(data);
-                
-                return new TransactionEntry("recovered_" + pos, data, timestamp);
+            int offset = (int) pos;
+            if (pos < 0 || pos >= getPosition() || pos + TRANSACTION_HEADER_SIZE > maxSize
+                    || (int) INT_VIEW.getAcquire(buffer, offset + MARKER_OFFSET) != MARKER_COMMITTED) {
+                throw new IllegalStateException("No committed record at position " + pos);
+            }
+            if (!isIntact(offset, maxSize)) {
+                throw new IllegalStateException("Checksum mismatch for record at position " + pos);
             }
+            
+            // Read header
+            long timestamp = buffer.getLong(offset);
+            int dataSize = buffer.getInt(offset + SIZE_OFFSET);
+            int idLength = buffer.getInt(offset + ID_LENGTH_OFFSET);
+            
+            // Read ID and data
+            byte[] id = new byte[idLength];
+            buffer.get(offset + TRANSACTION_HEADER_SIZE, id);
+            byte[] data = new byte[dataSize];
+            buffer.get(offset + TRANSACTION_HEADER_SIZE + idLength, data);
+            
+            return new TransactionEntry(new String(id, StandardCharsets.UTF_8), data, timestamp);
         }
         
         /**
-         * Check if segment is full
+         * Check if segment is sealed (a reservation ran past its end)
          */
         public boolean isFull() {
-            return position.get() >= maxSize * 0.9; // 90% full threshold
+            return position.get() >= maxSize;
         }
         
         /**
@@ -473,8 +896,20 @@ public class MemoryMappedTransactionLog {
             }
         }
         
+        /**
+         * Close and delete a segment that never became current
+         */
+        public void discard() {
+            close();
+            try {
+                Files.deleteIfExists(filePath);
+            } catch (IOException e) {
+                LOG.warn("Error deleting segment " + index + ": " + e.getMessage());
+            }
+        }
+        
         public long getIndex() { return index; }
-        public long getPosition() { return position.get(); }
+        public long getPosition() { return Math.min(position.get(), maxSize); }
         public long getMaxSize() { return maxSize; }
     }
     
@@ -483,6 +918,13 @@ public class MemoryMappedTransactionLog {
      */
     public record TransactionEntry(String id, byte[] data, long timestamp) {}
     
+    /**
+     * Location of a record in the log
+     */
+    public record LogPosition(long segmentIndex, long offset) {
+        public static final LogPosition START = new LogPosition(0, 0);
+    }
+    
     /**
      * Transaction log statistics
      */
@@ -491,7 +933,10 @@ public class MemoryMappedTransactionLog {
         long totalBytesWritten,
         int activeSegments,
         long currentSegmentIndex,
-        boolean isRunning
+        boolean isRunning,
+        long recoveredTransactions,
+        long truncatedSegments,
+        long droppedSegments
     ) {
         public double getAverageBytesPerTransaction() {
             return totalTransactions > 0 ? (double) totalBytesWritten / totalTransactions : 0.0;
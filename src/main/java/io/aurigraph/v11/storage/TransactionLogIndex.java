@@ -0,0 +1,435 @@
+package io.aurigraph.v11.storage;
+
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * On-disk transaction ID index for {@link MemoryMappedTransactionLog}
+ *
+ * A memory-mapped open-addressing hash table from a 64-bit transaction ID
+ * hash to the record's (segment, offset) location, so lookups by ID are
+ * O(1) without scanning segments. Writers claim slots with a CAS on the
+ * hash word and publish the location with a release store; the table is
+ * only locked exclusively while it doubles in size or drops the entries of
+ * deleted segments.
+ *
+ * The slots are mapped in chunks of at most 1 GB, so the table is not held
+ * to the 2 GB limit of a single mapping. A resize builds the new table in a
+ * separate file and only replaces the live one once it is complete.
+ *
+ * Hashes can collide, and an ID can be logged more than once, so lookups
+ * return every candidate location and callers verify the stored ID.
+ *
+ * The header carries a clean-shutdown flag. If it is not set on open, the
+ * index may be missing entries and is rebuilt by the recovery scan.
+ *
+ * @version 1.0.0
+ * @author Aurigraph V11 Development Team
+ */
+class TransactionLogIndex implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(TransactionLogIndex.class);
+
+    private static final int MAGIC = 0x544C4958; // "TLIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 16;
+    private static final int INITIAL_CAPACITY = 1 << 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int DEFAULT_CHUNK_SHIFT = 26; // 1 GB of slots per mapping
+    private static final double MAX_LOAD = 0.7;
+
+    // Header layout
+    private static final int MAGIC_OFFSET = 0;
+    private static final int VERSION_OFFSET = 4;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int CLEAN_OFFSET = 12;
+    private static final int COUNT_OFFSET = 16;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path path;
+    private final int chunkShift;
+    private final ReentrantReadWriteLock resizeLock = new ReentrantReadWriteLock();
+    private final AtomicLong count = new AtomicLong(0);
+    private final boolean recoveredClean;
+
+    private volatile Table table;
+    private volatile boolean incomplete;
+
+    private TransactionLogIndex(Path path, int chunkShift) throws IOException {
+        this.path = path;
+        this.chunkShift = chunkShift;
+        boolean clean = false;
+        long slots = Files.exists(path) ? (Files.size(path) - HEADER_SIZE) / SLOT_SIZE : 0;
+        if (slots > 0 && slots <= MAX_CAPACITY && Long.bitCount(slots) == 1) {
+            table = Table.map(path, (int) slots, chunkShift, false);
+            clean = table.header.getInt(MAGIC_OFFSET) == MAGIC
+                && table.header.getInt(VERSION_OFFSET) == VERSION
+                && table.header.getInt(CAPACITY_OFFSET) == table.capacity
+                && table.header.getInt(CLEAN_OFFSET) == 1;
+            if (clean) {
+                count.set(table.header.getLong(COUNT_OFFSET));
+            } else {
+                table.close();
+            }
+        }
+        if (!clean) {
+            table = Table.map(path, INITIAL_CAPACITY, chunkShift, true);
+        }
+        this.recoveredClean = clean;
+
+        // Anything from here on may be lost in a crash until the next clean close
+        table.header.putInt(CLEAN_OFFSET, 0);
+        table.force();
+    }
+
+    /**
+     * Open the index file, creating an empty one if it is missing or was not closed cleanly
+     */
+    static TransactionLogIndex open(Path path) throws IOException {
+        return new TransactionLogIndex(path, DEFAULT_CHUNK_SHIFT);
+    }
+
+    /**
+     * Open with {@code 1 << chunkShift} slots per mapping, so tests can cross chunk boundaries with small tables
+     */
+    static TransactionLogIndex open(Path path, int chunkShift) throws IOException {
+        return new TransactionLogIndex(path, chunkShift);
+    }
+
+    /**
+     * Whether the index was closed cleanly and is complete for the existing segments
+     */
+    boolean wasClean() {
+        return recoveredClean;
+    }
+
+    /**
+     * Note that a record was logged without its index entry, so the next
+     * open rebuilds the index instead of trusting it
+     */
+    void markIncomplete() {
+        incomplete = true;
+    }
+
+    /**
+     * Hash a transaction ID (never 0, which marks an empty slot)
+     */
+    static long hash(String transactionId) {
+        // FNV-1a over the UTF-16 code units, then a 64-bit finalizer for avalanche
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < transactionId.length(); i++) {
+            h ^= transactionId.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * Record a location for an ID hash
+     *
+     * @throws IllegalStateException if the table is at its maximum size or could not be resized
+     */
+    void put(long idHash, long segmentIndex, long offset) {
+        long location = encodeLocation(segmentIndex, offset);
+        while (true) {
+            resizeLock.readLock().lock();
+            try {
+                Table current = table;
+                if (count.get() < current.capacity * MAX_LOAD) {
+                    current.insert(idHash, location);
+                    count.incrementAndGet();
+                    return;
+                }
+            } finally {
+                resizeLock.readLock().unlock();
+            }
+            grow();
+        }
+    }
+
+    /**
+     * Candidate locations for an ID hash as {@code [segment, offset]} pairs, most recent first
+     */
+    long[][] lookup(long idHash) {
+        resizeLock.readLock().lock();
+        try {
+            Table current = table;
+            long[] found = new long[4];
+            int size = 0;
+            int mask = current.capacity - 1;
+            for (int slot = (int) idHash & mask; ; slot = (slot + 1) & mask) {
+                long stored = current.hashAt(slot);
+                if (stored == 0) {
+                    break;
+                }
+                long location = current.locationAt(slot);
+                if (stored == idHash && location != 0) {
+                    if (size == found.length) {
+                        found = Arrays.copyOf(found, size * 2);
+                    }
+                    found[size++] = location;
+                }
+            }
+            // Later writes have higher (segment, offset) locations
+            Arrays.sort(found, 0, size);
+            long[][] locations = new long[size][];
+            for (int i = 0; i < size; i++) {
+                long location = found[size - 1 - i] - 1;
+                locations[i] = new long[] {location >>> 32, location & 0xffffffffL};
+            }
+            return locations;
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
+    long size() {
+        return count.get();
+    }
+
+    int capacity() {
+        return table.capacity;
+    }
+
+    /**
+     * Drop all entries (before a rebuild)
+     */
+    void clear() {
+        resizeLock.writeLock().lock();
+        try {
+            table.clear();
+            count.set(0);
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the entries of every segment below {@code segmentIndex}, once those segments are deleted
+     */
+    void removeSegmentsBelow(long segmentIndex) {
+        resizeLock.writeLock().lock();
+        try {
+            long kept = rebuild(table.capacity, location -> (location - 1) >>> 32 >= segmentIndex);
+            LOG.infof("Transaction log index pruned below segment %d: %d entries left",
+                     Long.valueOf(segmentIndex), Long.valueOf(kept));
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flush entries to disk
+     */
+    void sync() {
+        resizeLock.readLock().lock();
+        try {
+            table.header.putLong(COUNT_OFFSET, count.get());
+            table.force();
+        } finally {
+            resizeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flush, and mark the index clean unless a record was logged without its entry
+     */
+    @Override
+    public void close() {
+        resizeLock.writeLock().lock();
+        try {
+            table.header.putLong(COUNT_OFFSET, count.get());
+            if (!incomplete) {
+                table.header.putInt(CLEAN_OFFSET, 1);
+            }
+            table.force();
+            table.close();
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    private void grow() {
+        resizeLock.writeLock().lock();
+        try {
+            if (count.get() < table.capacity * MAX_LOAD) {
+                return;
+            }
+            if (table.capacity >= MAX_CAPACITY) {
+                throw new IllegalStateException("Transaction log index is full at " + table.capacity + " slots");
+            }
+            rebuild(table.capacity * 2, location -> true);
+            LOG.infof("Transaction log index resized to %d slots", table.capacity);
+        } finally {
+            resizeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copy the entries accepted by {@code keep} into a new table of {@code slots}
+     * slots and swap it in. On failure the current table stays in use.
+     * Caller holds the write lock.
+     *
+     * @return number of entries kept
+     */
+    private long rebuild(int slots, LongPredicate keep) {
+        Path rebuilt = path.resolveSibling(path.getFileName() + ".resize");
+        Table current = table;
+        Table next = null;
+        long kept = 0;
+        try {
+            next = Table.map(rebuilt, slots, chunkShift, true);
+            for (int slot = 0; slot < current.capacity; slot++) {
+                long stored = current.hashAt(slot);
+                long location = current.locationAt(slot);
+                if (stored != 0 && location != 0 && keep.test(location)) {
+                    next.insert(stored, location);
+                    kept++;
+                }
+            }
+            next.header.putLong(COUNT_OFFSET, kept);
+            next.header.putInt(CLEAN_OFFSET, 0);
+            next.force();
+            Files.move(rebuilt, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            if (next != null) {
+                next.close();
+            }
+            try {
+                Files.deleteIfExists(rebuilt);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new IllegalStateException("Failed to rebuild transaction log index", e);
+        }
+        current.close();
+        table = next;
+        count.set(kept);
+        return kept;
+    }
+
+    // Stored +1 so that segment 0, offset 0 is distinguishable from an unpublished slot
+    private static long encodeLocation(long segmentIndex, long offset) {
+        return ((segmentIndex << 32) | offset) + 1;
+    }
+
+    /**
+     * One mapped index file: the header, then the slots split across chunk mappings
+     */
+    private static final class Table {
+        final RandomAccessFile file;
+        final MappedByteBuffer header;
+        final MappedByteBuffer[] chunks;
+        final int capacity;
+        final int chunkShift;
+        final int chunkMask;
+
+        private Table(RandomAccessFile file, MappedByteBuffer header, MappedByteBuffer[] chunks,
+                      int capacity, int chunkShift) {
+            this.file = file;
+            this.header = header;
+            this.chunks = chunks;
+            this.capacity = capacity;
+            this.chunkShift = chunkShift;
+            this.chunkMask = (1 << chunkShift) - 1;
+        }
+
+        static Table map(Path target, int slots, int chunkShift, boolean initialize) throws IOException {
+            if (initialize) {
+                Files.deleteIfExists(target);
+            }
+            RandomAccessFile file = new RandomAccessFile(target.toFile(), "rw");
+            try {
+                if (initialize) {
+                    file.setLength(HEADER_SIZE + (long) slots * SLOT_SIZE);
+                }
+                FileChannel channel = file.getChannel();
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+                int chunkSlots = 1 << chunkShift;
+                MappedByteBuffer[] chunks = new MappedByteBuffer[Math.max(1, slots >>> chunkShift)];
+                for (int i = 0; i < chunks.length; i++) {
+                    long start = HEADER_SIZE + ((long) i << chunkShift) * SLOT_SIZE;
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start,
+                        (long) Math.min(slots, chunkSlots) * SLOT_SIZE);
+                }
+                if (initialize) {
+                    header.putInt(MAGIC_OFFSET, MAGIC);
+                    header.putInt(VERSION_OFFSET, VERSION);
+                    header.putInt(CAPACITY_OFFSET, slots);
+                }
+                return new Table(file, header, chunks, slots, chunkShift);
+            } catch (IOException | RuntimeException e) {
+                file.close();
+                throw e;
+            }
+        }
+
+        long hashAt(int slot) {
+            return (long) LONG_VIEW.getAcquire(chunks[slot >>> chunkShift], slotOffset(slot));
+        }
+
+        long locationAt(int slot) {
+            return (long) LONG_VIEW.getAcquire(chunks[slot >>> chunkShift], slotOffset(slot) + 8);
+        }
+
+        void insert(long idHash, long location) {
+            int mask = capacity - 1;
+            for (int slot = (int) idHash & mask; ; slot = (slot + 1) & mask) {
+                MappedByteBuffer chunk = chunks[slot >>> chunkShift];
+                int offset = slotOffset(slot);
+                if (LONG_VIEW.compareAndSet(chunk, offset, 0L, idHash)) {
+                    LONG_VIEW.setRelease(chunk, offset + 8, location);
+                    return;
+                }
+            }
+        }
+
+        void clear() {
+            for (MappedByteBuffer chunk : chunks) {
+                for (int i = 0; i < chunk.capacity(); i += 8) {
+                    chunk.putLong(i, 0L);
+                }
+            }
+        }
+
+        void force() {
+            header.force();
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+        }
+
+        void close() {
+            try {
+                file.close();
+            } catch (IOException e) {
+                LOG.warn("Error closing transaction log index: " + e.getMessage());
+            }
+        }
+
+        private int slotOffset(int slot) {
+            return (slot & chunkMask) * SLOT_SIZE;
+        }
+    }
+}
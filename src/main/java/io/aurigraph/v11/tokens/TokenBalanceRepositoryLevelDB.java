@@ -8,7 +8,9 @@ import jakarta.enterprise.context.ApplicationScoped;
 import java.math.BigDecimal;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -16,6 +18,7 @@ import java.util.stream.Collectors;
  *
  * Manages token balance tracking for addresses using embedded LevelDB storage.
  * Uses composite key: "balance:{tokenId}:{address}"
+ * with secondary indexes on tokenId and address.
  *
  * @version 2.0.0 (Oct 8, 2025 - LevelDB Migration)
  * @author Aurigraph V11 Development Team
@@ -38,6 +41,16 @@ public class TokenBalanceRepositoryLevelDB extends LevelDBRepository<TokenBalanc
         return buildCompositeId(entity.getTokenId(), entity.getAddress());
     }
 
+    private static final Map<String, Function<TokenBalance, Object>> INDEXES = Map.of(
+            "tokenId", TokenBalance::getTokenId,
+            "address", TokenBalance::getAddress
+    );
+
+    @Override
+    protected Map<String, Function<TokenBalance, Object>> getIndexes() {
+        return INDEXES;
+    }
+
     // ==================== COMPOSITE KEY HELPERS ====================
 
     private String buildCompositeId(String tokenId, String address) {
@@ -57,14 +70,14 @@ public class TokenBalanceRepositoryLevelDB extends LevelDBRepository<TokenBalanc
     }
 
     public Uni<List<TokenBalance>> findByToken(String tokenId) {
-        return findBy(b -> tokenId.equals(b.getTokenId()))
+        return findByIndex("tokenId", tokenId)
                 .map(list -> list.stream()
                         .sorted(Comparator.comparing(TokenBalance::getBalance).reversed())
                         .collect(Collectors.toList()));
     }
 
     public Uni<List<TokenBalance>> findByAddress(String address) {
-        return findBy(b -> address.equals(b.getAddress()))
+        return findByIndex("address", address)
                 .map(list -> list.stream()
                         .sorted(Comparator.comparing(TokenBalance::getBalance).reversed())
                         .collect(Collectors.toList()));
@@ -73,9 +86,7 @@ public class TokenBalanceRepositoryLevelDB extends LevelDBRepository<TokenBalanc
     // ==================== BALANCE QUERIES ====================
 
     public Uni<List<TokenBalance>> findNonZeroBalances(String tokenId) {
-        return findBy(b -> tokenId.equals(b.getTokenId()) &&
-                          b.getBalance() != null &&
-                          b.getBalance().compareTo(BigDecimal.ZERO) > 0)
+        return findByIndex("tokenId", tokenId, TokenBalanceRepositoryLevelDB::isNonZero, 0, -1)
                 .map(list -> list.stream()
                         .sorted(Comparator.comparing(TokenBalance::getBalance).reversed())
                         .collect(Collectors.toList()));
@@ -89,13 +100,12 @@ public class TokenBalanceRepositoryLevelDB extends LevelDBRepository<TokenBalanc
     }
 
     public Uni<List<TokenBalance>> findByBalanceRange(String tokenId, BigDecimal min, BigDecimal max) {
-        return findBy(b -> {
-            if (!tokenId.equals(b.getTokenId())) return false;
+        return findByIndex("tokenId", tokenId, b -> {
             BigDecimal balance = b.getBalance();
             return balance != null &&
                    balance.compareTo(min) >= 0 &&
                    balance.compareTo(max) <= 0;
-        }).map(list -> list.stream()
+        }, 0, -1).map(list -> list.stream()
                 .sorted(Comparator.comparing(TokenBalance::getBalance).reversed())
                 .collect(Collectors.toList()));
     }
@@ -103,9 +113,8 @@ public class TokenBalanceRepositoryLevelDB extends LevelDBRepository<TokenBalanc
     // ==================== HOLDER STATISTICS ====================
 
     public Uni<Long> countHolders(String tokenId) {
-        return countBy(b -> tokenId.equals(b.getTokenId()) &&
-                           b.getBalance() != null &&
-                           b.getBalance().compareTo(BigDecimal.ZERO) > 0);
+        return findByIndex("tokenId", tokenId, TokenBalanceRepositoryLevelDB::isNonZero, 0, -1)
+                .map(list -> (long) list.size());
     }
 
     public Uni<BigDecimal> getTotalBalance(String tokenId) {
@@ -132,14 +141,10 @@ public class TokenBalanceRepositoryLevelDB extends LevelDBRepository<TokenBalanc
             boolean zeroBalance = balance == null || balance.compareTo(BigDecimal.ZERO) == 0;
             boolean zeroLocked = locked == null || locked.compareTo(BigDecimal.ZERO) == 0;
             return zeroBalance && zeroLocked;
-        }).flatMap(list -> {
-            List<String> keysToDelete = list.stream()
-                    .map(this::getId)
-                    .map(this::buildKey)
-                    .collect(Collectors.toList());
-
-            return levelDB.batchWrite(null, keysToDelete)
-                    .map(v -> (long) keysToDelete.size());
-        });
+        }).flatMap(this::deleteEntities);
+    }
+
+    private static boolean isNonZero(TokenBalance b) {
+        return b.getBalance() != null && b.getBalance().compareTo(BigDecimal.ZERO) > 0;
     }
 }
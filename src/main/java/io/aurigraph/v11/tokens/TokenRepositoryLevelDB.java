@@ -10,7 +10,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -18,6 +20,8 @@ import java.util.stream.Collectors;
  *
  * Provides per-node embedded storage for Token entities using LevelDB.
  * Replaces Panache/JPA with key-value storage.
+ * Lookups by owner, type, asset, symbol, contract, compliance standard and
+ * tag go through secondary indexes instead of full scans.
  *
  * @version 2.0.0 (Oct 8, 2025 - LevelDB Migration)
  * @author Aurigraph V11 Development Team
@@ -40,6 +44,22 @@ public class TokenRepositoryLevelDB extends LevelDBRepository<Token, String> {
         return entity.getTokenId();
     }
 
+    private static final Map<String, Function<Token, Object>> INDEXES = Map.of(
+            "owner", Token::getOwner,
+            "tokenType", Token::getTokenType,
+            "assetType", Token::getAssetType,
+            "assetId", Token::getAssetId,
+            "symbol", Token::getSymbol,
+            "contractAddress", Token::getContractAddress,
+            "complianceStandard", Token::getComplianceStandard,
+            "tag", Token::getTags
+    );
+
+    @Override
+    protected Map<String, Function<Token, Object>> getIndexes() {
+        return INDEXES;
+    }
+
     // ==================== BASIC QUERIES ====================
 
     public Uni<Optional<Token>> findByTokenId(String tokenId) {
@@ -51,7 +71,7 @@ public class TokenRepositoryLevelDB extends LevelDBRepository<Token, String> {
     }
 
     public Uni<List<Token>> findByOwner(String owner) {
-        return findBy(t -> owner.equals(t.getOwner()))
+        return findByIndex("owner", owner)
                 .map(list -> list.stream()
                         .sorted(Comparator.comparing(Token::getCreatedAt).reversed())
                         .collect(Collectors.toList()));
@@ -60,14 +80,14 @@ public class TokenRepositoryLevelDB extends LevelDBRepository<Token, String> {
     // ==================== TOKEN TYPE QUERIES ====================
 
     public Uni<List<Token>> findByTokenType(Token.TokenType tokenType) {
-        return findBy(t -> t.getTokenType() == tokenType)
+        return findByIndex("tokenType", tokenType)
                 .map(list -> list.stream()
                         .sorted(Comparator.comparing(Token::getCreatedAt).reversed())
                         .collect(Collectors.toList()));
     }
 
     public Uni<Long> countByTokenType(Token.TokenType tokenType) {
-        return countBy(t -> t.getTokenType() == tokenType);
+        return countByIndex("tokenType", tokenType);
     }
 
     // ==================== RWA QUERIES ====================
@@ -80,14 +100,14 @@ public class TokenRepositoryLevelDB extends LevelDBRepository<Token, String> {
     }
 
     public Uni<List<Token>> findRWATokensByAssetType(AssetType assetType) {
-        return findBy(t -> Boolean.TRUE.equals(t.getIsRWA()) && assetType.equals(t.getAssetType()))
+        return findByIndex("assetType", assetType, t -> Boolean.TRUE.equals(t.getIsRWA()), 0, -1)
                 .map(list -> list.stream()
                         .sorted(Comparator.comparing(Token::getCreatedAt).reversed())
                         .collect(Collectors.toList()));
     }
 
     public Uni<Optional<Token>> findByAssetId(String assetId) {
-        return findFirstBy(t -> assetId.equals(t.getAssetId()));
+        return findFirstByIndex("assetId", assetId);
     }
 
     public Uni<Long> countRWATokens() {
@@ -97,7 +117,7 @@ public class TokenRepositoryLevelDB extends LevelDBRepository<Token, String> {
     // ==================== SYMBOL & NAME QUERIES ====================
 
     public Uni<List<Token>> findBySymbol(String symbol) {
-        return findBy(t -> symbol.equals(t.getSymbol()))
+        return findByIndex("symbol", symbol)
                 .map(list -> list.stream()
                         .sorted(Comparator.comparing(Token::getCreatedAt).reversed())
                         .collect(Collectors.toList()));
@@ -114,7 +134,7 @@ public class TokenRepositoryLevelDB extends LevelDBRepository<Token, String> {
     // ==================== CONTRACT QUERIES ====================
 
     public Uni<Optional<Token>> findByContractAddress(String contractAddress) {
-        return findFirstBy(t -> contractAddress.equals(t.getContractAddress()));
+        return findFirstByIndex("contractAddress", contractAddress);
     }
 
     public Uni<List<Token>> findTokensWithContract() {
@@ -232,7 +252,7 @@ public class TokenRepositoryLevelDB extends LevelDBRepository<Token, String> {
     }
 
     public Uni<List<Token>> findByComplianceStandard(String standard) {
-        return findBy(t -> standard.equals(t.getComplianceStandard()))
+        return findByIndex("complianceStandard", standard)
                 .map(list -> list.stream()
                         .sorted(Comparator.comparing(Token::getCreatedAt).reversed())
                         .collect(Collectors.toList()));
@@ -248,7 +268,7 @@ public class TokenRepositoryLevelDB extends LevelDBRepository<Token, String> {
     // ==================== TAG QUERIES ====================
 
     public Uni<List<Token>> findByTag(String tag) {
-        return findBy(t -> t.getTags() != null && t.getTags().contains(tag))
+        return findByIndex("tag", tag)
                 .map(list -> list.stream()
                         .sorted(Comparator.comparing(Token::getCreatedAt).reversed())
                         .collect(Collectors.toList()));
@@ -2,6 +2,7 @@ package io.aurigraph.v11.websocket;
 
 import io.aurigraph.v11.websocket.dto.ConsensusMessage;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.websocket.*;
 import jakarta.websocket.server.ServerEndpoint;
 import org.jboss.logging.Logger;
@@ -16,23 +17,37 @@ import java.util.concurrent.ConcurrentHashMap;
  * Endpoint: /ws/consensus
  * Message format: ConsensusMessage (JSON)
  * Broadcast trigger: Consensus state change
+ *
+ * Conflated: a lagging client gets only the latest state per key (a single consensus state),
+ * at most {@code maxRate} frames per second as requested in the query string.
+ * Each frame carries {@code key} and a per-key {@code seq} to detect skipped updates.
  */
 @ServerEndpoint("/ws/consensus")
 @ApplicationScoped
 public class ConsensusWebSocket {
 
     private static final Logger LOG = Logger.getLogger(ConsensusWebSocket.class);
+    static final String CHANNEL = "consensus";
+
     private static final Set<Session> sessions = ConcurrentHashMap.newKeySet();
 
+    @Inject
+    WebSocketFanout fanout;
+
     @OnOpen
     public void onOpen(Session session) {
         sessions.add(session);
+        fanout.register(WebSocketFanout.Connection.of(session));
+        int rate = fanout.subscribeConflated(session.getId(), CHANNEL, WebSocketFanout.requestedMaxRate(session));
+        fanout.send(session.getId(), CHANNEL,
+            "{\"type\":\"subscribed\",\"channel\":\"" + CHANNEL + "\",\"maxRate\":" + rate + "}");
         LOG.infof("Consensus WebSocket connected: %s (Total: %d)", session.getId(), sessions.size());
     }
 
     @OnClose
     public void onClose(Session session) {
         sessions.remove(session);
+        fanout.unregister(session.getId());
         LOG.infof("Consensus WebSocket disconnected: %s (Total: %d)", session.getId(), sessions.size());
     }
 
@@ -40,21 +55,7 @@ public class ConsensusWebSocket {
     public void onError(Session session, Throwable throwable) {
         LOG.errorf(throwable, "Consensus WebSocket error on session %s", session.getId());
         sessions.remove(session);
-    }
-
-    /**
-     * Broadcast message to all connected clients
-     */
-    public static void broadcast(String message) {
-        sessions.forEach(session -> {
-            if (session.isOpen()) {
-                try {
-                    session.getAsyncRemote().sendText(message);
-                } catch (Exception e) {
-                    LOG.errorf(e, "Failed to broadcast to session %s", session.getId());
-                }
-            }
-        });
+        fanout.unregister(session.getId());
     }
 
     /**
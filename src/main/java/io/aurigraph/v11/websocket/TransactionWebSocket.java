@@ -2,10 +2,14 @@ package io.aurigraph.v11.websocket;
 
 import io.aurigraph.v11.websocket.dto.TransactionMessage;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.websocket.*;
 import jakarta.websocket.server.ServerEndpoint;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -19,6 +23,8 @@ import java.util.concurrent.ConcurrentHashMap;
  * Endpoint: /ws/transactions/legacy
  * Message format: TransactionMessage (JSON)
  * Broadcast trigger: New transaction event
+ * Filters: optional {@code address} and {@code contract} query parameters, each
+ * repeatable, narrow the stream to transactions touching them
  *
  * @deprecated Use EnhancedTransactionWebSocket for authenticated connections
  */
@@ -28,17 +34,25 @@ import java.util.concurrent.ConcurrentHashMap;
 public class TransactionWebSocket {
 
     private static final Logger LOG = Logger.getLogger(TransactionWebSocket.class);
+    static final String CHANNEL = "transactions";
+
     private static final Set<Session> sessions = ConcurrentHashMap.newKeySet();
 
+    @Inject
+    WebSocketFanout fanout;
+
     @OnOpen
     public void onOpen(Session session) {
         sessions.add(session);
+        fanout.register(WebSocketFanout.Connection.of(session));
+        fanout.subscribe(session.getId(), CHANNEL, filtersOf(session.getRequestParameterMap()));
         LOG.infof("Transaction WebSocket connected: %s (Total: %d)", session.getId(), sessions.size());
     }
 
     @OnClose
     public void onClose(Session session) {
         sessions.remove(session);
+        fanout.unregister(session.getId());
         LOG.infof("Transaction WebSocket disconnected: %s (Total: %d)", session.getId(), sessions.size());
     }
 
@@ -46,21 +60,18 @@ public class TransactionWebSocket {
     public void onError(Session session, Throwable throwable) {
         LOG.errorf(throwable, "Transaction WebSocket error on session %s", session.getId());
         sessions.remove(session);
+        fanout.unregister(session.getId());
     }
 
-    /**
-     * Broadcast message to all connected clients
-     */
-    public static void broadcast(String message) {
-        sessions.forEach(session -> {
-            if (session.isOpen()) {
-                try {
-                    session.getAsyncRemote().sendText(message);
-                } catch (Exception e) {
-                    LOG.errorf(e, "Failed to broadcast to session %s", session.getId());
-                }
-            }
-        });
+    private static WebSocketFanout.Filter[] filtersOf(Map<String, List<String>> parameters) {
+        List<WebSocketFanout.Filter> filters = new ArrayList<>();
+        for (String address : parameters.getOrDefault("address", List.of())) {
+            filters.add(WebSocketFanout.Filter.address(address));
+        }
+        for (String contract : parameters.getOrDefault("contract", List.of())) {
+            filters.add(WebSocketFanout.Filter.contract(contract));
+        }
+        return filters.toArray(new WebSocketFanout.Filter[0]);
     }
 
     /**
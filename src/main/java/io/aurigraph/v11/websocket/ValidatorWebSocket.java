@@ -2,6 +2,7 @@ package io.aurigraph.v11.websocket;
 
 import io.aurigraph.v11.websocket.dto.ValidatorMessage;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.websocket.*;
 import jakarta.websocket.server.ServerEndpoint;
 import org.jboss.logging.Logger;
@@ -16,23 +17,37 @@ import java.util.concurrent.ConcurrentHashMap;
  * Endpoint: /ws/validators
  * Message format: ValidatorMessage (JSON)
  * Broadcast trigger: Validator state change
+ *
+ * Conflated: a lagging client gets only the latest state per key (one per validator),
+ * at most {@code maxRate} frames per second as requested in the query string.
+ * Each frame carries {@code key} and a per-key {@code seq} to detect skipped updates.
  */
 @ServerEndpoint("/ws/validators")
 @ApplicationScoped
 public class ValidatorWebSocket {
 
     private static final Logger LOG = Logger.getLogger(ValidatorWebSocket.class);
+    static final String CHANNEL = "validators";
+
     private static final Set<Session> sessions = ConcurrentHashMap.newKeySet();
 
+    @Inject
+    WebSocketFanout fanout;
+
     @OnOpen
     public void onOpen(Session session) {
         sessions.add(session);
+        fanout.register(WebSocketFanout.Connection.of(session));
+        int rate = fanout.subscribeConflated(session.getId(), CHANNEL, WebSocketFanout.requestedMaxRate(session));
+        fanout.send(session.getId(), CHANNEL,
+            "{\"type\":\"subscribed\",\"channel\":\"" + CHANNEL + "\",\"maxRate\":" + rate + "}");
         LOG.infof("Validator WebSocket connected: %s (Total: %d)", session.getId(), sessions.size());
     }
 
     @OnClose
     public void onClose(Session session) {
         sessions.remove(session);
+        fanout.unregister(session.getId());
         LOG.infof("Validator WebSocket disconnected: %s (Total: %d)", session.getId(), sessions.size());
     }
 
@@ -40,21 +55,7 @@ public class ValidatorWebSocket {
     public void onError(Session session, Throwable throwable) {
         LOG.errorf(throwable, "Validator WebSocket error on session %s", session.getId());
         sessions.remove(session);
-    }
-
-    /**
-     * Broadcast message to all connected clients
-     */
-    public static void broadcast(String message) {
-        sessions.forEach(session -> {
-            if (session.isOpen()) {
-                try {
-                    session.getAsyncRemote().sendText(message);
-                } catch (Exception e) {
-                    LOG.errorf(e, "Failed to broadcast to session %s", session.getId());
-                }
-            }
-        });
+        fanout.unregister(session.getId());
     }
 
     /**
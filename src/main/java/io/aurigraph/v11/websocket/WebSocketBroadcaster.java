@@ -37,6 +37,9 @@ public class WebSocketBroadcaster {
     @Inject
     ObjectMapper objectMapper;
 
+    @Inject
+    WebSocketFanout fanout;
+
     private final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
     private final AtomicLong messagesSent = new AtomicLong(0);
     private final AtomicLong broadcastLatencyMs = new AtomicLong(0);
@@ -83,9 +86,8 @@ public class WebSocketBroadcaster {
                 0.001 // Error rate (mock for now)
             );
 
-            // Serialize to JSON and broadcast
-            String json = objectMapper.writeValueAsString(message);
-            MetricsWebSocket.broadcast(json);
+            // Supersedes any snapshot a lagging client has not received yet
+            fanout.publishLatest(MetricsWebSocket.CHANNEL, "platform", message);
 
             long latency = System.currentTimeMillis() - startTime;
             broadcastLatencyMs.set(latency);
@@ -102,13 +104,10 @@ public class WebSocketBroadcaster {
 
     /**
      * Broadcast transaction event
-     * Called when new transaction is processed
+     * Called when new transaction is processed. Queues the event for matching
+     * subscribers and returns; it is serialized only if someone matched.
      */
     public void broadcastTransaction(String txHash, String from, String to, String value, String status, long gasUsed) {
-        if (!TransactionWebSocket.hasConnections()) {
-            return;
-        }
-
         long startTime = System.currentTimeMillis();
 
         try {
@@ -122,8 +121,8 @@ public class WebSocketBroadcaster {
                 gasUsed
             );
 
-            String json = objectMapper.writeValueAsString(message);
-            TransactionWebSocket.broadcast(json);
+            fanout.publish(TransactionWebSocket.CHANNEL, message,
+                WebSocketFanout.Filter.address(from), WebSocketFanout.Filter.address(to));
 
             long latency = System.currentTimeMillis() - startTime;
             messagesSent.incrementAndGet();
@@ -157,8 +156,7 @@ public class WebSocketBroadcaster {
                 lastBlockProposed
             );
 
-            String json = objectMapper.writeValueAsString(message);
-            ValidatorWebSocket.broadcast(json);
+            fanout.publishLatest(ValidatorWebSocket.CHANNEL, validator, message);
 
             long latency = System.currentTimeMillis() - startTime;
             messagesSent.incrementAndGet();
@@ -194,8 +192,7 @@ public class WebSocketBroadcaster {
                 activeValidators
             );
 
-            String json = objectMapper.writeValueAsString(message);
-            ConsensusWebSocket.broadcast(json);
+            fanout.publishLatest(ConsensusWebSocket.CHANNEL, "consensus", message);
 
             long latency = System.currentTimeMillis() - startTime;
             messagesSent.incrementAndGet();
@@ -0,0 +1,830 @@
+package io.aurigraph.v11.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Session;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * WebSocket fan-out engine
+ *
+ * Publishing an event never touches a socket on the producer thread:
+ * - matching subscribers are found through an inverted index keyed by
+ *   channel, or by channel plus an address or contract filter, so the cost
+ *   is proportional to the subscribers that match, not to all clients
+ * - the payload is serialized once, and only if someone matched; every
+ *   subscriber's queue holds a reference to the same frame
+ * - each connection has a bounded outbound ring drained by a writer task
+ *   that keeps at most one asynchronous send in flight, as the WebSocket
+ *   API requires
+ * - when a ring is full the channel's {@link SlowConsumerPolicy} decides
+ *   whether to drop, conflate or disconnect, so one slow client cannot
+ *   hold memory or delay the others
+ *
+ * State snapshots, such as metrics or one validator's status, can instead
+ * be published with {@link #publishLatest} to connections that joined with
+ * {@link #subscribeConflated}. Such a connection holds at most one pending
+ * frame per entity key, replaced by each newer update, and is sent at most
+ * the rate it asked for. Its memory is bounded by the number of keys, not
+ * by the event rate. Each frame carries {@code key} and a per-key {@code seq}
+ * so clients can tell when intermediate updates were skipped.
+ */
+@ApplicationScoped
+public class WebSocketFanout {
+
+    private static final Logger LOG = Logger.getLogger(WebSocketFanout.class);
+
+    /**
+     * What to do with a new frame for a connection whose ring is full
+     */
+    public enum SlowConsumerPolicy {
+        /** Discard the oldest queued frame to make room */
+        DROP_OLDEST,
+        /** Discard the new frame */
+        DROP_NEWEST,
+        /** Keep only the latest queued frame of the channel; the ring fills only across channels */
+        CONFLATE,
+        /** Close the connection */
+        DISCONNECT
+    }
+
+    public enum FilterType {
+        ADDRESS,
+        CONTRACT
+    }
+
+    /**
+     * A topic a subscription can narrow a channel to, and that an event can carry
+     */
+    public record Filter(FilterType type, String value) {
+        public static Filter address(String address) {
+            return new Filter(FilterType.ADDRESS, address);
+        }
+
+        public static Filter contract(String contract) {
+            return new Filter(FilterType.CONTRACT, contract);
+        }
+    }
+
+    /**
+     * Transport for one client; {@link #of(Session)} adapts a container session
+     */
+    public interface Connection {
+        String id();
+
+        boolean isOpen();
+
+        /**
+         * Send without blocking and call {@code done} once, with null on success or the failure
+         */
+        void send(String text, Consumer<Throwable> done);
+
+        void close(String reason);
+
+        static Connection of(Session session) {
+            return new Connection() {
+                @Override
+                public String id() {
+                    return session.getId();
+                }
+
+                @Override
+                public boolean isOpen() {
+                    return session.isOpen();
+                }
+
+                @Override
+                public void send(String text, Consumer<Throwable> done) {
+                    session.getAsyncRemote().sendText(text, result -> done.accept(result.isOK() ? null : result.getException()));
+                }
+
+                @Override
+                public void close(String reason) {
+                    try {
+                        session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, reason));
+                    } catch (Exception e) {
+                        LOG.debugf("Failed to close session %s: %s", session.getId(), e.getMessage());
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * Told about every frame a connection did not get because of its slow-consumer policy,
+     * or because the connection was found closed with the frame still queued
+     */
+    @FunctionalInterface
+    public interface DropListener {
+        void onDrop(String connectionId, String channel, String payload);
+    }
+
+    public record FanoutStats(int connections, int indexKeys, long published, long enqueued, long dropped,
+                              long conflated, long disconnected, long sent, long sendFailures) {}
+
+    // Frames are shared by every ring they are queued in
+    private record Frame(String channel, String payload) {}
+
+    // channel alone (type null) for whole-channel subscribers, or channel plus a filter
+    private record IndexKey(String channel, FilterType type, String value) {}
+
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    @ConfigProperty(name = "websocket.fanout.ring-size", defaultValue = "256")
+    int ringSize;
+
+    // Threads starting asynchronous sends; 0 means half the cores, at least 2
+    @ConfigProperty(name = "websocket.fanout.writer-threads", defaultValue = "0")
+    int writerThreads;
+
+    @ConfigProperty(name = "websocket.fanout.default-policy", defaultValue = "DROP_OLDEST")
+    SlowConsumerPolicy defaultPolicy;
+
+    // Comma-separated channel=POLICY overrides
+    @ConfigProperty(name = "websocket.fanout.channel-policies")
+    Optional<String> channelPolicies;
+
+    // Conflated streams: rate used when a client does not ask for one, and the highest it may ask for
+    @ConfigProperty(name = "websocket.fanout.conflation.default-max-rate", defaultValue = "10")
+    int defaultMaxRate;
+
+    @ConfigProperty(name = "websocket.fanout.conflation.max-rate-limit", defaultValue = "100")
+    int maxRateLimit;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    private final Map<String, Subscriber> connections = new ConcurrentHashMap<>();
+    private final Map<IndexKey, Subscriber[]> index = new ConcurrentHashMap<>();
+    private final Map<String, SlowConsumerPolicy> policies = new ConcurrentHashMap<>();
+    private final Map<IndexKey, AtomicLong> sequences = new ConcurrentHashMap<>();
+    private volatile DropListener dropListener;
+    private ExecutorService writers;
+    private ScheduledExecutorService timer;
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong conflated = new AtomicLong();
+    private final AtomicLong disconnected = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+
+    @PostConstruct
+    void initialize() {
+        if (ringSize <= 0) {
+            ringSize = 256;
+        }
+        if (defaultPolicy == null) {
+            defaultPolicy = SlowConsumerPolicy.DROP_OLDEST;
+        }
+        if (maxRateLimit <= 0) {
+            maxRateLimit = 100;
+        }
+        if (defaultMaxRate <= 0) {
+            defaultMaxRate = Math.min(10, maxRateLimit);
+        }
+        if (channelPolicies != null && channelPolicies.isPresent()) {
+            for (String entry : channelPolicies.get().split(",")) {
+                String[] parts = entry.trim().split("=", 2);
+                if (parts.length == 2) {
+                    policies.put(parts[0].trim(), SlowConsumerPolicy.valueOf(parts[1].trim().toUpperCase()));
+                }
+            }
+        }
+        int threads = writerThreads > 0 ? writerThreads : Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger workerCount = new AtomicInteger();
+        writers = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "ws-fanout-" + workerCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ws-fanout-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOG.infof("WebSocket fan-out initialized: ring size %d, %d writer threads, default policy %s, overrides %s",
+            ringSize, threads, defaultPolicy, policies);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (writers != null) {
+            writers.shutdownNow();
+        }
+        if (timer != null) {
+            timer.shutdownNow();
+        }
+    }
+
+    public void setChannelPolicy(String channel, SlowConsumerPolicy policy) {
+        policies.put(channel, policy);
+    }
+
+    public SlowConsumerPolicy getChannelPolicy(String channel) {
+        return policies.getOrDefault(channel, defaultPolicy);
+    }
+
+    public void setDropListener(DropListener listener) {
+        this.dropListener = listener;
+    }
+
+    public void register(Connection connection) {
+        Subscriber previous = connections.put(connection.id(), new Subscriber(connection));
+        if (previous != null) {
+            removeFromIndex(previous);
+        }
+    }
+
+    /**
+     * Remove a connection and all its subscriptions; frames still queued are discarded
+     */
+    public void unregister(String connectionId) {
+        Subscriber subscriber = connections.remove(connectionId);
+        if (subscriber != null) {
+            subscriber.close();
+            removeFromIndex(subscriber);
+        }
+    }
+
+    public boolean isRegistered(String connectionId) {
+        return connections.containsKey(connectionId);
+    }
+
+    /**
+     * Subscribe a connection to a channel, narrowed to events carrying any of {@code filters}
+     *
+     * @return false if the connection is not registered
+     */
+    public boolean subscribe(String connectionId, String channel, Filter... filters) {
+        Subscriber subscriber = connections.get(connectionId);
+        if (subscriber == null) {
+            return false;
+        }
+        if (filters.length == 0) {
+            addToIndex(new IndexKey(channel, null, null), subscriber);
+        } else {
+            for (Filter filter : filters) {
+                addToIndex(new IndexKey(channel, filter.type(), filter.value()), subscriber);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drop every subscription the connection has on a channel, filtered or not
+     */
+    public void unsubscribe(String connectionId, String channel) {
+        Subscriber subscriber = connections.get(connectionId);
+        if (subscriber == null) {
+            return;
+        }
+        for (IndexKey key : subscriber.keys()) {
+            if (key.channel().equals(channel)) {
+                removeFromIndex(key, subscriber);
+            }
+        }
+        subscriber.closeStream(channel);
+    }
+
+    /**
+     * Subscribe a connection to a channel's latest values only
+     *
+     * @param maxRatePerSecond frames per second the client accepts on this channel; 0 or less takes
+     *                         the default, and requests above the configured limit are capped
+     * @return the rate granted, or 0 if the connection is not registered
+     */
+    public int subscribeConflated(String connectionId, String channel, int maxRatePerSecond) {
+        Subscriber subscriber = connections.get(connectionId);
+        if (subscriber == null) {
+            return 0;
+        }
+        int rate = maxRatePerSecond <= 0 ? defaultMaxRate : Math.min(maxRatePerSecond, maxRateLimit);
+        subscriber.openStream(channel, TimeUnit.SECONDS.toNanos(1) / rate);
+        addToIndex(new IndexKey(channel, null, null), subscriber);
+        return rate;
+    }
+
+    /**
+     * Rate a client asked for with the {@code maxRate} query parameter, or 0 if it did not ask
+     */
+    public static int requestedMaxRate(Session session) {
+        List<String> values = session.getRequestParameterMap().get("maxRate");
+        if (values == null || values.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(values.get(0).trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Publish the new state of one entity, superseding any undelivered earlier state for the same key
+     *
+     * Conflated subscribers keep only this latest frame per key; other
+     * subscribers of the channel queue it like any event. The frame is the
+     * message's JSON object with {@code key} and {@code seq} added, where seq
+     * counts the updates published for this channel and key.
+     *
+     * @return number of connections the update was queued for
+     */
+    public int publishLatest(String channel, String key, Object message) {
+        Subscriber[] subscribers = index.getOrDefault(new IndexKey(channel, null, null), NO_SUBSCRIBERS);
+        long seq = sequences.computeIfAbsent(new IndexKey(channel, null, key), k -> new AtomicLong()).incrementAndGet();
+        if (subscribers.length == 0) {
+            return 0;
+        }
+
+        Frame frame = new Frame(channel, withSequence(key, seq, message));
+        SlowConsumerPolicy policy = getChannelPolicy(channel);
+        published.incrementAndGet();
+        int queued = 0;
+        for (Subscriber subscriber : subscribers) {
+            queued += subscriber.enqueueLatest(key, frame, policy) ? 1 : 0;
+        }
+        return queued;
+    }
+
+    /**
+     * Publish an event to a channel
+     *
+     * @param message a ready JSON string, or an object to serialize once
+     * @param topics the filters this event matches, e.g. its sender and receiver addresses
+     * @return number of connections the event was queued for
+     */
+    public int publish(String channel, Object message, Filter... topics) {
+        Subscriber[] whole = index.getOrDefault(new IndexKey(channel, null, null), NO_SUBSCRIBERS);
+        Subscriber[] single = whole;
+        Set<Subscriber> merged = null;
+        for (Filter topic : topics) {
+            if (topic == null || topic.value() == null) {
+                continue;
+            }
+            Subscriber[] matched = index.get(new IndexKey(channel, topic.type(), topic.value()));
+            if (matched == null) {
+                continue;
+            }
+            if (single.length == 0) {
+                single = matched;
+                continue;
+            }
+            // Several keys matched: a connection subscribed under more than one gets the event once
+            if (merged == null) {
+                merged = Collections.newSetFromMap(new IdentityHashMap<>());
+                merged.addAll(Arrays.asList(single));
+            }
+            merged.addAll(Arrays.asList(matched));
+        }
+        if (single.length == 0) {
+            return 0;
+        }
+
+        Frame frame = new Frame(channel, serialize(message));
+        SlowConsumerPolicy policy = getChannelPolicy(channel);
+        published.incrementAndGet();
+        int queued = 0;
+        if (merged == null) {
+            for (Subscriber subscriber : single) {
+                queued += subscriber.enqueue(frame, policy) ? 1 : 0;
+            }
+        } else {
+            for (Subscriber subscriber : merged) {
+                queued += subscriber.enqueue(frame, policy) ? 1 : 0;
+            }
+        }
+        return queued;
+    }
+
+    /**
+     * Queue a message for one connection, behind anything already queued for it
+     *
+     * @return false if the connection is not registered or the message was dropped
+     */
+    public boolean send(String connectionId, String channel, String payload) {
+        Subscriber subscriber = connections.get(connectionId);
+        return subscriber != null && subscriber.enqueue(new Frame(channel, payload), getChannelPolicy(channel));
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public int getQueuedFrames(String connectionId) {
+        Subscriber subscriber = connections.get(connectionId);
+        return subscriber == null ? 0 : subscriber.queued();
+    }
+
+    public FanoutStats getStats() {
+        return new FanoutStats(connections.size(), index.size(), published.get(), enqueued.get(), dropped.get(),
+            conflated.get(), disconnected.get(), sent.get(), sendFailures.get());
+    }
+
+    private String withSequence(String key, long seq, Object message) {
+        try {
+            JsonNode node = message instanceof String text ? objectMapper.readTree(text) : objectMapper.valueToTree(message);
+            ObjectNode envelope;
+            if (node instanceof ObjectNode object) {
+                envelope = object;
+            } else {
+                envelope = objectMapper.createObjectNode();
+                envelope.set("data", node);
+            }
+            envelope.put("key", key);
+            envelope.put("seq", seq);
+            return objectMapper.writeValueAsString(envelope);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot serialize update for key " + key, e);
+        }
+    }
+
+    private String serialize(Object message) {
+        if (message instanceof String text) {
+            return text;
+        }
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Cannot serialize " + message.getClass().getSimpleName(), e);
+        }
+    }
+
+    // ==================== Inverted index ====================
+
+    private void addToIndex(IndexKey key, Subscriber subscriber) {
+        if (!subscriber.addKey(key)) {
+            return;
+        }
+        index.compute(key, (k, current) -> {
+            if (current == null) {
+                return new Subscriber[] {subscriber};
+            }
+            Subscriber[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = subscriber;
+            return grown;
+        });
+    }
+
+    private void removeFromIndex(Subscriber subscriber) {
+        for (IndexKey key : subscriber.keys()) {
+            removeFromIndex(key, subscriber);
+        }
+    }
+
+    private void removeFromIndex(IndexKey key, Subscriber subscriber) {
+        subscriber.removeKey(key);
+        index.computeIfPresent(key, (k, current) -> {
+            int at = -1;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == subscriber) {
+                    at = i;
+                    break;
+                }
+            }
+            if (at < 0) {
+                return current;
+            }
+            if (current.length == 1) {
+                return null;
+            }
+            Subscriber[] shrunk = new Subscriber[current.length - 1];
+            System.arraycopy(current, 0, shrunk, 0, at);
+            System.arraycopy(current, at + 1, shrunk, at, current.length - at - 1);
+            return shrunk;
+        });
+    }
+
+    // ==================== Per-connection outbound ring ====================
+
+    /**
+     * Latest pending frame per entity key for one conflated channel of one connection
+     */
+    private static final class ConflatedStream {
+        final long minIntervalNanos;
+        final LinkedHashMap<String, Frame> latest = new LinkedHashMap<>();
+        long nextSendAt = System.nanoTime();
+
+        ConflatedStream(long minIntervalNanos) {
+            this.minIntervalNanos = minIntervalNanos;
+        }
+    }
+
+    private final class Subscriber {
+        final Connection connection;
+        private final Frame[] ring = new Frame[ringSize];
+        private final Set<IndexKey> keys = ConcurrentHashMap.newKeySet();
+        // Guarded by this, like the ring
+        private final Map<String, ConflatedStream> streams = new HashMap<>();
+        private int head;
+        private int size;
+        // A send is in flight, or a writer task is about to start one
+        private boolean writing;
+        // Conflated frames are waiting for their stream's rate limit
+        private boolean wakeScheduled;
+        private boolean closed;
+
+        Subscriber(Connection connection) {
+            this.connection = connection;
+        }
+
+        boolean addKey(IndexKey key) {
+            return keys.add(key);
+        }
+
+        void removeKey(IndexKey key) {
+            keys.remove(key);
+        }
+
+        List<IndexKey> keys() {
+            return new ArrayList<>(keys);
+        }
+
+        synchronized int queued() {
+            int queued = size;
+            for (ConflatedStream stream : streams.values()) {
+                queued += stream.latest.size();
+            }
+            return queued;
+        }
+
+        synchronized void openStream(String channel, long minIntervalNanos) {
+            streams.put(channel, new ConflatedStream(minIntervalNanos));
+        }
+
+        synchronized void closeStream(String channel) {
+            streams.remove(channel);
+        }
+
+        /**
+         * Replace the pending frame for this key on a conflated stream, or queue it normally
+         */
+        boolean enqueueLatest(String key, Frame frame, SlowConsumerPolicy policy) {
+            boolean startWriter = false;
+            boolean plain = false;
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                ConflatedStream stream = streams.get(frame.channel());
+                if (stream == null) {
+                    plain = true;
+                } else {
+                    if (stream.latest.put(key, frame) != null) {
+                        conflated.incrementAndGet();
+                    }
+                    // With a wake-up scheduled, the frame goes out once the rate allows
+                    startWriter = !writing && !wakeScheduled;
+                    if (startWriter) {
+                        writing = true;
+                    }
+                }
+            }
+            if (plain) {
+                return enqueue(frame, policy);
+            }
+            enqueued.incrementAndGet();
+            if (startWriter) {
+                writers.execute(this::writeNext);
+            }
+            return true;
+        }
+
+        /**
+         * Next conflated frame whose stream may send now; otherwise arrange a wake-up
+         * for the earliest stream with something pending. Caller holds the lock.
+         */
+        private Frame pollConflated() {
+            long now = System.nanoTime();
+            long earliest = Long.MAX_VALUE;
+            for (ConflatedStream stream : streams.values()) {
+                if (stream.latest.isEmpty()) {
+                    continue;
+                }
+                long wait = stream.nextSendAt - now;
+                if (wait <= 0) {
+                    Iterator<Frame> pending = stream.latest.values().iterator();
+                    Frame next = pending.next();
+                    pending.remove();
+                    stream.nextSendAt = now + stream.minIntervalNanos;
+                    return next;
+                }
+                earliest = Math.min(earliest, wait);
+            }
+            if (earliest != Long.MAX_VALUE && !wakeScheduled) {
+                wakeScheduled = true;
+                timer.schedule(this::wake, earliest, TimeUnit.NANOSECONDS);
+            }
+            return null;
+        }
+
+        private void wake() {
+            boolean startWriter;
+            synchronized (this) {
+                wakeScheduled = false;
+                startWriter = !closed && !writing;
+                if (startWriter) {
+                    writing = true;
+                }
+            }
+            if (startWriter) {
+                writers.execute(this::writeNext);
+            }
+        }
+
+        /**
+         * @return whether the frame was queued
+         */
+        boolean enqueue(Frame frame, SlowConsumerPolicy policy) {
+            Frame evicted = null;
+            boolean disconnect = false;
+            boolean startWriter;
+            synchronized (this) {
+                if (closed) {
+                    return false;
+                }
+                if (policy == SlowConsumerPolicy.CONFLATE && replaceQueued(frame)) {
+                    conflated.incrementAndGet();
+                    return true;
+                }
+                if (size == ring.length) {
+                    switch (policy) {
+                        case DROP_NEWEST -> evicted = frame;
+                        case DROP_OLDEST, CONFLATE -> {
+                            evicted = ring[head];
+                            ring[head] = null;
+                            head = (head + 1) % ring.length;
+                            size--;
+                        }
+                        case DISCONNECT -> {
+                            closed = true;
+                            disconnect = true;
+                        }
+                    }
+                }
+                if (!disconnect && evicted != frame) {
+                    ring[(head + size) % ring.length] = frame;
+                    size++;
+                }
+                startWriter = !disconnect && !writing && size > 0;
+                if (startWriter) {
+                    writing = true;
+                }
+            }
+
+            if (disconnect) {
+                disconnectSlowConsumer();
+                return false;
+            }
+            if (evicted != null) {
+                dropped.incrementAndGet();
+                DropListener listener = dropListener;
+                if (listener != null) {
+                    listener.onDrop(connection.id(), evicted.channel(), evicted.payload());
+                }
+            }
+            if (startWriter) {
+                writers.execute(this::writeNext);
+            }
+            if (evicted == frame) {
+                return false;
+            }
+            enqueued.incrementAndGet();
+            return true;
+        }
+
+        /**
+         * Overwrite a queued frame of the same channel in place, keeping its position
+         */
+        private boolean replaceQueued(Frame frame) {
+            for (int i = 0; i < size; i++) {
+                int slot = (head + i) % ring.length;
+                if (ring[slot].channel().equals(frame.channel())) {
+                    ring[slot] = frame;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void disconnectSlowConsumer() {
+            disconnected.incrementAndGet();
+            LOG.warnf("Disconnecting slow WebSocket consumer %s", connection.id());
+            unregister(connection.id());
+            connection.close("Slow consumer");
+        }
+
+        /**
+         * Send the next queued frame; its completion schedules the one after
+         */
+        void writeNext() {
+            Frame next;
+            synchronized (this) {
+                if (closed) {
+                    writing = false;
+                    return;
+                }
+                if (size > 0) {
+                    next = ring[head];
+                    ring[head] = null;
+                    head = (head + 1) % ring.length;
+                    size--;
+                } else {
+                    next = streams.isEmpty() ? null : pollConflated();
+                    if (next == null) {
+                        writing = false;
+                        return;
+                    }
+                }
+            }
+            if (!connection.isOpen()) {
+                unregisterClosed(next);
+                return;
+            }
+            try {
+                connection.send(next.payload(), this::onSent);
+            } catch (RuntimeException e) {
+                onSent(e);
+            }
+        }
+
+        private void onSent(Throwable failure) {
+            if (failure == null) {
+                sent.incrementAndGet();
+            } else {
+                sendFailures.incrementAndGet();
+                LOG.debugf("WebSocket send to %s failed: %s", connection.id(), failure.getMessage());
+            }
+            try {
+                writers.execute(this::writeNext);
+            } catch (RuntimeException e) {
+                // Writers stopped during shutdown
+                synchronized (this) {
+                    writing = false;
+                }
+            }
+        }
+
+        /**
+         * Drop a connection found closed, reporting {@code undelivered} and everything still queued
+         */
+        private void unregisterClosed(Frame undelivered) {
+            if (!connections.remove(connection.id(), this)) {
+                return;
+            }
+            List<Frame> pending = new ArrayList<>();
+            pending.add(undelivered);
+            synchronized (this) {
+                for (int i = 0; i < size; i++) {
+                    pending.add(ring[(head + i) % ring.length]);
+                }
+                for (ConflatedStream stream : streams.values()) {
+                    pending.addAll(stream.latest.values());
+                }
+                close();
+            }
+            removeFromIndex(this);
+            DropListener listener = dropListener;
+            if (listener != null) {
+                for (Frame frame : pending) {
+                    listener.onDrop(connection.id(), frame.channel(), frame.payload());
+                }
+            }
+        }
+
+        synchronized void close() {
+            closed = true;
+            Arrays.fill(ring, null);
+            size = 0;
+            streams.clear();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package io.aurigraph.v11.websocket;
 
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.websocket.Session;
 import org.jboss.logging.Logger;
 
@@ -15,7 +17,7 @@ import java.util.stream.Collectors;
  * Central manager for WebSocket sessions with:
  * - Session registration and lifecycle management
  * - Channel subscription management
- * - Message broadcasting to subscribed clients
+ * - Message broadcasting to subscribed clients through {@link WebSocketFanout}
  * - Message queuing for offline/slow clients
  * - Session statistics and monitoring
  *
@@ -27,6 +29,10 @@ import java.util.stream.Collectors;
  * - channelSubscriptions: Map<channel, Set<sessionId>>
  * - messageQueues: Map<userId, MessageQueue>
  *
+ * Sends go through the fan-out engine, which owns each connection's
+ * outbound ring. Frames a user's session could not take are moved into
+ * that user's MessageQueue for delivery on reconnect.
+ *
  * @author WebSocket Development Agent (WDA)
  * @since V11.6.0 (Sprint 16 - AV11-484)
  */
@@ -41,6 +47,19 @@ public class WebSocketSessionManager {
     private final Map<String, Set<String>> channelSubscriptions = new ConcurrentHashMap<>();
     private final Map<String, MessageQueue> messageQueues = new ConcurrentHashMap<>();
 
+    @Inject
+    WebSocketFanout fanout;
+
+    @PostConstruct
+    void initialize() {
+        fanout.setDropListener((sessionId, channel, payload) -> {
+            WebSocketSession wsSession = activeSessions.get(sessionId);
+            if (wsSession != null && wsSession.getUserId() != null) {
+                queueMessage(wsSession.getUserId(), payload, channel);
+            }
+        });
+    }
+
     /**
      * Register a new WebSocket session
      *
@@ -57,6 +76,7 @@ public class WebSocketSessionManager {
 
         // Store in active sessions
         activeSessions.put(sessionId, wsSession);
+        fanout.register(WebSocketFanout.Connection.of(session));
 
         // Track user sessions (for multi-device support)
         if (userId != null) {
@@ -93,6 +113,7 @@ public class WebSocketSessionManager {
 
         // Cancel heartbeat timer
         wsSession.cancelHeartbeatTimer();
+        fanout.unregister(sessionId);
 
         // Remove from user sessions
         String userId = wsSession.getUserId();
@@ -136,6 +157,7 @@ public class WebSocketSessionManager {
 
         // Add to channel's subscribers
         channelSubscriptions.computeIfAbsent(channel, k -> ConcurrentHashMap.newKeySet()).add(sessionId);
+        fanout.subscribe(sessionId, channel);
 
         LOG.infof("✅ Session %s subscribed to channel '%s' (channel subscribers: %d)",
                 sessionId, channel, channelSubscriptions.get(channel).size());
@@ -162,6 +184,7 @@ public class WebSocketSessionManager {
         wsSession.unsubscribe(channel);
 
         // Remove from channel's subscribers
+        fanout.unsubscribe(sessionId, channel);
         Set<String> subscribers = channelSubscriptions.get(channel);
         if (subscribers != null) {
             subscribers.remove(sessionId);
@@ -178,51 +201,31 @@ public class WebSocketSessionManager {
     /**
      * Broadcast message to all subscribers of a channel
      *
+     * Queues the message on each subscriber's outbound ring and returns;
+     * writer tasks in {@link WebSocketFanout} do the sends. Subscribers whose
+     * connection the fan-out engine already dropped get the message in their
+     * user's offline queue instead; frames still queued when the engine finds
+     * a connection closed come back through its drop listener.
+     *
      * @param channel Channel name
      * @param message Message to broadcast
      */
     public void broadcast(String channel, String message) {
-        Set<String> subscribers = channelSubscriptions.get(channel);
-
-        if (subscribers == null || subscribers.isEmpty()) {
-            LOG.debugf("No subscribers for channel '%s'", channel);
-            return;
-        }
-
-        int successCount = 0;
-        int queuedCount = 0;
-        int errorCount = 0;
+        int queued = fanout.publish(channel, message);
 
-        for (String sessionId : subscribers) {
-            WebSocketSession wsSession = activeSessions.get(sessionId);
-
-            if (wsSession == null || !wsSession.isAlive()) {
-                // Session no longer active - queue message for user
-                if (wsSession != null && wsSession.getUserId() != null) {
-                    queueMessage(wsSession.getUserId(), message, channel);
-                    queuedCount++;
-                }
-                continue;
-            }
-
-            try {
-                // Send message asynchronously
-                wsSession.getWsSession().getAsyncRemote().sendText(message);
-                successCount++;
-            } catch (Exception e) {
-                LOG.errorf(e, "❌ Failed to send message to session %s", sessionId);
-
-                // Queue message for later delivery
-                if (wsSession.getUserId() != null) {
+        int offline = 0;
+        Set<String> subscribers = channelSubscriptions.get(channel);
+        if (subscribers != null) {
+            for (String sessionId : subscribers) {
+                WebSocketSession wsSession = activeSessions.get(sessionId);
+                if (wsSession != null && wsSession.getUserId() != null && !fanout.isRegistered(sessionId)) {
                     queueMessage(wsSession.getUserId(), message, channel);
-                    queuedCount++;
+                    offline++;
                 }
-                errorCount++;
             }
         }
 
-        LOG.infof("📢 Broadcast to channel '%s': %d sent, %d queued, %d errors (total subscribers: %d)",
-                channel, successCount, queuedCount, errorCount, subscribers.size());
+        LOG.debugf("📢 Broadcast to channel '%s': queued for %d sessions, %d offline", channel, queued, offline);
     }
 
     /**
@@ -240,14 +243,9 @@ public class WebSocketSessionManager {
             return false;
         }
 
-        try {
-            wsSession.getWsSession().getAsyncRemote().sendText(message);
-            LOG.debugf("Message sent to session %s", sessionId);
-            return true;
-        } catch (Exception e) {
-            LOG.errorf(e, "❌ Failed to send message to session %s", sessionId);
-            return false;
-        }
+        boolean queued = fanout.send(sessionId, "direct", message);
+        LOG.debugf("Message queued for session %s: %s", sessionId, queued);
+        return queued;
     }
 
     /**
@@ -285,16 +283,14 @@ public class WebSocketSessionManager {
         int delivered = 0;
         MessageQueue.QueuedMessage queuedMsg;
 
-        while ((queuedMsg = queue.dequeue()) != null) {
-            try {
-                wsSession.getWsSession().getAsyncRemote().sendText(queuedMsg.getMessage());
-                delivered++;
-            } catch (Exception e) {
-                LOG.errorf(e, "❌ Failed to deliver queued message to session %s", sessionId);
-                // Re-queue the message
-                queue.enqueue(queuedMsg.getMessage(), queuedMsg.getChannel(), queuedMsg.getPriority());
-                break; // Stop trying to deliver more messages
+        // Frames the session's ring evicts go back to this queue, so stop after one pass
+        int pending = queue.size();
+        for (int i = 0; i < pending && (queuedMsg = queue.dequeue()) != null; i++) {
+            if (!fanout.send(sessionId, queuedMsg.getChannel(), queuedMsg.getMessage())) {
+                LOG.warnf("⚠️ Session %s cannot take more queued messages", sessionId);
+                break;
             }
+            delivered++;
         }
 
         LOG.infof("📬 Delivered %d queued messages to session %s", delivered, sessionId);
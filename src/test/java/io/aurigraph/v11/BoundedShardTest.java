@@ -0,0 +1,87 @@
+package io.aurigraph.v11;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for FIFO eviction in bounded transaction shards
+ */
+public class BoundedShardTest {
+
+    @Test
+    @DisplayName("A full shard evicts its oldest entry on each new insert")
+    void testEvictsOldestFirst() {
+        BoundedShard<String> shard = new BoundedShard<>(3, 16);
+        assertNull(shard.insert("a", "A"));
+        assertNull(shard.insert("b", "B"));
+        assertNull(shard.insert("c", "C"));
+
+        assertEquals("A", shard.insert("d", "D"));
+        assertEquals("B", shard.insert("e", "E"));
+        assertEquals(3, shard.size());
+        assertNull(shard.get("a"));
+        assertEquals("E", shard.get("e"));
+    }
+
+    @Test
+    @DisplayName("Overwriting a key keeps its position and evicts nothing")
+    void testOverwriteKeepsPosition() {
+        BoundedShard<String> shard = new BoundedShard<>(2, 16);
+        shard.insert("a", "A1");
+        shard.insert("b", "B");
+        assertNull(shard.insert("a", "A2"));
+        assertEquals(2, shard.size());
+
+        assertEquals("A2", shard.insert("c", "C"));
+        assertEquals("B", shard.get("b"));
+    }
+
+    @Test
+    @DisplayName("Concurrent inserts never leave a shard over capacity or lose an evicted entry")
+    void testConcurrentInserts() throws Exception {
+        int capacity = 1000;
+        int threads = 8;
+        int perThread = 20_000;
+        BoundedShard<String> shard = new BoundedShard<>(capacity, 64);
+        Set<String> evicted = ConcurrentHashMap.newKeySet();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            pool.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    String key = thread + "-" + i;
+                    String old = shard.insert(key, key);
+                    if (old != null) {
+                        assertTrue(evicted.add(old), "Entry evicted twice: " + old);
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(capacity, shard.size());
+        assertEquals(threads * perThread - capacity, evicted.size());
+        Set<String> remaining = new HashSet<>();
+        for (int t = 0; t < threads; t++) {
+            for (int i = 0; i < perThread; i++) {
+                String key = t + "-" + i;
+                if (shard.get(key) != null) {
+                    remaining.add(key);
+                }
+            }
+        }
+        assertEquals(capacity, remaining.size());
+        remaining.forEach(key -> assertFalse(evicted.contains(key)));
+    }
+}
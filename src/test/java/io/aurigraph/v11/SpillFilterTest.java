@@ -0,0 +1,69 @@
+package io.aurigraph.v11;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the spilled-transaction existence filter
+ */
+public class SpillFilterTest {
+
+    @Test
+    @DisplayName("Added IDs are always reported and unknown IDs rarely are")
+    void testNoFalseNegatives() {
+        SpillFilter filter = new SpillFilter(1 << 20);
+        for (int i = 0; i < 50_000; i++) {
+            filter.add("tx-" + i);
+        }
+        for (int i = 0; i < 50_000; i++) {
+            assertTrue(filter.mightContain("tx-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("unknown-" + i)) {
+                falsePositives++;
+            }
+        }
+        // About 0.1% expected at 21 bits per entry with four hashes
+        assertTrue(falsePositives < 1_000, falsePositives + " false positives");
+    }
+
+    @Test
+    @DisplayName("Concurrent adds sharing filter words are all kept")
+    void testConcurrentAdds() throws Exception {
+        // A tiny filter makes writers contend on the same words
+        SpillFilter filter = new SpillFilter(4096);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        filter.add(thread + ":" + i);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        for (int t = 0; t < 8; t++) {
+            for (int i = 0; i < 200; i++) {
+                assertTrue(filter.mightContain(t + ":" + i));
+            }
+        }
+    }
+}
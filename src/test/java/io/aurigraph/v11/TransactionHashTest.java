@@ -0,0 +1,62 @@
+package io.aurigraph.v11;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for binary transaction hashes and the buffer-reusing SHA-256 path
+ */
+public class TransactionHashTest {
+
+    @Test
+    @DisplayName("SHA-256 over reused buffers matches a fresh digest of the same encoding")
+    void testSha256MatchesDigest() throws Exception {
+        for (String id : new String[] {"tx-1", "tx-ü-€", "tx-🚀", "bad-\uD800-surrogate", "x".repeat(500)}) {
+            byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+            byte[] expected = MessageDigest.getInstance("SHA-256").digest(
+                ByteBuffer.allocate(idBytes.length + 16).put(idBytes).putDouble(12.5).putLong(42L).array());
+
+            TransactionHash hash = TransactionHasher.sha256(id, 12.5, 42L);
+            assertEquals(HexFormat.of().formatHex(expected), hash.toHex(), id);
+            assertEquals(TransactionHash.SHA256_BYTES, hash.length());
+        }
+    }
+
+    @Test
+    @DisplayName("Hex form round-trips and equal hashes compare equal")
+    void testHexRoundTrip() {
+        TransactionHash sha = TransactionHasher.sha256("tx-1", 1.0, 7L);
+        assertEquals(sha, TransactionHash.fromHex(sha.toHex()));
+        assertSame(sha.toHex(), sha.toHex());
+
+        TransactionHash xx = TransactionHash.ofXxHash(0x0123_4567_89ab_cdefL);
+        assertEquals("0123456789abcdef", xx.toHex());
+        assertEquals(xx, TransactionHash.fromHex("0123456789abcdef"));
+        assertNotEquals(sha, xx);
+    }
+
+    @Test
+    @DisplayName("Log records keep binary hashes and still read hex hashes from older records")
+    void testLogEncoding() {
+        TransactionHash hash = TransactionHasher.sha256("tx-9", 3.0, 9L);
+        TransactionService.Transaction tx = new TransactionService.Transaction("tx-9", hash, 3.0, 1000L, "PENDING");
+        assertEquals(tx, TransactionService.Transaction.fromLogBytes("tx-9", tx.toLogBytes()));
+
+        byte[] hex = hash.toHex().getBytes(StandardCharsets.US_ASCII);
+        byte[] status = "PENDING".getBytes(StandardCharsets.UTF_8);
+        byte[] legacy = ByteBuffer.allocate(4 + hex.length + 8 + 8 + 4 + status.length)
+            .putInt(hex.length).put(hex)
+            .putDouble(3.0)
+            .putLong(1000L)
+            .putInt(status.length).put(status)
+            .array();
+        assertEquals(tx, TransactionService.Transaction.fromLogBytes("tx-9", legacy));
+    }
+}
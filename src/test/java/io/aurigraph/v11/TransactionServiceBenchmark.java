@@ -0,0 +1,74 @@
+package io.aurigraph.v11;
+
+import io.aurigraph.v11.performance.XXHashService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the TransactionService hot path
+ *
+ * The service is wired by hand (no CDI) with ML shard selection and batch
+ * processing disabled, so only hashing and shard insertion are measured.
+ * IDs cycle through a fixed pool to keep the shards at a steady size.
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.include=TransactionServiceBenchmark}.
+ * The profile runs JMH's gc profiler, whose {@code gc.alloc.rate.norm} is the
+ * bytes allocated per transaction; {@code calculateHash} should report only
+ * the returned {@link TransactionHash}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransactionServiceBenchmark {
+
+    private static final int ID_POOL_SIZE = 1 << 16;
+
+    @Param({"true", "false"})
+    boolean xxHash;
+
+    private TransactionService service;
+    private String[] ids;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new TransactionService();
+        service.shardCount = 4096;
+        service.maxCacheSize = 1_000_000;
+        service.evictionSpill = "none";
+        service.batchProcessingEnabled = false;
+        service.aiOptimizationEnabled = false;
+        service.xxHashOptimizationEnabled = xxHash;
+        service.xxHashService = new XXHashService();
+        service.initialize();
+
+        ids = new String[ID_POOL_SIZE];
+        for (int i = 0; i < ID_POOL_SIZE; i++) {
+            ids[i] = "tx-" + i;
+        }
+    }
+
+    @Benchmark
+    public TransactionHash calculateHash(Cursor cursor) {
+        return service.calculateHash(ids[cursor.next++ & (ID_POOL_SIZE - 1)], 100.0, System.nanoTime());
+    }
+
+    @Benchmark
+    public String processTransactionOptimized(Cursor cursor) {
+        return service.processTransactionOptimized(ids[cursor.next++ & (ID_POOL_SIZE - 1)], 100.0);
+    }
+
+    @Benchmark
+    public String processTransactionUltraFast(Cursor cursor) {
+        // processTransaction delegates to the private ultra-fast path
+        return service.processTransaction(ids[cursor.next++ & (ID_POOL_SIZE - 1)], 100.0);
+    }
+}
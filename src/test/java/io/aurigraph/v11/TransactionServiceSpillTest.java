@@ -0,0 +1,215 @@
+package io.aurigraph.v11;
+
+import io.aurigraph.v11.storage.LevelDBService;
+import io.aurigraph.v11.storage.LevelDBTestSupport;
+import io.aurigraph.v11.storage.MemoryMappedTransactionLog;
+import io.aurigraph.v11.storage.TransactionLogTestSupport;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.util.TypeLiteral;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for reading transactions evicted from the bounded shards back
+ * from the spill store, and for expiring LevelDB spill copies
+ */
+public class TransactionServiceSpillTest {
+
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path dir;
+
+    private TransactionService service;
+    private MemoryMappedTransactionLog log;
+    private LevelDBService levelDB;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+        if (log != null) {
+            TransactionLogTestSupport.close(log);
+        }
+        if (levelDB != null) {
+            LevelDBTestSupport.close(levelDB);
+        }
+    }
+
+    /**
+     * A service wired by hand with a single four-entry shard, so every fifth transaction evicts one
+     */
+    private TransactionService start(String spill) {
+        TransactionService started = new TransactionService();
+        started.shardCount = 1;
+        started.maxCacheSize = 4;
+        started.evictionSpill = spill;
+        started.spillRetentionMinutes = 60;
+        started.spillFilterBits = 1 << 16;
+        started.batchProcessingEnabled = false;
+        started.aiOptimizationEnabled = false;
+        started.xxHashOptimizationEnabled = false;
+        started.transactionLog = new FixedInstance<>(log);
+        started.levelDB = new FixedInstance<>(levelDB);
+        started.initialize();
+        return started;
+    }
+
+    /**
+     * Wait for an asynchronous spill to land, then return what the service reads back
+     */
+    private TransactionService.Transaction readBack(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        TransactionService.Transaction tx;
+        while ((tx = service.getTransactionAsync(id).await().atMost(WAIT)) == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return tx;
+    }
+
+    private void assertEvictedAndReadable() throws InterruptedException {
+        for (int i = 0; i < 20; i++) {
+            service.processTransactionOptimized("tx-" + i, i);
+        }
+        assertNull(service.getTransaction("tx-0"), "evicted from the shard");
+        for (int i = 0; i < 20; i++) {
+            TransactionService.Transaction tx = readBack("tx-" + i);
+            assertNotNull(tx, "tx-" + i);
+            assertEquals("tx-" + i, tx.id());
+            assertEquals(i, tx.amount());
+        }
+        assertNull(service.getTransactionAsync("never-seen").await().atMost(WAIT));
+    }
+
+    @Test
+    @DisplayName("Transactions evicted to the transaction log are read back")
+    void testLogSpill() throws Exception {
+        log = TransactionLogTestSupport.open(dir.resolve("log"));
+        service = start("log");
+        assertEvictedAndReadable();
+    }
+
+    @Test
+    @DisplayName("Transactions evicted to LevelDB are read back")
+    void testLevelDBSpill() throws Exception {
+        levelDB = LevelDBTestSupport.open(dir, "spill", false);
+        service = start("leveldb");
+        assertEvictedAndReadable();
+    }
+
+    @Test
+    @DisplayName("The sweep deletes expired spill copies and their markers and keeps the rest")
+    void testExpireSpilledTransactions() throws Exception {
+        levelDB = LevelDBTestSupport.open(dir, "spill", false);
+        service = start("leveldb");
+        for (int i = 0; i < 20; i++) {
+            service.processTransactionOptimized("tx-" + i, i);
+        }
+        assertNotNull(readBack("tx-15"));
+
+        // Copies spilled long before the retention period, as a previous run would have left them
+        byte[] old = service.getTransaction("tx-19").toLogBytes();
+        for (int i = 0; i < 3; i++) {
+            levelDB.secureBatchWrite(Map.of("tx:evicted:old-" + i, old), null,
+                List.of(String.format("tx:evicted-at:%013d:old-%d", 1_000L + i, i))).await().atMost(WAIT);
+        }
+        assertNotNull(spilled("old-0"));
+
+        service.expireSpilledTransactions();
+
+        for (int i = 0; i < 3; i++) {
+            assertNull(spilled("old-" + i), "old-" + i);
+        }
+        List<String> markers = levelDB.getKeysByPrefix("tx:evicted-at:").await().atMost(WAIT);
+        assertEquals(16, markers.size(), markers.toString());
+        assertTrue(markers.stream().noneMatch(marker -> marker.endsWith(":old-0")));
+        assertEquals(16, levelDB.getKeysByPrefix("tx:evicted:").await().atMost(WAIT).size());
+        for (int i = 0; i < 16; i++) {
+            assertNotNull(service.getTransactionAsync("tx-" + i).await().atMost(WAIT), "tx-" + i);
+        }
+    }
+
+    /**
+     * The stored spill copy, bypassing the service's filter of IDs it spilled itself
+     */
+    private byte[] spilled(String id) {
+        return levelDB.getBytes(("tx:evicted:" + id).getBytes(StandardCharsets.UTF_8)).await().atMost(WAIT);
+    }
+
+    /**
+     * Instance that resolves to a fixed bean, or is unsatisfied when given null
+     */
+    private static final class FixedInstance<T> implements Instance<T> {
+
+        private final T bean;
+
+        FixedInstance(T bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public T get() {
+            if (bean == null) {
+                throw new IllegalStateException("Unsatisfied");
+            }
+            return bean;
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return bean == null ? List.<T>of().iterator() : List.of(bean).iterator();
+        }
+
+        @Override
+        public Instance<T> select(Annotation... qualifiers) {
+            return this;
+        }
+
+        @Override
+        public <U extends T> Instance<U> select(Class<U> subtype, Annotation... qualifiers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U extends T> Instance<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isUnsatisfied() {
+            return bean == null;
+        }
+
+        @Override
+        public boolean isAmbiguous() {
+            return false;
+        }
+
+        @Override
+        public void destroy(T instance) {
+        }
+
+        @Override
+        public Handle<T> getHandle() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterable<? extends Handle<T>> handles() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.aurigraph.v11.analytics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the compressed, retention-bounded metrics store
+ */
+public class TimeSeriesStoreTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    private final TimeSeriesStore store = new TimeSeriesStore(TimeSeriesStore.Retention.DEFAULT);
+
+    @Test
+    @DisplayName("Raw points round-trip in timestamp order, including late arrivals")
+    void testRoundTrip() {
+        Random random = new Random(7);
+        long t0 = 1_700_000_000_000L;
+        List<long[]> expected = new ArrayList<>();
+        double value = 100.0;
+        for (int i = 0; i < 5_000; i++) {
+            long timestamp = t0 + i * 250L + (i % 97 == 0 ? -3_000 : 0);
+            value = i % 10 == 0 ? random.nextGaussian() * 1e6 : value + random.nextInt(5);
+            store.record("tps", timestamp, value);
+            expected.add(new long[] {timestamp, Double.doubleToRawLongBits(value)});
+        }
+        expected.sort((a, b) -> Long.compare(a[0], b[0]));
+
+        List<long[]> actual = new ArrayList<>();
+        store.forEachPoint("tps", Long.MIN_VALUE, Long.MAX_VALUE,
+            (timestamp, v) -> actual.add(new long[] {timestamp, Double.doubleToRawLongBits(v)}));
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i)[0], actual.get(i)[0], "timestamp " + i);
+        }
+        // Late points can share a timestamp with on-time ones, so compare the values as a multiset
+        assertEquals(expected.stream().mapToLong(p -> p[1]).sorted().boxed().toList(),
+            actual.stream().mapToLong(p -> p[1]).sorted().boxed().toList());
+        assertTrue(store.offHeapBytes() < 5_000L * 16, "compressed below two longs per point");
+    }
+
+    @Test
+    @DisplayName("Range aggregates over rollups and raw edges match a brute-force scan")
+    void testAggregatesMatchScan() {
+        Random random = new Random(11);
+        long t0 = 1_700_000_000_000L - 1_700_000_000_000L % HOUR;
+        int points = 3 * 3_600 * 4;
+        long[] timestamps = new long[points];
+        double[] values = new double[points];
+        for (int i = 0; i < points; i++) {
+            timestamps[i] = t0 + i * 250L + random.nextInt(200);
+            values[i] = random.nextInt(10_000) / 4.0;
+            store.record("latency", timestamps[i], values[i]);
+        }
+        long latest = timestamps[points - 1];
+
+        for (int trial = 0; trial < 200; trial++) {
+            // Arbitrary ranges within the raw retention, and minute-aligned ones reaching further back
+            long start;
+            long end;
+            if (trial % 2 == 0) {
+                start = latest - HOUR + 1 + random.nextInt((int) HOUR);
+                end = start + random.nextInt((int) (latest - start + 1));
+            } else {
+                start = t0 + random.nextInt(150) * MINUTE;
+                end = start + (1 + random.nextInt(30)) * MINUTE - 1;
+            }
+            long count = 0;
+            double sum = 0;
+            double max = Double.NEGATIVE_INFINITY;
+            double min = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < points; i++) {
+                if (timestamps[i] >= start && timestamps[i] <= end) {
+                    count++;
+                    sum += values[i];
+                    max = Math.max(max, values[i]);
+                    min = Math.min(min, values[i]);
+                }
+            }
+            TimeSeriesStore.RangeAggregate aggregate = store.aggregate("latency", start, end);
+            assertEquals(count, aggregate.count(), "count for [" + start + ", " + end + "]");
+            if (count > 0) {
+                assertEquals(sum, aggregate.sum(), 1e-6);
+                assertEquals(max, aggregate.max());
+                assertEquals(min, aggregate.min());
+            }
+        }
+
+        double[] percentiles = store.percentiles("latency", latest - MINUTE, latest, 0, 50, 100);
+        assertTrue(percentiles[0] <= percentiles[1] && percentiles[1] <= percentiles[2]);
+    }
+
+    @Test
+    @DisplayName("Memory stays bounded by retention and old data is dropped")
+    void testRetentionBound() {
+        long t0 = 1_700_000_000_000L;
+        for (long t = t0; t < t0 + 5 * HOUR; t += 100) {
+            store.record("cpu", t, (t / 1_000) % 100);
+        }
+        long bytes = store.offHeapBytes();
+        for (long t = t0 + 5 * HOUR; t < t0 + 10 * HOUR; t += 100) {
+            store.record("cpu", t, (t / 1_000) % 100);
+        }
+        long latest = t0 + 10 * HOUR - 100;
+        assertTrue(store.offHeapBytes() <= bytes * 11 / 10, "off-heap usage does not grow with uptime");
+
+        long[] oldest = {Long.MAX_VALUE};
+        store.forEachPoint("cpu", Long.MIN_VALUE, Long.MAX_VALUE, (t, v) -> oldest[0] = Math.min(oldest[0], t));
+        assertTrue(oldest[0] > latest - HOUR - MINUTE);
+
+        // Hourly rollups still answer for the whole span
+        assertEquals(10 * 36_000L, store.aggregate("cpu", t0 - t0 % HOUR, latest).count());
+
+        long dropped = store.droppedPoints();
+        store.record("cpu", t0, 1.0);
+        assertEquals(dropped + 1, store.droppedPoints());
+
+        store.truncateBefore(latest - MINUTE);
+        assertEquals(MINUTE / 100 + 1, store.aggregate("cpu", Long.MIN_VALUE, Long.MAX_VALUE).count());
+    }
+}
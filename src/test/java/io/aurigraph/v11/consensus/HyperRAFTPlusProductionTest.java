@@ -0,0 +1,242 @@
+package io.aurigraph.v11.consensus;
+
+import io.smallrye.mutiny.Multi;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Follower-side AppendEntries and InstallSnapshot handling of HyperRAFT++
+ */
+public class HyperRAFTPlusProductionTest {
+
+    private static final int CHUNK = 1024;
+
+    @TempDir
+    Path snapshotDir;
+
+    private HyperRAFTPlusProduction follower;
+    private InMemorySnapshotStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Not started: no timers, the node only answers the requests fed to it
+        store = new InMemorySnapshotStore(new byte[0]);
+        follower = new HyperRAFTPlusProduction("follower", null, store, snapshotDir);
+    }
+
+    @Test
+    @DisplayName("A short log reports where it ends")
+    void testConflictHintForShortLog() {
+        assertTrue(append(0, 0, entries(1, 5, 1)).success);
+
+        HyperRAFTPlusProduction.AppendEntriesResponse response = append(9, 1, List.of());
+        assertFalse(response.success);
+        assertEquals(6, response.conflictIndex);
+        assertEquals(0, response.conflictTerm);
+    }
+
+    @Test
+    @DisplayName("A term mismatch reports the first index of the conflicting term")
+    void testConflictHintForTermMismatch() {
+        List<HyperRAFTPlusProduction.LogEntry> log = new ArrayList<>(entries(1, 3, 1));
+        log.addAll(entries(4, 8, 2));
+        assertTrue(append(0, 0, log).success);
+
+        // The leader has term 3 at index 7, we have term 2 from index 4
+        HyperRAFTPlusProduction.AppendEntriesResponse response = append(7, 3, List.of());
+        assertFalse(response.success);
+        assertEquals(4, response.conflictIndex);
+        assertEquals(2, response.conflictTerm);
+    }
+
+    @Test
+    @DisplayName("Conflicting entries are replaced and duplicates are ignored")
+    void testConflictingSuffixReplaced() {
+        assertTrue(append(0, 0, entries(1, 6, 1)).success);
+
+        // Retransmission of a batch already held is a no-op
+        HyperRAFTPlusProduction.AppendEntriesResponse duplicate = append(2, 1, entries(3, 4, 1));
+        assertTrue(duplicate.success);
+        assertEquals(4, duplicate.matchIndex);
+
+        HyperRAFTPlusProduction.AppendEntriesResponse replaced = append(3, 1, entries(4, 4, 2));
+        assertTrue(replaced.success);
+        assertEquals(4, replaced.matchIndex);
+        assertEquals(4, follower.getStats().await().indefinitely().logSize);
+    }
+
+    @Test
+    @DisplayName("A leader deposed between the term check and the append cannot truncate acknowledged entries")
+    void testStaleLeaderCannotTruncate() throws Exception {
+        // Park the old leader's request after its term check, just before it takes the log lock
+        CountDownLatch parked = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        Field logLock = HyperRAFTPlusProduction.class.getDeclaredField("logLock");
+        logLock.setAccessible(true);
+        logLock.set(follower, new ReentrantReadWriteLock() {
+            private final WriteLock gated = new WriteLock(this) {
+                @Override
+                public void lock() {
+                    if (Thread.currentThread().getName().equals("old-leader") && parked.getCount() > 0) {
+                        parked.countDown();
+                        try {
+                            resume.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    super.lock();
+                }
+            };
+
+            @Override
+            public WriteLock writeLock() {
+                return gated;
+            }
+        });
+
+        CompletableFuture<HyperRAFTPlusProduction.AppendEntriesResponse> stale = new CompletableFuture<>();
+        Thread oldLeader = new Thread(() -> stale.complete(follower.handleAppendEntries(
+            new HyperRAFTPlusProduction.AppendEntriesRequest(1, "old-leader", 0, 0, entries(1, 5, 1), 0, false))
+            .await().indefinitely()), "old-leader");
+        oldLeader.start();
+        assertTrue(parked.await(10, TimeUnit.SECONDS));
+
+        // The new leader's entries are acknowledged while the old request is in flight
+        assertTrue(append(0, 0, entries(1, 5, 2)).success);
+        resume.countDown();
+
+        HyperRAFTPlusProduction.AppendEntriesResponse rejected = stale.get(10, TimeUnit.SECONDS);
+        assertFalse(rejected.success);
+        assertEquals(2, rejected.term, "the rejection carries the current term");
+        assertTrue(append(5, 2, List.of()).success, "acknowledged entries survive");
+        assertEquals(5, follower.getStats().await().indefinitely().logSize);
+    }
+
+    @Test
+    @DisplayName("An interrupted snapshot transfer resumes from the bytes already stored")
+    void testSnapshotTransferResumes() throws Exception {
+        assertTrue(append(0, 0, entries(1, 5, 1)).success);
+        byte[] snapshot = randomBytes(3 * CHUNK + 100);
+        List<HyperRAFTPlusProduction.InstallSnapshotRequest> chunks = chunks(snapshot, 40, 2);
+
+        // The stream breaks off after two chunks
+        HyperRAFTPlusProduction.InstallSnapshotResponse interrupted = install(chunks.subList(0, 2));
+        assertFalse(interrupted.success);
+        assertEquals(2 * CHUNK, interrupted.nextOffset);
+
+        // Starting over is refused with the offset to resume from
+        HyperRAFTPlusProduction.InstallSnapshotResponse restarted = install(chunks);
+        assertFalse(restarted.success);
+        assertEquals(2 * CHUNK, restarted.nextOffset);
+
+        HyperRAFTPlusProduction.InstallSnapshotResponse resumed = install(chunks.subList(2, chunks.size()));
+        assertTrue(resumed.success, resumed.rejectReason);
+        assertArrayEquals(snapshot, store.getState());
+        assertEquals(40, follower.getSnapshotIndex());
+        assertEquals(40, stats().commitIndex);
+        try (Stream<Path> files = Files.list(snapshotDir)) {
+            assertEquals(List.of(), files.toList(), "the received checkpoint is deleted once restored");
+        }
+
+        // Replication continues after the snapshot; the stale log was discarded
+        assertTrue(append(40, 2, entries(41, 42, 2)).success);
+        assertEquals(42, stats().logSize);
+    }
+
+    @Test
+    @DisplayName("Corrupted chunks and snapshots are rejected without touching the state")
+    void testSnapshotChecksums() throws Exception {
+        byte[] snapshot = randomBytes(2 * CHUNK);
+        List<HyperRAFTPlusProduction.InstallSnapshotRequest> chunks = chunks(snapshot, 10, 1);
+
+        HyperRAFTPlusProduction.InstallSnapshotRequest first = chunks.get(0);
+        byte[] flipped = first.data.clone();
+        flipped[7] ^= 1;
+        HyperRAFTPlusProduction.InstallSnapshotResponse badChunk = install(List.of(copy(first, flipped, first.checksum)));
+        assertFalse(badChunk.success);
+        assertEquals(0, badChunk.nextOffset);
+
+        // Chunks that are intact on their own but do not add up to the announced snapshot
+        byte[] wrongChecksum = first.checksum.clone();
+        wrongChecksum[0] ^= 1;
+        HyperRAFTPlusProduction.InstallSnapshotResponse badSnapshot = install(List.of(
+            copy(chunks.get(0), chunks.get(0).data, wrongChecksum), copy(chunks.get(1), chunks.get(1).data, wrongChecksum)));
+        assertFalse(badSnapshot.success);
+        assertEquals(0, badSnapshot.nextOffset);
+        assertEquals(0, store.getState().length);
+        assertEquals(0, follower.getSnapshotIndex());
+
+        assertTrue(install(chunks).success);
+        assertArrayEquals(snapshot, store.getState());
+    }
+
+    private HyperRAFTPlusProduction.InstallSnapshotResponse install(List<HyperRAFTPlusProduction.InstallSnapshotRequest> chunks) {
+        return follower.handleInstallSnapshot(Multi.createFrom().iterable(chunks)).await().indefinitely();
+    }
+
+    private HyperRAFTPlusProduction.ConsensusStats stats() {
+        return follower.getStats().await().indefinitely();
+    }
+
+    private static List<HyperRAFTPlusProduction.InstallSnapshotRequest> chunks(byte[] snapshot, long index, long term)
+            throws Exception {
+        byte[] checksum = MessageDigest.getInstance("SHA-256").digest(snapshot);
+        List<HyperRAFTPlusProduction.InstallSnapshotRequest> chunks = new ArrayList<>();
+        for (int offset = 0; offset < snapshot.length; offset += CHUNK) {
+            byte[] data = Arrays.copyOfRange(snapshot, offset, Math.min(snapshot.length, offset + CHUNK));
+            CRC32C crc = new CRC32C();
+            crc.update(data);
+            chunks.add(new HyperRAFTPlusProduction.InstallSnapshotRequest(term, "leader", index, term, offset, data,
+                offset + data.length == snapshot.length, (int) crc.getValue(), snapshot.length, checksum));
+        }
+        return chunks;
+    }
+
+    private static HyperRAFTPlusProduction.InstallSnapshotRequest copy(HyperRAFTPlusProduction.InstallSnapshotRequest chunk,
+                                                                       byte[] data, byte[] checksum) {
+        return new HyperRAFTPlusProduction.InstallSnapshotRequest(chunk.term, chunk.leaderId, chunk.lastIncludedIndex,
+            chunk.lastIncludedTerm, chunk.offset, data, chunk.done, chunk.chunkCrc32c, chunk.totalSize, checksum);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private HyperRAFTPlusProduction.AppendEntriesResponse append(long prevLogIndex, long prevLogTerm,
+                                                                 List<HyperRAFTPlusProduction.LogEntry> entries) {
+        long term = entries.stream().mapToLong(e -> e.term).max().orElse(3);
+        return follower.handleAppendEntries(new HyperRAFTPlusProduction.AppendEntriesRequest(
+            term, "leader", prevLogIndex, prevLogTerm, entries, 0, entries.isEmpty())).await().indefinitely();
+    }
+
+    private static List<HyperRAFTPlusProduction.LogEntry> entries(long from, long to, long term) {
+        List<HyperRAFTPlusProduction.LogEntry> entries = new ArrayList<>();
+        for (long i = from; i <= to; i++) {
+            entries.add(new HyperRAFTPlusProduction.LogEntry(term, i, ("tx-" + i).getBytes(), "client",
+                HyperRAFTPlusProduction.EntryType.NORMAL));
+        }
+        return entries;
+    }
+}
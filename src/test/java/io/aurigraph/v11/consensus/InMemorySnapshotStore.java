@@ -0,0 +1,31 @@
+package io.aurigraph.v11.consensus;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Snapshot store whose whole state is a byte array, for consensus tests
+ */
+public class InMemorySnapshotStore implements RaftSnapshotStore {
+
+    private volatile byte[] state;
+
+    public InMemorySnapshotStore(byte[] state) {
+        this.state = state;
+    }
+
+    public byte[] getState() {
+        return state;
+    }
+
+    @Override
+    public void writeCheckpoint(Path target) throws IOException {
+        Files.write(target, state);
+    }
+
+    @Override
+    public void restoreCheckpoint(Path source) throws IOException {
+        state = Files.readAllBytes(source);
+    }
+}
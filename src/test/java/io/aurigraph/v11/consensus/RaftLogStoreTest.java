@@ -0,0 +1,138 @@
+package io.aurigraph.v11.consensus;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Segmented Raft log store tests
+ */
+public class RaftLogStoreTest {
+
+    @TempDir
+    Path spillDir;
+
+    private RaftLogStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Entries are addressable by index across segments")
+    void testAppendAndRead() {
+        store = new RaftLogStore(8, 4, null);
+        appendRange(0, 100, 1);
+
+        assertEquals(99, store.getLastIndex());
+        assertEquals(1, store.getLastTerm());
+        assertEquals(100, store.size());
+        for (long i = 0; i < 100; i++) {
+            assertEquals(i, store.get(i).index);
+        }
+        assertNull(store.get(100));
+        assertEquals(-1, store.termAt(100));
+
+        List<LogReplication.LogEntry> range = store.getEntriesFrom(95, 10);
+        assertEquals(5, range.size());
+        assertEquals(95, range.get(0).index);
+        assertEquals(99, range.get(4).index);
+    }
+
+    @Test
+    @DisplayName("Non-contiguous appends are rejected")
+    void testNonContiguousAppend() {
+        store = new RaftLogStore();
+        appendRange(0, 3, 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> store.append(new LogReplication.LogEntry(5, 1, "gap")));
+    }
+
+    @Test
+    @DisplayName("Old segments spill to disk and read back intact")
+    void testSpill() throws Exception {
+        store = new RaftLogStore(8, 2, spillDir);
+        appendRange(0, 80, 3);
+
+        assertEquals(2, store.getResidentSegmentCount());
+        assertEquals(8, store.getSpilledSegmentCount());
+        try (var files = Files.list(spillDir)) {
+            assertEquals(8, files.count());
+        }
+
+        LogReplication.LogEntry entry = store.get(5);
+        assertEquals(5, entry.index);
+        assertEquals(3, entry.term);
+        assertEquals("cmd-5", entry.command);
+        assertArrayEquals("data-5".getBytes(StandardCharsets.UTF_8), entry.data);
+
+        store.close();
+        try (var files = Files.list(spillDir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Suffix truncation works inside resident and spilled segments")
+    void testTruncate() {
+        store = new RaftLogStore(8, 2, spillDir);
+        appendRange(0, 80, 1);
+
+        store.truncateFrom(70);
+        assertEquals(69, store.getLastIndex());
+        assertNull(store.get(70));
+
+        // Into a spilled segment: it is loaded back and later segments are released
+        store.truncateFrom(13);
+        assertEquals(12, store.getLastIndex());
+        assertEquals(1, store.getResidentSegmentCount());
+        assertEquals(1, store.getSpilledSegmentCount());
+        assertEquals(12, store.get(12).index);
+
+        store.append(new LogReplication.LogEntry(13, 2, "replacement"));
+        assertEquals(2, store.getLastTerm());
+        assertEquals("replacement", store.get(13).command);
+    }
+
+    @Test
+    @DisplayName("Compaction drops the prefix and keeps the snapshot term")
+    void testCompaction() {
+        store = new RaftLogStore(8, 2, spillDir);
+        appendRange(0, 50, 4);
+
+        assertEquals(31, store.compactTo(30, 4));
+        assertEquals(31, store.getFirstIndex());
+        assertEquals(19, store.size());
+        assertNull(store.get(30));
+        assertEquals(4, store.termAt(30));
+        assertEquals(31, store.get(31).index);
+        assertTrue(store.getEntriesFrom(20, 5).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> store.truncateFrom(30));
+
+        // A snapshot beyond the end resets the log to start after it
+        store.compactTo(200, 5);
+        assertEquals(200, store.getLastIndex());
+        assertEquals(5, store.getLastTerm());
+        assertEquals(0, store.size());
+        store.append(new LogReplication.LogEntry(201, 5, "next"));
+        assertEquals(201, store.get(201).index);
+    }
+
+    private void appendRange(long from, long to, long term) {
+        for (long i = from; i < to; i++) {
+            store.append(new LogReplication.LogEntry(i, term, "cmd-" + i,
+                    ("data-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
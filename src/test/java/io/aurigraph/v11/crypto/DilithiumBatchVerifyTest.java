@@ -0,0 +1,118 @@
+package io.aurigraph.v11.crypto;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for parallel Dilithium batch verification
+ */
+public class DilithiumBatchVerifyTest {
+
+    private static final int BATCH = 40;
+
+    private static DilithiumSignatureService service;
+    private static KeyPair signer;
+    private static KeyPair otherSigner;
+    private static byte[][] data;
+    private static byte[][] signatures;
+
+    @BeforeAll
+    static void setUp() {
+        service = new DilithiumSignatureService();
+        service.verifyParallelism = 4;
+        service.initialize();
+        signer = service.generateKeyPair();
+        otherSigner = service.generateKeyPair();
+        data = new byte[BATCH][];
+        signatures = new byte[BATCH][];
+        for (int i = 0; i < BATCH; i++) {
+            data[i] = ("tx-" + i).getBytes(StandardCharsets.UTF_8);
+            signatures[i] = service.sign(data[i], signer.getPrivate());
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        service.shutdown();
+    }
+
+    private static PublicKey[] keys(PublicKey key) {
+        PublicKey[] keys = new PublicKey[BATCH];
+        Arrays.fill(keys, key);
+        return keys;
+    }
+
+    /**
+     * The same key as seen from outside the provider: only its encoding is usable
+     */
+    private static PublicKey foreign(byte[] encoded) {
+        return new PublicKey() {
+            @Override
+            public String getAlgorithm() {
+                return "Dilithium";
+            }
+
+            @Override
+            public String getFormat() {
+                return "X.509";
+            }
+
+            @Override
+            public byte[] getEncoded() {
+                return encoded.clone();
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Per-item results flag exactly the bad items")
+    void testPerItemResults() {
+        byte[][] batchData = data.clone();
+        byte[][] batchSignatures = signatures.clone();
+        PublicKey[] batchKeys = keys(signer.getPublic());
+
+        batchSignatures[5] = batchSignatures[5].clone();
+        batchSignatures[5][0] ^= 1;
+        batchData[9] = null;
+        batchKeys[13] = otherSigner.getPublic();
+        batchKeys[21] = foreign(new byte[] {1, 2, 3});
+
+        boolean[] results = service.batchVerify(batchData, batchSignatures, batchKeys);
+        for (int i = 0; i < BATCH; i++) {
+            assertEquals(i != 5 && i != 9 && i != 13 && i != 21, results[i], "item " + i);
+        }
+        assertEquals(BATCH - 4, service.batchVerifyCount(batchData, batchSignatures, batchKeys));
+    }
+
+    @Test
+    @DisplayName("verifyAll accepts a clean batch and rejects one bad signature")
+    void testVerifyAll() {
+        assertTrue(service.verifyAll(data, signatures, keys(signer.getPublic())));
+
+        byte[][] tampered = signatures.clone();
+        tampered[BATCH - 1] = tampered[BATCH - 1].clone();
+        tampered[BATCH - 1][10] ^= 1;
+        assertFalse(service.verifyAll(data, tampered, keys(signer.getPublic())));
+        assertTrue(service.verifyAll(new byte[0][], new byte[0][], new PublicKey[0]));
+    }
+
+    @Test
+    @DisplayName("Keys from outside the provider are decoded from their encoding")
+    void testForeignKeys() {
+        PublicKey key = foreign(signer.getPublic().getEncoded());
+        assertTrue(service.verify(data[0], signatures[0], key));
+        assertTrue(service.verifyAll(data, signatures, keys(key)));
+
+        PublicKey garbage = foreign(new byte[] {1, 2, 3});
+        assertThrows(IllegalArgumentException.class, () -> service.verify(data[0], signatures[0], garbage));
+    }
+}
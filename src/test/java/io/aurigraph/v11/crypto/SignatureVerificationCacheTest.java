@@ -0,0 +1,103 @@
+package io.aurigraph.v11.crypto;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the shared cache of valid signature verifications
+ */
+public class SignatureVerificationCacheTest {
+
+    private static DilithiumSignatureService service;
+    private static KeyPair signer;
+
+    @BeforeAll
+    static void setUp() {
+        service = new DilithiumSignatureService();
+        service.verifyParallelism = 2;
+        service.verificationCacheSize = 1024;
+        service.verificationCacheTtlSeconds = 60;
+        service.initialize();
+        signer = service.generateKeyPair();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("A repeat verification is served from the cache, across single and batch calls")
+    void testRepeatVerificationHits() {
+        byte[] data = "cached-tx".getBytes(StandardCharsets.UTF_8);
+        byte[] signature = service.sign(data, signer.getPrivate());
+        long hits = service.getVerificationCacheHits();
+
+        assertTrue(service.verify(data, signature, signer.getPublic()));
+        assertEquals(hits, service.getVerificationCacheHits());
+        assertTrue(service.verify(data, signature, signer.getPublic()));
+        assertEquals(hits + 1, service.getVerificationCacheHits());
+
+        byte[][] batchData = {data, data};
+        byte[][] batchSignatures = {signature, signature};
+        PublicKey[] batchKeys = {signer.getPublic(), signer.getPublic()};
+        assertTrue(service.verifyAll(batchData, batchSignatures, batchKeys));
+        assertEquals(hits + 3, service.getVerificationCacheHits());
+    }
+
+    @Test
+    @DisplayName("Invalid signatures are never cached")
+    void testInvalidNotCached() {
+        byte[] data = "forged-tx".getBytes(StandardCharsets.UTF_8);
+        byte[] signature = service.sign(data, signer.getPrivate());
+        signature[3] ^= 1;
+        long hits = service.getVerificationCacheHits();
+        long misses = service.getVerificationCacheMisses();
+
+        assertFalse(service.verify(data, signature, signer.getPublic()));
+        assertFalse(service.verify(data, signature, signer.getPublic()));
+        assertEquals(hits, service.getVerificationCacheHits());
+        assertEquals(misses + 2, service.getVerificationCacheMisses());
+
+        // A valid entry for the same message must not vouch for a different signature
+        byte[] valid = service.sign(data, signer.getPrivate());
+        assertTrue(service.verify(data, valid, signer.getPublic()));
+        assertFalse(service.verify(data, signature, signer.getPublic()));
+    }
+
+    @Test
+    @DisplayName("Entries expire after the TTL and the cache stays bounded")
+    void testExpiryAndBound() {
+        AtomicLong now = new AtomicLong();
+        SignatureVerificationCache cache = new SignatureVerificationCache(32, TimeUnit.SECONDS.toNanos(10), now::get);
+        SignatureVerificationCache.Key key = SignatureVerificationCache.keyOf(new byte[] {1}, new byte[] {2}, new byte[] {3});
+
+        assertFalse(cache.isVerified(key));
+        cache.recordValid(key);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertTrue(cache.isVerified(key));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertFalse(cache.isVerified(key));
+        assertEquals(0, cache.size());
+
+        for (int i = 0; i < 1_000; i++) {
+            byte[] message = {(byte) i, (byte) (i >> 8)};
+            cache.recordValid(SignatureVerificationCache.keyOf(new byte[] {1}, message, new byte[] {3}));
+        }
+        assertTrue(cache.size() <= 32);
+
+        // Length prefixes keep shifted field boundaries apart
+        assertNotEquals(SignatureVerificationCache.keyOf(new byte[] {1, 2}, new byte[] {3}, new byte[] {4}),
+            SignatureVerificationCache.keyOf(new byte[] {1}, new byte[] {2, 3}, new byte[] {4}));
+    }
+}
@@ -0,0 +1,165 @@
+package io.aurigraph.v11.execution;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for account-partitioned lanes and their cross-lane hand-off
+ */
+public class AccountLanesTest {
+
+    private final AtomicLong committedAmount = new AtomicLong();
+    private final AccountLanes lanes = new AccountLanes(4, (id, from, to, amount) -> committedAmount.addAndGet(amount));
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown();
+    }
+
+    private String accountInLane(String prefix, int lane) {
+        for (int i = 0; ; i++) {
+            String account = prefix + "-" + i;
+            if (lanes.laneOf(account) == lane) {
+                return account;
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Funds in escrow for a cross-lane transfer cannot be spent again")
+    void testEscrowBlocksDoubleSpend() throws Exception {
+        String alice = accountInLane("alice", 0);
+        String bob = accountInLane("bob", 1);
+        String carol = accountInLane("carol", 2);
+        lanes.deposit(alice, 100).get(5, TimeUnit.SECONDS);
+
+        CompletableFuture<AccountLanes.TransferResult> first = lanes.transfer("tx-1", alice, bob, 60);
+        CompletableFuture<AccountLanes.TransferResult> second = lanes.transfer("tx-2", alice, carol, 60);
+
+        AccountLanes.TransferResult firstResult = first.get(5, TimeUnit.SECONDS);
+        assertEquals(AccountLanes.TransferStatus.COMMITTED, firstResult.status());
+        assertTrue(firstResult.isCrossLane());
+        assertEquals(AccountLanes.TransferStatus.INSUFFICIENT_FUNDS, second.get(5, TimeUnit.SECONDS).status());
+
+        assertEquals(40L, lanes.balance(alice).get(5, TimeUnit.SECONDS));
+        assertEquals(60L, lanes.balance(bob).get(5, TimeUnit.SECONDS));
+        assertEquals(0L, lanes.balance(carol).get(5, TimeUnit.SECONDS));
+        assertEquals(60L, committedAmount.get());
+    }
+
+    @Test
+    @DisplayName("A rejected credit refunds the sender")
+    void testRejectedCreditRefunds() throws Exception {
+        String alice = accountInLane("alice", 0);
+        String bob = accountInLane("bob", 3);
+        lanes.deposit(alice, 10).get(5, TimeUnit.SECONDS);
+        lanes.deposit(bob, Long.MAX_VALUE - 5).get(5, TimeUnit.SECONDS);
+
+        AccountLanes.TransferResult result = lanes.transfer("tx-1", alice, bob, 10).get(5, TimeUnit.SECONDS);
+        assertEquals(AccountLanes.TransferStatus.REJECTED, result.status());
+        assertEquals(10L, lanes.balance(alice).get(5, TimeUnit.SECONDS));
+        assertEquals(Long.MAX_VALUE - 5, lanes.balance(bob).get(5, TimeUnit.SECONDS));
+        assertEquals(0L, committedAmount.get());
+    }
+
+    @Test
+    @DisplayName("A transfer the lane cannot handle fails its future and leaves the lane working")
+    void testHandlerFailureCompletesFuture() throws Exception {
+        String alice = accountInLane("alice", 0);
+        lanes.deposit(alice, 10).get(5, TimeUnit.SECONDS);
+
+        CompletableFuture<AccountLanes.TransferResult> broken = lanes.transfer("tx-1", alice, null, 5);
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> broken.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(NullPointerException.class, failure.getCause());
+
+        assertEquals(10L, lanes.balance(alice).get(5, TimeUnit.SECONDS));
+        String bob = accountInLane("bob", 1);
+        assertEquals(AccountLanes.TransferStatus.COMMITTED,
+            lanes.transfer("tx-2", alice, bob, 5).get(5, TimeUnit.SECONDS).status());
+    }
+
+    @Test
+    @DisplayName("Shutdown completes every queued request and rejects new ones")
+    void testShutdownCompletesEverything() throws Exception {
+        int accounts = 50;
+        for (int i = 0; i < accounts; i++) {
+            lanes.deposit("acct-" + i, 1_000).get(5, TimeUnit.SECONDS);
+        }
+        Random random = new Random(3);
+        List<CompletableFuture<AccountLanes.TransferResult>> results = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            results.add(lanes.transfer("tx-" + i, "acct-" + random.nextInt(accounts),
+                "acct-" + random.nextInt(accounts), 1 + random.nextInt(100)));
+        }
+        lanes.shutdown();
+
+        for (CompletableFuture<AccountLanes.TransferResult> result : results) {
+            assertTrue(result.isDone());
+        }
+        CompletableFuture<Long> late = lanes.deposit("acct-0", 1);
+        assertTrue(late.isCompletedExceptionally());
+        assertThrows(ExecutionException.class, () -> late.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Concurrent transfers across lanes conserve the total balance")
+    void testConcurrentTransfersConserveFunds() throws Exception {
+        int accounts = 200;
+        for (int i = 0; i < accounts; i++) {
+            lanes.deposit("acct-" + i, 1_000).get(5, TimeUnit.SECONDS);
+        }
+
+        int threads = 8;
+        int perThread = 20_000;
+        List<CompletableFuture<AccountLanes.TransferResult>> results = new ArrayList<>(threads * perThread);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<CompletableFuture<List<CompletableFuture<AccountLanes.TransferResult>>>> submitters = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            submitters.add(CompletableFuture.supplyAsync(() -> {
+                Random random = new Random(thread);
+                List<CompletableFuture<AccountLanes.TransferResult>> submitted = new ArrayList<>(perThread);
+                for (int i = 0; i < perThread; i++) {
+                    String from = "acct-" + random.nextInt(accounts);
+                    String to = "acct-" + random.nextInt(accounts);
+                    submitted.add(lanes.transfer(thread + "-" + i, from, to, 1 + random.nextInt(300)));
+                }
+                return submitted;
+            }, pool));
+        }
+        for (CompletableFuture<List<CompletableFuture<AccountLanes.TransferResult>>> submitter : submitters) {
+            results.addAll(submitter.get(30, TimeUnit.SECONDS));
+        }
+        pool.shutdown();
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+
+        long total = 0;
+        for (int i = 0; i < accounts; i++) {
+            long balance = lanes.balance("acct-" + i).get(5, TimeUnit.SECONDS);
+            assertTrue(balance >= 0);
+            total += balance;
+        }
+        assertEquals(accounts * 1_000L, total);
+
+        long committed = results.stream()
+            .filter(r -> r.join().status() == AccountLanes.TransferStatus.COMMITTED)
+            .count();
+        List<AccountLanes.LaneStats> stats = lanes.getStats();
+        assertEquals(committed, stats.stream().mapToLong(AccountLanes.LaneStats::transfersCommitted).sum());
+        assertEquals(accounts, stats.stream().mapToInt(AccountLanes.LaneStats::accounts).sum());
+        assertTrue(stats.stream().mapToLong(AccountLanes.LaneStats::crossLaneHandoffs).sum() > 0);
+    }
+}
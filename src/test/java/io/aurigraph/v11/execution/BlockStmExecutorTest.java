@@ -0,0 +1,163 @@
+package io.aurigraph.v11.execution;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for Block-STM speculative execution
+ */
+public class BlockStmExecutorTest {
+
+    private final BlockStmExecutor executor = new BlockStmExecutor(8);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private static BlockStmExecutor.Transition transfer(String from, String to, long amount) {
+        return context -> {
+            long fromBalance = (Long) context.read(from);
+            if (fromBalance < amount) {
+                throw new IllegalStateException("Insufficient balance in " + from);
+            }
+            long toBalance = (Long) context.read(to);
+            context.write(from, fromBalance - amount);
+            context.write(to, toBalance + amount);
+        };
+    }
+
+    private static List<BlockStmExecutor.Transition> randomTransfers(int count, int accounts, long seed) {
+        Random random = new Random(seed);
+        List<BlockStmExecutor.Transition> block = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int from = random.nextInt(accounts);
+            int to = (from + 1 + random.nextInt(accounts - 1)) % accounts;
+            block.add(transfer("acct-" + from, "acct-" + to, 1 + random.nextInt(150)));
+        }
+        return block;
+    }
+
+    private static Map<String, Object> genesis(int accounts) {
+        Map<String, Object> state = new HashMap<>();
+        for (int i = 0; i < accounts; i++) {
+            state.put("acct-" + i, 100L);
+        }
+        return state;
+    }
+
+    /**
+     * Run the block one transaction at a time, dropping the writes of any that throw
+     */
+    private static Map<String, Object> executeSequentially(List<BlockStmExecutor.Transition> block,
+                                                           Map<String, Object> storage, boolean[] failed) {
+        Map<String, Object> state = new HashMap<>(storage);
+        Map<String, Object> written = new HashMap<>();
+        for (int i = 0; i < block.size(); i++) {
+            Map<String, Object> writes = new HashMap<>();
+            try {
+                block.get(i).apply(new BlockStmExecutor.TransactionContext() {
+                    @Override
+                    public Object read(String key) {
+                        return writes.containsKey(key) ? writes.get(key) : state.get(key);
+                    }
+
+                    @Override
+                    public void write(String key, Object value) {
+                        writes.put(key, value);
+                    }
+                });
+                state.putAll(writes);
+                written.putAll(writes);
+            } catch (Exception e) {
+                failed[i] = true;
+            }
+        }
+        return written;
+    }
+
+    @Test
+    @DisplayName("Contended transfers produce the same writes and failures as sequential execution")
+    void testMatchesSequentialExecution() {
+        for (int accounts : new int[] {2, 8, 1000}) {
+            Map<String, Object> storage = genesis(accounts);
+            List<BlockStmExecutor.Transition> block = randomTransfers(2000, accounts, accounts);
+
+            boolean[] expectedFailed = new boolean[block.size()];
+            Map<String, Object> expected = executeSequentially(block, storage, expectedFailed);
+
+            for (int run = 0; run < 5; run++) {
+                BlockStmExecutor.BlockResult result = executor.execute(block, storage::get);
+                assertEquals(expected, result.writes(), "accounts=" + accounts);
+                assertArrayEquals(expectedFailed, result.failed(), "accounts=" + accounts);
+                assertEquals(result.incarnations() - block.size(), result.aborts());
+                assertTrue(result.abortRate() >= 0.0 && result.abortRate() < 1.0);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("An Error in one transaction fails the block instead of hanging the other workers")
+    void testErrorEndsBlock() {
+        List<BlockStmExecutor.Transition> block = new ArrayList<>(randomTransfers(2_000, 50, 9));
+        block.set(1_000, context -> {
+            context.read("acct-1");
+            throw new StackOverflowError("runaway contract");
+        });
+
+        IllegalStateException failure = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> assertThrows(IllegalStateException.class, () -> executor.execute(block, genesis(50)::get)));
+        assertInstanceOf(StackOverflowError.class, failure.getCause());
+
+        // The pool is free for the next block
+        BlockStmExecutor.BlockResult next = assertTimeoutPreemptively(Duration.ofSeconds(10),
+            () -> executor.execute(randomTransfers(500, 50, 10), genesis(50)::get));
+        assertEquals(500, next.failed().length);
+    }
+
+    @Test
+    @DisplayName("A later transaction reads a value only an earlier transaction creates")
+    void testReadsEarlierWrites() {
+        List<BlockStmExecutor.Transition> block = new ArrayList<>();
+        block.add(context -> context.write("counter", 0L));
+        for (int i = 0; i < 500; i++) {
+            block.add(context -> context.write("counter", (Long) context.read("counter") + 1));
+        }
+
+        BlockStmExecutor.BlockResult result = executor.execute(block, key -> null);
+        assertEquals(500L, result.writes().get("counter"));
+        assertEquals(0, result.failedCount());
+    }
+
+    @Test
+    @DisplayName("Speculative batches report aborts through executor statistics")
+    void testExecutorStatistics() {
+        ParallelTransactionExecutor parallel = new ParallelTransactionExecutor();
+        try {
+            List<ParallelTransactionExecutor.TransactionTask> tasks = new ArrayList<>();
+            List<BlockStmExecutor.Transition> block = randomTransfers(1000, 4, 7);
+            for (int i = 0; i < block.size(); i++) {
+                tasks.add(new ParallelTransactionExecutor.TransactionTask("tx-" + i, 0, block.get(i)));
+            }
+            Map<String, Object> storage = genesis(4);
+
+            BlockStmExecutor.BlockResult result = parallel.executeSpeculative(tasks, storage::get);
+            ParallelTransactionExecutor.ExecutionStatistics stats = parallel.getStatistics();
+            assertEquals(1000 - result.failedCount(), stats.totalExecuted());
+            assertEquals(result.aborts(), stats.totalAborts());
+            assertEquals(result.abortRate(), stats.lastBatchAbortRate());
+        } finally {
+            parallel.shutdown();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package io.aurigraph.v11.execution;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the CSR conflict graph, its components and wavefronts
+ */
+public class ConflictGraphTest {
+
+    private static ParallelTransactionExecutor.TransactionTask task(int id, Set<String> reads, Set<String> writes,
+                                                                    Runnable body) {
+        return new ParallelTransactionExecutor.TransactionTask("tx-" + id, reads, writes, 1, body);
+    }
+
+    private static List<ParallelTransactionExecutor.TransactionTask> randomBatch(int count, int addresses, long seed) {
+        Random random = new Random(seed);
+        List<ParallelTransactionExecutor.TransactionTask> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Set<String> reads = new HashSet<>();
+            Set<String> writes = new HashSet<>();
+            for (int k = random.nextInt(3); k >= 0; k--) {
+                reads.add("addr-" + random.nextInt(addresses));
+            }
+            for (int k = random.nextInt(2); k >= 0; k--) {
+                writes.add("addr-" + random.nextInt(addresses));
+            }
+            batch.add(task(i, reads, writes, () -> {}));
+        }
+        return batch;
+    }
+
+    private static boolean conflicts(ParallelTransactionExecutor.TransactionTask a,
+                                     ParallelTransactionExecutor.TransactionTask b) {
+        for (String address : a.writeSet) {
+            if (b.writeSet.contains(address) || b.readSet.contains(address)) {
+                return true;
+            }
+        }
+        for (String address : a.readSet) {
+            if (b.writeSet.contains(address)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    @DisplayName("Every conflicting pair lands in later waves and in the same component")
+    void testWavesAndComponentsCoverAllConflicts() {
+        for (int addresses : new int[] {5, 50, 5000}) {
+            List<ParallelTransactionExecutor.TransactionTask> batch = randomBatch(400, addresses, addresses);
+            ConflictGraph graph = ConflictGraph.build(batch);
+
+            ParallelTransactionExecutor.UnionFind expected = new ParallelTransactionExecutor.UnionFind(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                for (int j = i + 1; j < batch.size(); j++) {
+                    if (conflicts(batch.get(i), batch.get(j))) {
+                        assertTrue(graph.level(i) < graph.level(j), "tx " + i + " must precede tx " + j);
+                        expected.union(i, j);
+                    }
+                }
+                for (int predecessor : graph.predecessorsOf(i)) {
+                    assertTrue(predecessor < i && conflicts(batch.get(predecessor), batch.get(i)));
+                }
+            }
+
+            List<List<ParallelTransactionExecutor.TransactionTask>> components = graph.components(batch);
+            assertEquals(expected.getComponentCount(), components.size(), "addresses=" + addresses);
+            for (List<ParallelTransactionExecutor.TransactionTask> component : components) {
+                int root = expected.find(batch.indexOf(component.get(0)));
+                component.forEach(tx -> assertEquals(root, expected.find(batch.indexOf(tx))));
+            }
+
+            List<List<ParallelTransactionExecutor.TransactionTask>> waves = graph.wavefronts(batch);
+            assertEquals(graph.waveCount(), waves.size());
+            assertEquals(batch.size(), waves.stream().mapToInt(List::size).sum());
+        }
+    }
+
+    @Test
+    @DisplayName("Readers of an address share a wave and the next writer waits for all of them")
+    void testReadersShareWave() {
+        List<ParallelTransactionExecutor.TransactionTask> batch = List.of(
+            task(0, Set.of(), Set.of("a"), () -> {}),
+            task(1, Set.of("a"), Set.of("b"), () -> {}),
+            task(2, Set.of("a"), Set.of("c"), () -> {}),
+            task(3, Set.of(), Set.of("a"), () -> {}),
+            task(4, Set.of("x"), Set.of("y"), () -> {})
+        );
+        ConflictGraph graph = ConflictGraph.build(batch);
+
+        assertEquals(0, graph.level(0));
+        assertEquals(1, graph.level(1));
+        assertEquals(1, graph.level(2));
+        assertEquals(2, graph.level(3));
+        assertEquals(0, graph.level(4));
+        int[] predecessors = graph.predecessorsOf(3);
+        Arrays.sort(predecessors);
+        assertArrayEquals(new int[] {0, 1, 2}, predecessors);
+        assertEquals(2, graph.components(batch).size());
+        assertEquals(5, graph.addressCount());
+    }
+
+    @Test
+    @DisplayName("No grouping algorithm runs conflicting transactions at the same time")
+    void testNoConcurrentConflicts() {
+        ParallelTransactionExecutor.GroupingAlgorithm previous = ParallelTransactionExecutor.getGroupingAlgorithm();
+        ParallelTransactionExecutor executor = new ParallelTransactionExecutor();
+        try {
+            for (ParallelTransactionExecutor.GroupingAlgorithm algorithm : ParallelTransactionExecutor.GroupingAlgorithm.values()) {
+                ParallelTransactionExecutor.setGroupingAlgorithm(algorithm);
+                Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+                AtomicInteger overlaps = new AtomicInteger();
+                Random random = new Random(5);
+                List<ParallelTransactionExecutor.TransactionTask> batch = new ArrayList<>();
+                for (int i = 0; i < 400; i++) {
+                    String account = "acct-" + random.nextInt(8);
+                    batch.add(task(i, Set.of(account), Set.of(account), () -> {
+                        AtomicInteger running = active.computeIfAbsent(account, k -> new AtomicInteger());
+                        if (running.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        LockSupport.parkNanos(20_000);
+                        running.decrementAndGet();
+                    }));
+                }
+
+                ParallelTransactionExecutor.ExecutionResult result = executor.executeParallel(batch);
+                assertEquals(batch.size(), result.successCount(), algorithm.name());
+                assertEquals(0, overlaps.get(), algorithm + " overlapped conflicting transactions");
+            }
+        } finally {
+            ParallelTransactionExecutor.setGroupingAlgorithm(previous);
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Wavefront execution applies each account's updates in batch order")
+    void testWavefrontExecutionOrder() {
+        ParallelTransactionExecutor.GroupingAlgorithm previous = ParallelTransactionExecutor.getGroupingAlgorithm();
+        ParallelTransactionExecutor executor = new ParallelTransactionExecutor();
+        try {
+            ParallelTransactionExecutor.setGroupingAlgorithm(ParallelTransactionExecutor.GroupingAlgorithm.WAVEFRONT);
+            Map<String, List<Integer>> applied = new ConcurrentHashMap<>();
+            Random random = new Random(3);
+            List<ParallelTransactionExecutor.TransactionTask> batch = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                int id = i;
+                int source = random.nextInt(20);
+                String from = "acct-" + source;
+                String to = "acct-" + (source + 1 + random.nextInt(19)) % 20;
+                batch.add(task(i, Set.of(from, to), Set.of(from, to), () -> {
+                    applied.computeIfAbsent(from, k -> new ArrayList<>()).add(id);
+                    applied.computeIfAbsent(to, k -> new ArrayList<>()).add(id);
+                }));
+            }
+
+            ParallelTransactionExecutor.ExecutionResult result = executor.executeParallel(batch);
+            assertEquals(batch.size(), result.successCount());
+            applied.forEach((account, ids) -> {
+                for (int k = 1; k < ids.size(); k++) {
+                    assertTrue(ids.get(k - 1) < ids.get(k), account + " applied out of order");
+                }
+            });
+        } finally {
+            ParallelTransactionExecutor.setGroupingAlgorithm(previous);
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package io.aurigraph.v11.execution;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * JMH benchmarks for ParallelTransactionExecutor at several conflict ratios
+ *
+ * Each batch holds {@code batchSize} transfers. A {@code conflictRatio}
+ * share of them write one of a handful of hot accounts and so conflict
+ * with each other; the rest touch their own accounts only. The same
+ * transfers are also run as balance updates through the speculative
+ * Block-STM path. The graph benchmarks measure grouping alone and are
+ * worth running at {@code -p batchSize=100000}.
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.include=ParallelTransactionExecutorBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelTransactionExecutorBenchmark {
+
+    private static final int HOT_ACCOUNTS = 8;
+
+    @Param({"1000"})
+    int batchSize;
+
+    @Param({"0.0", "0.1", "0.5", "1.0"})
+    double conflictRatio;
+
+    private ParallelTransactionExecutor executor;
+    private List<ParallelTransactionExecutor.TransactionTask> batch;
+    private List<ParallelTransactionExecutor.TransactionTask> speculativeBatch;
+    private final Map<String, Object> balances = new HashMap<>();
+    private final AtomicLong work = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = new ParallelTransactionExecutor();
+        Random random = new Random(42);
+        batch = new ArrayList<>(batchSize);
+        speculativeBatch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            String from = "acct-" + i;
+            String to = random.nextDouble() < conflictRatio
+                ? "hot-" + random.nextInt(HOT_ACCOUNTS)
+                : "acct-" + i + "-dest";
+            batch.add(new ParallelTransactionExecutor.TransactionTask(
+                "tx-" + i, Set.of(from, to), Set.of(from, to), 1, work::incrementAndGet));
+            speculativeBatch.add(new ParallelTransactionExecutor.TransactionTask("tx-" + i, 1, context -> {
+                context.write(from, (Long) context.read(from) - 1);
+                context.write(to, (Long) context.read(to) + 1);
+            }));
+            balances.put(from, 1_000L);
+            balances.put(to, 1_000L);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public ParallelTransactionExecutor.ExecutionResult executeParallel() {
+        return executor.executeParallel(batch);
+    }
+
+    @Benchmark
+    public BlockStmExecutor.BlockResult executeSpeculative() {
+        return executor.executeSpeculative(speculativeBatch, balances::get);
+    }
+
+    @Benchmark
+    public List<List<ParallelTransactionExecutor.TransactionTask>> buildGroups() {
+        return new ParallelTransactionExecutor.DependencyGraphAnalyzer().buildDependencyGraph(batch).getIndependentGroups();
+    }
+
+    @Benchmark
+    public List<List<ParallelTransactionExecutor.TransactionTask>> buildWavefronts() {
+        return new ParallelTransactionExecutor.DependencyGraphAnalyzer().buildDependencyGraph(batch).getWavefronts();
+    }
+}
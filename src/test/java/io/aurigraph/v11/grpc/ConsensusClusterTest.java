@@ -0,0 +1,334 @@
+package io.aurigraph.v11.grpc;
+
+import io.aurigraph.v11.consensus.HyperRAFTPlusProduction;
+import io.aurigraph.v11.consensus.InMemorySnapshotStore;
+import io.aurigraph.v11.consensus.LatencyHistogram;
+import io.aurigraph.v11.proto.*;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.operators.multi.processors.UnicastProcessor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HyperRAFT++ cluster tests over the gRPC transport
+ *
+ * Three nodes talk to each other through in-process gRPC servers running
+ * ConsensusServiceImpl, so elections and replication use the real RPCs.
+ */
+@Timeout(90)
+public class ConsensusClusterTest {
+
+    private static final int NODES = 3;
+
+    @TempDir
+    Path snapshotDir;
+
+    private final List<HyperRAFTPlusProduction> nodes = new ArrayList<>();
+    private final List<InMemorySnapshotStore> stores = new ArrayList<>();
+    private final List<String> addresses = new ArrayList<>();
+    private final List<ConsensusServiceImpl> services = new ArrayList<>();
+    private final Server[] servers = new Server[NODES];
+    private final Map<String, ManagedChannel> channels = new ConcurrentHashMap<>();
+    private final Set<Integer> isolated = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        String cluster = UUID.randomUUID().toString().substring(0, 8);
+        for (int i = 0; i < NODES; i++) {
+            addresses.add("raft-" + cluster + "-node-" + i);
+        }
+        for (int i = 0; i < NODES; i++) {
+            int self = i;
+            // An isolated node can neither serve nor send RPCs
+            GrpcRaftTransport transport = new GrpcRaftTransport(
+                address -> channel(isolated.contains(self) ? "unreachable" : address),
+                1000);
+            InMemorySnapshotStore store = new InMemorySnapshotStore(("state of node-" + i).getBytes());
+            HyperRAFTPlusProduction node = new HyperRAFTPlusProduction("node-" + i, transport, store,
+                snapshotDir.resolve("node-" + i));
+            stores.add(store);
+            nodes.add(node);
+            services.add(new ConsensusServiceImpl(node));
+            startServer(i);
+        }
+        for (int i = 0; i < NODES; i++) {
+            for (int j = 0; j < NODES; j++) {
+                if (i != j) {
+                    nodes.get(i).addNode("node-" + j, addresses.get(j), true).await().indefinitely();
+                }
+            }
+        }
+        nodes.forEach(HyperRAFTPlusProduction::start);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodes.forEach(HyperRAFTPlusProduction::shutdown);
+        for (Server server : servers) {
+            if (server != null) {
+                server.shutdownNow();
+            }
+        }
+        channels.values().forEach(ManagedChannel::shutdownNow);
+    }
+
+    @Test
+    @DisplayName("Exactly one leader is elected and followers learn of it")
+    void testLeaderElection() {
+        HyperRAFTPlusProduction leader = awaitLeader();
+
+        assertEquals(1, nodes.stream()
+            .filter(n -> n.getCurrentState() == HyperRAFTPlusProduction.NodeState.LEADER
+                && n.getCurrentTerm() == leader.getCurrentTerm())
+            .count());
+        awaitCondition(() -> nodes.stream().allMatch(n -> leader.getNodeId().equals(n.getCurrentLeader())),
+            "followers did not learn the leader");
+    }
+
+    @Test
+    @DisplayName("Proposals commit on a quorum and replicate to every follower")
+    void testReplication() {
+        HyperRAFTPlusProduction leader = awaitLeader();
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(leader.proposeValue("tx-" + i).await().atMost(Duration.ofSeconds(10)));
+        }
+        List<Boolean> batch = Uni.join().all(
+                values(20, 100).stream().map(leader::proposeValue).collect(Collectors.toList()))
+            .andFailFast()
+            .await().atMost(Duration.ofSeconds(10));
+        assertTrue(batch.stream().allMatch(Boolean::booleanValue));
+
+        awaitLogsConverged(leader);
+
+        LatencyHistogram.Snapshot commit = leader.getCommitLatency();
+        assertTrue(commit.count >= 100, "commit latency recorded for every proposal");
+        assertTrue(commit.p99Ms >= commit.p50Ms);
+
+        List<HyperRAFTPlusProduction.ReplicationStatus> statuses = leader.getReplicationStatus();
+        assertEquals(NODES - 1, statuses.size());
+        awaitCondition(() -> leader.getReplicationStatus().stream().allMatch(s -> s.lagEntries == 0),
+            "followers still lagging");
+        assertTrue(leader.getReplicationStatus().stream().allMatch(s -> s.rpcLatency.count > 0));
+    }
+
+    @Test
+    @DisplayName("A follower that was unreachable catches up after it rejoins")
+    void testCatchUp() throws IOException {
+        HyperRAFTPlusProduction leader = awaitLeader();
+        int lagging = (nodes.indexOf(leader) + 1) % NODES;
+        isolated.add(lagging);
+        servers[lagging].shutdownNow();
+
+        List<Boolean> results = Uni.join().all(
+                values(0, 300).stream().map(leader::proposeValue).collect(Collectors.toList()))
+            .andFailFast()
+            .await().atMost(Duration.ofSeconds(20));
+        assertTrue(results.stream().allMatch(Boolean::booleanValue), "a quorum of two still commits");
+
+        isolated.remove(lagging);
+        startServer(lagging);
+
+        // The rejoining node may force a new election with its higher term; the logs converge either way
+        awaitLogsConverged(awaitLeader());
+        assertTrue(stats(nodes.get(lagging)).logSize >= 300);
+    }
+
+    @Test
+    @DisplayName("A follower missing compacted entries is sent the snapshot and then the rest of the log")
+    void testSnapshotInstall() throws IOException {
+        HyperRAFTPlusProduction leader = awaitLeader();
+        int lagging = (nodes.indexOf(leader) + 1) % NODES;
+        isolated.add(lagging);
+        servers[lagging].shutdownNow();
+
+        List<Boolean> results = Uni.join().all(
+                values(0, 200).stream().map(leader::proposeValue).collect(Collectors.toList()))
+            .andFailFast()
+            .await().atMost(Duration.ofSeconds(20));
+        assertTrue(results.stream().allMatch(Boolean::booleanValue));
+
+        // Either up-to-date node may lead once the lagging one rejoins, so both compact at the same index
+        long committed = stats(leader).commitIndex;
+        awaitCondition(() -> nodes.stream().filter(n -> n != nodes.get(lagging))
+            .allMatch(n -> stats(n).commitIndex == committed), "commit index did not propagate");
+        byte[] state = new byte[3 * 1024 * 1024 + 17];
+        new Random(7).nextBytes(state);
+        Path checkpoint = snapshotDir.resolve("state.bin");
+        Files.write(checkpoint, state);
+        for (int i = 0; i < NODES; i++) {
+            if (i != lagging) {
+                stores.get(i).restoreCheckpoint(checkpoint);
+                assertEquals(committed, nodes.get(i).takeSnapshot().await().atMost(Duration.ofSeconds(10)));
+            }
+        }
+        assertTrue(leader.proposeValue("after-snapshot").await().atMost(Duration.ofSeconds(10)));
+
+        isolated.remove(lagging);
+        startServer(lagging);
+
+        HyperRAFTPlusProduction newLeader = awaitLeader();
+        awaitLogsConverged(newLeader);
+        assertEquals(committed, nodes.get(lagging).getSnapshotIndex());
+        assertArrayEquals(state, stores.get(lagging).getState());
+        assertTrue(stats(nodes.get(lagging)).logSize > committed);
+    }
+
+    private void startServer(int i) throws IOException {
+        servers[i] = InProcessServerBuilder.forName(addresses.get(i))
+            .addService(new ConsensusGrpcAdapter(services.get(i)))
+            .build()
+            .start();
+    }
+
+    private ManagedChannel channel(String address) {
+        return channels.computeIfAbsent(address, a -> InProcessChannelBuilder.forName(a).build());
+    }
+
+    private HyperRAFTPlusProduction awaitLeader() {
+        awaitCondition(() -> nodes.stream().anyMatch(n -> n.getCurrentState() == HyperRAFTPlusProduction.NodeState.LEADER),
+            "no leader elected");
+        return nodes.stream()
+            .filter(n -> n.getCurrentState() == HyperRAFTPlusProduction.NodeState.LEADER)
+            .max(Comparator.comparingLong(HyperRAFTPlusProduction::getCurrentTerm))
+            .orElseThrow();
+    }
+
+    private void awaitLogsConverged(HyperRAFTPlusProduction leader) {
+        awaitCondition(() -> {
+            HyperRAFTPlusProduction.ConsensusStats leaderStats = stats(leader);
+            return nodes.stream().map(this::stats).allMatch(s ->
+                s.logSize == leaderStats.logSize && s.commitIndex == leaderStats.commitIndex);
+        }, "follower logs did not converge");
+    }
+
+    private HyperRAFTPlusProduction.ConsensusStats stats(HyperRAFTPlusProduction node) {
+        return node.getStats().await().indefinitely();
+    }
+
+    private static void awaitCondition(BooleanSupplier condition, String message) {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail(message);
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail("interrupted");
+            }
+        }
+    }
+
+    private static List<String> values(int from, int to) {
+        List<String> values = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            values.add("tx-" + i);
+        }
+        return values;
+    }
+
+    /**
+     * Serves ConsensusServiceImpl's Mutiny methods on a plain gRPC server
+     */
+    private static final class ConsensusGrpcAdapter extends ConsensusServiceGrpc.ConsensusServiceImplBase {
+
+        private final ConsensusServiceImpl service;
+
+        ConsensusGrpcAdapter(ConsensusServiceImpl service) {
+            this.service = service;
+        }
+
+        @Override
+        public void requestLeaderElection(LeaderElectionRequest request,
+                                          StreamObserver<LeaderElectionResponse> responseObserver) {
+            reply(service.requestLeaderElection(request), responseObserver);
+        }
+
+        @Override
+        public void heartbeat(HeartbeatRequest request, StreamObserver<HeartbeatResponse> responseObserver) {
+            reply(service.heartbeat(request), responseObserver);
+        }
+
+        @Override
+        public void appendEntries(AppendEntriesRequest request,
+                                  StreamObserver<AppendEntriesResponse> responseObserver) {
+            reply(service.appendEntries(request), responseObserver);
+        }
+
+        @Override
+        public StreamObserver<AppendEntriesRequest> streamAppendEntries(
+                StreamObserver<AppendEntriesResponse> responseObserver) {
+            UnicastProcessor<AppendEntriesRequest> requests = UnicastProcessor.create();
+            service.streamAppendEntries(requests).subscribe().with(
+                responseObserver::onNext, responseObserver::onError, responseObserver::onCompleted);
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(AppendEntriesRequest value) {
+                    requests.onNext(value);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    requests.onError(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    requests.onComplete();
+                }
+            };
+        }
+
+        @Override
+        public StreamObserver<InstallSnapshotRequest> installSnapshot(
+                StreamObserver<InstallSnapshotResponse> responseObserver) {
+            UnicastProcessor<InstallSnapshotRequest> chunks = UnicastProcessor.create();
+            reply(service.installSnapshot(chunks), responseObserver);
+            return new StreamObserver<>() {
+                @Override
+                public void onNext(InstallSnapshotRequest value) {
+                    chunks.onNext(value);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    chunks.onError(t);
+                }
+
+                @Override
+                public void onCompleted() {
+                    chunks.onComplete();
+                }
+            };
+        }
+
+        private static <T> void reply(Uni<T> response, StreamObserver<T> responseObserver) {
+            response.subscribe().with(value -> {
+                responseObserver.onNext(value);
+                responseObserver.onCompleted();
+            }, responseObserver::onError);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.aurigraph.v11.merkle;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Incremental Merkle tree tests
+ *
+ * Every incremental root is checked against a full {@link MerkleTree} rebuild
+ * over the same leaf order.
+ */
+public class IncrementalMerkleTreeTest {
+
+    @Test
+    @DisplayName("Empty tree matches MerkleTree empty root")
+    void testEmptyTree() {
+        IncrementalMerkleTree tree = new IncrementalMerkleTree();
+        tree.commit();
+
+        assertEquals(new MerkleTree<String>(List.of(), h -> h).getRootHash(), tree.getRootHash());
+        assertEquals(0, tree.getLeafCount());
+    }
+
+    @Test
+    @DisplayName("Appends match a full rebuild at every size")
+    void testAppendMatchesRebuild() {
+        IncrementalMerkleTree tree = new IncrementalMerkleTree();
+        List<String> leaves = new ArrayList<>();
+
+        for (int i = 0; i < 70; i++) {
+            String leaf = leafHash(i);
+            leaves.add(leaf);
+            tree.appendLeaf(leaf);
+            tree.commit();
+
+            MerkleTree<String> expected = new MerkleTree<>(leaves, h -> h);
+            assertEquals(expected.getRootHash(), tree.getRootHash(), "size " + leaves.size());
+            assertEquals(expected.getTreeHeight(), tree.getTreeHeight(), "size " + leaves.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Random batched updates, appends and removals match a full rebuild")
+    void testRandomBatchesMatchRebuild() {
+        Random random = new Random(42);
+        IncrementalMerkleTree tree = new IncrementalMerkleTree();
+        List<String> leaves = new ArrayList<>();
+        int next = 0;
+
+        for (int round = 0; round < 300; round++) {
+            int ops = 1 + random.nextInt(8);
+            for (int op = 0; op < ops; op++) {
+                int choice = random.nextInt(3);
+                if (choice == 0 || leaves.isEmpty()) {
+                    String leaf = leafHash(next++);
+                    leaves.add(leaf);
+                    tree.appendLeaf(leaf);
+                } else if (choice == 1) {
+                    int index = random.nextInt(leaves.size());
+                    String leaf = leafHash(next++);
+                    leaves.set(index, leaf);
+                    tree.setLeaf(index, leaf);
+                } else {
+                    leaves.remove(leaves.size() - 1);
+                    tree.removeLastLeaf();
+                }
+            }
+            tree.commit();
+
+            assertEquals(new MerkleTree<>(leaves, h -> h).getRootHash(), tree.getRootHash(),
+                "round " + round + ", size " + leaves.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Single leaf update rehashes only its path")
+    void testSingleUpdateIsLogarithmic() {
+        List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            leaves.add(leafHash(i));
+        }
+        IncrementalMerkleTree tree = new IncrementalMerkleTree(leaves);
+        long before = tree.getNodesHashed();
+
+        tree.setLeaf(517, leafHash(-1));
+        tree.commit();
+
+        assertEquals(10, tree.getNodesHashed() - before);
+    }
+
+    @Test
+    @DisplayName("Proofs from cached levels verify against the current root")
+    void testProofsVerify() {
+        List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < 37; i++) {
+            leaves.add(leafHash(i));
+        }
+        IncrementalMerkleTree tree = new IncrementalMerkleTree(leaves);
+
+        for (int i = 0; i < leaves.size(); i++) {
+            MerkleProof proof = tree.generateProof(i);
+            assertTrue(tree.verifyProof(proof), "leaf " + i);
+            assertTrue(MerkleTree.verifyProofStatic(proof), "leaf " + i);
+        }
+
+        MerkleProof stale = tree.generateProof(3);
+        tree.setLeaf(3, leafHash(-1));
+        tree.commit();
+        assertFalse(tree.verifyProof(stale));
+    }
+
+    private static String leafHash(int i) {
+        return String.format("%064x", i & 0xffffffffL);
+    }
+}
@@ -0,0 +1,67 @@
+package io.aurigraph.v11.merkle;
+
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.bouncycastle.util.encoders.Hex;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for MerkleTree construction and proofs
+ *
+ * Leaves are precomputed SHA3-256 hex hashes, as stored for blocks and
+ * registries, so {@code build} measures only the internal hashing.
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.include=MerkleTreeBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MerkleTreeBenchmark {
+
+    @Param({"1024", "16384"})
+    int leafCount;
+
+    private List<String> leaves;
+    private MerkleTree<String> tree;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        leaves = new ArrayList<>(leafCount);
+        for (int i = 0; i < leafCount; i++) {
+            byte[] input = ("leaf-" + i).getBytes(StandardCharsets.UTF_8);
+            SHA3Digest digest = new SHA3Digest(256);
+            digest.update(input, 0, input.length);
+            byte[] hash = new byte[32];
+            digest.doFinal(hash, 0);
+            leaves.add(Hex.toHexString(hash));
+        }
+        tree = new MerkleTree<>(leaves, h -> h);
+    }
+
+    @Benchmark
+    public String build() {
+        return new MerkleTree<>(leaves, h -> h).getRootHash();
+    }
+
+    @Benchmark
+    public MerkleProof generateProof(Cursor cursor) {
+        return tree.generateProof(cursor.next++ % leafCount);
+    }
+
+    @Benchmark
+    public boolean generateAndVerifyProof(Cursor cursor) {
+        return tree.verifyProof(tree.generateProof(cursor.next++ % leafCount));
+    }
+}
@@ -0,0 +1,106 @@
+package io.aurigraph.v11.merkle;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Merkle registry tests
+ *
+ * Registries holding the same entries must agree on the root however they
+ * got there, since nodes compare state roots.
+ */
+public class MerkleTreeRegistryTest {
+
+    private static final class StringRegistry extends MerkleTreeRegistry<String> {
+        @Override
+        protected String serializeValue(String value) {
+            return value;
+        }
+
+        String root() {
+            return getRootHash().await().indefinitely();
+        }
+
+        String rebuiltRoot() {
+            treeLock.writeLock().lock();
+            try {
+                rebuildMerkleTree();
+                return currentRootHash;
+            } finally {
+                treeLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static String key(int i) {
+        return String.format("asset-%04d", i);
+    }
+
+    @Test
+    @DisplayName("The same entries give the same root in any mutation order and after a rebuild")
+    void testRootIndependentOfOrder() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(i);
+        }
+
+        // One node adds one at a time in random order, overwrites some values and removes a few keys
+        StringRegistry first = new StringRegistry();
+        List<Integer> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, new Random(7));
+        for (int i : shuffled) {
+            first.add(key(i), "v0-" + i).await().indefinitely();
+        }
+        for (int i = 0; i < 300; i += 7) {
+            first.add(key(i), "v1-" + i).await().indefinitely();
+        }
+        for (int i = 0; i < 300; i += 11) {
+            first.remove(key(i)).await().indefinitely();
+        }
+
+        // Another applies the end state in batches, in descending order, with keys that come and go
+        StringRegistry second = new StringRegistry();
+        Map<String, String> batch = new LinkedHashMap<>();
+        for (int i = 299; i >= 0; i--) {
+            batch.put(key(i), (i % 7 == 0 ? "v1-" : "v0-") + i);
+        }
+        second.addAll(Map.of(key(1000), "transient", key(1001), "transient")).await().indefinitely();
+        second.addAll(batch).await().indefinitely();
+        List<String> removals = new ArrayList<>(List.of(key(1000), key(1001)));
+        for (int i = 0; i < 300; i += 11) {
+            removals.add(key(i));
+        }
+        second.removeAll(removals).await().indefinitely();
+
+        assertEquals(first.root(), second.root());
+        String root = first.root();
+        assertEquals(root, first.rebuiltRoot(), "matches the key-ordered rebuild done on restart");
+        assertEquals(root, second.rebuiltRoot());
+
+        // A differing value changes the root
+        second.add(key(1), "other").await().indefinitely();
+        assertNotEquals(root, second.root());
+    }
+
+    @Test
+    @DisplayName("Proofs verify after inserts and removals move leaves")
+    void testProofsAfterRelayout() {
+        StringRegistry registry = new StringRegistry();
+        for (int i = 50; i > 0; i--) {
+            registry.add(key(i * 2), "v" + i).await().indefinitely();
+        }
+        registry.addAll(Map.of(key(1), "a", key(51), "b", key(99), "c")).await().indefinitely();
+        registry.removeAll(List.of(key(2), key(50))).await().indefinitely();
+
+        for (String key : List.of(key(1), key(4), key(51), key(52), key(99), key(100))) {
+            MerkleProof proof = registry.generateProof(key).await().indefinitely();
+            assertTrue(registry.verifyProof(proof).await().indefinitely(), key);
+            assertEquals(registry.root(), proof.getRootHash());
+        }
+        assertThrows(IllegalArgumentException.class, () -> registry.generateProof(key(2)).await().indefinitely());
+    }
+}
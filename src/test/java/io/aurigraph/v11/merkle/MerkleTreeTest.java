@@ -0,0 +1,124 @@
+package io.aurigraph.v11.merkle;
+
+import org.bouncycastle.crypto.digests.SHA3Digest;
+import org.bouncycastle.util.encoders.Hex;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Binary Merkle engine tests
+ *
+ * Roots are checked against the original hex-string construction so that
+ * stored block and registry roots keep validating.
+ */
+public class MerkleTreeTest {
+
+    @Test
+    @DisplayName("Roots match the hex-string construction at every size")
+    void testRootsMatchStringConstruction() {
+        List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < 65; i++) {
+            leaves.add(leafHash(i));
+            assertEquals(stringRoot(leaves), new MerkleTree<>(leaves, h -> h).getRootHash(), "size " + leaves.size());
+        }
+    }
+
+    @Test
+    @DisplayName("Non-hex leaf values hash verbatim")
+    void testNonCanonicalLeaves() {
+        List<String> leaves = List.of("tx-1", leafHash(2), "0xABCDEF", leafHash(4).toUpperCase(), leafHash(5));
+        MerkleTree<String> tree = new MerkleTree<>(leaves, h -> h);
+
+        assertEquals(stringRoot(leaves), tree.getRootHash());
+        assertEquals(leaves, tree.getLeafHashes());
+        for (int i = 0; i < leaves.size(); i++) {
+            assertTrue(tree.verifyProof(tree.generateProof(i)), "leaf " + i);
+        }
+    }
+
+    @Test
+    @DisplayName("Proofs survive a round trip through ProofData")
+    void testProofDataRoundTrip() {
+        List<String> leaves = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            leaves.add(leafHash(i));
+        }
+        MerkleTree<String> tree = new MerkleTree<>(leaves, h -> h);
+
+        for (int i = 0; i < leaves.size(); i++) {
+            MerkleProof.ProofData data = tree.generateProof(i).toProofData();
+            assertEquals(leaves.get(i), data.leafHash);
+            assertEquals(tree.getRootHash(), data.rootHash);
+            assertTrue(MerkleTree.verifyProofStatic(data.toMerkleProof()), "leaf " + i);
+        }
+
+        MerkleProof.ProofData tampered = tree.generateProof(4).toProofData();
+        tampered.leafHash = leafHash(99);
+        assertFalse(tree.verifyProof(tampered.toMerkleProof()));
+    }
+
+    @Test
+    @DisplayName("Fork-join builds produce the same root and proofs as sequential builds")
+    void testParallelMatchesSequential() {
+        Random random = new Random(7);
+
+        for (int round = 0; round < 200; round++) {
+            int size = 1 + random.nextInt(round < 150 ? 3_000 : 40_000);
+            int threshold = 2 + random.nextInt(round < 150 ? 64 : 20_000);
+            List<String> leaves = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                leaves.add(random.nextInt(50) == 0 ? "raw-" + i : leafHash(random.nextInt()));
+            }
+
+            MerkleTree<String> sequential = new MerkleTree<>(leaves, h -> h, Integer.MAX_VALUE);
+            MerkleTree<String> parallel = new MerkleTree<>(leaves, h -> h, threshold);
+
+            String context = "size " + size + ", threshold " + threshold;
+            assertEquals(sequential.getRootHash(), parallel.getRootHash(), context);
+            assertEquals(sequential.getTreeHeight(), parallel.getTreeHeight(), context);
+
+            int probe = random.nextInt(size);
+            assertEquals(sequential.generateProof(probe).toProofData().siblingHashes,
+                parallel.generateProof(probe).toProofData().siblingHashes, context);
+            assertTrue(parallel.verifyProof(parallel.generateProof(probe)), context);
+        }
+    }
+
+    @Test
+    @DisplayName("Empty and single-leaf trees keep their legacy roots")
+    void testDegenerateTrees() {
+        assertEquals(sha3Hex("EMPTY_TREE"), new MerkleTree<String>(List.of(), h -> h).getRootHash());
+        assertEquals(leafHash(7), new MerkleTree<>(List.of(leafHash(7)), h -> h).getRootHash());
+    }
+
+    private static String stringRoot(List<String> leaves) {
+        List<String> level = new ArrayList<>(leaves);
+        while (level.size() > 1) {
+            List<String> next = new ArrayList<>();
+            for (int i = 0; i < level.size(); i += 2) {
+                String left = level.get(i);
+                String right = i + 1 < level.size() ? level.get(i + 1) : left;
+                next.add(sha3Hex(left + right));
+            }
+            level = next;
+        }
+        return level.get(0);
+    }
+
+    private static String sha3Hex(String input) {
+        SHA3Digest digest = new SHA3Digest(256);
+        byte[] bytes = input.getBytes();
+        digest.update(bytes, 0, bytes.length);
+        byte[] hash = new byte[32];
+        digest.doFinal(hash, 0);
+        return Hex.toHexString(hash);
+    }
+
+    private static String leafHash(int i) {
+        return sha3Hex("leaf-" + i);
+    }
+}
@@ -0,0 +1,56 @@
+package io.aurigraph.v11.performance;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for XXHashService
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.include=XXHashServiceBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class XXHashServiceBenchmark {
+
+    private static final int BATCH_SIZE = 1024;
+
+    @Param({"16", "64", "256"})
+    int keyLength;
+
+    private XXHashService service;
+    private String[] keys;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new XXHashService();
+        keys = new String[BATCH_SIZE];
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            StringBuilder key = new StringBuilder("tx-").append(i).append('-');
+            while (key.length() < keyLength) {
+                key.append((char) ('a' + key.length() % 26));
+            }
+            keys[i] = key.substring(0, keyLength);
+        }
+    }
+
+    @Benchmark
+    public long hashString(Cursor cursor) {
+        return service.hashString(keys[cursor.next++ & (BATCH_SIZE - 1)]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] hashBatch() {
+        return service.hashBatch(keys);
+    }
+}
@@ -0,0 +1,74 @@
+package io.aurigraph.v11.queue;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for LockFreeTransactionQueue
+ *
+ * {@code roundTrip} measures a single thread filling and draining one
+ * batch; the {@code producerConsumer} group runs three producers against
+ * one batch consumer on a shared queue.
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.include=LockFreeTransactionQueueBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LockFreeTransactionQueueBenchmark {
+
+    private static final int BATCH_SIZE = 256;
+
+    @State(Scope.Thread)
+    public static class PrivateQueue {
+        LockFreeTransactionQueue queue;
+        LockFreeTransactionQueue.TransactionEntry[] entries;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            queue = new LockFreeTransactionQueue(BATCH_SIZE, 0);
+            entries = new LockFreeTransactionQueue.TransactionEntry[BATCH_SIZE];
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                entries[i] = new LockFreeTransactionQueue.TransactionEntry("tx-" + i, new byte[128], i % 4);
+            }
+        }
+    }
+
+    @State(Scope.Group)
+    public static class SharedQueue {
+        LockFreeTransactionQueue queue;
+        LockFreeTransactionQueue.TransactionEntry entry;
+
+        @Setup(Level.Iteration)
+        public void setUp() {
+            queue = new LockFreeTransactionQueue(BATCH_SIZE, 0);
+            entry = new LockFreeTransactionQueue.TransactionEntry("tx", new byte[128], 1);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public LockFreeTransactionQueue.TransactionEntry[] roundTrip(PrivateQueue state) {
+        for (LockFreeTransactionQueue.TransactionEntry e : state.entries) {
+            state.queue.enqueue(e);
+        }
+        return state.queue.dequeueBatch();
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(3)
+    public void enqueue(SharedQueue state) {
+        state.queue.enqueue(state.entry);
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public LockFreeTransactionQueue.TransactionEntry[] dequeueBatch(SharedQueue state) {
+        return state.queue.dequeueBatch();
+    }
+}
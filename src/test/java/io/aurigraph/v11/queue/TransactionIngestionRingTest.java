@@ -0,0 +1,176 @@
+package io.aurigraph.v11.queue;
+
+import io.aurigraph.v11.queue.TransactionIngestionRing.IngestionEvent;
+import io.aurigraph.v11.queue.TransactionIngestionRing.IngestionStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the Disruptor transaction ingestion ring
+ */
+public class TransactionIngestionRingTest {
+
+    private TransactionIngestionRing ring;
+
+    @AfterEach
+    void tearDown() {
+        if (ring != null) {
+            ring.shutdown();
+        }
+    }
+
+    /**
+     * Stages over a map: payloads are the UTF-8 ID, a signature is valid when it equals the payload
+     */
+    private static class MapStages implements TransactionIngestionRing.Stages {
+        final Map<String, Double> committed = new ConcurrentHashMap<>();
+        final Set<String> verifyThreads = ConcurrentHashMap.newKeySet();
+        final AtomicInteger batchTotal = new AtomicInteger();
+        volatile CountDownLatch commitGate = new CountDownLatch(0);
+
+        @Override
+        public boolean decode(IngestionEvent event) {
+            if (event.payload().length == 0) {
+                return false;
+            }
+            event.setTransaction(new String(event.payload(), StandardCharsets.UTF_8), event.payload().length);
+            return true;
+        }
+
+        @Override
+        public boolean verify(IngestionEvent event) {
+            verifyThreads.add(Thread.currentThread().getName());
+            return Arrays.equals(event.payload(), event.signature());
+        }
+
+        @Override
+        public int route(IngestionEvent event) {
+            return 0;
+        }
+
+        @Override
+        public void commit(IngestionEvent event) {
+            try {
+                commitGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            committed.put(event.id(), event.amount());
+        }
+
+        @Override
+        public void onCommitBatch(int count, long latencySumNanos, long maxLatencyNanos) {
+            assertTrue(latencySumNanos >= maxLatencyNanos);
+            batchTotal.addAndGet(count);
+        }
+    }
+
+    private static void awaitCommitted(TransactionIngestionRing ring, long expected) throws InterruptedException {
+        while (ring.getStats().committed() + ring.getStats().rejectedInvalid() < expected
+                || ring.getPendingCount() > 0) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("Trusted transactions from several producers are all committed")
+    void testConcurrentPublish() throws Exception {
+        MapStages stages = new MapStages();
+        ring = new TransactionIngestionRing(1024, 2, "blocking", stages);
+
+        int producers = 4;
+        int perProducer = 5000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.tryPublish("tx-" + producer + "-" + i, i)) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        awaitCommitted(ring, producers * perProducer);
+
+        assertEquals(producers * perProducer, stages.committed.size());
+        assertEquals(42.0, stages.committed.get("tx-3-42"));
+        assertEquals(producers * perProducer, stages.batchTotal.get());
+        assertTrue(stages.verifyThreads.isEmpty(), "Unsigned transactions skip verification");
+        IngestionStats stats = ring.getStats();
+        assertEquals(producers * perProducer, stats.published());
+        assertEquals(0, stats.pending());
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("Undecodable and badly signed payloads are rejected, others committed")
+    void testSignedPayloads() throws Exception {
+        MapStages stages = new MapStages();
+        ring = new TransactionIngestionRing(64, 3, "sleeping", stages);
+
+        byte[] good1 = "alice".getBytes(StandardCharsets.UTF_8);
+        byte[] good2 = "bob".getBytes(StandardCharsets.UTF_8);
+        byte[] good3 = "carol".getBytes(StandardCharsets.UTF_8);
+        assertTrue(ring.tryPublish(good1, good1, null));
+        assertTrue(ring.tryPublish(new byte[0], new byte[0], null));
+        assertTrue(ring.tryPublish(good2, good1, null));
+        assertTrue(ring.tryPublish(good2, good2, null));
+        assertTrue(ring.tryPublish(good3, good3, null));
+        awaitCommitted(ring, 5);
+
+        assertEquals(Set.of("alice", "bob", "carol"), stages.committed.keySet());
+        assertEquals(3.0, stages.committed.get("bob"));
+        assertEquals(2, ring.getStats().rejectedInvalid());
+        assertTrue(stages.verifyThreads.size() > 1, "Verification is spread over workers");
+    }
+
+    @Test
+    @Timeout(10)
+    @DisplayName("A full ring refuses new transactions until the pipeline catches up")
+    void testBackpressure() throws Exception {
+        MapStages stages = new MapStages();
+        stages.commitGate = new CountDownLatch(1);
+        ring = new TransactionIngestionRing(8, 1, "yielding", stages);
+
+        int accepted = 0;
+        while (ring.tryPublish("tx-" + accepted, 1.0)) {
+            accepted++;
+        }
+        assertEquals(8, accepted);
+        assertEquals(8, ring.getPendingCount());
+        assertEquals(1, ring.getStats().rejectedFull());
+
+        stages.commitGate.countDown();
+        awaitCommitted(ring, 8);
+        assertTrue(ring.tryPublish("tx-late", 1.0));
+        awaitCommitted(ring, 9);
+        assertEquals(9, stages.committed.size());
+    }
+
+    @Test
+    @DisplayName("Invalid ring configuration is rejected")
+    void testInvalidConfiguration() {
+        MapStages stages = new MapStages();
+        assertThrows(IllegalArgumentException.class, () -> new TransactionIngestionRing(1000, 1, "blocking", stages));
+        assertThrows(IllegalArgumentException.class, () -> new TransactionIngestionRing(1024, 0, "blocking", stages));
+        assertThrows(IllegalArgumentException.class, () -> new TransactionIngestionRing(1024, 1, "spinning", stages));
+    }
+}
@@ -0,0 +1,78 @@
+package io.aurigraph.v11.security;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Security collaborators of LevelDBService wired without CDI, for storage tests
+ */
+public final class LevelDBSecurityFixtures {
+
+    private LevelDBSecurityFixtures() {
+    }
+
+    /**
+     * AES-256-GCM encryption with a fresh random data key written to keyFile,
+     * so two calls with different files behave like two nodes
+     */
+    public static LevelDBEncryptionService encryption(Path keyFile) throws IOException {
+        if (!Files.exists(keyFile)) {
+            byte[] key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            Instant now = Instant.now();
+            ByteBuffer buffer = ByteBuffer.allocate(4 + 8 + 8 + key.length);
+            buffer.putInt(1);
+            buffer.putLong(now.toEpochMilli());
+            buffer.putLong(now.plus(90, ChronoUnit.DAYS).toEpochMilli());
+            buffer.put(key);
+            Files.write(keyFile, buffer.array());
+        }
+
+        SecurityAuditService audit = new SecurityAuditService();
+        LevelDBKeyManagementService keyManager = new LevelDBKeyManagementService();
+        keyManager.keyPath = keyFile.toString();
+        keyManager.keyRotationDays = 90;
+        keyManager.encryptionEnabled = true;
+        keyManager.auditService = audit;
+        keyManager.init();
+
+        LevelDBEncryptionService encryption = new LevelDBEncryptionService();
+        encryption.encryptionEnabled = true;
+        encryption.encryptionAlgorithm = "AES-256-GCM";
+        encryption.keyManager = keyManager;
+        encryption.auditService = audit;
+        return encryption;
+    }
+
+    public static LevelDBValidator validator() {
+        LevelDBValidator validator = new LevelDBValidator();
+        validator.auditService = new SecurityAuditService();
+        return validator;
+    }
+
+    /**
+     * Access control with RBAC disabled
+     */
+    public static LevelDBAccessControl openAccessControl() {
+        LevelDBAccessControl accessControl = new LevelDBAccessControl();
+        accessControl.rbacEnabled = false;
+        accessControl.auditService = new SecurityAuditService();
+        return accessControl;
+    }
+
+    /**
+     * Access control with RBAC enabled and no identity, so every check is denied
+     */
+    public static LevelDBAccessControl denyingAccessControl() {
+        LevelDBAccessControl accessControl = new LevelDBAccessControl();
+        accessControl.rbacEnabled = true;
+        accessControl.allowAnonymous = false;
+        accessControl.auditService = new SecurityAuditService();
+        return accessControl;
+    }
+}
@@ -0,0 +1,159 @@
+package io.aurigraph.v11.storage;
+
+import org.iq80.leveldb.DB;
+import org.iq80.leveldb.DBException;
+import org.iq80.leveldb.Options;
+import org.iq80.leveldb.impl.Iq80DBFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the LevelDB group-commit stage
+ */
+public class GroupCommitWriterTest {
+
+    @TempDir
+    Path dir;
+
+    private DB db;
+    private GroupCommitWriter writer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        db = Iq80DBFactory.factory.open(dir.toFile(), new Options().createIfMissing(true));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (writer != null) {
+            writer.close();
+        }
+        db.close();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String read(String key) {
+        byte[] value = db.get(bytes(key));
+        return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+    }
+
+    @Test
+    @DisplayName("Concurrent writers are coalesced into shared batches")
+    void testCoalescing() throws Exception {
+        writer = new GroupCommitWriter(db, 256, 2_000, false);
+        int threads = 32;
+        int writesPerThread = 200;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> callers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                callers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < writesPerThread; i++) {
+                        // Each caller waits for its own commit, as LevelDBService.put does
+                        writer.submit(bytes("k:" + thread + ":" + i), bytes("v" + i)).get(10, TimeUnit.SECONDS);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> caller : callers) {
+                caller.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        int total = threads * writesPerThread;
+        assertEquals(total, writer.getCommittedOps());
+        assertTrue(writer.getCommitCount() < total / 4,
+            writer.getCommitCount() + " commits for " + total + " writes");
+        assertTrue(writer.getMaxBatchSize() > 1);
+        assertEquals("v199", read("k:31:199"));
+        assertEquals("v0", read("k:0:0"));
+    }
+
+    @Test
+    @DisplayName("Writes from one caller apply in submission order, across batches")
+    void testOrdering() throws Exception {
+        // A small batch limit forces one caller's writes across many commits
+        writer = new GroupCommitWriter(db, 7, 500, false);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            futures.add(writer.submit(bytes("counter"), bytes(Integer.toString(i))));
+            futures.add(writer.submit(bytes("toggle"), i % 3 == 0 ? null : bytes(Integer.toString(i))));
+        }
+        futures.add(writer.submit(bytes("gone"), bytes("x")));
+        futures.add(writer.submit(bytes("gone"), null));
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        assertEquals("999", read("counter"));
+        assertNull(read("toggle"), "999 % 3 == 0 was a delete");
+        assertNull(read("gone"), "a delete after a put in the same batch wins");
+        assertTrue(writer.getCommitCount() >= 2_002 / 7);
+    }
+
+    @Test
+    @DisplayName("A failed commit fails every caller in the batch and the writer keeps going")
+    void testErrorsReachEachCaller() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        DB flaky = (DB) Proxy.newProxyInstance(DB.class.getClassLoader(), new Class<?>[] {DB.class},
+            (proxy, method, args) -> {
+                if (method.getName().equals("write") && failing.get()) {
+                    throw new DBException("disk full");
+                }
+                try {
+                    return method.invoke(db, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        writer = new GroupCommitWriter(flaky, 64, 5_000, false);
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(writer.submit(bytes("f" + i), bytes("v")));
+        }
+        for (CompletableFuture<Void> future : futures) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(DBException.class, failure.getCause());
+            assertEquals("disk full", failure.getCause().getMessage());
+        }
+        assertNull(read("f0"));
+
+        failing.set(false);
+        writer.submit(bytes("after"), bytes("ok")).get(10, TimeUnit.SECONDS);
+        assertEquals("ok", read("after"));
+
+        writer.close();
+        ExecutionException closed = assertThrows(ExecutionException.class,
+            () -> writer.submit(bytes("late"), bytes("x")).get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, closed.getCause());
+        writer = null;
+    }
+}
@@ -0,0 +1,88 @@
+package io.aurigraph.v11.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the JSON and Smile entity codecs
+ */
+public class JacksonEntityCodecTest {
+
+    enum Status { ACTIVE, BURNED }
+
+    record Holding(String tokenId, BigDecimal amount, Instant updatedAt, Status status,
+                   List<String> tags, Map<String, Long> limits, byte[] proof) {}
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .registerModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static final Holding HOLDING = new Holding(
+        "token-é中", new BigDecimal("12345678901234567890.000000001"),
+        Instant.parse("2025-10-08T12:34:56.789123Z"), Status.BURNED,
+        List.of("rwa", "gold"), Map.of("daily", 1_000L, "monthly", Long.MAX_VALUE),
+        new byte[] {0, 1, (byte) 0xFF, 0x3A});
+
+    private static void assertSameHolding(Holding expected, Holding actual) {
+        assertEquals(expected.tokenId(), actual.tokenId());
+        assertEquals(0, expected.amount().compareTo(actual.amount()));
+        assertEquals(expected.updatedAt(), actual.updatedAt());
+        assertEquals(expected.status(), actual.status());
+        assertEquals(expected.tags(), actual.tags());
+        assertEquals(expected.limits(), actual.limits());
+        assertArrayEquals(expected.proof(), actual.proof());
+    }
+
+    @Test
+    @DisplayName("Both codecs round-trip entities and tell their records apart")
+    void testRoundTrip() throws Exception {
+        EntityCodec<Holding> json = JacksonEntityCodec.json(MAPPER, Holding.class);
+        EntityCodec<Holding> smile = JacksonEntityCodec.smile(MAPPER, Holding.class);
+
+        byte[] jsonBytes = json.encode(HOLDING);
+        byte[] smileBytes = smile.encode(HOLDING);
+        assertSameHolding(HOLDING, json.decode(jsonBytes));
+        assertSameHolding(HOLDING, smile.decode(smileBytes));
+        // JSON records are exactly what the ObjectMapper wrote before codecs existed
+        assertArrayEquals(MAPPER.writeValueAsBytes(HOLDING), jsonBytes);
+
+        assertTrue(json.accepts(jsonBytes));
+        assertFalse(json.accepts(smileBytes));
+        assertTrue(smile.accepts(smileBytes));
+        assertFalse(smile.accepts(jsonBytes));
+        assertTrue(smileBytes.length < jsonBytes.length);
+
+        assertEquals("BURNED", json.readField(jsonBytes, "status").asText());
+        assertEquals("BURNED", smile.readField(smileBytes, "status").asText());
+        assertEquals("gold", smile.readField(smileBytes, "tags").get(1).asText());
+        assertNull(smile.readField(smileBytes, "missing"));
+    }
+
+    @Test
+    @DisplayName("Text content exposes every string of a record to the content checks")
+    void testTextContent() {
+        Holding hostile = new Holding("<script>alert(1)</script>", BigDecimal.ONE, Instant.EPOCH,
+            Status.ACTIVE, List.of("../../etc/passwd"), Map.of("javascript:void", 1L), new byte[0]);
+        EntityCodec<Holding> json = JacksonEntityCodec.json(MAPPER, Holding.class);
+        EntityCodec<Holding> smile = JacksonEntityCodec.smile(MAPPER, Holding.class);
+
+        String jsonText = json.textContent(json.encode(hostile));
+        assertEquals(new String(json.encode(hostile), StandardCharsets.UTF_8), jsonText);
+        String smileText = smile.textContent(smile.encode(hostile));
+        for (String fragment : List.of("<script", "../", "javascript:", "tokenId")) {
+            assertTrue(jsonText.contains(fragment), fragment);
+            assertTrue(smileText.contains(fragment), fragment);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package io.aurigraph.v11.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for secondary index maintenance in LevelDBRepository
+ */
+public class LevelDBRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private LevelDBService levelDB;
+
+    public static class Item {
+        public String id;
+        public String owner;
+        public List<String> tags;
+
+        public Item() {
+        }
+
+        Item(String id, String owner, String... tags) {
+            this.id = id;
+            this.owner = owner;
+            this.tags = List.of(tags);
+        }
+    }
+
+    /**
+     * Repository over "item:" records; the declared indexes are configurable
+     */
+    static final class ItemRepository extends LevelDBRepository<Item, String> {
+
+        private final Map<String, Function<Item, Object>> indexes;
+
+        ItemRepository(LevelDBService levelDB, Map<String, Function<Item, Object>> indexes) {
+            this.levelDB = levelDB;
+            this.objectMapper = new ObjectMapper();
+            this.codecFormat = "json";
+            this.indexes = indexes;
+        }
+
+        @Override
+        protected Class<Item> getEntityClass() {
+            return Item.class;
+        }
+
+        @Override
+        protected String getKeyPrefix() {
+            return "item:";
+        }
+
+        @Override
+        protected String getId(Item entity) {
+            return entity.id;
+        }
+
+        @Override
+        protected Map<String, Function<Item, Object>> getIndexes() {
+            return indexes;
+        }
+    }
+
+    private static final Map<String, Function<Item, Object>> OWNER_AND_TAG =
+        Map.of("owner", item -> item.owner, "tag", item -> item.tags);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        levelDB = LevelDBTestSupport.open(dir, "repo", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        levelDB.cleanup();
+    }
+
+    private static List<String> ids(List<Item> items) {
+        return items.stream().map(item -> item.id).toList();
+    }
+
+    private long indexEntries(String field) {
+        return levelDB.countKeys("idx:item:" + field + ":").await().indefinitely();
+    }
+
+    @Test
+    @DisplayName("Index entries follow inserts, updates and deletes")
+    void testIndexMaintenance() {
+        ItemRepository repository = new ItemRepository(levelDB, OWNER_AND_TAG);
+        assertEquals(0L, repository.ensureIndexes().await().indefinitely());
+
+        repository.persist(new Item("a", "alice", "x", "y")).await().indefinitely();
+        repository.persist(new Item("b", "alice", "y")).await().indefinitely();
+        repository.persistAll(List.of(new Item("c", "carol"), new Item("d", "dave", "x"))).await().indefinitely();
+        assertEquals(List.of("a", "b"), ids(repository.findByIndex("owner", "alice").await().indefinitely()));
+        assertEquals(List.of("a", "d"), ids(repository.findByIndex("tag", "x").await().indefinitely()));
+
+        repository.persist(new Item("a", "bob", "y")).await().indefinitely();
+        assertEquals(List.of("b"), ids(repository.findByIndex("owner", "alice").await().indefinitely()));
+        assertEquals(List.of("a"), ids(repository.findByIndex("owner", "bob").await().indefinitely()));
+        assertEquals(List.of("d"), ids(repository.findByIndex("tag", "x").await().indefinitely()));
+        assertEquals(2L, repository.countByIndex("tag", "y").await().indefinitely());
+        assertEquals(4, indexEntries("owner"), "no stale owner entries after the update");
+
+        repository.deleteById("b").await().indefinitely();
+        repository.deleteEntities(List.of(new Item("d", "someone-else"))).await().indefinitely();
+        assertTrue(repository.findByIndex("owner", "alice").await().indefinitely().isEmpty());
+        assertEquals(0L, repository.countByIndex("tag", "x").await().indefinitely());
+        assertEquals(2, indexEntries("owner"));
+        assertEquals(1, indexEntries("tag"));
+    }
+
+    @Test
+    @DisplayName("Concurrent updates to one entity leave exactly its current index entries")
+    void testConcurrentUpdates() throws Exception {
+        ItemRepository repository = new ItemRepository(levelDB, OWNER_AND_TAG);
+        repository.ensureIndexes().await().indefinitely();
+        List<String> owners = List.of("alice", "bob", "carol", "dave");
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 100; i++) {
+                        String owner = owners.get(ThreadLocalRandom.current().nextInt(owners.size()));
+                        repository.persist(new Item("shared", owner, owner + "-tag")).await().indefinitely();
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Item stored = repository.findById("shared").await().indefinitely().orElseThrow();
+        assertEquals(1, indexEntries("owner"));
+        assertEquals(1, indexEntries("tag"));
+        for (String owner : owners) {
+            long expected = owner.equals(stored.owner) ? 1 : 0;
+            assertEquals(expected, repository.countByIndex("owner", owner).await().indefinitely());
+            assertEquals(expected, repository.countByIndex("tag", owner + "-tag").await().indefinitely());
+        }
+    }
+
+    @Test
+    @DisplayName("Records written before an index existed are found by scan, then backfilled")
+    void testBackfill() {
+        ItemRepository unindexed = new ItemRepository(levelDB, Map.of());
+        for (int i = 0; i < 2_500; i++) {
+            unindexed.persist(new Item("item-" + i, i % 10 == 0 ? "alice" : "bob")).await().indefinitely();
+        }
+
+        ItemRepository repository = new ItemRepository(levelDB, Map.of("owner", item -> item.owner));
+        assertFalse(repository.indexesReady());
+        assertEquals(250L, repository.countByIndex("owner", "alice").await().indefinitely(), "full-scan fallback");
+        assertEquals(3, repository.findByIndex("owner", "alice", 1, 3).await().indefinitely().size());
+
+        assertEquals(2_500L, repository.ensureIndexes().await().indefinitely());
+        assertTrue(repository.indexesReady());
+        assertEquals(2_500, indexEntries("owner"));
+        assertEquals(250L, repository.countByIndex("owner", "alice").await().indefinitely());
+        assertEquals(-1L, repository.ensureIndexes().await().indefinitely(), "already current");
+
+        // Declaring another index makes the stored version stale
+        ItemRepository extended = new ItemRepository(levelDB, OWNER_AND_TAG);
+        assertFalse(extended.indexesReady());
+        assertEquals(2_500L, extended.ensureIndexes().await().indefinitely());
+        assertTrue(new ItemRepository(levelDB, OWNER_AND_TAG).indexesReady());
+        assertFalse(new ItemRepository(levelDB, Map.of("owner", item -> item.owner)).indexesReady());
+    }
+
+    @Test
+    @DisplayName("Codec migration converts records to Smile and back, keeping reads and indexes intact")
+    void testCodecMigration() {
+        ItemRepository repository = new ItemRepository(levelDB, OWNER_AND_TAG);
+        repository.ensureIndexes().await().indefinitely();
+        for (int i = 0; i < 1_200; i++) {
+            repository.persist(new Item("item-" + i, i % 3 == 0 ? "alice" : "bob", "t" + (i % 7))).await().indefinitely();
+        }
+        assertTrue(levelDB.get("item:item-5").await().indefinitely().startsWith("{"), "JSON by default");
+
+        repository.codecFormat = "binary";
+        repository.persist(new Item("item-0", "carol")).await().indefinitely();
+        assertEquals("carol", repository.findById("item-0").await().indefinitely().orElseThrow().owner);
+        assertEquals("bob", repository.findById("item-1").await().indefinitely().orElseThrow().owner, "mixed formats read");
+
+        assertEquals(1_199L, repository.migrateCodec().await().indefinitely());
+        assertEquals(0L, repository.migrateCodec().await().indefinitely(), "idempotent");
+        assertTrue(levelDB.streamByPrefix("item:").collect().asList().await().indefinitely().stream()
+            .allMatch(entry -> JacksonEntityCodec.isSmile(entry.value())));
+        assertEquals(399L, repository.countByIndex("owner", "alice").await().indefinitely());
+
+        // Rollback path: back to JSON before downgrading
+        repository.codecFormat = "json";
+        assertEquals(1_200L, repository.migrateCodec().await().indefinitely());
+        assertTrue(levelDB.get("item:item-1199").await().indefinitely().startsWith("{"));
+        assertEquals(List.of("t3"), repository.findById("item-3").await().indefinitely().orElseThrow().tags);
+        assertEquals(171L, repository.countByIndex("tag", "t0").await().indefinitely());
+    }
+
+    @Test
+    @DisplayName("Entity writes keep the dangerous-content checks in both formats")
+    void testEntityContentValidation() {
+        ItemRepository repository = new ItemRepository(levelDB, OWNER_AND_TAG);
+        for (String format : List.of("json", "binary")) {
+            repository.codecFormat = format;
+            assertThrows(RuntimeException.class,
+                () -> repository.persist(new Item("x", "<script>alert(1)</script>")).await().indefinitely(), format);
+            assertThrows(RuntimeException.class,
+                () -> repository.persistAll(List.of(new Item("y", "ok", "javascript:alert(1)"))).await().indefinitely(), format);
+            assertFalse(repository.existsById("x").await().indefinitely());
+            assertFalse(repository.existsById("y").await().indefinitely());
+            repository.persist(new Item("z", "plain owner", "tag")).await().indefinitely();
+        }
+        assertEquals(1L, repository.count().await().indefinitely());
+    }
+}
@@ -0,0 +1,336 @@
+package io.aurigraph.v11.storage;
+
+import io.aurigraph.v11.security.LevelDBSecurityFixtures;
+import io.smallrye.mutiny.Uni;
+import org.iq80.leveldb.Snapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for LevelDBService range scans, group-committed writes and checkpoints
+ */
+public class LevelDBServiceTest {
+
+    private static final int ENTRIES = 2_000;
+
+    @TempDir
+    Path dir;
+
+    private LevelDBService levelDB;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        levelDB = LevelDBTestSupport.open(dir, "node", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        levelDB.cleanup();
+    }
+
+    private static String key(int i) {
+        return String.format("tx:%05d", i);
+    }
+
+    private void writeEntries() {
+        for (int i = 0; i < ENTRIES; i++) {
+            levelDB.put(key(i), "{\"n\":" + i + "}").await().indefinitely();
+        }
+        levelDB.put("txz:other", "{}").await().indefinitely();
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long reads() {
+        return levelDB.getStats().await().indefinitely().readCount();
+    }
+
+    @Test
+    @DisplayName("Streams decrypt lazily in key order and stop reading when cancelled")
+    void testStreaming() {
+        writeEntries();
+
+        long before = reads();
+        List<LevelDBService.Entry> first = levelDB.streamByPrefix("tx:")
+            .select().first(5)
+            .collect().asList().await().indefinitely();
+        assertEquals(List.of(key(0), key(1), key(2), key(3), key(4)),
+            first.stream().map(entry -> text(entry.key())).toList());
+        assertEquals("{\"n\":3}", text(first.get(3).value()));
+        assertTrue(reads() - before <= 10, "only the requested entries are read");
+
+        Map<String, String> scanned = levelDB.scanByPrefix("tx:").await().indefinitely();
+        assertEquals(ENTRIES, scanned.size());
+        assertEquals("{\"n\":1999}", scanned.get(key(1999)), "values come back decrypted");
+        assertEquals(key(0), scanned.keySet().iterator().next());
+    }
+
+    @Test
+    @DisplayName("startAfter pages through a prefix without gaps or repeats")
+    void testStartAfterPaging() {
+        writeEntries();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        while (true) {
+            List<String> page = levelDB.streamByPrefix("tx:", cursor)
+                .select().first(300)
+                .map(entry -> text(entry.key()))
+                .collect().asList().await().indefinitely();
+            if (page.isEmpty()) {
+                break;
+            }
+            seen.addAll(page);
+            cursor = page.get(page.size() - 1);
+        }
+        assertEquals(ENTRIES, seen.size());
+        for (int i = 0; i < ENTRIES; i++) {
+            assertEquals(key(i), seen.get(i));
+        }
+
+        // A cursor before the prefix starts at the prefix; one past it yields nothing
+        assertEquals(ENTRIES, levelDB.streamByPrefix("tx:", "a").collect().asList().await().indefinitely().size());
+        assertTrue(levelDB.streamByPrefix("tx:", "tx:~").collect().asList().await().indefinitely().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Snapshot scans keep the view from when the snapshot was taken")
+    void testSnapshotReads() throws Exception {
+        writeEntries();
+
+        try (Snapshot snapshot = levelDB.createSnapshot()) {
+            levelDB.put(key(ENTRIES), "{\"n\":-1}").await().indefinitely();
+            levelDB.put(key(0), "{\"n\":\"changed\"}").await().indefinitely();
+            levelDB.delete(key(1)).await().indefinitely();
+
+            List<LevelDBService.Entry> old = levelDB
+                .streamByPrefix("tx:".getBytes(StandardCharsets.UTF_8), null, snapshot)
+                .collect().asList().await().indefinitely();
+            assertEquals(ENTRIES, old.size());
+            assertEquals("{\"n\":0}", text(old.get(0).value()));
+            assertEquals(key(1), text(old.get(1).key()));
+
+            List<byte[]> oldKeys = levelDB
+                .streamKeysByPrefix("tx:".getBytes(StandardCharsets.UTF_8), key(1998).getBytes(StandardCharsets.UTF_8), snapshot)
+                .collect().asList().await().indefinitely();
+            assertEquals(List.of(key(1999)), oldKeys.stream().map(LevelDBServiceTest::text).toList());
+        }
+
+        Map<String, String> current = levelDB.scanByPrefix("tx:").await().indefinitely();
+        assertEquals(ENTRIES, current.size());
+        assertEquals("{\"n\":\"changed\"}", current.get(key(0)));
+        assertFalse(current.containsKey(key(1)));
+    }
+
+    @Test
+    @DisplayName("Value scans need read permission, key listings do not")
+    void testScanPermissions() {
+        writeEntries();
+        levelDB.accessControl = LevelDBSecurityFixtures.denyingAccessControl();
+
+        assertEquals(ENTRIES, levelDB.getKeysByPrefix("tx:").await().indefinitely().size());
+        assertThrows(RuntimeException.class, () -> levelDB.scanByPrefix("tx:").await().indefinitely());
+        assertThrows(RuntimeException.class,
+            () -> levelDB.streamByPrefix("tx:").collect().first().await().indefinitely());
+    }
+
+    @Test
+    @DisplayName("Concurrent puts share group commits and are readable once they complete")
+    void testGroupCommittedPuts() {
+        List<Uni<Void>> puts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            puts.add(levelDB.put(key(i), "{\"n\":" + i + "}"));
+        }
+        Uni.join().all(puts).andFailFast().await().indefinitely();
+
+        LevelDBService.StorageStats stats = levelDB.getStats().await().indefinitely();
+        assertEquals(500, stats.writeCount());
+        assertTrue(stats.groupCommits() < 500 && stats.maxGroupCommitSize() > 1,
+            stats.groupCommits() + " commits, max " + stats.maxGroupCommitSize());
+        assertEquals("{\"n\":499}", levelDB.get(key(499)).await().indefinitely());
+    }
+
+    private byte[] exportCheckpoint() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        levelDB.exportCheckpoint(out);
+        return out.toByteArray();
+    }
+
+    private static void copyTree(Path source, Path target) throws IOException {
+        try (Stream<Path> files = Files.walk(source)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, target.resolve(source.relativize(file).toString()));
+            }
+        }
+    }
+
+    private static void assertNoCheckpointLeftovers(Path dir, String name) {
+        for (String suffix : List.of(".checkpoint-staging", ".checkpoint-retired", ".checkpoint-complete")) {
+            assertFalse(Files.exists(dir.resolve(name + suffix)), suffix);
+        }
+    }
+
+    @Test
+    @DisplayName("Checkpoints move between nodes with different encryption keys")
+    void testCheckpointAcrossNodes() throws Exception {
+        writeEntries();
+        byte[] document = "{\"owner\":\"alice\"}".getBytes(StandardCharsets.UTF_8);
+        levelDB.secureBatchWrite(Map.of("doc:1", document), List.of(), List.of("idx:doc:owner:alice:1"))
+            .await().indefinitely();
+        byte[] checkpoint = exportCheckpoint();
+
+        LevelDBService other = LevelDBTestSupport.open(dir, "other", true);
+        try {
+            other.put("stale", "{}").await().indefinitely();
+            assertEquals(ENTRIES + 3, other.importCheckpoint(new ByteArrayInputStream(checkpoint)));
+
+            assertEquals("{\"n\":5}", other.get(key(5)).await().indefinitely(), "re-encrypted with the receiver's key");
+            assertArrayEquals(document, other.getBytes("doc:1".getBytes(StandardCharsets.UTF_8)).await().indefinitely());
+            assertTrue(other.exists("idx:doc:owner:alice:1").await().indefinitely());
+            assertNull(other.get("stale").await().indefinitely(), "the old state is replaced");
+            other.put("after", "{}").await().indefinitely();
+        } finally {
+            other.cleanup();
+        }
+        assertNoCheckpointLeftovers(dir, "other");
+
+        LevelDBService reopened = LevelDBTestSupport.open(dir, "other", true);
+        try {
+            assertEquals(ENTRIES, reopened.scanByPrefix("tx:").await().indefinitely().size());
+            assertEquals("{}", reopened.get("after").await().indefinitely());
+        } finally {
+            reopened.cleanup();
+        }
+
+        // Checkpoints of the old formats were not sealed with the cluster key
+        for (int magic : new int[] {0x4C444243, 0x4C444250}) {
+            byte[] legacy = Arrays.copyOf(checkpoint, checkpoint.length);
+            ByteBuffer.wrap(legacy).putInt(magic);
+            assertThrows(IOException.class, () -> levelDB.importCheckpoint(new ByteArrayInputStream(legacy)));
+        }
+    }
+
+    @Test
+    @DisplayName("Checkpoints are sealed with the cluster key and refused without it")
+    void testCheckpointSealing() throws Exception {
+        levelDB.put("secret", "{\"card\":\"4111-1111\"}").await().indefinitely();
+        byte[] checkpoint = exportCheckpoint();
+        String raw = new String(checkpoint, StandardCharsets.ISO_8859_1);
+        assertFalse(raw.contains("secret") || raw.contains("4111-1111"), "keys and values are not readable");
+
+        // A node holding another cluster key cannot read it
+        LevelDBService outsider = LevelDBTestSupport.open(dir, "outsider", true);
+        try {
+            outsider.put("state", "{}").await().indefinitely();
+            byte[] otherKey = new byte[32];
+            Arrays.fill(otherKey, (byte) 1);
+            outsider.checkpointKey = Optional.of(Base64.getEncoder().encodeToString(otherKey));
+            assertThrows(IOException.class, () -> outsider.importCheckpoint(new ByteArrayInputStream(checkpoint)));
+
+            // Altered frames fail authentication
+            outsider.checkpointKey = Optional.of(LevelDBTestSupport.CHECKPOINT_KEY);
+            byte[] altered = checkpoint.clone();
+            altered[altered.length - 20] ^= 1;
+            assertThrows(IOException.class, () -> outsider.importCheckpoint(new ByteArrayInputStream(altered)));
+            assertEquals("{}", outsider.get("state").await().indefinitely());
+            assertNoCheckpointLeftovers(dir, "outsider");
+
+            // Nothing is written in plaintext without a key
+            outsider.checkpointKey = Optional.empty();
+            assertThrows(IOException.class, () -> outsider.exportCheckpoint(new ByteArrayOutputStream()));
+        } finally {
+            outsider.cleanup();
+        }
+    }
+
+    @Test
+    @DisplayName("Node-local keys stay out of checkpoints and survive an import")
+    void testCheckpointSkipsLocalKeys() throws Exception {
+        writeEntries();
+        levelDB.put("tx:evicted:leader-tx", "{}").await().indefinitely();
+        byte[] checkpoint = exportCheckpoint();
+
+        LevelDBService other = LevelDBTestSupport.open(dir, "other", true);
+        try {
+            other.put("tx:evicted:own-tx", "{\"own\":true}").await().indefinitely();
+            other.secureBatchWrite(Map.of(), List.of(), List.of("tx:evicted-at:0000000000001:own-tx"))
+                .await().indefinitely();
+            other.put("tx:replicated-before", "{}").await().indefinitely();
+            assertEquals(ENTRIES + 1, other.importCheckpoint(new ByteArrayInputStream(checkpoint)));
+
+            assertNull(other.get("tx:evicted:leader-tx").await().indefinitely(), "not exported");
+            assertEquals("{\"own\":true}", other.get("tx:evicted:own-tx").await().indefinitely());
+            assertTrue(other.exists("tx:evicted-at:0000000000001:own-tx").await().indefinitely());
+            assertNull(other.get("tx:replicated-before").await().indefinitely(), "replicated keys are replaced");
+            assertEquals("{\"n\":7}", other.get(key(7)).await().indefinitely());
+        } finally {
+            other.cleanup();
+        }
+    }
+
+    @Test
+    @DisplayName("An interrupted import keeps the old state and a committed one is finished on restart")
+    void testInterruptedImport() throws Exception {
+        writeEntries();
+        byte[] checkpoint = exportCheckpoint();
+
+        LevelDBService other = LevelDBTestSupport.open(dir, "other", true);
+        other.put("state", "{\"v\":1}").await().indefinitely();
+        // The stream breaks halfway through
+        byte[] truncated = Arrays.copyOf(checkpoint, checkpoint.length / 2);
+        assertThrows(IOException.class, () -> other.importCheckpoint(new ByteArrayInputStream(truncated)));
+        assertEquals("{\"v\":1}", other.get("state").await().indefinitely());
+        assertNull(other.get(key(0)).await().indefinitely());
+        other.cleanup();
+        assertNoCheckpointLeftovers(dir, "other");
+
+        // Crash with a half-written staging copy and no commit marker: it is discarded
+        Path live = dir.resolve("other");
+        copyTree(live, dir.resolve("other.checkpoint-staging"));
+        LevelDBService restarted = LevelDBTestSupport.open(dir, "other", true);
+        assertEquals("{\"v\":1}", restarted.get("state").await().indefinitely());
+        restarted.put("state", "{\"v\":2}").await().indefinitely();
+        restarted.cleanup();
+        assertNoCheckpointLeftovers(dir, "other");
+
+        // Crash after the commit marker, midway through the directory swap: the staged state wins
+        Path staged = dir.resolve("staged");
+        copyTree(live, staged);
+        LevelDBService diverged = LevelDBTestSupport.open(dir, "other", true);
+        diverged.put("state", "{\"v\":3}").await().indefinitely();
+        diverged.cleanup();
+        Files.move(staged, dir.resolve("other.checkpoint-staging"));
+        Files.createFile(dir.resolve("other.checkpoint-complete"));
+        Files.move(live, dir.resolve("other.checkpoint-retired"));
+
+        LevelDBService recovered = LevelDBTestSupport.open(dir, "other", true);
+        try {
+            assertEquals("{\"v\":2}", recovered.get("state").await().indefinitely());
+        } finally {
+            recovered.cleanup();
+        }
+        assertNoCheckpointLeftovers(dir, "other");
+    }
+}
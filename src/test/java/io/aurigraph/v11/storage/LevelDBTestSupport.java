@@ -0,0 +1,50 @@
+package io.aurigraph.v11.storage;
+
+import io.aurigraph.v11.security.LevelDBSecurityFixtures;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Opens real LevelDBService instances in a temporary directory
+ */
+public final class LevelDBTestSupport {
+
+    // The cluster checkpoint key every test node shares
+    static final String CHECKPOINT_KEY = Base64.getEncoder().encodeToString(new byte[32]);
+
+    private LevelDBTestSupport() {
+    }
+
+    /**
+     * Open a database under dir/name, encrypted with dir/name.key (created on first use)
+     */
+    public static LevelDBService open(Path dir, String name, boolean groupCommit) throws IOException {
+        LevelDBService service = new LevelDBService();
+        service.dataPath = dir.resolve(name).toString();
+        service.cacheSizeMB = 8;
+        service.writeBufferMB = 4;
+        service.compressionEnabled = false;
+        service.groupCommitEnabled = groupCommit;
+        service.groupCommitMaxOps = 64;
+        service.groupCommitMaxDelayMicros = 200;
+        service.groupCommitSync = false;
+        service.checkpointKey = Optional.of(CHECKPOINT_KEY);
+        service.localPrefixes = List.of("tx:evicted:", "tx:evicted-at:");
+        service.encryptionService = LevelDBSecurityFixtures.encryption(dir.resolve(name + ".key"));
+        service.validator = LevelDBSecurityFixtures.validator();
+        service.accessControl = LevelDBSecurityFixtures.openAccessControl();
+        service.init();
+        return service;
+    }
+
+    /**
+     * Close a database, as the container would
+     */
+    public static void close(LevelDBService service) {
+        service.cleanup();
+    }
+}
@@ -0,0 +1,69 @@
+package io.aurigraph.v11.storage;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * JMH benchmarks for MemoryMappedTransactionLog batch appends
+ *
+ * Each trial logs into a fresh temporary directory that is deleted
+ * afterwards. Iterations are short because every operation grows the log.
+ *
+ * Run with {@code mvn -Pjmh test -Djmh.include=MemoryMappedTransactionLogBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MemoryMappedTransactionLogBenchmark {
+
+    @Param({"1", "64", "1024"})
+    int batchSize;
+
+    @Param({"256"})
+    int payloadSize;
+
+    private Path directory;
+    private MemoryMappedTransactionLog log;
+    private List<MemoryMappedTransactionLog.TransactionEntry> batch;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("tx-log-bench");
+        log = new MemoryMappedTransactionLog();
+        log.logDirectory = directory.toString();
+        log.segmentSizeMB = 64;
+        log.maxSegments = 64;
+        log.bufferSize = 65536;
+        log.syncIntervalMs = 1000;
+        log.initialize();
+
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(new MemoryMappedTransactionLog.TransactionEntry("tx-" + i, new byte[payloadSize], 0));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.shutdown();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<Long> writeBatch() {
+        return log.writeBatch(batch).join();
+    }
+}
@@ -0,0 +1,302 @@
+package io.aurigraph.v11.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for MemoryMappedTransactionLog segment rollover, recovery and replay
+ */
+public class MemoryMappedTransactionLogTest {
+
+    @TempDir
+    Path dir;
+
+    private MemoryMappedTransactionLog log;
+    private int maxSegments = 64;
+
+    @AfterEach
+    void tearDown() {
+        if (log != null) {
+            log.shutdown();
+        }
+    }
+
+    private MemoryMappedTransactionLog open() {
+        MemoryMappedTransactionLog opened = new MemoryMappedTransactionLog();
+        opened.logDirectory = dir.toString();
+        opened.segmentSizeMB = 1;
+        opened.maxSegments = maxSegments;
+        opened.bufferSize = 65536;
+        opened.syncIntervalMs = 60_000;
+        opened.initialize();
+        return opened;
+    }
+
+    private void restart() {
+        log.shutdown();
+        log = open();
+    }
+
+    private static byte[] data(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(MemoryMappedTransactionLog.TransactionEntry entry) {
+        return new String(entry.data(), StandardCharsets.UTF_8);
+    }
+
+    private List<String> replayedIds() {
+        List<String> ids = new ArrayList<>();
+        log.replay(entry -> ids.add(entry.id()));
+        return ids;
+    }
+
+    private MemoryMappedTransactionLog.LogPosition write(String id, String value) {
+        log.writeTransaction(id, data(value)).join();
+        return log.locate(id).orElseThrow();
+    }
+
+    /**
+     * Overwrite bytes of a segment file while the log is shut down, as a crash or bad disk would leave them
+     */
+    private void patch(long segmentIndex, long offset, byte[] bytes) throws IOException {
+        Path segment = dir.resolve(String.format("transaction_log_%06d.dat", segmentIndex));
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(offset);
+            file.write(bytes);
+        }
+    }
+
+    private static byte[] intBytes(int value) {
+        return ByteBuffer.allocate(4).putInt(value).array();
+    }
+
+    private static byte[] payload(int writer, int sequence, int size) {
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(writer).putInt(sequence);
+        return buffer.array();
+    }
+
+    private static int sequence(MemoryMappedTransactionLog.TransactionEntry entry) {
+        return ByteBuffer.wrap(entry.data()).getInt(4);
+    }
+
+    @Test
+    @DisplayName("Rapid rollovers keep later records in higher segments for replay and lookup")
+    void testRolloverOrdering() throws Exception {
+        log = open();
+        int writers = 8;
+        int writesPerWriter = 300;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < writesPerWriter; i++) {
+                        // Every writer keeps overwriting one ID; 20KB records roll a 1MB segment every ~50 writes
+                        log.writeTransaction("acct-" + writer, payload(writer, i, 20_000)).join();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertTrue(log.getStats().activeSegments() > 40, log.getStats().activeSegments() + " segments");
+
+        Map<String, Integer> lastSeen = new HashMap<>();
+        long replayed = log.replay(entry -> {
+            int previous = lastSeen.getOrDefault(entry.id(), -1);
+            assertEquals(previous + 1, sequence(entry), "replay order for " + entry.id());
+            lastSeen.put(entry.id(), sequence(entry));
+        });
+        assertEquals((long) writers * writesPerWriter, replayed);
+
+        for (int w = 0; w < writers; w++) {
+            MemoryMappedTransactionLog.TransactionEntry latest =
+                log.findTransaction("acct-" + w).join().orElseThrow();
+            assertEquals(writesPerWriter - 1, sequence(latest), "latest record for acct-" + w);
+        }
+    }
+
+    @Test
+    @DisplayName("A torn tail is cut off at the last intact record and writing resumes in a new segment")
+    void testTornTail() throws Exception {
+        log = open();
+        MemoryMappedTransactionLog.LogPosition last = null;
+        for (int i = 0; i < 10; i++) {
+            last = write("tx-" + i, "value-" + i);
+        }
+        log.shutdown();
+
+        // A record that was reserved and half copied when the process died: header present, payload missing
+        long tail = last.offset() + 48; // 32-byte header + "tx-9" + "value-9", 8-byte aligned
+        ByteBuffer header = ByteBuffer.allocate(32);
+        header.putLong(System.nanoTime()).putInt(1_000).putInt(0x434F4D54).putInt(0xBADC0DE).putInt(5).putLong(42L);
+        patch(last.segmentIndex(), tail, header.array());
+
+        log = open();
+        assertEquals(10L, log.getStats().recoveredTransactions());
+        assertEquals(1L, log.getStats().truncatedSegments());
+        assertEquals(10, replayedIds().size());
+
+        MemoryMappedTransactionLog.LogPosition next = write("tx-10", "value-10");
+        assertTrue(next.segmentIndex() > last.segmentIndex(), "recovered segments are never appended to");
+        restart();
+        assertEquals(0L, log.getStats().truncatedSegments(), "the seal persisted");
+        assertEquals(11, replayedIds().size());
+        assertEquals("value-10", text(log.findTransaction("tx-10").join().orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("A record failing its CRC32C ends the recovered segment and is never returned")
+    void testChecksumMismatch() throws Exception {
+        log = open();
+        write("a", "alpha");
+        MemoryMappedTransactionLog.LogPosition b = write("b", "bravo");
+        write("c", "charlie");
+        log.shutdown();
+
+        // Flip one payload byte of "b"; its marker still says committed
+        patch(b.segmentIndex(), b.offset() + 32 + 1, data("X"));
+
+        log = open();
+        assertEquals(1L, log.getStats().recoveredTransactions());
+        assertEquals(1L, log.getStats().truncatedSegments());
+        assertEquals(List.of("a"), replayedIds());
+        assertTrue(log.findTransaction("b").join().isEmpty());
+        assertTrue(log.locate("c").isEmpty());
+        assertEquals("alpha", text(log.findTransaction("a").join().orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Unpublished records left by dead writers are skipped without losing the records after them")
+    void testUnpublishedRecords() throws Exception {
+        log = open();
+        List<MemoryMappedTransactionLog.LogPosition> positions = new ArrayList<>();
+        for (String id : List.of("a", "b", "c", "d", "e")) {
+            positions.add(write(id, "value-" + id));
+        }
+        log.shutdown();
+
+        // Two consecutive writers copied their records but never published the commit marker
+        patch(positions.get(1).segmentIndex(), positions.get(1).offset() + 12, intBytes(0));
+        patch(positions.get(2).segmentIndex(), positions.get(2).offset() + 12, intBytes(0));
+
+        log = open();
+        assertEquals(3L, log.getStats().recoveredTransactions());
+        assertEquals(0L, log.getStats().truncatedSegments());
+        assertEquals(List.of("a", "d", "e"), replayedIds());
+        assertTrue(log.findTransaction("b").join().isEmpty());
+        assertTrue(log.findTransaction("c").join().isEmpty());
+        assertEquals("value-e", text(log.findTransaction("e").join().orElseThrow()));
+    }
+
+    @Test
+    @DisplayName("Index lookups return the latest record, across restarts and after an index rebuild")
+    void testIndexLookup() throws Exception {
+        log = open();
+        write("acct", "v1");
+        log.writeBatch(List.of(
+            new MemoryMappedTransactionLog.TransactionEntry("batch-1", data("b1"), 0),
+            new MemoryMappedTransactionLog.TransactionEntry("acct", data("v2"), 0),
+            new MemoryMappedTransactionLog.TransactionEntry("batch-2", data("b2"), 0))).join();
+        assertEquals("v2", text(log.findTransaction("acct").join().orElseThrow()));
+        assertEquals("b2", text(log.findTransaction("batch-2").join().orElseThrow()));
+        assertTrue(log.locate("unknown").isEmpty());
+
+        restart();
+        write("acct", "v3");
+        assertEquals("v3", text(log.findTransaction("acct").join().orElseThrow()));
+        log.shutdown();
+
+        // Clear the clean-shutdown flag, as a crash would leave it
+        try (RandomAccessFile index = new RandomAccessFile(dir.resolve("transaction_log.idx").toFile(), "rw")) {
+            index.seek(12);
+            index.writeInt(0);
+        }
+        log = open();
+        assertEquals("v3", text(log.findTransaction("acct").join().orElseThrow()), "rebuilt from the segments");
+        assertEquals("b1", text(log.findTransaction("batch-1").join().orElseThrow()));
+        assertTrue(log.findTransaction("unknown").join().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Segments beyond the maximum are deleted with their index entries")
+    void testMaxSegments() throws Exception {
+        maxSegments = 3;
+        log = open();
+        // 20KB records fill a 1MB segment every ~50 writes
+        for (int i = 0; i < 400; i++) {
+            log.writeTransaction("tx-" + i, payload(0, i, 20_000)).join();
+        }
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (log.getStats().activeSegments() > maxSegments && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(log.getStats().activeSegments() <= maxSegments, log.getStats().activeSegments() + " segments");
+        assertTrue(log.getStats().droppedSegments() > 0);
+        try (Stream<Path> files = Files.list(dir)) {
+            // The kept segments plus at most one pre-allocated spare
+            assertTrue(files.filter(f -> f.getFileName().toString().endsWith(".dat")).count() <= maxSegments + 1);
+        }
+
+        assertTrue(log.locate("tx-0").isEmpty());
+        assertEquals(399, sequence(log.findTransaction("tx-399").join().orElseThrow()));
+        List<Integer> replayed = new ArrayList<>();
+        log.replay(entry -> replayed.add(sequence(entry)));
+        assertEquals(399, replayed.get(replayed.size() - 1));
+        assertTrue(replayed.size() < 400);
+
+        restart();
+        assertTrue(log.getStats().activeSegments() <= maxSegments + 1);
+        assertEquals(399, sequence(log.findTransaction("tx-399").join().orElseThrow()));
+        assertTrue(log.locate("tx-0").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Replay delivers records in log order from any position")
+    void testReplay() {
+        log = open();
+        write("a", "1");
+        write("b", "2");
+        restart();
+        MemoryMappedTransactionLog.LogPosition c = write("c", "3");
+        write("a", "4");
+
+        List<String> values = new ArrayList<>();
+        assertEquals(4L, log.replay(entry -> values.add(entry.id() + "=" + text(entry))));
+        assertEquals(List.of("a=1", "b=2", "c=3", "a=4"), values);
+
+        List<String> tail = new ArrayList<>();
+        assertEquals(2L, log.replay(c, entry -> tail.add(entry.id())));
+        assertEquals(List.of("c", "a"), tail);
+    }
+}
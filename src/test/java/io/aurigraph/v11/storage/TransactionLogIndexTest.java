@@ -0,0 +1,81 @@
+package io.aurigraph.v11.storage;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the transaction log's on-disk ID index
+ */
+public class TransactionLogIndexTest {
+
+    // 4096 slots per mapping, so small tables already span many chunks
+    private static final int CHUNK_SHIFT = 12;
+
+    @TempDir
+    Path dir;
+
+    private static long segmentOf(int i) {
+        return i / 1_000;
+    }
+
+    @Test
+    @DisplayName("Entries survive growth across chunk mappings and a clean restart")
+    void testGrowthAcrossChunks() throws Exception {
+        Path path = dir.resolve("index.idx");
+        int entries = 100_000;
+        try (TransactionLogIndex index = TransactionLogIndex.open(path, CHUNK_SHIFT)) {
+            for (int i = 0; i < entries; i++) {
+                index.put(TransactionLogIndex.hash("tx-" + i), segmentOf(i), i * 8L);
+            }
+            assertTrue(index.capacity() > entries);
+            assertEquals(entries, index.size());
+        }
+
+        try (TransactionLogIndex index = TransactionLogIndex.open(path, CHUNK_SHIFT)) {
+            assertTrue(index.wasClean());
+            for (int i = 0; i < entries; i += 997) {
+                long[][] found = index.lookup(TransactionLogIndex.hash("tx-" + i));
+                assertEquals(1, found.length, "tx-" + i);
+                assertArrayEquals(new long[] {segmentOf(i), i * 8L}, found[0]);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Entries of dropped segments are removed and the rest kept")
+    void testRemoveSegmentsBelow() throws Exception {
+        Path path = dir.resolve("index.idx");
+        try (TransactionLogIndex index = TransactionLogIndex.open(path, CHUNK_SHIFT)) {
+            for (int i = 0; i < 10_000; i++) {
+                index.put(TransactionLogIndex.hash("tx-" + i), segmentOf(i), i * 8L);
+            }
+            index.removeSegmentsBelow(7);
+
+            assertEquals(3_000, index.size());
+            assertEquals(0, index.lookup(TransactionLogIndex.hash("tx-6999")).length);
+            assertArrayEquals(new long[] {7, 7_000 * 8L}, index.lookup(TransactionLogIndex.hash("tx-7000"))[0]);
+
+            index.put(TransactionLogIndex.hash("tx-new"), 10, 0);
+            assertArrayEquals(new long[] {10, 0}, index.lookup(TransactionLogIndex.hash("tx-new"))[0]);
+        }
+    }
+
+    @Test
+    @DisplayName("An index marked incomplete is not trusted on the next open")
+    void testIncompleteIndexIsRebuilt() throws Exception {
+        Path path = dir.resolve("index.idx");
+        try (TransactionLogIndex index = TransactionLogIndex.open(path, CHUNK_SHIFT)) {
+            index.put(TransactionLogIndex.hash("tx-1"), 0, 0);
+            index.markIncomplete();
+        }
+        try (TransactionLogIndex index = TransactionLogIndex.open(path, CHUNK_SHIFT)) {
+            assertFalse(index.wasClean());
+            assertEquals(0, index.size());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.aurigraph.v11.storage;
+
+import java.nio.file.Path;
+
+/**
+ * Opens real MemoryMappedTransactionLog instances in a temporary directory
+ */
+public final class TransactionLogTestSupport {
+
+    private TransactionLogTestSupport() {
+    }
+
+    /**
+     * Open a log with 1MB segments under dir; the caller shuts it down
+     */
+    public static MemoryMappedTransactionLog open(Path dir) {
+        MemoryMappedTransactionLog log = new MemoryMappedTransactionLog();
+        log.logDirectory = dir.toString();
+        log.segmentSizeMB = 1;
+        log.maxSegments = 64;
+        log.bufferSize = 65536;
+        log.syncIntervalMs = 60_000;
+        log.initialize();
+        return log;
+    }
+
+    /**
+     * Shut a log down, as the container would
+     */
+    public static void close(MemoryMappedTransactionLog log) {
+        log.shutdown();
+    }
+}
@@ -0,0 +1,276 @@
+package io.aurigraph.v11.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the WebSocket fan-out engine
+ */
+public class WebSocketFanoutTest {
+
+    private final AtomicInteger serializations = new AtomicInteger();
+    private WebSocketFanout fanout;
+
+    /**
+     * Records what it is sent; while stalled, sends complete only through {@code stalledSend}
+     */
+    private static final class FakeConnection implements WebSocketFanout.Connection {
+        final String id;
+        final List<String> received = new CopyOnWriteArrayList<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        volatile boolean stalled;
+        volatile boolean open = true;
+        volatile int maxInFlight;
+        volatile Consumer<Throwable> stalledSend;
+
+        FakeConnection(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String id() {
+            return id;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void send(String text, Consumer<Throwable> done) {
+            maxInFlight = Math.max(maxInFlight, inFlight.incrementAndGet());
+            received.add(text);
+            if (!stalled) {
+                inFlight.decrementAndGet();
+                done.accept(null);
+            } else {
+                stalledSend = done;
+            }
+        }
+
+        @Override
+        public void close(String reason) {
+            open = false;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        fanout = new WebSocketFanout();
+        fanout.ringSize = 4;
+        fanout.writerThreads = 2;
+        fanout.objectMapper = new ObjectMapper() {
+            @Override
+            public String writeValueAsString(Object value) throws JsonProcessingException {
+                serializations.incrementAndGet();
+                return super.writeValueAsString(value);
+            }
+        };
+        fanout.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fanout.shutdown();
+    }
+
+    private FakeConnection connect(String id) {
+        FakeConnection connection = new FakeConnection(id);
+        fanout.register(connection);
+        return connection;
+    }
+
+    private static void awaitReceived(FakeConnection connection, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (connection.received.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertEquals(count, connection.received.size(), "frames received by " + connection.id);
+    }
+
+    @Test
+    @DisplayName("Filters route through the index and each event is serialized once")
+    void testIndexedRouting() throws Exception {
+        FakeConnection everything = connect("all");
+        FakeConnection alice = connect("alice");
+        FakeConnection both = connect("both");
+        FakeConnection token = connect("token");
+        fanout.subscribe("all", "transactions");
+        fanout.subscribe("alice", "transactions", WebSocketFanout.Filter.address("0xa"));
+        fanout.subscribe("both", "transactions", WebSocketFanout.Filter.address("0xa"), WebSocketFanout.Filter.address("0xb"));
+        fanout.subscribe("token", "transactions", WebSocketFanout.Filter.contract("0xc"));
+
+        assertEquals(3, fanout.publish("transactions", Map.of("tx", 1),
+            WebSocketFanout.Filter.address("0xa"), WebSocketFanout.Filter.address("0xb")));
+        assertEquals(1, serializations.get());
+        assertEquals(2, fanout.publish("transactions", Map.of("tx", 2),
+            WebSocketFanout.Filter.address("0xz"), WebSocketFanout.Filter.contract("0xc")));
+        assertEquals(0, fanout.publish("blocks", Map.of("block", 1)));
+        assertEquals(2, serializations.get(), "no serialization without a matching subscriber");
+
+        awaitReceived(everything, 2);
+        awaitReceived(alice, 1);
+        awaitReceived(both, 1);
+        awaitReceived(token, 1);
+        assertEquals("{\"tx\":1}", alice.received.get(0));
+        assertEquals("{\"tx\":2}", token.received.get(0));
+
+        fanout.unsubscribe("both", "transactions");
+        fanout.unregister("alice");
+        assertEquals(1, fanout.publish("transactions", "{}", WebSocketFanout.Filter.address("0xa")));
+    }
+
+    @Test
+    @DisplayName("A full ring applies the channel's slow-consumer policy")
+    void testSlowConsumerPolicies() throws Exception {
+        List<String> drops = new ArrayList<>();
+        fanout.setDropListener((id, channel, payload) -> drops.add(id + ":" + payload));
+        fanout.setChannelPolicy("newest", WebSocketFanout.SlowConsumerPolicy.DROP_NEWEST);
+        fanout.setChannelPolicy("metrics", WebSocketFanout.SlowConsumerPolicy.CONFLATE);
+        fanout.setChannelPolicy("strict", WebSocketFanout.SlowConsumerPolicy.DISCONNECT);
+
+        FakeConnection slow = connect("slow");
+        slow.stalled = true;
+        fanout.subscribe("slow", "oldest");
+        fanout.subscribe("slow", "newest");
+        fanout.subscribe("slow", "metrics");
+        fanout.subscribe("slow", "strict");
+
+        // The first frame goes in flight and stalls; four more fill the ring
+        fanout.publish("oldest", "o0");
+        awaitReceived(slow, 1);
+        for (int i = 1; i < 5; i++) {
+            fanout.publish("oldest", "o" + i);
+        }
+        assertEquals(4, fanout.getQueuedFrames("slow"));
+
+        fanout.publish("oldest", "o5");
+        assertEquals(List.of("slow:o1"), drops);
+        assertFalse(fanout.publish("newest", "n0") > 0);
+        assertEquals("slow:n0", drops.get(1));
+
+        assertEquals(0, fanout.publish("strict", "s0"));
+        assertFalse(slow.open);
+        assertFalse(fanout.isRegistered("slow"));
+        assertEquals(1, fanout.getStats().disconnected());
+
+        FakeConnection dashboard = connect("dashboard");
+        dashboard.stalled = true;
+        fanout.subscribe("dashboard", "metrics");
+        fanout.publish("metrics", "m0");
+        awaitReceived(dashboard, 1);
+        for (int i = 1; i < 100; i++) {
+            fanout.publish("metrics", "m" + i);
+        }
+        assertEquals(1, fanout.getQueuedFrames("dashboard"), "only the latest snapshot stays queued");
+        assertEquals(98, fanout.getStats().conflated());
+    }
+
+    @Test
+    @DisplayName("Frames still queued for a connection found closed go to the drop listener")
+    void testClosedConnectionHandsBackFrames() throws Exception {
+        List<String> drops = new CopyOnWriteArrayList<>();
+        fanout.setDropListener((id, channel, payload) -> drops.add(id + ":" + channel + ":" + payload));
+        FakeConnection gone = connect("gone");
+        gone.stalled = true;
+        fanout.subscribe("gone", "blocks");
+
+        fanout.publish("blocks", "b0");
+        awaitReceived(gone, 1);
+        fanout.publish("blocks", "b1");
+        fanout.publish("blocks", "b2");
+
+        // The client went away while b0 was in flight
+        gone.open = false;
+        gone.stalledSend.accept(new IllegalStateException("closed"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (drops.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertFalse(fanout.isRegistered("gone"));
+        assertEquals(List.of("gone:blocks:b1", "gone:blocks:b2"), drops);
+        assertEquals(0, fanout.publish("blocks", "b3"));
+        assertEquals(0, fanout.getStats().dropped(), "not a slow-consumer drop");
+    }
+
+    @Test
+    @DisplayName("Writers keep one send in flight and preserve order")
+    void testOrderedDelivery() throws Exception {
+        fanout.setChannelPolicy("blocks", WebSocketFanout.SlowConsumerPolicy.DROP_NEWEST);
+        FakeConnection connection = connect("c");
+        fanout.subscribe("c", "blocks");
+        int delivered = 0;
+        for (int i = 0; i < 1_000; i++) {
+            delivered += fanout.publish("blocks", Integer.toString(i));
+            if (i % 3 == 0) {
+                Thread.sleep(0, 1_000);
+            }
+        }
+        awaitReceived(connection, delivered);
+        assertEquals(1, connection.maxInFlight);
+        int previous = -1;
+        for (String frame : connection.received) {
+            int value = Integer.parseInt(frame);
+            assertTrue(value > previous);
+            previous = value;
+        }
+    }
+
+    @Test
+    @DisplayName("Conflated streams keep the latest state per key at the negotiated rate")
+    void testConflatedStream() throws Exception {
+        FakeConnection dashboard = connect("dashboard");
+        assertEquals(20, fanout.subscribeConflated("dashboard", "validators", 20));
+        assertEquals(100, fanout.subscribeConflated("dashboard", "consensus", 10_000), "capped at the limit");
+
+        long start = System.nanoTime();
+        List<String> validators = List.of("v1", "v2", "v3");
+        for (int round = 1; round <= 300; round++) {
+            for (String validator : validators) {
+                fanout.publishLatest("validators", validator, Map.of("validator", validator, "round", round));
+            }
+            assertTrue(fanout.getQueuedFrames("dashboard") <= validators.size());
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Long> lastSeq = new HashMap<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        int parsed = 0;
+        while (System.nanoTime() < deadline
+                && !(lastSeq.size() == 3 && lastSeq.values().stream().allMatch(seq -> seq == 300))) {
+            for (; parsed < dashboard.received.size(); parsed++) {
+                JsonNode frame = mapper.readTree(dashboard.received.get(parsed));
+                String key = frame.get("key").asText();
+                long seq = frame.get("seq").asLong();
+                assertEquals(seq, frame.get("round").asLong(), "the payload's own fields are kept");
+                assertTrue(seq > lastSeq.getOrDefault(key, 0L), "sequence numbers increase per key");
+                lastSeq.put(key, seq);
+            }
+            Thread.sleep(5);
+        }
+        assertEquals(Map.of("v1", 300L, "v2", 300L, "v3", 300L), lastSeq);
+
+        // One frame may go out at once, then one per 50 ms
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(dashboard.received.size() <= 2 + elapsedMillis / 50,
+            dashboard.received.size() + " frames in " + elapsedMillis + " ms");
+        assertTrue(fanout.getStats().conflated() > 800);
+    }
+}